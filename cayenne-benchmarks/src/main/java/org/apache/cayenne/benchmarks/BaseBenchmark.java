@@ -0,0 +1,127 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.benchmarks.persistent.Artist;
+import org.apache.cayenne.benchmarks.persistent.Painting;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A superclass of Cayenne benchmarks that starts a {@link ServerRuntime} over
+ * an in-memory HSQLDB database and seeds it with a fixed data set of
+ * {@value #ARTISTS} artists, each having {@value #PAINTINGS_PER_ARTIST}
+ * paintings. Artist names are zero-padded sequence numbers (e.g.
+ * "artist0042"), so subclasses can select a predictable number of rows with a
+ * qualifier built by {@link #nameBelow(int)}.
+ * <p>
+ * Each benchmark is reported both as throughput and as a sampled latency
+ * distribution (with percentiles). Use {@link BenchmarkRunner} to run the
+ * benchmarks with the GC profiler enabled to get allocation rates.
+ * 
+ * @since 4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public abstract class BaseBenchmark {
+
+	public static final int ARTISTS = 2000;
+	public static final int PAINTINGS_PER_ARTIST = 5;
+
+	private static final int SEED_BATCH_SIZE = 200;
+
+	protected ServerRuntime runtime;
+
+	@Setup(Level.Trial)
+	public void setUpRuntime() {
+		this.runtime = new ServerRuntime("cayenne-benchmarks.xml");
+		seed();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownRuntime() {
+		if (runtime != null) {
+			runtime.shutdown();
+			runtime = null;
+		}
+	}
+
+	protected ObjectContext newContext() {
+		return runtime.newContext();
+	}
+
+	protected static String artistName(int i) {
+		return String.format("artist%04d", i);
+	}
+
+	/**
+	 * Returns a name that is lexicographically greater than the names of the
+	 * first "count" artists and smaller than the rest.
+	 */
+	protected static String nameBelow(int count) {
+		return artistName(count);
+	}
+
+	private void seed() {
+
+		ObjectContext context = newContext();
+
+		for (int i = 0; i < ARTISTS; i++) {
+
+			Artist artist = context.newObject(Artist.class);
+			artist.setName(artistName(i));
+			artist.setDateOfBirth(new Date(i * 86400000l));
+
+			for (int j = 0; j < PAINTINGS_PER_ARTIST; j++) {
+				Painting painting = context.newObject(Painting.class);
+				painting.setTitle("painting" + i + "_" + j);
+				painting.setEstimatedPrice(new BigDecimal(i * 10 + j));
+				painting.setArtist(artist);
+			}
+
+			if ((i + 1) % SEED_BATCH_SIZE == 0) {
+				context.commitChanges();
+
+				// start with a clean context to avoid growing the object store
+				context = newContext();
+			}
+		}
+
+		context.commitChanges();
+	}
+}
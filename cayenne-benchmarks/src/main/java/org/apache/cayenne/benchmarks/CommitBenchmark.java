@@ -0,0 +1,96 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.benchmarks.persistent.Artist;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures {@link ObjectContext#commitChanges()} for inserts, updates and
+ * deletes going through DataDomainFlushAction. "objectsPerCommit" defines how
+ * many objects are modified in each commit.
+ * 
+ * @since 4.0
+ */
+public class CommitBenchmark extends BaseBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int objectsPerCommit;
+
+	private ObjectContext updateContext;
+	private List<Artist> updateTargets;
+	private long counter;
+
+	@Setup(Level.Trial)
+	public void setUpUpdateTargets() {
+		this.updateContext = newContext();
+		this.updateTargets = ObjectSelect.query(Artist.class).where(Artist.NAME.lt(nameBelow(objectsPerCommit)))
+				.select(updateContext);
+	}
+
+	/**
+	 * Inserts "objectsPerCommit" objects, then updates and deletes them,
+	 * committing after each step. This keeps the size of the database constant
+	 * between invocations.
+	 */
+	@Benchmark
+	public void insertUpdateDelete() {
+
+		ObjectContext context = newContext();
+		List<Artist> artists = new ArrayList<Artist>(objectsPerCommit);
+
+		for (int i = 0; i < objectsPerCommit; i++) {
+			Artist a = context.newObject(Artist.class);
+			a.setName("new" + i);
+			artists.add(a);
+		}
+		context.commitChanges();
+
+		for (Artist a : artists) {
+			a.setDateOfBirth(new Date());
+		}
+		context.commitChanges();
+
+		context.deleteObjects(artists);
+		context.commitChanges();
+	}
+
+	/**
+	 * Updates "objectsPerCommit" previously fetched objects.
+	 */
+	@Benchmark
+	public void update() {
+
+		Date date = new Date(counter++);
+		for (Artist a : updateTargets) {
+			a.setDateOfBirth(date);
+		}
+
+		updateContext.commitChanges();
+	}
+}
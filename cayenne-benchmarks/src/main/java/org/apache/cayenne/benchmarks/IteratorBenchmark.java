@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ResultBatchIterator;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.benchmarks.persistent.Artist;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures iterated fetches via {@link ObjectContext#iterator} and
+ * {@link ObjectContext#batchIterator}.
+ * 
+ * @since 4.0
+ */
+public class IteratorBenchmark extends BaseBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Param({ "100", "1000" })
+	public int resultSize;
+
+	@Benchmark
+	public void iterator(Blackhole blackhole) {
+
+		ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).where(Artist.NAME.lt(nameBelow(resultSize)));
+		ResultIterator<Artist> it = newContext().iterator(query);
+		try {
+			for (Artist a : it) {
+				blackhole.consume(a);
+			}
+		} finally {
+			it.close();
+		}
+	}
+
+	@Benchmark
+	public void batchIterator(Blackhole blackhole) {
+
+		ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).where(Artist.NAME.lt(nameBelow(resultSize)));
+		ResultBatchIterator<Artist> it = newContext().batchIterator(query, BATCH_SIZE);
+		try {
+			while (it.hasNext()) {
+				blackhole.consume(it.next());
+			}
+		} finally {
+			it.close();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.util.List;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.benchmarks.persistent.Artist;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures {@link ObjectSelect#select(org.apache.cayenne.ObjectContext)}
+ * fetching persistent objects and DataRows at several result sizes. Each
+ * invocation uses a fresh context, so the cost of object registration is
+ * included.
+ * 
+ * @since 4.0
+ */
+public class ObjectSelectBenchmark extends BaseBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	public int resultSize;
+
+	@Benchmark
+	public List<Artist> selectObjects() {
+		return ObjectSelect.query(Artist.class).where(Artist.NAME.lt(nameBelow(resultSize))).select(newContext());
+	}
+
+	@Benchmark
+	public List<DataRow> selectDataRows() {
+		return ObjectSelect.dataRowQuery(Artist.class).where(Artist.NAME.lt(nameBelow(resultSize)))
+				.select(newContext());
+	}
+}
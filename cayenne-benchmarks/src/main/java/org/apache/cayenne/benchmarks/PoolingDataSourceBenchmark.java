@@ -0,0 +1,92 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.PoolingDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares connection checkout and return between the queue-based and the
+ * concurrent connection pools under a large number of threads. The number of
+ * threads can be changed with the standard JMH "-t" option.
+ * 
+ * @since 4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(200)
+public class PoolingDataSourceBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean concurrentPool;
+
+	@Param({ "20" })
+	public int maxConnections;
+
+	// simulated work done while holding a connection
+	@Param({ "0", "100" })
+	public long holdTokens;
+
+	private PoolingDataSource dataSource;
+
+	@Setup(Level.Trial)
+	public void setUpDataSource() {
+		this.dataSource = DataSourceBuilder.url("jdbc:hsqldb:mem:pool").driver("org.hsqldb.jdbcDriver")
+				.userName("sa").pool(maxConnections, maxConnections).maxQueueWaitTime(60000)
+				.concurrentPool(concurrentPool).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownDataSource() throws Exception {
+		dataSource.close();
+	}
+
+	@Benchmark
+	public void checkoutAndReturn() throws SQLException {
+		Connection c = dataSource.getConnection();
+		try {
+			Blackhole.consumeCPU(holdTokens);
+		} finally {
+			c.close();
+		}
+	}
+}
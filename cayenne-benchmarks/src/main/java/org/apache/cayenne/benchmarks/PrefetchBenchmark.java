@@ -0,0 +1,67 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.util.List;
+
+import org.apache.cayenne.benchmarks.persistent.Artist;
+import org.apache.cayenne.benchmarks.persistent.Painting;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures to-many and to-one prefetching resolved by
+ * HierarchicalObjectResolver, for each of the prefetch semantics.
+ * 
+ * @since 4.0
+ */
+public class PrefetchBenchmark extends BaseBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int artists;
+
+	@Param({ "JOINT", "DISJOINT", "DISJOINT_BY_ID" })
+	public String semantics;
+
+	private int prefetchSemantics() {
+		if ("JOINT".equals(semantics)) {
+			return PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS;
+		} else if ("DISJOINT".equals(semantics)) {
+			return PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
+		} else if ("DISJOINT_BY_ID".equals(semantics)) {
+			return PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS;
+		}
+
+		throw new IllegalArgumentException("Unknown prefetch semantics: " + semantics);
+	}
+
+	@Benchmark
+	public List<Artist> toManyPrefetch() {
+		return ObjectSelect.query(Artist.class).where(Artist.NAME.lt(nameBelow(artists)))
+				.prefetch(Artist.PAINTINGS.getName(), prefetchSemantics()).select(newContext());
+	}
+
+	@Benchmark
+	public List<Painting> toOnePrefetch() {
+		return ObjectSelect.query(Painting.class).where(Painting.ARTIST.dot(Artist.NAME).lt(nameBelow(artists)))
+				.prefetch(Painting.ARTIST.getName(), prefetchSemantics()).select(newContext());
+	}
+}
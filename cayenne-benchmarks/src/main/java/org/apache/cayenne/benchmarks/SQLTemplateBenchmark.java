@@ -0,0 +1,88 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.access.jdbc.SQLStatement;
+import org.apache.cayenne.velocity.VelocitySQLTemplateProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures SQLTemplate rendering with and without the parsed template cache
+ * of {@link VelocitySQLTemplateProcessor}, using typical #bind and #chain
+ * templates.
+ * 
+ * @since 4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SQLTemplateBenchmark {
+
+	static final String BIND_TEMPLATE = "SELECT t0.ARTIST_ID, t0.ARTIST_NAME, t0.DATE_OF_BIRTH FROM ARTIST t0 "
+			+ "WHERE t0.ARTIST_NAME = #bind($name 'VARCHAR') AND t0.DATE_OF_BIRTH > #bind($dob 'DATE') "
+			+ "ORDER BY t0.ARTIST_NAME";
+
+	static final String CHAIN_TEMPLATE = "SELECT t0.ARTIST_ID, t0.ARTIST_NAME FROM ARTIST t0 #chain('AND' 'WHERE') "
+			+ "#chunk($name) t0.ARTIST_NAME LIKE #bind($name 'VARCHAR') #end "
+			+ "#chunk($id) t0.ARTIST_ID = #bind($id 'INTEGER') #end "
+			+ "#chunk($missing) t0.DATE_OF_BIRTH = #bind($missing 'DATE') #end #end";
+
+	// 0 disables the cache
+	@Param({ "0", "500" })
+	public int cacheSize;
+
+	private VelocitySQLTemplateProcessor processor;
+	private Map<String, Object> parameters;
+
+	@Setup
+	public void setUp() {
+		this.processor = new VelocitySQLTemplateProcessor(cacheSize);
+		this.parameters = new HashMap<String, Object>();
+		parameters.put("name", "a%");
+		parameters.put("id", 5);
+		parameters.put("dob", new java.sql.Date(0));
+	}
+
+	@Benchmark
+	public SQLStatement bind() {
+		return processor.processTemplate(BIND_TEMPLATE, parameters);
+	}
+
+	@Benchmark
+	public SQLStatement chain() {
+		return processor.processTemplate(CHAIN_TEMPLATE, parameters);
+	}
+}
@@ -0,0 +1,193 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.java8.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.ResultIteratorCallback;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.query.Select;
+
+/**
+ * Runs selects asynchronously, returning {@link CompletableFuture} instead of
+ * blocking the calling thread. Works with any {@link Select}, such as
+ * ObjectSelect or SQLSelect. E.g.:
+ * 
+ * <pre>
+ * CompletableFuture&lt;List&lt;Artist&gt;&gt; artists = AsyncQueries.selectAsync(ObjectSelect.query(Artist.class), context);
+ * CompletableFuture&lt;List&lt;DataRow&gt;&gt; rows = AsyncQueries.selectAsync(SQLSelect.dataRowQuery(&quot;...&quot;), context);
+ * </pre>
+ * <p>
+ * Queries run on the executor bound in DI under
+ * {@link Constants#SERVER_ASYNC_EXECUTOR}, unless an explicit executor is
+ * passed. That executor is bounded, so the number of queries running at once
+ * doesn't exceed its thread count, and each running query holds a single
+ * DataNode connection. Queries that can't be queued complete exceptionally
+ * with {@link RejectedExecutionException}.
+ * <p>
+ * Each query runs in a dedicated context created by
+ * {@link DataDomain#createAsyncContext()}, so the calling context is not used
+ * by the executor thread while the query runs. When the query completes, the
+ * fetched objects are transferred to the calling context with
+ * {@link ObjectContext#localObject(Persistent)}. Queries run outside of any
+ * transaction of the calling thread.
+ * 
+ * @since 4.0
+ */
+public final class AsyncQueries {
+
+    private AsyncQueries() {
+    }
+
+    public static <T> CompletableFuture<List<T>> selectAsync(Select<T> query, ObjectContext context) {
+        return selectAsync(query, context, executor(context));
+    }
+
+    public static <T> CompletableFuture<List<T>> selectAsync(Select<T> query, ObjectContext context,
+            Executor executor) {
+        return supply(() -> localizeAll(context, asyncContext(context).select(query)), executor);
+    }
+
+    /**
+     * Selects a single object. The future completes exceptionally if the
+     * query matched more than one object.
+     */
+    public static <T> CompletableFuture<T> selectOneAsync(Select<T> query, ObjectContext context) {
+        return selectOneAsync(query, context, executor(context));
+    }
+
+    public static <T> CompletableFuture<T> selectOneAsync(Select<T> query, ObjectContext context, Executor executor) {
+        return supply(() -> localize(context, asyncContext(context).selectOne(query)), executor);
+    }
+
+    /**
+     * Selects the first object matched by the query.
+     */
+    public static <T> CompletableFuture<T> selectFirstAsync(Select<T> query, ObjectContext context) {
+        return selectFirstAsync(query, context, executor(context));
+    }
+
+    public static <T> CompletableFuture<T> selectFirstAsync(Select<T> query, ObjectContext context,
+            Executor executor) {
+        return supply(() -> localize(context, asyncContext(context).selectFirst(query)), executor);
+    }
+
+    /**
+     * Iterates over the query result on the executor thread, passing each
+     * object to the callback. The future completes when iteration is over.
+     * Objects passed to the callback belong to the dedicated query context,
+     * not to the calling context.
+     */
+    public static <T> CompletableFuture<Void> iterateAsync(Select<T> query, ObjectContext context,
+            ResultIteratorCallback<T> callback) {
+        return iterateAsync(query, context, callback, executor(context));
+    }
+
+    public static <T> CompletableFuture<Void> iterateAsync(Select<T> query, ObjectContext context,
+            ResultIteratorCallback<T> callback, Executor executor) {
+        return supply(() -> {
+            asyncContext(context).iterate(query, callback);
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Returns the async executor of the DataDomain the context is attached
+     * to.
+     */
+    public static Executor executor(ObjectContext context) {
+
+        DataDomain domain = domain(context);
+        if (domain.getAsyncExecutor() == null) {
+            throw new CayenneRuntimeException("No async executor is configured for context: %s", context);
+        }
+
+        return domain.getAsyncExecutor();
+    }
+
+    private static DataDomain domain(ObjectContext context) {
+
+        if (!(context instanceof DataContext)) {
+            throw new CayenneRuntimeException("Can't locate DataDomain for context: %s", context);
+        }
+
+        DataDomain domain = ((DataContext) context).getParentDataDomain();
+        if (domain == null) {
+            throw new CayenneRuntimeException("Context is not attached to a DataDomain: %s", context);
+        }
+
+        return domain;
+    }
+
+    private static ObjectContext asyncContext(ObjectContext context) {
+        return domain(context).createAsyncContext();
+    }
+
+    private static <T> List<T> localizeAll(ObjectContext context, List<T> results) {
+        List<T> localResults = new ArrayList<>(results.size());
+        for (T result : results) {
+            localResults.add(localize(context, result));
+        }
+        return localResults;
+    }
+
+    /**
+     * Transfers a fetched object to the calling context. Column query rows
+     * are copied with their objects transferred. DataRows and scalars are
+     * returned as is.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T localize(ObjectContext context, T result) {
+
+        if (result instanceof Persistent) {
+            return (T) context.localObject((Persistent) result);
+        }
+
+        if (result instanceof Object[]) {
+            Object[] row = (Object[]) result;
+            Object[] localRow = new Object[row.length];
+            for (int i = 0; i < row.length; i++) {
+                localRow[i] = localize(context, row[i]);
+            }
+            return (T) localRow;
+        }
+
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> supply(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.java8.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.java8.RuntimeBase;
+import org.apache.cayenne.java8.db.LocalDateTestEntity;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SQLSelect;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncQueriesIT extends RuntimeBase {
+
+	private ObjectContext context;
+
+	@Before
+	public void before() {
+		context = runtime.newContext();
+		deleteAll();
+
+		for (int i = 0; i < 3; i++) {
+			context.newObject(LocalDateTestEntity.class).setDate(LocalDate.of(2016, 1, i + 1));
+		}
+		context.commitChanges();
+	}
+
+	@After
+	public void after() {
+		deleteAll();
+	}
+
+	@Test
+	public void testSelectAsync() throws Exception {
+
+		// a context that has none of the objects yet
+		ObjectContext caller = runtime.newContext();
+
+		CompletableFuture<List<LocalDateTestEntity>> objects = AsyncQueries.selectAsync(
+				ObjectSelect.query(LocalDateTestEntity.class), caller);
+		CompletableFuture<List<DataRow>> rows = AsyncQueries.selectAsync(
+				SQLSelect.dataRowQuery("SELECT * FROM LOCAL_DATE_TEST"), caller);
+
+		assertEquals(3, objects.get(10, TimeUnit.SECONDS).size());
+		assertEquals(3, rows.get(10, TimeUnit.SECONDS).size());
+
+		// objects are fetched in a dedicated context and transferred to the
+		// calling context
+		for (LocalDateTestEntity o : objects.get()) {
+			assertSame(caller, o.getObjectContext());
+			assertEquals(PersistenceState.HOLLOW, o.getPersistenceState());
+			assertNotNull(o.getDate());
+		}
+	}
+
+	@Test
+	public void testSelectOneAsync() throws Exception {
+		LocalDateTestEntity o = AsyncQueries.selectOneAsync(
+				ObjectSelect.query(LocalDateTestEntity.class, LocalDateTestEntity.DATE.eq(LocalDate.of(2016, 1, 2))),
+				context).get(10, TimeUnit.SECONDS);
+		assertEquals(LocalDate.of(2016, 1, 2), o.getDate());
+
+		try {
+			AsyncQueries.selectOneAsync(ObjectSelect.query(LocalDateTestEntity.class), context).get(10,
+					TimeUnit.SECONDS);
+			fail("More than one object matched, must have failed");
+		} catch (ExecutionException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testSelectFirstAsync() throws Exception {
+		LocalDateTestEntity o = AsyncQueries.selectFirstAsync(
+				ObjectSelect.query(LocalDateTestEntity.class).orderBy(LocalDateTestEntity.DATE.desc()), context).get(
+				10, TimeUnit.SECONDS);
+		assertEquals(LocalDate.of(2016, 1, 3), o.getDate());
+	}
+
+	@Test
+	public void testIterateAsync() throws Exception {
+		final List<LocalDate> dates = Collections.synchronizedList(new ArrayList<>());
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+		AsyncQueries.iterateAsync(ObjectSelect.query(LocalDateTestEntity.class), context, o -> {
+			dates.add(o.getDate());
+			threads.add(Thread.currentThread());
+		}).get(10, TimeUnit.SECONDS);
+
+		assertEquals(3, dates.size());
+		assertNotSame(Thread.currentThread(), threads.get(0));
+		assertTrue(threads.get(0).getName().startsWith("cayenne-async-"));
+	}
+
+	private void deleteAll() {
+		context.performGenericQuery(new SQLTemplate(LocalDateTestEntity.class, "DELETE FROM LOCAL_DATE_TEST"));
+	}
+}
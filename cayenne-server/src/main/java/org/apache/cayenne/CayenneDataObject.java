@@ -63,6 +63,27 @@ public class CayenneDataObject extends PersistentObject implements DataObject, V
         }
     }
 
+    /**
+     * Switches this object to store its property values in an array indexed
+     * via a per-entity slot table instead of a HashMap. Values already set on
+     * the object are preserved. Properties that are not in the slot table can
+     * still be stored, at the cost of switching back to the HashMap storage.
+     * Called by the ClassDescriptor right after the object is instantiated.
+     *
+     * @since 4.0
+     */
+    public void setPropertySlots(PropertySlots slots) {
+        if (values instanceof PropertySlotMap && ((PropertySlotMap) values).getSlots() == slots) {
+            return;
+        }
+
+        Map<String, Object> slotValues = new PropertySlotMap(slots);
+        if (!values.isEmpty()) {
+            slotValues.putAll(values);
+        }
+        this.values = slotValues;
+    }
+
     /**
      * Returns a value of the property identified by a property path. Supports
      * reading both mapped and unmapped properties. Unmapped properties are
@@ -19,8 +19,15 @@
 
 package org.apache.cayenne;
 
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cayenne.map.DbRelationship;
@@ -31,15 +38,30 @@ import org.apache.cayenne.util.Util;
  * DataRow a map that holds values retrieved from the database for a given query row.
  * DataRows are used to cache raw database data and as a reference point for tracking
  * DataObject changes.
+ * <p>
+ * Since 4.0 a DataRow can store its values in an array, indexed via a
+ * {@link DataRowLayout} shared between many rows. Such rows are created by
+ * Cayenne when reading query results. Putting a key that is not a part of the
+ * layout switches the row to a regular hash map storage.
  * 
  * @since 1.1
  */
-public class DataRow extends HashMap<String, Object> {
+public class DataRow extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = -6834463006447937335L;
 
     // make sure the starting value is different from DataObject default version value
     private static AtomicLong currentVersion = new AtomicLong(
             DataObject.DEFAULT_VERSION + 1);
 
+    /**
+     * A marker of a missing value in the array storage. An enum, so that it
+     * survives serialization.
+     */
+    private enum Absent {
+        VALUE
+    }
+
     protected long version = currentVersion.getAndIncrement();
     protected long replacesVersion = DataObject.DEFAULT_VERSION;
 
@@ -48,12 +70,53 @@ public class DataRow extends HashMap<String, Object> {
      */
     protected String entityName;
 
+    // values are stored either in a map, or in an array indexed via a layout
+    private Map<String, Object> map;
+    private DataRowLayout layout;
+    private Object[] values;
+    private int size;
+
     public DataRow(Map<String, ?> map) {
-        super(map);
+        if (map instanceof DataRow && ((DataRow) map).layout != null) {
+            DataRow row = (DataRow) map;
+            this.layout = row.layout;
+            this.values = row.values.clone();
+            this.size = row.size;
+        } else {
+            this.map = new HashMap<String, Object>(map);
+        }
     }
 
     public DataRow(int initialCapacity) {
-        super(initialCapacity);
+        this.map = new HashMap<String, Object>(initialCapacity);
+    }
+
+    /**
+     * Creates an empty DataRow that stores its values in an array.
+     * 
+     * @since 4.0
+     */
+    public DataRow(DataRowLayout layout) {
+        this.layout = layout;
+        this.values = new Object[layout.size()];
+        Arrays.fill(values, Absent.VALUE);
+    }
+
+    /**
+     * Creates a DataRow that stores its values in the provided array, with a
+     * value for each slot of the layout. The array is not copied and must not
+     * be modified by the caller afterwards.
+     * 
+     * @since 4.0
+     */
+    public DataRow(DataRowLayout layout, Object[] values) {
+        if (values.length != layout.size()) {
+            throw new IllegalArgumentException("Expected " + layout.size() + " values, got " + values.length);
+        }
+
+        this.layout = layout;
+        this.values = values;
+        this.size = values.length;
     }
 
     public long getVersion() {
@@ -71,6 +134,154 @@ public class DataRow extends HashMap<String, Object> {
         this.replacesVersion = replacesVersion;
     }
 
+    /**
+     * Switches this row to the array storage with a given layout, provided the
+     * layout contains all the keys of this row. Returns true if the row uses
+     * array storage after this call.
+     * 
+     * @since 4.0
+     */
+    public boolean compact(DataRowLayout layout) {
+        if (map == null) {
+            return true;
+        }
+
+        if (!layout.containsKeys(map.keySet())) {
+            return false;
+        }
+
+        Object[] values = new Object[layout.size()];
+        Arrays.fill(values, Absent.VALUE);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            values[layout.getSlot(entry.getKey())] = entry.getValue();
+        }
+
+        this.layout = layout;
+        this.values = values;
+        this.size = map.size();
+        this.map = null;
+        return true;
+    }
+
+    /**
+     * Returns true if this row stores its values in an array.
+     * 
+     * @since 4.0
+     */
+    public boolean isCompact() {
+        return map == null;
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (map != null) {
+            return map.containsKey(key);
+        }
+
+        int slot = layout.getSlot(key);
+        return slot >= 0 && values[slot] != Absent.VALUE;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+
+        int slot = layout.getSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        Object value = values[slot];
+        return value != Absent.VALUE ? value : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (map == null) {
+            int slot = layout.getSlot(key);
+            if (slot >= 0) {
+                Object old = values[slot];
+                values[slot] = value;
+
+                if (old == Absent.VALUE) {
+                    size++;
+                    return null;
+                }
+
+                return old;
+            }
+
+            inflate();
+        }
+
+        return map.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (map != null) {
+            return map.remove(key);
+        }
+
+        int slot = layout.getSlot(key);
+        return slot >= 0 ? removeSlot(slot) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        } else {
+            Arrays.fill(values, Absent.VALUE);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return map != null ? map.entrySet() : new SlotEntrySet();
+    }
+
+    private Object removeSlot(int slot) {
+        Object old = values[slot];
+        if (old == Absent.VALUE) {
+            return null;
+        }
+
+        values[slot] = Absent.VALUE;
+        size--;
+        return old;
+    }
+
+    /**
+     * Switches from the array storage to a HashMap.
+     */
+    private void inflate() {
+        Map<String, Object> map = new HashMap<String, Object>((int) Math.ceil((size + 1) / 0.75));
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != Absent.VALUE) {
+                map.put(layout.getKey(i), values[i]);
+            }
+        }
+
+        this.map = map;
+        this.layout = null;
+        this.values = null;
+        this.size = 0;
+    }
+
     /**
      * Builds a new DataRow, merging changes from <code>diff</code> parameter with data
      * contained in this DataRow.
@@ -149,4 +360,112 @@ public class DataRow extends HashMap<String, Object> {
     public void setEntityName(String entityName) {
         this.entityName = entityName;
     }
+
+    private class SlotEntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new SlotEntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return DataRow.this.size();
+        }
+    }
+
+    private class SlotEntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+
+        SlotEntryIterator() {
+            this.next = nextSlot(0);
+        }
+
+        private int nextSlot(int from) {
+            Object[] values = DataRow.this.values;
+            int len = values != null ? values.length : 0;
+            for (int i = from; i < len; i++) {
+                if (values[i] != Absent.VALUE) {
+                    return i;
+                }
+            }
+
+            return len;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return values != null && next < values.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next = nextSlot(next + 1);
+            return new SlotEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || values == null) {
+                throw new IllegalStateException();
+            }
+
+            removeSlot(last);
+            last = -1;
+        }
+    }
+
+    private class SlotEntry implements Map.Entry<String, Object> {
+
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return layout.getKey(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[slot];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[slot];
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return Util.nullSafeEquals(getKey(), entry.getKey()) && Util.nullSafeEquals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value != null ? value.hashCode() : 0);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable mapping of DataRow keys to positions in an array of values. A
+ * single layout is normally shared by all DataRows read by a given query, so
+ * that each row only stores an array of values instead of a hash table.
+ * 
+ * @since 4.0
+ */
+public final class DataRowLayout implements Serializable {
+
+    private static final long serialVersionUID = -4238384163624347342L;
+
+    private final String[] keys;
+    private final Map<String, Integer> slots;
+
+    /**
+     * Creates a layout for a set of keys. Duplicate keys share a single slot.
+     */
+    public DataRowLayout(String... keys) {
+        this(Arrays.asList(keys));
+    }
+
+    /**
+     * Creates a layout for a set of keys. Duplicate keys share a single slot.
+     */
+    public DataRowLayout(Collection<String> keys) {
+        List<String> uniqueKeys = new ArrayList<String>(keys.size());
+        this.slots = new HashMap<String, Integer>((int) Math.ceil(keys.size() / 0.75));
+
+        for (String key : keys) {
+            if (!slots.containsKey(key)) {
+                slots.put(key, uniqueKeys.size());
+                uniqueKeys.add(key);
+            }
+        }
+
+        this.keys = uniqueKeys.toArray(new String[uniqueKeys.size()]);
+    }
+
+    /**
+     * Returns a position of the key in the values array or -1 if the key is
+     * not a part of this layout.
+     */
+    public int getSlot(Object key) {
+        Integer slot = slots.get(key);
+        return slot != null ? slot.intValue() : -1;
+    }
+
+    /**
+     * Returns a key stored at a given position.
+     */
+    public String getKey(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns true if all the keys in the collection are a part of this
+     * layout.
+     */
+    public boolean containsKeys(Collection<?> keys) {
+        return slots.keySet().containsAll(keys);
+    }
+
+    /**
+     * Returns the number of slots in this layout.
+     */
+    public int size() {
+        return keys.length;
+    }
+}
@@ -193,6 +193,21 @@ public class ObjectId implements Serializable {
 
         ObjectId id = (ObjectId) object;
 
+        // hash codes are cached, so comparing them is cheaper than comparing the
+        // values if both are already calculated
+        if (hashCode != 0 && id.hashCode != 0 && hashCode != id.hashCode) {
+            return false;
+        }
+
+        // fast path for the most common case of a single numeric PK - compare
+        // the values first as they are the most likely to differ
+        if (key == null && singleKey != null && singleValue instanceof Number) {
+            return id.singleValue instanceof Number
+                    && ((Number) singleValue).longValue() == ((Number) id.singleValue).longValue()
+                    && Util.nullSafeEquals(entityName, id.entityName)
+                    && singleKey.equals(id.singleKey);
+        }
+
         if (!Util.nullSafeEquals(entityName, id.entityName)) {
             return false;
         }
@@ -258,6 +273,10 @@ public class ObjectId implements Serializable {
     @Override
     public int hashCode() {
 
+        if (this.hashCode == 0 && key == null && singleKey != null && singleValue instanceof Number) {
+            this.hashCode = numericHashCode();
+        }
+
         if (this.hashCode == 0) {
 
             HashCodeBuilder builder = new HashCodeBuilder(3, 5);
@@ -268,14 +287,7 @@ public class ObjectId implements Serializable {
             }
             else if (singleKey != null) {
                 builder.append(singleKey.hashCode());
-
-                // must reconcile all possible numeric types
-                if (singleValue instanceof Number) {
-                    builder.append(((Number) singleValue).longValue());
-                }
-                else {
-                    builder.append(singleValue);
-                }
+                builder.append(singleValue);
             }
             else if (objectIdKeys != null) {
                 int len = objectIdKeys.size();
@@ -311,6 +323,20 @@ public class ObjectId implements Serializable {
         return hashCode;
     }
 
+    /**
+     * Calculates a hash code of an id with a single numeric value without the
+     * overhead of HashCodeBuilder. All numeric types are reconciled via their long
+     * value, same as in equals().
+     */
+    private int numericHashCode() {
+        long value = ((Number) singleValue).longValue();
+        int hash = 31 * (31 * entityName.hashCode() + singleKey.hashCode())
+                + (int) (value ^ (value >>> 32));
+
+        // zero means "not calculated"
+        return hash != 0 ? hash : 1;
+    }
+
     /**
      * Returns a non-null mutable map that can be used to append replacement id values.
      * This allows to incrementally build a replacement GlobalID.
@@ -331,6 +357,14 @@ public class ObjectId implements Serializable {
      * @since 1.2
      */
     public ObjectId createReplacementId() {
+
+        // single column PK of a new object, the most common case - skip building the
+        // id map
+        if (isTemporary() && replacementIdMap != null && replacementIdMap.size() == 1) {
+            Map.Entry<String, Object> e = replacementIdMap.entrySet().iterator().next();
+            return new ObjectId(entityName, e.getKey(), e.getValue());
+        }
+
         // merge existing and replaced ids to handle a replaced subset of
         // a compound primary key
         Map<String, Object> newIdMap = new HashMap<String, Object>(getIdSnapshot());
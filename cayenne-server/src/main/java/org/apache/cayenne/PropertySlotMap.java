@@ -0,0 +1,282 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.cayenne.util.Util;
+
+/**
+ * A map of {@link CayenneDataObject} property values that stores the values in
+ * an array indexed via a shared {@link PropertySlots} table. Putting a property
+ * that has no slot switches the map to a HashMap storage.
+ * 
+ * @since 4.0
+ */
+class PropertySlotMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = -1447233458441853537L;
+
+    /**
+     * A marker of a missing value. An enum, so that it survives
+     * serialization.
+     */
+    private enum Absent {
+        VALUE
+    }
+
+    private PropertySlots slots;
+    private Object[] values;
+    private int size;
+
+    // not null only after switching to the HashMap storage
+    private Map<String, Object> map;
+
+    PropertySlotMap(PropertySlots slots) {
+        this.slots = slots;
+        this.values = new Object[slots.size()];
+        Arrays.fill(values, Absent.VALUE);
+    }
+
+    PropertySlots getSlots() {
+        return slots;
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (map != null) {
+            return map.containsKey(key);
+        }
+
+        int slot = slots.getSlot(key);
+        return slot >= 0 && values[slot] != Absent.VALUE;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+
+        int slot = slots.getSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        Object value = values[slot];
+        return value != Absent.VALUE ? value : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (map == null) {
+            int slot = slots.getSlot(key);
+            if (slot >= 0) {
+                Object old = values[slot];
+                values[slot] = value;
+
+                if (old == Absent.VALUE) {
+                    size++;
+                    return null;
+                }
+
+                return old;
+            }
+
+            inflate();
+        }
+
+        return map.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (map != null) {
+            return map.remove(key);
+        }
+
+        int slot = slots.getSlot(key);
+        return slot >= 0 ? removeSlot(slot) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        } else {
+            Arrays.fill(values, Absent.VALUE);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return map != null ? map.entrySet() : new SlotEntrySet();
+    }
+
+    private Object removeSlot(int slot) {
+        Object old = values[slot];
+        if (old == Absent.VALUE) {
+            return null;
+        }
+
+        values[slot] = Absent.VALUE;
+        size--;
+        return old;
+    }
+
+    private void inflate() {
+        Map<String, Object> map = new HashMap<String, Object>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != Absent.VALUE) {
+                map.put(slots.getName(i), values[i]);
+            }
+        }
+
+        this.map = map;
+        this.values = null;
+        this.size = 0;
+    }
+
+    private class SlotEntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new SlotEntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return PropertySlotMap.this.size();
+        }
+    }
+
+    private class SlotEntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+
+        SlotEntryIterator() {
+            this.next = nextSlot(0);
+        }
+
+        private int nextSlot(int from) {
+            Object[] values = PropertySlotMap.this.values;
+            int len = values != null ? values.length : 0;
+            for (int i = from; i < len; i++) {
+                if (values[i] != Absent.VALUE) {
+                    return i;
+                }
+            }
+
+            return len;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return values != null && next < values.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next = nextSlot(next + 1);
+            return new SlotEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || values == null) {
+                throw new IllegalStateException();
+            }
+
+            removeSlot(last);
+            last = -1;
+        }
+    }
+
+    private class SlotEntry implements Map.Entry<String, Object> {
+
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return slots.getName(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[slot];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[slot];
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return Util.nullSafeEquals(getKey(), entry.getKey()) && Util.nullSafeEquals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value != null ? value.hashCode() : 0);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
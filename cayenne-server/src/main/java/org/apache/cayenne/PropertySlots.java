@@ -0,0 +1,82 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable per-entity table of property names to positions in an array of
+ * property values. Used by {@link CayenneDataObject} to store its values in an
+ * array instead of a HashMap.
+ * 
+ * @since 4.0
+ */
+public final class PropertySlots implements Serializable {
+
+    private static final long serialVersionUID = 2870264925633434561L;
+
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    /**
+     * Creates a slot table for a collection of property names. Duplicate names
+     * share a single slot.
+     */
+    public PropertySlots(Collection<String> names) {
+        List<String> uniqueNames = new ArrayList<String>(names.size());
+        this.slots = new HashMap<String, Integer>((int) Math.ceil(names.size() / 0.75));
+
+        for (String name : names) {
+            if (!slots.containsKey(name)) {
+                slots.put(name, uniqueNames.size());
+                uniqueNames.add(name);
+            }
+        }
+
+        this.names = uniqueNames.toArray(new String[uniqueNames.size()]);
+    }
+
+    /**
+     * Returns a position of the property value or -1 if the property has no
+     * slot in this table.
+     */
+    public int getSlot(Object name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot.intValue() : -1;
+    }
+
+    /**
+     * Returns a name of the property stored at a given position.
+     */
+    public String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Returns the number of slots in this table.
+     */
+    public int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,178 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list of unresolved ids and resolved objects used as a backing store of
+ * {@link SimpleIdIncrementalFaultList}. Integer or Long ids are kept in a
+ * primitive array and boxed on read, so a large paginated list does not hold a
+ * wrapper object per row. Resolved objects and ids of any other type are kept
+ * in a parallel object array.
+ * 
+ * @since 4.0
+ */
+class CompactIdList extends AbstractList<Object> implements RandomAccess, Serializable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final int NO_TYPE = 0;
+    private static final int INT_TYPE = 1;
+    private static final int LONG_TYPE = 2;
+
+    /**
+     * Stands for a null element, as nulls in the objects array denote a
+     * primitive id.
+     */
+    private enum NullElement {
+        INSTANCE
+    }
+
+    private long[] ids;
+    private Object[] objects;
+    private int idType;
+    private int size;
+
+    CompactIdList() {
+        this.ids = new long[DEFAULT_CAPACITY];
+        this.objects = new Object[DEFAULT_CAPACITY];
+        this.idType = NO_TYPE;
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+        return elementAt(index);
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        checkIndex(index);
+        Object old = elementAt(index);
+        store(index, element);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        ensureCapacity(size + 1);
+
+        if (index < size) {
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(objects, index, objects, index + 1, size - index);
+        }
+
+        size++;
+        modCount++;
+        store(index, element);
+    }
+
+    @Override
+    public Object remove(int index) {
+        checkIndex(index);
+        Object old = elementAt(index);
+
+        int tail = size - index - 1;
+        if (tail > 0) {
+            System.arraycopy(ids, index + 1, ids, index, tail);
+            System.arraycopy(objects, index + 1, objects, index, tail);
+        }
+
+        objects[--size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Object elementAt(int index) {
+        Object object = objects[index];
+        if (object == null) {
+            // not using a ternary operator here, as it would unbox and
+            // promote both branches to long
+            if (idType == INT_TYPE) {
+                return Integer.valueOf((int) ids[index]);
+            }
+
+            return Long.valueOf(ids[index]);
+        }
+
+        return object == NullElement.INSTANCE ? null : object;
+    }
+
+    private void store(int index, Object element) {
+
+        if (element == null) {
+            objects[index] = NullElement.INSTANCE;
+            return;
+        }
+
+        Class<?> type = element.getClass();
+
+        if (idType == NO_TYPE) {
+            if (type == Integer.class) {
+                idType = INT_TYPE;
+            } else if (type == Long.class) {
+                idType = LONG_TYPE;
+            }
+        }
+
+        if (idType == INT_TYPE && type == Integer.class) {
+            ids[index] = ((Integer) element).intValue();
+            objects[index] = null;
+        } else if (idType == LONG_TYPE && type == Long.class) {
+            ids[index] = ((Long) element).longValue();
+            objects[index] = null;
+        } else {
+            objects[index] = element;
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > objects.length) {
+            int capacity = Math.max(minCapacity, objects.length + (objects.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -22,8 +22,10 @@ package org.apache.cayenne.access;
 import org.apache.cayenne.*;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Provider;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.graph.CompoundDiff;
 import org.apache.cayenne.graph.GraphDiff;
@@ -40,6 +42,7 @@ import org.apache.cayenne.tx.TransactionalOperation;
 import org.apache.cayenne.util.ToStringBuilder;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -81,6 +84,16 @@ public class DataDomain implements QueryEngine, DataChannel {
     @Inject
     protected TransactionManager transactionManager;
 
+    /**
+     * @since 4.0
+     */
+    protected ExecutorService asyncExecutor;
+
+    /**
+     * @since 4.0
+     */
+    protected Provider<ObjectContextFactory> asyncContextFactory;
+
     /**
      * @since 3.1
      */
@@ -801,6 +814,45 @@ public class DataDomain implements QueryEngine, DataChannel {
         return transactionManager;
     }
 
+    /**
+     * Returns an executor used to run queries asynchronously. May be null if
+     * the DataDomain was created outside of Cayenne runtime.
+     * 
+     * @since 4.0
+     */
+    public ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * @since 4.0
+     */
+    public void setAsyncExecutor(ExecutorService asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Creates a new context attached to this DataDomain to run a query
+     * asynchronously. The context is not shared with the caller, so the query
+     * can run in it on an executor thread.
+     * 
+     * @since 4.0
+     */
+    public ObjectContext createAsyncContext() {
+        if (asyncContextFactory == null) {
+            throw new CayenneRuntimeException("No context factory is configured for async queries");
+        }
+
+        return asyncContextFactory.get().createContext(this);
+    }
+
+    /**
+     * @since 4.0
+     */
+    public void setAsyncContextFactory(Provider<ObjectContextFactory> asyncContextFactory) {
+        this.asyncContextFactory = asyncContextFactory;
+    }
+
 	public boolean isStopped() {
 		return stopped;
 	}
@@ -42,9 +42,12 @@ import org.apache.cayenne.cache.QueryCacheEntryFactory;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.DbRelationship;
+import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.LifecycleEvent;
+import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.query.EntityResultSegment;
+import org.apache.cayenne.query.ObjectBulkQuery;
 import org.apache.cayenne.query.ObjectIdQuery;
 import org.apache.cayenne.query.PrefetchSelectQuery;
 import org.apache.cayenne.query.PrefetchTreeNode;
@@ -54,8 +57,10 @@ import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.QueryRouter;
 import org.apache.cayenne.query.RefreshQuery;
 import org.apache.cayenne.query.RelationshipQuery;
+import org.apache.cayenne.query.Select;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.apache.cayenne.reflect.LifecycleCallbackRegistry;
+import org.apache.cayenne.tx.BaseTransaction;
 import org.apache.cayenne.tx.TransactionalOperation;
 import org.apache.cayenne.util.GenericResponse;
 import org.apache.cayenne.util.ListResponse;
@@ -84,6 +89,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
     Map<QueryEngine, Collection<Query>> queriesByNode;
     Map<Query, Query> queriesByExecutedQueries;
     boolean noObjectConversion;
+    boolean readFromReplicas;
 
     /*
      * A constructor for the "new" way of performing a query via 'execute' with
@@ -119,6 +125,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
                     if (interceptSharedCache() != DONE) {
                         if (interceptDataDomainQuery() != DONE) {
                             runQueryInTransaction();
+                            invalidateBulkModifiedObjects();
                         }
                     }
                 }
@@ -132,6 +139,59 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         return response;
     }
 
+    /**
+     * After a bulk update or delete, invalidates the cached snapshots and the
+     * context objects of the entities sharing the modified table, and removes
+     * the query cache groups of the query.
+     */
+    private void invalidateBulkModifiedObjects() {
+        if (!(query instanceof ObjectBulkQuery)) {
+            return;
+        }
+
+        ObjectBulkQuery<?> bulkQuery = (ObjectBulkQuery<?>) query;
+        EntityResolver resolver = domain.getEntityResolver();
+        DbEntity table = bulkQuery.getObjEntity(resolver).getDbEntity();
+
+        Set<String> entityNames = new HashSet<String>();
+        for (ObjEntity entity : resolver.getObjEntities()) {
+            if (entity.getDbEntity() == table) {
+                entityNames.add(entity.getName());
+            }
+        }
+
+        if (context != null) {
+
+            // the context's own listener is notified asynchronously, so
+            // invalidate its objects right away
+            ObjectStore objectStore = context.getObjectStore();
+            synchronized (objectStore) {
+                Collection<ObjectId> ids = new ArrayList<ObjectId>();
+                Iterator<?> it = objectStore.getObjectIterator();
+                while (it.hasNext()) {
+                    ObjectId id = ((Persistent) it.next()).getObjectId();
+                    if (!id.isTemporary() && entityNames.contains(id.getEntityName())) {
+                        ids.add(id);
+                    }
+                }
+
+                objectStore.processInvalidatedIDs(ids);
+            }
+        }
+
+        if (cache != null) {
+            Object postedBy = context != null ? context.getObjectStore() : domain;
+            cache.invalidateEntities(postedBy, entityNames);
+        }
+
+        String[] groups = bulkQuery.getCacheGroups();
+        if (groups != null) {
+            for (String group : groups) {
+                domain.getQueryCache().removeGroup(group);
+            }
+        }
+    }
+
     private boolean interceptDataDomainQuery() {
         if (query instanceof DataDomainQuery) {
             response = new ListResponse(domain);
@@ -406,6 +466,10 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
      */
     void runQueryInTransaction() {
 
+        // selects that are not a part of a bigger transaction can be sent to
+        // read replicas, as they don't need to see uncommitted changes
+        this.readFromReplicas = query instanceof Select && BaseTransaction.getThreadTransaction() == null;
+
         domain.getTransactionManager().performInTransaction(new TransactionalOperation<Object>() {
             @Override
             public Object perform() {
@@ -507,13 +571,13 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             throw new NullPointerException("Null DataMap, can't determine DataNode.");
         }
 
-        QueryEngine node = domain.lookupDataNode(map);
+        DataNode node = domain.lookupDataNode(map);
 
         if (node == null) {
             throw new CayenneRuntimeException("No DataNode exists for DataMap " + map);
         }
 
-        return node;
+        return readFromReplicas ? node.getReadEngine() : node;
     }
 
     /**
@@ -522,7 +586,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
     @Override
     public QueryEngine engineForName(String name) {
 
-        QueryEngine node;
+        DataNode node;
 
         if (name != null) {
             node = domain.getDataNode(name);
@@ -536,7 +600,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             }
         }
 
-        return node;
+        return readFromReplicas ? node.getReadEngine() : node;
     }
 
     @Override
@@ -23,10 +23,13 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -53,6 +56,7 @@ import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.query.BatchQuery;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.Select;
 import org.apache.cayenne.query.SelectQuery;
 import org.apache.cayenne.tx.BaseTransaction;
 import org.apache.cayenne.tx.Transaction;
@@ -65,6 +69,14 @@ import org.apache.cayenne.util.ToStringBuilder;
  */
 public class DataNode implements QueryEngine {
 
+	/**
+	 * Default time in milliseconds during which a read replica that failed to
+	 * provide a connection is excluded from routing.
+	 * 
+	 * @since 4.0
+	 */
+	public static final long REPLICA_RETRY_INTERVAL_DEFAULT = 30000;
+
 	protected String name;
 	protected DataSource dataSource;
 	protected DbAdapter adapter;
@@ -83,6 +95,14 @@ public class DataNode implements QueryEngine {
 
 	TransactionDataSource readThroughDataSource;
 
+	private volatile List<ReadReplica> readReplicas;
+	private ReplicaRoutingStrategy replicaRoutingStrategy;
+	private long maxReplicaLag;
+	private long replicaRetryInterval;
+	private volatile long lastWriteAt;
+	private final AtomicInteger replicaCounter;
+	private final QueryEngine replicaReadEngine;
+
 	/**
 	 * Creates a new unnamed DataNode.
 	 */
@@ -98,6 +118,11 @@ public class DataNode implements QueryEngine {
 		this.name = name;
 		this.dataMaps = new HashMap<String, DataMap>();
 		this.readThroughDataSource = new TransactionDataSource();
+		this.readReplicas = Collections.emptyList();
+		this.replicaRoutingStrategy = ReplicaRoutingStrategy.ROUND_ROBIN;
+		this.replicaRetryInterval = REPLICA_RETRY_INTERVAL_DEFAULT;
+		this.replicaCounter = new AtomicInteger();
+		this.replicaReadEngine = new ReplicaReadEngine();
 
 		// make sure logger is not null
 		this.jdbcEventLogger = NoopJdbcEventLogger.getInstance();
@@ -234,6 +259,112 @@ public class DataNode implements QueryEngine {
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * Returns an unmodifiable list of read replica DataSources of this node.
+	 * 
+	 * @since 4.0
+	 */
+	public List<DataSource> getReadReplicas() {
+		List<ReadReplica> replicas = readReplicas;
+		List<DataSource> dataSources = new ArrayList<DataSource>(replicas.size());
+		for (ReadReplica replica : replicas) {
+			dataSources.add(replica.dataSource);
+		}
+
+		return Collections.unmodifiableList(dataSources);
+	}
+
+	/**
+	 * Replaces read replicas of this node. Read replicas are DataSources
+	 * pointing to the copies of the primary database, that are used to run
+	 * selects outside of explicit transactions.
+	 * 
+	 * @since 4.0
+	 */
+	public synchronized void setReadReplicas(Collection<DataSource> dataSources) {
+		List<ReadReplica> replicas = new ArrayList<ReadReplica>(dataSources.size());
+		for (DataSource dataSource : dataSources) {
+			replicas.add(new ReadReplica(dataSource, replicas.size()));
+		}
+
+		this.readReplicas = replicas;
+	}
+
+	/**
+	 * Adds a read replica DataSource to this node.
+	 * 
+	 * @since 4.0
+	 */
+	public synchronized void addReadReplica(DataSource dataSource) {
+		List<ReadReplica> replicas = new ArrayList<ReadReplica>(readReplicas);
+		replicas.add(new ReadReplica(dataSource, replicas.size()));
+		this.readReplicas = replicas;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public ReplicaRoutingStrategy getReplicaRoutingStrategy() {
+		return replicaRoutingStrategy;
+	}
+
+	/**
+	 * Sets a strategy used to pick a read replica for each read. The default
+	 * is {@link ReplicaRoutingStrategy#ROUND_ROBIN}.
+	 * 
+	 * @since 4.0
+	 */
+	public void setReplicaRoutingStrategy(ReplicaRoutingStrategy replicaRoutingStrategy) {
+		this.replicaRoutingStrategy = replicaRoutingStrategy;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public long getMaxReplicaLag() {
+		return maxReplicaLag;
+	}
+
+	/**
+	 * Sets time in milliseconds after a write through this node during which
+	 * reads are sent to the primary DataSource, as the replicas may be lagging
+	 * behind. Zero (the default) means that reads always go to the replicas.
+	 * 
+	 * @since 4.0
+	 */
+	public void setMaxReplicaLag(long maxReplicaLag) {
+		this.maxReplicaLag = maxReplicaLag;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public long getReplicaRetryInterval() {
+		return replicaRetryInterval;
+	}
+
+	/**
+	 * Sets time in milliseconds during which a replica that failed to provide
+	 * a connection is skipped, with reads going to other replicas or to the
+	 * primary DataSource.
+	 * 
+	 * @since 4.0
+	 */
+	public void setReplicaRetryInterval(long replicaRetryInterval) {
+		this.replicaRetryInterval = replicaRetryInterval;
+	}
+
+	/**
+	 * Returns a QueryEngine that runs read-only queries against one of the
+	 * read replicas, falling back to this node if no replica is available. If
+	 * the node has no replicas, returns this node.
+	 * 
+	 * @since 4.0
+	 */
+	public QueryEngine getReadEngine() {
+		return readReplicas.isEmpty() ? this : replicaReadEngine;
+	}
+
 	/**
 	 * Returns DbAdapter object. This is a plugin that handles RDBMS
 	 * vendor-specific features.
@@ -280,6 +411,15 @@ public class DataNode implements QueryEngine {
 		// upper limit.
 		getAdapter().getExtendedTypes();
 
+		if (!readReplicas.isEmpty()) {
+			for (Query query : queries) {
+				if (!(query instanceof Select)) {
+					lastWriteAt = System.currentTimeMillis();
+					break;
+				}
+			}
+		}
+
 		Connection connection = null;
 
 		try {
@@ -296,6 +436,10 @@ public class DataNode implements QueryEngine {
 			return;
 		}
 
+		runQueries(connection, queries, callback);
+	}
+
+	private void runQueries(Connection connection, Collection<? extends Query> queries, OperationObserver callback) {
 		try {
 			DataNodeQueryAction queryRunner = new DataNodeQueryAction(this, callback);
 
@@ -351,13 +495,143 @@ public class DataNode implements QueryEngine {
 		return new ToStringBuilder(this).append("name", getName()).toString();
 	}
 
+	ReadReplica selectReplica() {
+
+		// replicas may not have caught up with a recent write
+		if (maxReplicaLag > 0 && System.currentTimeMillis() - lastWriteAt < maxReplicaLag) {
+			return null;
+		}
+
+		List<ReadReplica> replicas = readReplicas;
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+
+		long now = System.currentTimeMillis();
+		int start = replicaCounter.getAndIncrement() & Integer.MAX_VALUE;
+		ReadReplica selected = null;
+
+		for (int i = 0; i < size; i++) {
+			ReadReplica replica = replicas.get((start + i) % size);
+			if (replica.failedUntil > now) {
+				continue;
+			}
+
+			if (replicaRoutingStrategy != ReplicaRoutingStrategy.LEAST_BUSY) {
+				return replica;
+			}
+
+			if (selected == null || replica.busy.get() < selected.busy.get()) {
+				selected = replica;
+			}
+		}
+
+		return selected;
+	}
+
+	// a read replica with its own transaction-aware DataSource and usage
+	// stats
+	final class ReadReplica {
+
+		final DataSource dataSource;
+		final TransactionDataSource readThroughDataSource;
+		final AtomicInteger busy;
+		volatile long failedUntil;
+
+		ReadReplica(final DataSource dataSource, final int index) {
+			this.dataSource = dataSource;
+			this.busy = new AtomicInteger();
+			this.readThroughDataSource = new TransactionDataSource() {
+
+				@Override
+				DataSource target() {
+					return dataSource;
+				}
+
+				@Override
+				String connectionKey() {
+					return super.connectionKey() + ".replica" + index;
+				}
+			};
+		}
+	}
+
+	// runs read-only queries against a read replica, falling back to the
+	// primary DataSource when no replica can provide a connection
+	final class ReplicaReadEngine implements QueryEngine {
+
+		@Override
+		public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+
+			if (queries.isEmpty()) {
+				return;
+			}
+
+			// iterated results hold the connection beyond this call, so keep
+			// them on the primary
+			if (callback.isIteratedResult()) {
+				DataNode.this.performQueries(queries, callback);
+				return;
+			}
+
+			getAdapter().getExtendedTypes();
+
+			ReadReplica replica;
+			Connection connection = null;
+
+			while ((replica = selectReplica()) != null) {
+				try {
+					connection = replica.readThroughDataSource.getConnection();
+					break;
+				} catch (Exception e) {
+					getJdbcEventLogger().log(
+							"Read replica " + replica.dataSource + " of DataNode '" + name
+									+ "' is not available, excluding it for " + replicaRetryInterval + " ms: "
+									+ e.getMessage());
+					replica.failedUntil = System.currentTimeMillis() + replicaRetryInterval;
+				}
+			}
+
+			if (connection == null) {
+				DataNode.this.performQueries(queries, callback);
+				return;
+			}
+
+			replica.busy.incrementAndGet();
+			try {
+				runQueries(connection, queries, callback);
+			} finally {
+				replica.busy.decrementAndGet();
+			}
+		}
+
+		@Override
+		public EntityResolver getEntityResolver() {
+			return DataNode.this.getEntityResolver();
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringBuilder(this).append("name", getName()).toString();
+		}
+	}
+
 	// a read-through DataSource that ensures returning the same connection
 	// within
 	// transaction.
-	final class TransactionDataSource implements DataSource {
+	class TransactionDataSource implements DataSource {
 
 		final String CONNECTION_RESOURCE_PREFIX = "DataNode.Connection.";
 
+		DataSource target() {
+			return dataSource;
+		}
+
+		String connectionKey() {
+			return CONNECTION_RESOURCE_PREFIX + name;
+		}
+
 		public Connection getConnection() throws SQLException {
 			if (schemaUpdateStrategy != null) {
 				schemaUpdateStrategy.updateSchema(DataNode.this);
@@ -365,11 +639,11 @@ public class DataNode implements QueryEngine {
 			Transaction t = BaseTransaction.getThreadTransaction();
 
 			if (t != null) {
-				String key = CONNECTION_RESOURCE_PREFIX + name;
+				String key = connectionKey();
 				Connection c = t.getConnection(key);
 
 				if (c == null || c.isClosed()) {
-					c = dataSource.getConnection();
+					c = target().getConnection();
 					t.addConnection(key, c);
 				}
 
@@ -381,7 +655,7 @@ public class DataNode implements QueryEngine {
 				return new TransactionConnectionDecorator(c);
 			}
 
-			return dataSource.getConnection();
+			return target().getConnection();
 		}
 
 		public Connection getConnection(String username, String password) throws SQLException {
@@ -390,11 +664,11 @@ public class DataNode implements QueryEngine {
 			}
 			Transaction t = BaseTransaction.getThreadTransaction();
 			if (t != null) {
-				String key = CONNECTION_RESOURCE_PREFIX + name;
+				String key = connectionKey();
 				Connection c = t.getConnection(key);
 
 				if (c == null || c.isClosed()) {
-					c = dataSource.getConnection();
+					c = target().getConnection();
 					t.addConnection(key, c);
 				}
 
@@ -406,23 +680,23 @@ public class DataNode implements QueryEngine {
 				return new TransactionConnectionDecorator(c);
 			}
 
-			return dataSource.getConnection(username, password);
+			return target().getConnection(username, password);
 		}
 
 		public int getLoginTimeout() throws SQLException {
-			return dataSource.getLoginTimeout();
+			return target().getLoginTimeout();
 		}
 
 		public PrintWriter getLogWriter() throws SQLException {
-			return dataSource.getLogWriter();
+			return target().getLogWriter();
 		}
 
 		public void setLoginTimeout(int seconds) throws SQLException {
-			dataSource.setLoginTimeout(seconds);
+			target().setLoginTimeout(seconds);
 		}
 
 		public void setLogWriter(PrintWriter out) throws SQLException {
-			dataSource.setLogWriter(out);
+			target().setLogWriter(out);
 		}
 
 		/**
@@ -430,7 +704,7 @@ public class DataNode implements QueryEngine {
 		 */
 		// JDBC 4 compatibility under Java 1.5
 		public boolean isWrapperFor(Class<?> iface) throws SQLException {
-			return iface.isAssignableFrom(dataSource.getClass());
+			return iface.isAssignableFrom(target().getClass());
 		}
 
 		/**
@@ -439,7 +713,7 @@ public class DataNode implements QueryEngine {
 		// JDBC 4 compatibility under Java 1.5
 		public <T> T unwrap(Class<T> iface) throws SQLException {
 			try {
-				return iface.cast(dataSource);
+				return iface.cast(target());
 			} catch (ClassCastException e) {
 				throw new SQLException("Not a DataSource: " + e.getMessage());
 			}
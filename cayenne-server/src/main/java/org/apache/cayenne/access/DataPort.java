@@ -52,6 +52,11 @@ import org.apache.cayenne.query.SelectQuery;
  * port (include/exclude from port based on some criteria), logging the progress
  * of port operation, qualifying the queries, etc.
  * </p>
+ * <p>
+ * Inserted batches are marked as bulk loads, so the destination adapters that
+ * support it may use a faster loading mechanism instead of INSERT statements,
+ * e.g. PostgreSQL "COPY ... FROM STDIN".
+ * </p>
  * 
  * @since 1.2: Prior to 1.2 DataPort classes were a part of cayenne-examples
  *        package.
@@ -207,6 +212,7 @@ public class DataPort {
 			sourceNode.performQueries(Collections.singletonList(query), observer);
 			ResultIterator result = observer.getResultIterator();
 			InsertBatchQuery insert = new InsertBatchQuery(entity, INSERT_BATCH_SIZE);
+			insert.setBulkLoading(true);
 
 			try {
 
@@ -227,6 +233,7 @@ public class DataPort {
 						// query
 						destinationNode.performQueries(Collections.singletonList((Query) insert), insertObserver);
 						insert = new InsertBatchQuery(entity, batchSize);
+						insert.setBulkLoading(true);
 					}
 
 					currentRow++;
@@ -22,17 +22,20 @@ package org.apache.cayenne.access;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowLayout;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
@@ -75,6 +78,12 @@ public class DataRowStore implements Serializable {
     protected String name;
     private int maxSize;
     protected ConcurrentMap<ObjectId, DataRow> snapshots;
+
+    /**
+     * Layouts of cached snapshots per entity name, used to store snapshots
+     * created outside of the query result readers as compact rows.
+     */
+    private ConcurrentMap<String, DataRowLayout> snapshotLayouts = new ConcurrentHashMap<String, DataRowLayout>();
     protected boolean notifyingRemoteListeners;
 
     protected transient EventManager eventManager;
@@ -340,6 +349,7 @@ public class DataRowStore implements Serializable {
      */
     public void clear() {
         snapshots.clear();
+        snapshotLayouts.clear();
     }
 
     /**
@@ -349,6 +359,32 @@ public class DataRowStore implements Serializable {
         snapshots.remove(id);
     }
 
+    /**
+     * Removes snapshots of all objects of the specified entities, notifying
+     * the listeners that the objects are invalidated. Used when the entity
+     * rows were modified in the database in bulk, so it is unknown which of
+     * the cached snapshots are stale.
+     * 
+     * @since 4.0
+     */
+    public void invalidateEntities(Object postedBy, Collection<String> entityNames) {
+        Collection<ObjectId> ids = new ArrayList<ObjectId>();
+        for (ObjectId id : snapshots.keySet()) {
+            if (entityNames.contains(id.getEntityName())) {
+                ids.add(id);
+            }
+        }
+
+        if (!ids.isEmpty()) {
+            processSnapshotChanges(
+                    postedBy,
+                    Collections.EMPTY_MAP,
+                    Collections.EMPTY_LIST,
+                    ids,
+                    Collections.EMPTY_LIST);
+        }
+    }
+
     /**
      * Handles remote events received via EventBridge. Performs needed snapshot updates,
      * and then resends the event to local listeners.
@@ -449,6 +485,7 @@ public class DataRowStore implements Serializable {
 
                 ObjectId key = (ObjectId) entry.getKey();
                 DataRow newSnapshot = (DataRow) entry.getValue();
+                compactSnapshot(key, newSnapshot);
                 DataRow oldSnapshot = snapshots.put(key, newSnapshot);
 
                 // generate diff for the updated event, if this not a new
@@ -504,6 +541,26 @@ public class DataRowStore implements Serializable {
         return diffs;
     }
 
+    /**
+     * Switches a snapshot to a compact array storage if it is not compact
+     * already. Snapshots read from the database are compact, while those
+     * created on commit or received from remote peers are not.
+     */
+    private void compactSnapshot(ObjectId id, DataRow snapshot) {
+        if (snapshot.isCompact()) {
+            return;
+        }
+
+        String entityName = id.getEntityName();
+        DataRowLayout layout = snapshotLayouts.get(entityName);
+
+        if (layout == null || !snapshot.compact(layout)) {
+            layout = new DataRowLayout(snapshot.keySet());
+            snapshot.compact(layout);
+            snapshotLayouts.put(entityName, layout);
+        }
+    }
+
     private void processUpdateDiffs(Map diffs) {
         // apply snapshot diffs
         if (!diffs.isEmpty()) {
@@ -125,7 +125,7 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
         this.helper = createHelper(metadata);
         this.idWidth = metadata.getDbEntity().getPrimaryKeys().size();
 
-        List<Object> elementsUnsynced = new ArrayList<Object>();
+        List<Object> elementsUnsynced = createElementsList();
         fillIn(query, elementsUnsynced);
         this.elements = Collections.synchronizedList(elementsUnsynced);
 
@@ -143,6 +143,16 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
         }
     }
 
+    /**
+     * Creates an unsynchronized list that will store unresolved ids and
+     * resolved objects.
+     * 
+     * @since 4.0
+     */
+    List<Object> createElementsList() {
+        return new ArrayList<Object>();
+    }
+
     /**
      * @since 1.2
      */
@@ -223,32 +233,30 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
                 toIndex = elements.size();
             }
 
-            List<Expression> quals = new ArrayList<Expression>(pageSize);
             List<Object> ids = new ArrayList<Object>(pageSize);
             for (int i = fromIndex; i < toIndex; i++) {
                 Object object = elements.get(i);
                 if (helper.unresolvedSuspect(object)) {
-                    quals.add(buildIdQualifier(object));
                     ids.add(object);
                 }
             }
 
-            int qualsSize = quals.size();
-            if (qualsSize == 0) {
+            int idsSize = ids.size();
+            if (idsSize == 0) {
                 return;
             }
 
             // fetch the range of objects in fetchSize chunks
             boolean fetchesDataRows = internalQuery.isFetchingDataRows();
-            List<Object> objects = new ArrayList<Object>(qualsSize);
+            List<Object> objects = new ArrayList<Object>(idsSize);
 
             int fetchSize = maxFetchSize > 0 ? maxFetchSize : Integer.MAX_VALUE;
 
-            int fetchEnd = Math.min(qualsSize, fetchSize);
+            int fetchEnd = Math.min(idsSize, fetchSize);
             int fetchBegin = 0;
-            while (fetchBegin < qualsSize) {
-                SelectQuery<Object> query = new SelectQuery<Object>(rootEntity, ExpressionFactory.joinExp(
-                        Expression.OR, quals.subList(fetchBegin, fetchEnd)));
+            while (fetchBegin < idsSize) {
+                SelectQuery<Object> query = new SelectQuery<Object>(rootEntity, buildIdsQualifier(ids.subList(
+                        fetchBegin, fetchEnd)));
 
                 query.setFetchingDataRows(fetchesDataRows);
 
@@ -258,7 +266,7 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 
                 objects.addAll(dataContext.performQuery(query));
                 fetchBegin = fetchEnd;
-                fetchEnd += Math.min(fetchSize, qualsSize - fetchEnd);
+                fetchEnd += Math.min(fetchSize, idsSize - fetchEnd);
             }
 
             // sanity check - database data may have changed
@@ -274,6 +282,21 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
         }
     }
 
+    /**
+     * Returns a qualifier expression matching a chunk of unresolved id objects.
+     * The chunk size is limited by the "maxFetchSize" of this list.
+     * 
+     * @since 4.0
+     */
+    Expression buildIdsQualifier(List<Object> ids) {
+        List<Expression> quals = new ArrayList<Expression>(ids.size());
+        for (Object id : ids) {
+            quals.add(buildIdQualifier(id));
+        }
+
+        return ExpressionFactory.joinExp(Expression.OR, quals);
+    }
+
     /**
      * Returns a qualifier expression for an unresolved id object.
      * 
@@ -30,6 +30,7 @@ import java.util.TreeMap;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowLayout;
 import org.apache.cayenne.Persistent;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.exp.Expression;
@@ -56,7 +57,7 @@ class PrefetchProcessorJointNode extends PrefetchProcessorNode {
 
     ColumnDescriptor[] columns;
     int[] idIndices;
-    int rowCapacity;
+    DataRowLayout rowLayout;
     Map<Map, Persistent> resolved;
     List<DataRow> resolvedRows;
 
@@ -131,13 +132,15 @@ class PrefetchProcessorJointNode extends PrefetchProcessorNode {
      * Returns a DataRow from the flat row.
      */
     DataRow rowFromFlatRow(DataRow flatRow) {
-        DataRow row = new DataRow(rowCapacity);
+        Object[] values = new Object[columns.length];
 
         // extract subset of flat row columns, recasting to the target keys
-        for (ColumnDescriptor column : columns) {
-            row.put(column.getName(), flatRow.get(column.getDataRowKey()));
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = flatRow.get(columns[i].getDataRowKey());
         }
 
+        DataRow row = new DataRow(rowLayout, values);
+
         // since JDBC row reader won't inject JOINED entity name, we have to
         // detect it here...
 
@@ -234,9 +237,15 @@ class PrefetchProcessorJointNode extends PrefetchProcessorNode {
         }
 
         int size = targetSource.size();
-        this.rowCapacity = (int) Math.ceil(size / 0.75);
         this.columns = new ColumnDescriptor[size];
         targetSource.values().toArray(columns);
+
+        // columns are keyed by name in the map above, so names are unique
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = columns[i].getName();
+        }
+        this.rowLayout = new DataRowLayout(names);
     }
 
     private ColumnDescriptor appendColumn(
@@ -19,6 +19,7 @@
 package org.apache.cayenne.access;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.cayenne.Persistent;
@@ -63,6 +64,29 @@ class SimpleIdIncrementalFaultList<E> extends IncrementalFaultList<E> {
         }
     }
 
+    /**
+     * Stores ids compactly, as a single column PK is normally a number.
+     * 
+     * @since 4.0
+     */
+    @Override
+    List<Object> createElementsList() {
+        return new CompactIdList();
+    }
+
+    /**
+     * Matches a chunk of ids with a single "IN" expression instead of an
+     * "OR" of equalities, which keeps the SQL short and the query plan simple.
+     * Adapters limiting the size of IN lists (e.g. Oracle) split such an
+     * expression on their own.
+     * 
+     * @since 4.0
+     */
+    @Override
+    Expression buildIdsQualifier(List<Object> ids) {
+        return ExpressionFactory.inDbExp(pk.getName(), ids);
+    }
+
     @Override
     protected Expression buildIdQualifier(Object id) {
         return ExpressionFactory.matchDbExp(pk.getName(), id);
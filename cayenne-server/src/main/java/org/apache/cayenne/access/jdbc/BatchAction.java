@@ -20,6 +20,8 @@
 package org.apache.cayenne.access.jdbc;
 
 import org.apache.cayenne.CayenneException;
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.CollectionResultIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
@@ -27,7 +29,10 @@ import org.apache.cayenne.access.OptimisticLockException;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.translator.ParameterBinding;
 import org.apache.cayenne.access.translator.batch.BatchTranslator;
+import org.apache.cayenne.access.translator.batch.InsertBatchTranslator;
+import org.apache.cayenne.dba.AutoAdapter;
 import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.dba.TypesMapping;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.map.DbAttribute;
@@ -37,8 +42,10 @@ import org.apache.cayenne.query.BatchQueryRow;
 import org.apache.cayenne.query.InsertBatchQuery;
 
 import java.sql.*;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * @since 1.2
@@ -83,8 +90,14 @@ public class BatchAction extends BaseSQLAction {
         BatchTranslator translator = createTranslator();
         boolean generatesKeys = hasGeneratedKeys();
 
-        if (runningAsBatch && !generatesKeys) {
-            runAsBatch(connection, translator, observer);
+        // generated keys can only be batched if the driver returns keys for
+        // all batch rows
+        boolean canBatch = !generatesKeys || supportsGeneratedKeysForBatchInserts(dataNode.getAdapter());
+
+        if (canBatch && multiRowInsertSize(translator) > 1) {
+            runAsMultiRowInserts(connection, (InsertBatchTranslator) translator, observer, generatesKeys);
+        } else if (canBatch && runningAsBatch) {
+            runAsBatch(connection, translator, observer, generatesKeys);
         } else {
             runAsIndividualQueries(connection, translator, observer, generatesKeys);
         }
@@ -96,6 +109,17 @@ public class BatchAction extends BaseSQLAction {
 
     protected void runAsBatch(Connection con, BatchTranslator translator, OperationObserver delegate)
 		    throws Exception {
+        runAsBatch(con, translator, delegate, false);
+    }
+
+    /**
+     * Executes batch as a JDBC batch, reading generated keys after each
+     * executed chunk if requested.
+     * 
+     * @since 4.0
+     */
+    protected void runAsBatch(Connection con, BatchTranslator translator, OperationObserver delegate,
+                              boolean generatesKeys) throws Exception {
 
 	    final String sql = translator.getSql();
 	    final JdbcEventLogger logger = dataNode.getJdbcEventLogger();
@@ -107,11 +131,12 @@ public class BatchAction extends BaseSQLAction {
         // run batch
 
         DbAdapter adapter = dataNode.getAdapter();
-        PreparedStatement statement = con.prepareStatement(sql);
+        PreparedStatement statement = prepareStatement(con, sql, generatesKeys);
 	    ParameterBinding[] bindings = new ParameterBinding[0];
 	    try {
+	        List<BatchQueryRow> rows = query.getRows();
 	        int count = 0;
-	        for (BatchQueryRow row : query.getRows()) {
+	        for (BatchQueryRow row : rows) {
 
 		        bindings = translator.updateBindings(row);
 		        logger.logQueryParameters("batch bind", bindings);
@@ -124,6 +149,11 @@ public class BatchAction extends BaseSQLAction {
 			        int[] results = statement.executeBatch();
 			        delegate.nextBatchCount(query, results);
 
+			        if (generatesKeys) {
+				        processGeneratedKeys(statement.getGeneratedKeys(), delegate, rows.subList(count
+						        - MAX_BATCH_SIZE, count));
+			        }
+
 			        if (isLoggable) {
 				        int totalUpdateCount = 0;
 				        for (int result : results) {
@@ -148,6 +178,11 @@ public class BatchAction extends BaseSQLAction {
 		        int[] results = statement.executeBatch();
 		        delegate.nextBatchCount(query, results);
 
+		        if (generatesKeys) {
+			        processGeneratedKeys(statement.getGeneratedKeys(), delegate, rows.subList(count
+					        - (count % MAX_BATCH_SIZE), count));
+		        }
+
 		        if (isLoggable) {
 			        int totalUpdateCount = 0;
 			        for (int result : results) {
@@ -178,6 +213,156 @@ public class BatchAction extends BaseSQLAction {
         }
     }
 
+    /**
+     * Returns the number of rows that can be inserted with a single multi-row
+     * INSERT statement, or zero if multi-row inserts can't be used for this
+     * batch.
+     */
+    int multiRowInsertSize(BatchTranslator translator) {
+        if (!(translator instanceof InsertBatchTranslator) || query.getRows().size() < 2) {
+            return 0;
+        }
+
+        int limit = multiRowInsertParameterLimit(dataNode.getAdapter());
+        if (limit <= 0) {
+            return 0;
+        }
+
+        int rowParameters = ((InsertBatchTranslator) translator).getRowParameterCount();
+        if (rowParameters == 0) {
+            return 0;
+        }
+
+        return Math.min(limit / rowParameters, MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Returns true if the adapter returns generated keys for all rows of a
+     * batch. Only {@link JdbcAdapter} and {@link AutoAdapter} can declare it.
+     */
+    private static boolean supportsGeneratedKeysForBatchInserts(DbAdapter adapter) {
+        if (adapter instanceof JdbcAdapter) {
+            return ((JdbcAdapter) adapter).supportsGeneratedKeysForBatchInserts();
+        }
+
+        if (adapter instanceof AutoAdapter) {
+            return ((AutoAdapter) adapter).supportsGeneratedKeysForBatchInserts();
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the multi-row INSERT parameter limit of the adapter. Only
+     * {@link JdbcAdapter} and {@link AutoAdapter} declare one, other adapters
+     * never get multi-row inserts.
+     */
+    private static int multiRowInsertParameterLimit(DbAdapter adapter) {
+        if (adapter instanceof JdbcAdapter) {
+            return ((JdbcAdapter) adapter).getMultiRowInsertParameterLimit();
+        }
+
+        if (adapter instanceof AutoAdapter) {
+            return ((AutoAdapter) adapter).getMultiRowInsertParameterLimit();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Executes batch as a series of multi-row INSERT statements, each one
+     * inserting as many rows as the adapter parameter limit allows.
+     * 
+     * @since 4.0
+     */
+    protected void runAsMultiRowInserts(Connection con, InsertBatchTranslator translator,
+                                        OperationObserver delegate, boolean generatesKeys) throws Exception {
+
+        JdbcEventLogger logger = dataNode.getJdbcEventLogger();
+        DbAdapter adapter = dataNode.getAdapter();
+
+        List<BatchQueryRow> rows = query.getRows();
+        int size = rows.size();
+        int statementSize = Math.max(multiRowInsertSize(translator), 1);
+
+        String sql = null;
+        PreparedStatement statement = null;
+        int statementRows = 0;
+        ParameterBinding[] bindings = new ParameterBinding[0];
+
+        try {
+            for (int start = 0; start < size; start += statementRows) {
+
+                // the full statement is reused, the last one may be shorter
+                int n = Math.min(statementSize, size - start);
+                if (n != statementRows) {
+                    if (statement != null) {
+                        statement.close();
+                    }
+
+                    sql = createMultiRowInsertSql(translator, n, generatesKeys);
+                    logger.logQuery(sql, Collections.EMPTY_LIST);
+                    statement = prepareStatement(con, sql, generatesKeys);
+                    statementRows = n;
+                }
+
+                for (int i = 0; i < n; i++) {
+                    bindings = translator.updateBindings(rows.get(start + i), i);
+                    logger.logQueryParameters("bind", bindings);
+                    bind(adapter, statement, bindings);
+                }
+
+                int updated = executeMultiRowInsert(statement, delegate, rows.subList(start, start + n),
+                        generatesKeys);
+
+                int[] results = new int[n];
+                Arrays.fill(results, updated == n ? 1 : Statement.SUCCESS_NO_INFO);
+                delegate.nextBatchCount(query, results);
+
+                logger.logUpdateCount(updated);
+            }
+        } catch (SQLException ex) {
+            logger.logQueryError(sql, bindings, ex);
+            throw ex;
+        } finally {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (Exception e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns SQL of a multi-row INSERT statement for the specified number of
+     * rows.
+     * 
+     * @since 4.0
+     */
+    protected String createMultiRowInsertSql(InsertBatchTranslator translator, int rowCount, boolean generatesKeys) {
+        return translator.getMultiRowSql(rowCount);
+    }
+
+    /**
+     * Executes a multi-row INSERT statement, passing generated keys of the
+     * inserted rows to the observer if needed. Returns the update count.
+     * 
+     * @since 4.0
+     */
+    protected int executeMultiRowInsert(PreparedStatement statement, OperationObserver delegate,
+                                        List<BatchQueryRow> rows, boolean generatesKeys) throws Exception {
+
+        int updated = statement.executeUpdate();
+
+        if (generatesKeys) {
+            processGeneratedKeys(statement.getGeneratedKeys(), delegate, rows);
+        }
+
+        return updated;
+    }
+
     /**
      * Executes batch as individual queries over the same prepared statement.
      */
@@ -195,8 +380,7 @@ public class BatchAction extends BaseSQLAction {
         // run batch queries one by one
 
         DbAdapter adapter = dataNode.getAdapter();
-        PreparedStatement statement = (generatesKeys) ? connection.prepareStatement(queryStr,
-                Statement.RETURN_GENERATED_KEYS) : connection.prepareStatement(queryStr);
+        PreparedStatement statement = prepareStatement(connection, queryStr, generatesKeys);
 	    ParameterBinding[] bindings = new ParameterBinding[0];
 	    try {
 		    for (BatchQueryRow row : query.getRows()) {
@@ -232,6 +416,18 @@ public class BatchAction extends BaseSQLAction {
         }
     }
 
+    /**
+     * Creates a PreparedStatement for the batch SQL, requesting generated keys
+     * from the driver if needed.
+     * 
+     * @since 4.0
+     */
+    protected PreparedStatement prepareStatement(Connection connection, String sql, boolean generatesKeys)
+            throws SQLException {
+        return generatesKeys ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : connection
+                .prepareStatement(sql);
+    }
+
     /**
      * Returns whether BatchQuery generates any keys.
      */
@@ -260,11 +456,22 @@ public class BatchAction extends BaseSQLAction {
      *
      * @since 4.0
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     protected void processGeneratedKeys(Statement statement, OperationObserver observer, BatchQueryRow row)
             throws SQLException, CayenneException {
+        processGeneratedKeys(statement.getGeneratedKeys(), observer, Collections.singletonList(row));
+    }
 
-        ResultSet keysRS = statement.getGeneratedKeys();
+    /**
+     * Passes generated keys of the specified batch rows to the observer. The
+     * ResultSet is expected to contain a key row for each batch row, in the
+     * same order. The observer is notified once per key row, with the ObjectId
+     * of the matching batch row.
+     *
+     * @since 4.0
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected void processGeneratedKeys(ResultSet keysRS, OperationObserver observer, List<BatchQueryRow> rows)
+            throws SQLException, CayenneException {
 
         // TODO: andrus, 7/4/2007 - (1) get the type of meaningful PK's from
         // their
@@ -303,6 +510,28 @@ public class BatchAction extends BaseSQLAction {
                 Collections.<ObjAttribute, ColumnDescriptor> emptyMap());
         ResultIterator iterator = new JDBCResultIterator(null, keysRS, rowReader);
 
-        observer.nextGeneratedRows(query, iterator, row.getObjectId());
+        if (rows.size() == 1) {
+            observer.nextGeneratedRows(query, iterator, rows.get(0).getObjectId());
+            return;
+        }
+
+        // read and close the iterator, then pass each key row to the observer
+        // together with the id of the batch row it was generated for
+        List<?> keys;
+        try {
+            keys = iterator.allRows();
+        } finally {
+            iterator.close();
+        }
+
+        if (keys.size() != rows.size()) {
+            throw new CayenneRuntimeException("Expected " + rows.size() + " generated PK rows, instead got "
+                    + keys.size());
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            ResultIterator keyIterator = new CollectionResultIterator(Collections.singletonList(keys.get(i)));
+            observer.nextGeneratedRows(query, keyIterator, rows.get(i).getObjectId());
+        }
     }
 }
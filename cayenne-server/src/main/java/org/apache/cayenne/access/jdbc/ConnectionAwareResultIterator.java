@@ -67,6 +67,16 @@ public class ConnectionAwareResultIterator<T> implements ResultIterator<T> {
             errors.append("Error closing ResultSet: " + e1);
         }
 
+        try {
+            beforeConnectionClose(connection);
+        } catch (Exception e3) {
+            if (errors == null) {
+                errors = new StringBuilder();
+            }
+
+            errors.append("Error restoring connection state: " + e3);
+        }
+
         try {
             connection.close();
         } catch (SQLException e2) {
@@ -82,6 +92,15 @@ public class ConnectionAwareResultIterator<T> implements ResultIterator<T> {
         }
     }
 
+    /**
+     * Called on close after the underlying iterator is closed, but before the
+     * connection is released, to give subclasses a chance to restore
+     * connection state. Does nothing by default.
+     */
+    protected void beforeConnectionClose(Connection connection) throws SQLException {
+        // noop
+    }
+
     @Override
     public List<T> allRows() {
         return delegate.allRows();
@@ -107,9 +107,22 @@ public class SelectAction extends BaseSQLAction {
 		// need to run in try-catch block to close statement properly if
 		// exception happens
 		try {
+			if (observer.isIteratedResult()) {
+				startStreaming(connection, statement);
+			}
+
 			rs = statement.executeQuery();
 		} catch (Exception ex) {
 			statement.close();
+
+			if (observer.isIteratedResult()) {
+				try {
+					endStreaming(connection);
+				} catch (SQLException e) {
+					// ignore, the original exception is more important
+				}
+			}
+
 			throw ex;
 		}
 		RowDescriptor descriptor = new RowDescriptorBuilder().setColumns(translator.getResultColumns()).getDescriptor(
@@ -148,7 +161,7 @@ public class SelectAction extends BaseSQLAction {
 	}
 
 	private <T> ResultIterator<T> forIteratedResult(ResultIterator<T> iterator, OperationObserver observer,
-			Connection connection, final long queryStartedAt, final String sql) {
+			final Connection connection, final long queryStartedAt, final String sql) {
 		if (!observer.isIteratedResult()) {
 			return iterator;
 		}
@@ -160,9 +173,40 @@ public class SelectAction extends BaseSQLAction {
 						sql);
 				super.doClose();
 			}
+
+			@Override
+			protected void beforeConnectionClose(Connection connection) throws SQLException {
+				// the connection must be restored before it goes back to the pool
+				endStreaming(connection);
+			}
 		};
 	}
 
+	/**
+	 * Configures a statement of an iterated query, so that the driver streams
+	 * the results from the database instead of reading them all in memory.
+	 * Does nothing by default, as most drivers only need a statement fetch
+	 * size for that. Subclasses that change the connection state here must
+	 * revert it in {@link #endStreaming(Connection)}.
+	 * 
+	 * @since 4.0
+	 */
+	protected void startStreaming(Connection connection, PreparedStatement statement) throws SQLException {
+		// noop
+	}
+
+	/**
+	 * Called when an iterated query is closed or has failed to execute, to
+	 * revert any connection changes made in
+	 * {@link #startStreaming(Connection, PreparedStatement)}. Does nothing by
+	 * default.
+	 * 
+	 * @since 4.0
+	 */
+	protected void endStreaming(Connection connection) throws SQLException {
+		// noop
+	}
+
 	private <T> ResultIterator<T> forFetchLimit(ResultIterator<T> iterator, SelectTranslator translator) {
 		// wrap iterator in a fetch limit checker ... there are a few cases when
 		// in-memory fetch limit is a noop, however in a general case this is
@@ -45,6 +45,19 @@ import org.apache.cayenne.reflect.ClassDescriptor;
  */
 public class DefaultRowReaderFactory implements RowReaderFactory {
 
+    private boolean directColumnReads;
+
+    public DefaultRowReaderFactory() {
+        this(false);
+    }
+
+    /**
+     * A constructor for {@link DirectRowReaderFactory}.
+     */
+    DefaultRowReaderFactory(boolean directColumnReads) {
+        this.directColumnReads = directColumnReads;
+    }
+
     @Override
     public RowReader<?> rowReader(RowDescriptor descriptor, QueryMetadata queryMetadata, DbAdapter adapter,
             Map<ObjAttribute, ColumnDescriptor> attributeOverrides) {
@@ -95,11 +108,20 @@ public class DefaultRowReaderFactory implements RowReaderFactory {
 
         if (queryMetadata.getPageSize() > 0) {
             return new IdRowReader<Object>(descriptor, queryMetadata, postProcessorFactory.get());
-        } else if (resultMetadata.getClassDescriptor() != null && resultMetadata.getClassDescriptor().hasSubclasses()) {
-            return new InheritanceAwareEntityRowReader(descriptor, resultMetadata, postProcessorFactory.get());
+        }
+
+        EntityRowReader reader;
+        if (resultMetadata.getClassDescriptor() != null && resultMetadata.getClassDescriptor().hasSubclasses()) {
+            reader = new InheritanceAwareEntityRowReader(descriptor, resultMetadata, postProcessorFactory.get());
         } else {
-            return new EntityRowReader(descriptor, resultMetadata, postProcessorFactory.get());
+            reader = new EntityRowReader(descriptor, resultMetadata, postProcessorFactory.get());
         }
+
+        if (directColumnReads) {
+            reader.enableDirectColumnReads();
+        }
+
+        return reader;
     }
 
     private RowReader<?> createFullRowReader(RowDescriptor descriptor, QueryMetadata queryMetadata,
@@ -107,11 +129,20 @@ public class DefaultRowReaderFactory implements RowReaderFactory {
 
         if (queryMetadata.getPageSize() > 0) {
             return new IdRowReader<Object>(descriptor, queryMetadata, postProcessorFactory.get());
-        } else if (queryMetadata.getClassDescriptor() != null && queryMetadata.getClassDescriptor().hasSubclasses()) {
-            return new InheritanceAwareRowReader(descriptor, queryMetadata, postProcessorFactory.get());
+        }
+
+        FullRowReader reader;
+        if (queryMetadata.getClassDescriptor() != null && queryMetadata.getClassDescriptor().hasSubclasses()) {
+            reader = new InheritanceAwareRowReader(descriptor, queryMetadata, postProcessorFactory.get());
         } else {
-            return new FullRowReader(descriptor, queryMetadata, postProcessorFactory.get());
+            reader = new FullRowReader(descriptor, queryMetadata, postProcessorFactory.get());
         }
+
+        if (directColumnReads) {
+            reader.enableDirectColumnReads();
+        }
+
+        return reader;
     }
 
     private class PostprocessorFactory {
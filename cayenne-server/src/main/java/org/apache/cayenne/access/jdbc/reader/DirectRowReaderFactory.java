@@ -0,0 +1,40 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.jdbc.reader;
+
+/**
+ * A {@link RowReaderFactory} that creates readers calling JDBC ResultSet
+ * getters directly for columns mapped to the stock ExtendedTypes, instead of
+ * dispatching each column through {@link org.apache.cayenne.access.types.ExtendedType}.
+ * Column handling is resolved once per result set, and the values read are the
+ * same as with {@link DefaultRowReaderFactory}. To use it, override the
+ * default binding in a custom module:
+ * 
+ * <pre>
+ * binder.bind(RowReaderFactory.class).to(DirectRowReaderFactory.class);
+ * </pre>
+ * 
+ * @since 4.0
+ */
+public class DirectRowReaderFactory extends DefaultRowReaderFactory {
+
+    public DirectRowReaderFactory() {
+        super(true);
+    }
+}
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowLayout;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.access.types.ExtendedType;
@@ -39,8 +40,12 @@ class EntityRowReader implements RowReader<DataRow> {
     private int[] types;
 
     String entityName;
-    private int mapCapacity;
     private int startIndex;
+    private DataRowLayout layout;
+    private int[] slots;
+
+    // not null if the columns are read via DirectColumnReader
+    private int[] kinds;
 
     DataRowPostProcessor postProcessor;
 
@@ -79,22 +84,45 @@ class EntityRowReader implements RowReader<DataRow> {
                 labels[i] = segmentMetadata.getColumnPath(columns[startIndex + i].getDataRowKey());
             }
         }
+
+        this.layout = new DataRowLayout(labels);
+        this.slots = new int[segmentWidth];
+        for (int i = 0; i < segmentWidth; i++) {
+            slots[i] = layout.getSlot(labels[i]);
+        }
+    }
+
+    /**
+     * Switches the reader to reading columns via {@link DirectColumnReader}.
+     * 
+     * @since 4.0
+     */
+    void enableDirectColumnReads() {
+        this.kinds = DirectColumnReader.kinds(converters, types);
     }
 
     @Override
     public DataRow readRow(ResultSet resultSet) {
 
         try {
-            DataRow row = new DataRow(mapCapacity);
+            Object[] values = new Object[layout.size()];
             int len = converters.length;
 
-            for (int i = 0; i < len; i++) {
+            if (kinds != null) {
+                for (int i = 0; i < len; i++) {
+                    values[slots[i]] = DirectColumnReader.read(kinds[i], converters[i], resultSet, startIndex + i
+                            + 1, types[i]);
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
 
-                // note: jdbc column indexes start from 1, not 0 as in arrays
-                Object val = converters[i].materializeObject(resultSet, startIndex + i + 1, types[i]);
-                row.put(labels[i], val);
+                    // note: jdbc column indexes start from 1, not 0 as in arrays
+                    values[slots[i]] = converters[i].materializeObject(resultSet, startIndex + i + 1, types[i]);
+                }
             }
 
+            DataRow row = new DataRow(layout, values);
+
             postprocessRow(resultSet, row);
 
             return row;
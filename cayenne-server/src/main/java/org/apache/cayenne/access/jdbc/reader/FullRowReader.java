@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowLayout;
 import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.util.Util;
@@ -31,28 +32,52 @@ import org.apache.cayenne.util.Util;
  */
 class FullRowReader extends BaseRowReader<DataRow> {
 
-    int mapCapacity;
+    DataRowLayout layout;
+    int[] slots;
+
+    // not null if the columns are read via DirectColumnReader
+    int[] kinds;
 
     FullRowReader(RowDescriptor descriptor, QueryMetadata queryMetadata, DataRowPostProcessor postProcessor) {
         super(descriptor, queryMetadata, postProcessor);
-        this.mapCapacity = (int) Math.ceil((descriptor.getWidth()) / 0.75);
+        this.layout = new DataRowLayout(labels);
+        this.slots = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            slots[i] = layout.getSlot(labels[i]);
+        }
+    }
+
+    /**
+     * Switches the reader to reading columns via {@link DirectColumnReader}.
+     * 
+     * @since 4.0
+     */
+    void enableDirectColumnReads() {
+        this.kinds = DirectColumnReader.kinds(converters, types);
     }
 
     @Override
     public DataRow readRow(ResultSet resultSet) {
         try {
-            DataRow dataRow = new DataRow(mapCapacity);
+            Object[] values = new Object[layout.size()];
 
             int resultWidth = labels.length;
 
             // process result row columns,
-            for (int i = 0; i < resultWidth; i++) {
-                // note: jdbc column indexes start from 1, not 0 unlike
-                // everywhere else
-                Object val = converters[i].materializeObject(resultSet, i + 1, types[i]);
-                dataRow.put(labels[i], val);
+            if (kinds != null) {
+                for (int i = 0; i < resultWidth; i++) {
+                    values[slots[i]] = DirectColumnReader.read(kinds[i], converters[i], resultSet, i + 1, types[i]);
+                }
+            } else {
+                for (int i = 0; i < resultWidth; i++) {
+                    // note: jdbc column indexes start from 1, not 0 unlike
+                    // everywhere else
+                    values[slots[i]] = converters[i].materializeObject(resultSet, i + 1, types[i]);
+                }
             }
 
+            DataRow dataRow = new DataRow(layout, values);
+
             postprocessRow(resultSet, dataRow);
 
             return dataRow;
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowLayout;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.map.DbAttribute;
@@ -36,6 +37,11 @@ class IdRowReader<T> extends BaseRowReader<T> {
 
     protected int[] pkIndices;
 
+    /**
+     * @since 4.0
+     */
+    protected DataRowLayout idLayout;
+
     public IdRowReader(RowDescriptor descriptor, QueryMetadata queryMetadata, DataRowPostProcessor postProcessor) {
         super(descriptor, queryMetadata, postProcessor);
 
@@ -61,6 +67,15 @@ class IdRowReader<T> extends BaseRowReader<T> {
         }
 
         this.pkIndices = pk;
+
+        if (len > 1) {
+            String[] pkLabels = new String[len];
+            for (int i = 0; i < len; i++) {
+                pkLabels[i] = labels[pk[i]];
+            }
+
+            this.idLayout = new DataRowLayout(pkLabels);
+        }
     }
 
     @Override
@@ -97,7 +112,7 @@ class IdRowReader<T> extends BaseRowReader<T> {
     @SuppressWarnings("unchecked")
     private T readIdMap(ResultSet resultSet) throws Exception {
 
-        DataRow idRow = new DataRow(2);
+        DataRow idRow = new DataRow(idLayout);
         idRow.setEntityName(entityName);
         int len = pkIndices.length;
 
@@ -33,6 +33,8 @@ import org.apache.cayenne.query.InsertBatchQuery;
  */
 public class InsertBatchTranslator extends DefaultBatchTranslator {
 
+    private int rowParameterCount = -1;
+
     public InsertBatchTranslator(InsertBatchQuery query, DbAdapter adapter) {
         // no trimming is needed here, so passing hardcoded NULL for trim
         // function
@@ -41,6 +43,54 @@ public class InsertBatchTranslator extends DefaultBatchTranslator {
 
     @Override
     protected String createSql() {
+        return createSql(1);
+    }
+
+    /**
+     * Returns SQL of a multi-row INSERT statement with a VALUES list for the
+     * specified number of rows. Values of each row are bound via
+     * {@link #updateBindings(BatchQueryRow, int)}.
+     * 
+     * @since 4.0
+     */
+    public String getMultiRowSql(int rowCount) {
+        return rowCount == 1 ? getSql() : createSql(rowCount);
+    }
+
+    /**
+     * Returns the number of parameters bound for each inserted row.
+     * 
+     * @since 4.0
+     */
+    public int getRowParameterCount() {
+        ensureTranslated();
+
+        if (rowParameterCount < 0) {
+            int count = 0;
+            for (ParameterBinding b : bindings) {
+                if (!b.isExcluded()) {
+                    count++;
+                }
+            }
+
+            this.rowParameterCount = count;
+        }
+
+        return rowParameterCount;
+    }
+
+    /**
+     * Updates internal bindings to be used with a row at the specified
+     * position of a multi-row INSERT statement.
+     * 
+     * @since 4.0
+     */
+    public ParameterBinding[] updateBindings(BatchQueryRow row, int rowIndex) {
+        ensureTranslated();
+        return doUpdateBindings(row, rowIndex * getRowParameterCount());
+    }
+
+    protected String createSql(int rowCount) {
 
         List<DbAttribute> dbAttributes = query.getDbAttributes();
         QuotingStrategy strategy = adapter.getQuotingStrategy();
@@ -68,16 +118,24 @@ public class InsertBatchTranslator extends DefaultBatchTranslator {
             }
         }
 
-        buffer.append(") VALUES (");
+        buffer.append(") VALUES ");
 
-        for (int i = 0; i < columnCount; i++) {
-            if (i > 0) {
+        for (int j = 0; j < rowCount; j++) {
+            if (j > 0) {
                 buffer.append(", ");
             }
 
-            buffer.append('?');
+            buffer.append('(');
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    buffer.append(", ");
+                }
+
+                buffer.append('?');
+            }
+            buffer.append(')');
         }
-        buffer.append(')');
+
         return buffer.toString();
     }
 
@@ -108,9 +166,13 @@ public class InsertBatchTranslator extends DefaultBatchTranslator {
 
     @Override
     protected ParameterBinding[] doUpdateBindings(BatchQueryRow row) {
+        return doUpdateBindings(row, 0);
+    }
+
+    private ParameterBinding[] doUpdateBindings(BatchQueryRow row, int offset) {
         int len = bindings.length;
 
-        for (int i = 0, j = 1; i < len; i++) {
+        for (int i = 0, j = offset + 1; i < len; i++) {
 
             ParameterBinding b = bindings[i];
 
@@ -0,0 +1,200 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.exp.Expression;
+
+/**
+ * Records the origin of each parameter binding during SelectQuery translation,
+ * producing a binding plan for a {@link CachedSelectTranslation}. If the origin
+ * of any parameter can not be determined reliably, no plan is built and the
+ * translation is not cached.
+ * 
+ * @since 4.0
+ */
+final class BindingPlanBuilder {
+
+	private List<Expression> qualifierNodes;
+	private Map<Expression, Integer> qualifierNodeIndex;
+	private Set<Expression> mappingNodes;
+	private List<Source> sources;
+	private Source currentSource;
+	private boolean invalid;
+
+	BindingPlanBuilder(List<Expression> qualifierNodes) {
+		this.qualifierNodes = qualifierNodes;
+		this.qualifierNodeIndex = new IdentityHashMap<Expression, Integer>();
+		for (int i = 0; i < qualifierNodes.size(); i++) {
+			qualifierNodeIndex.put(qualifierNodes.get(i), i);
+		}
+
+		this.mappingNodes = Collections.newSetFromMap(new IdentityHashMap<Expression, Boolean>());
+		this.sources = new ArrayList<Source>();
+	}
+
+	/**
+	 * Registers an expression that comes from the mapping, so that parameters
+	 * produced by it are treated as constants.
+	 */
+	void mappingQualifier(Expression expression) {
+		mappingNodes.add(expression);
+
+		int len = expression.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			Object operand = expression.getOperand(i);
+			if (operand instanceof Expression) {
+				mappingQualifier((Expression) operand);
+			}
+		}
+	}
+
+	/**
+	 * Starts a source of parameters that is a literal operand of the node.
+	 */
+	void startSource(Expression node, Object operand) {
+		int index = -1;
+
+		int len = node.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			if (node.getOperand(i) == operand) {
+				if (index >= 0) {
+					// can't tell which of the operands is used
+					invalid = true;
+				}
+				index = i;
+			}
+		}
+
+		currentSource = new Source(node, index, -1, null);
+	}
+
+	/**
+	 * Starts a source of parameters that is a column of an object id matched
+	 * by the node.
+	 */
+	void startIdSource(Expression node, String idKey) {
+		int index = -1;
+
+		int len = node.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			Object operand = node.getOperand(i);
+			if (operand instanceof Persistent || operand instanceof ObjectId) {
+				if (index >= 0) {
+					invalid = true;
+				}
+				index = i;
+			}
+		}
+
+		currentSource = new Source(node, index, -1, idKey);
+	}
+
+	/**
+	 * Narrows current source to an element of a list operand.
+	 */
+	void sourceElement(int element) {
+		if (currentSource != null) {
+			currentSource = new Source(currentSource.node, currentSource.operand, element, currentSource.idKey);
+		}
+	}
+
+	void endSource() {
+		currentSource = null;
+	}
+
+	void bindingAdded() {
+		sources.add(currentSource);
+	}
+
+	/**
+	 * Returns a binding plan matching the bindings, or null if the plan can
+	 * not be built.
+	 */
+	CachedSelectTranslation.Parameter[] build(ParameterBinding[] bindings) {
+
+		if (invalid || bindings.length != sources.size()) {
+			return null;
+		}
+
+		CachedSelectTranslation.Parameter[] parameters = new CachedSelectTranslation.Parameter[bindings.length];
+		for (int i = 0; i < bindings.length; i++) {
+			ParameterBinding binding = bindings[i];
+			Source source = sources.get(i);
+
+			// a parameter added outside of the qualifier translation (e.g. by
+			// an adapter-specific translator) can't be traced to its origin
+			if (source == null) {
+				return null;
+			}
+
+			if (mappingNodes.contains(source.node)) {
+				parameters[i] = new CachedSelectTranslation.Parameter(binding.getAttribute(),
+						binding.getStatementPosition(), binding.getValue());
+				continue;
+			}
+
+			Integer node = qualifierNodeIndex.get(source.node);
+
+			// an unknown node means the qualifier was transformed during
+			// translation
+			if (node == null || source.operand < 0) {
+				return null;
+			}
+
+			CachedSelectTranslation.Parameter parameter = new CachedSelectTranslation.Parameter(
+					binding.getAttribute(), binding.getStatementPosition(), node, source.operand, source.element,
+					source.idKey);
+
+			// the value must be taken from the qualifier as is, otherwise
+			// it was converted by the translator and can't be rebound
+			if (parameter.value(qualifierNodes) != binding.getValue()) {
+				return null;
+			}
+
+			parameters[i] = parameter;
+		}
+
+		return parameters;
+	}
+
+	private static final class Source {
+
+		final Expression node;
+		final int operand;
+		final int element;
+		final String idKey;
+
+		Source(Expression node, int operand, int element, String idKey) {
+			this.node = node;
+			this.operand = operand;
+			this.element = element;
+			this.idKey = idKey;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.ObjAttribute;
+
+/**
+ * An immutable result of SelectQuery translation that can be reused for
+ * queries of the same {@link SelectQueryShape shape}. Stores SQL, result
+ * columns and a binding plan describing where to take each parameter value
+ * from.
+ * 
+ * @since 4.0
+ */
+final class CachedSelectTranslation {
+
+	private final String sql;
+	private final Parameter[] parameters;
+	private final ColumnDescriptor[] resultColumns;
+	private final Map<ObjAttribute, ColumnDescriptor> attributeOverrides;
+	private final boolean suppressingDistinct;
+
+	CachedSelectTranslation(String sql, Parameter[] parameters, ColumnDescriptor[] resultColumns,
+			Map<ObjAttribute, ColumnDescriptor> attributeOverrides, boolean suppressingDistinct) {
+		this.sql = sql;
+		this.parameters = parameters;
+		this.resultColumns = resultColumns;
+		this.attributeOverrides = Collections.unmodifiableMap(attributeOverrides);
+		this.suppressingDistinct = suppressingDistinct;
+	}
+
+	String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Creates a translator for a query whose qualifier nodes are passed as an
+	 * argument. Returns null if parameter values of the query do not fit the
+	 * cached SQL, e.g. when an id value is null and would require "IS NULL"
+	 * comparison.
+	 */
+	SelectTranslator translator(List<Expression> qualifierNodes) {
+
+		ParameterBinding[] bindings = new ParameterBinding[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			Parameter parameter = parameters[i];
+			Object value = parameter.value(qualifierNodes);
+			if (value == Parameter.NO_VALUE) {
+				return null;
+			}
+
+			bindings[i] = new ParameterBinding(parameter.attribute);
+			bindings[i].include(parameter.position, value);
+		}
+
+		return new Translator(bindings);
+	}
+
+	/**
+	 * Describes a single statement parameter. The value is either a constant
+	 * (for parameters coming from the mapping) or is read from a qualifier
+	 * node operand.
+	 */
+	static final class Parameter {
+
+		static final Object NO_VALUE = new Object();
+
+		final DbAttribute attribute;
+		final int position;
+		final Object constant;
+		final int node;
+		final int operand;
+		final int element;
+		final String idKey;
+
+		Parameter(DbAttribute attribute, int position, Object constant) {
+			this(attribute, position, constant, -1, -1, -1, null);
+		}
+
+		Parameter(DbAttribute attribute, int position, int node, int operand, int element, String idKey) {
+			this(attribute, position, null, node, operand, element, idKey);
+		}
+
+		private Parameter(DbAttribute attribute, int position, Object constant, int node, int operand, int element,
+				String idKey) {
+			this.attribute = attribute;
+			this.position = position;
+			this.constant = constant;
+			this.node = node;
+			this.operand = operand;
+			this.element = element;
+			this.idKey = idKey;
+		}
+
+		Object value(List<Expression> qualifierNodes) {
+
+			if (node < 0) {
+				return constant;
+			}
+
+			Object value = qualifierNodes.get(node).getOperand(operand);
+
+			if (element >= 0) {
+				if (!(value instanceof Object[]) || ((Object[]) value).length <= element) {
+					return NO_VALUE;
+				}
+
+				value = ((Object[]) value)[element];
+			}
+
+			if (value instanceof Persistent) {
+				value = ((Persistent) value).getObjectId();
+				if (value == null) {
+					return NO_VALUE;
+				}
+			}
+
+			if (value instanceof ObjectId) {
+				ObjectId id = (ObjectId) value;
+				if (id.isTemporary()) {
+					return NO_VALUE;
+				}
+
+				Map<String, Object> snapshot = id.getIdSnapshot();
+				if (idKey != null) {
+					value = snapshot.get(idKey);
+				} else if (snapshot.size() == 1) {
+					value = snapshot.values().iterator().next();
+				} else {
+					return NO_VALUE;
+				}
+			}
+
+			// nulls are never bound, they are inlined in SQL instead
+			return value != null ? value : NO_VALUE;
+		}
+	}
+
+	final class Translator implements SelectTranslator {
+
+		private final ParameterBinding[] bindings;
+
+		Translator(ParameterBinding[] bindings) {
+			this.bindings = bindings;
+		}
+
+		@Override
+		public String getSql() {
+			return sql;
+		}
+
+		@Override
+		public ParameterBinding[] getBindings() {
+			return bindings;
+		}
+
+		@Override
+		public Map<ObjAttribute, ColumnDescriptor> getAttributeOverrides() {
+			return attributeOverrides;
+		}
+
+		@Override
+		public ColumnDescriptor[] getResultColumns() {
+			return resultColumns.clone();
+		}
+
+		@Override
+		public boolean isSuppressingDistinct() {
+			return suppressingDistinct;
+		}
+	}
+}
@@ -20,6 +20,7 @@ package org.apache.cayenne.access.translator.select;
 
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,9 +33,12 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.QuotingStrategy;
+import org.apache.cayenne.dba.TypesMapping;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.exp.parser.ASTDbPath;
+import org.apache.cayenne.exp.parser.ASTObjPath;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
@@ -131,15 +135,26 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 		StringBuilder queryBuf = new StringBuilder();
 		queryBuf.append("SELECT ");
 
+		// column queries return one row per matching row combination, just
+		// like SQL does, so to-many joins do not force DISTINCT for them
+		boolean columnQuery = isColumnQuery();
+		boolean toManyJoins = forcingDistinct;
+		if (columnQuery) {
+			forcingDistinct = false;
+		}
+
 		// check if DISTINCT is appropriate
 		// side effect: "suppressingDistinct" flag may end up being flipped here
 		if (forcingDistinct || getSelectQuery().isDistinct()) {
 			suppressingDistinct = false;
 
-			for (ColumnDescriptor column : resultColumns) {
-				if (isUnsupportedForDistinct(column.getJdbcType())) {
-					suppressingDistinct = true;
-					break;
+			// in-memory distinct filtering only works for DataRows
+			if (!columnQuery) {
+				for (ColumnDescriptor column : resultColumns) {
+					if (isUnsupportedForDistinct(column.getJdbcType())) {
+						suppressingDistinct = true;
+						break;
+					}
 				}
 			}
 
@@ -150,9 +165,35 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 
 		// convert ColumnDescriptors to column names
 		List<String> selectColumnExpList = new ArrayList<String>();
-		for (ColumnDescriptor column : resultColumns) {
-			String fullName = strategy.quotedIdentifier(dataMap, column.getNamePrefix(), column.getName());
-			selectColumnExpList.add(fullName);
+
+		// with aggregate columns, the rest of the columns are grouped by
+		List<String> groupByList = null;
+
+		if (columnQuery) {
+			List<String> plainColumnExpList = new ArrayList<String>();
+			boolean hasAggregates = false;
+
+			Iterator<Property<?>> properties = getSelectQuery().getColumns().iterator();
+			for (ColumnDescriptor column : resultColumns) {
+				Property<?> property = properties.next();
+				String columnExp = propertyColumnExpression(property, column, toManyJoins);
+				selectColumnExpList.add(columnExp);
+
+				if (property.getAggregate() != null) {
+					hasAggregates = true;
+				} else {
+					plainColumnExpList.add(columnExp);
+				}
+			}
+
+			if (hasAggregates && !plainColumnExpList.isEmpty()) {
+				groupByList = plainColumnExpList;
+			}
+		} else {
+			for (ColumnDescriptor column : resultColumns) {
+				String fullName = strategy.quotedIdentifier(dataMap, column.getNamePrefix(), column.getName());
+				selectColumnExpList.add(fullName);
+			}
 		}
 
 		// append any column expressions used in the order by if this query
@@ -184,6 +225,13 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 			queryBuf.append(qualifierBuffer);
 		}
 
+		if (groupByList != null) {
+			queryBuf.append(" GROUP BY ").append(groupByList.get(0));
+			for (int i = 1; i < groupByList.size(); i++) {
+				queryBuf.append(", ").append(groupByList.get(i));
+			}
+		}
+
 		// append prebuilt ordering
 		if (orderingBuffer.length() > 0) {
 			queryBuf.append(" ORDER BY ").append(orderingBuffer);
@@ -196,6 +244,30 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 		this.sql = queryBuf.toString();
 	}
 
+	/**
+	 * Translates the query, recording the origin of each parameter, and returns
+	 * a translation that can be reused for queries of the same shape. Returns
+	 * null if the translation can not be reused.
+	 */
+	CachedSelectTranslation translateForCache(List<Expression> qualifierNodes) {
+
+		BindingPlanBuilder planBuilder = new BindingPlanBuilder(qualifierNodes);
+		this.bindingPlanBuilder = planBuilder;
+		try {
+			ensureTranslated();
+		} finally {
+			this.bindingPlanBuilder = null;
+		}
+
+		CachedSelectTranslation.Parameter[] parameters = planBuilder.build(getBindings());
+		if (parameters == null) {
+			return null;
+		}
+
+		return new CachedSelectTranslation(sql, parameters, getResultColumns(), getAttributeOverrides(),
+				isSuppressingDistinct());
+	}
+
 	/**
 	 * Allows subclasses to insert their own dialect of DISTINCT statement to
 	 * improve performance.
@@ -283,6 +355,11 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 		return (SelectQuery<?>) getQuery();
 	}
 
+	private boolean isColumnQuery() {
+		Collection<Property<?>> columns = getSelectQuery().getColumns();
+		return columns != null && !columns.isEmpty();
+	}
+
 	protected List<ColumnDescriptor> buildResultColumns() {
 
 		this.defaultAttributesByColumn = new HashMap<ColumnDescriptor, ObjAttribute>();
@@ -290,7 +367,9 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 		List<ColumnDescriptor> columns = new ArrayList<ColumnDescriptor>();
 		SelectQuery<?> query = getSelectQuery();
 
-		if (query.getRoot() instanceof DbEntity) {
+		if (isColumnQuery()) {
+			appendPropertyColumns(columns, query);
+		} else if (query.getRoot() instanceof DbEntity) {
 			appendDbEntityColumns(columns, query);
 		} else if (getQueryMetadata().getPageSize() > 0) {
 			appendIdColumns(columns, query);
@@ -313,6 +392,129 @@ public class DefaultSelectTranslator extends QueryAssembler implements SelectTra
 		return columns;
 	}
 
+	/**
+	 * Appends columns of the properties explicitly requested by a column query,
+	 * adding joins for the related entities. Unlike other columns, these are
+	 * not deduplicated, as each property must have its own position in the
+	 * result.
+	 */
+	<T> List<ColumnDescriptor> appendPropertyColumns(List<ColumnDescriptor> columns, SelectQuery<T> query) {
+
+		ObjEntity oe = queryMetadata.getObjEntity();
+		DbEntity table = queryMetadata.getDbEntity();
+
+		for (Property<?> property : query.getColumns()) {
+
+			if (property.getName() == null) {
+				resetJoinStack();
+				columns.add(countColumn(table));
+				continue;
+			}
+
+			Expression pathExp = new ASTObjPath(property.getName());
+
+			ObjAttribute objAttribute = null;
+			for (PathComponent<ObjAttribute, ObjRelationship> component : oe.resolvePath(pathExp, getPathAliases())) {
+				objAttribute = component.getAttribute();
+			}
+
+			if (objAttribute == null) {
+				throw new CayenneRuntimeException("Column property must be a path to an attribute: "
+						+ property.getName());
+			}
+
+			ASTDbPath dbPath = (ASTDbPath) oe.translateToDbPath(pathExp);
+
+			resetJoinStack();
+			DbAttribute dbAttribute = null;
+			for (PathComponent<DbAttribute, DbRelationship> component : table.resolvePath(dbPath, getPathAliases())) {
+				if (component.getRelationship() != null) {
+					getJoinStack().pushJoin(component.getRelationship(), component.getJoinType(), null);
+				}
+
+				if (component.getAttribute() != null) {
+					dbAttribute = component.getAttribute();
+				}
+			}
+
+			if (dbAttribute == null) {
+				throw new CayenneRuntimeException("Can't resolve column of property: " + property.getName());
+			}
+
+			ColumnDescriptor column = new ColumnDescriptor(objAttribute, dbAttribute, getCurrentAlias());
+			if (property.getAggregate() != null) {
+				column.setDataRowKey(property.getAggregate().name().toLowerCase() + "(" + property.getName() + ")");
+
+				Class<?> aggregateType = property.getAggregateType();
+				if (aggregateType != null) {
+					column.setJdbcType(TypesMapping.getSqlTypeByJava(aggregateType));
+					column.setJavaClass(aggregateType.getName());
+				}
+			} else {
+				column.setDataRowKey(property.getName());
+			}
+
+			columns.add(column);
+		}
+
+		// the rest of the query goes with the root table alias
+		resetJoinStack();
+
+		return columns;
+	}
+
+	/**
+	 * Creates a column for the count of the root objects. If the root table
+	 * has a single PK column, the column refers to it, so that the rows can be
+	 * counted by distinct PK when the qualifier joins to-many relationships.
+	 */
+	private ColumnDescriptor countColumn(DbEntity table) {
+		ColumnDescriptor column;
+
+		Collection<DbAttribute> pk = table.getPrimaryKeys();
+		if (pk.size() == 1) {
+			column = new ColumnDescriptor(pk.iterator().next(), getCurrentAlias());
+			column.setJdbcType(Types.BIGINT);
+			column.setJavaClass(Long.class.getName());
+		} else {
+			column = new ColumnDescriptor("COUNT", Types.BIGINT);
+		}
+
+		column.setDataRowKey("count");
+		return column;
+	}
+
+	/**
+	 * Builds SQL for a column of a column query, wrapping it in the aggregate
+	 * function of the property if there is one.
+	 */
+	private String propertyColumnExpression(Property<?> property, ColumnDescriptor column, boolean toManyJoins) {
+
+		// count the objects once, even if the qualifier multiplies the rows by
+		// joining to-many relationships
+		if (property.getName() == null && (!toManyJoins || column.getAttribute() == null)) {
+			return "COUNT(*)";
+		}
+
+		String columnExp = getAdapter().getQuotingStrategy().quotedIdentifier(queryMetadata.getDataMap(),
+				column.getNamePrefix(), column.getName());
+
+		if (property.getName() == null) {
+			return "COUNT(DISTINCT " + columnExp + ")";
+		}
+
+		// many databases average integral columns as an integer, so the values
+		// are promoted to an approximate number first
+		if (property.getAggregate() == Property.Aggregate.AVG && column.getAttribute() != null) {
+			int type = column.getAttribute().getType();
+			if (TypesMapping.isNumeric(type) && !TypesMapping.isDecimal(type)) {
+				return "AVG(1.0E0 * " + columnExp + ")";
+			}
+		}
+
+		return property.getAggregate() != null ? property.getAggregate().name() + "(" + columnExp + ")" : columnExp;
+	}
+
 	/**
 	 * Appends columns needed for object SelectQuery to the provided columns
 	 * list.
@@ -18,20 +18,140 @@
  ****************************************************************/
 package org.apache.cayenne.access.translator.select;
 
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.dba.AutoAdapter;
 import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.JdbcAdapter;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 
 /**
  * A {@link SelectTranslator} factory that delegates translator creation to
- * DbAdapter.
+ * DbAdapter. Translation results are kept in a bounded cache keyed by query
+ * structure, so that queries differing only in parameter values are not
+ * translated again. Cache size is configured via
+ * {@link Constants#SELECT_TRANSLATION_CACHE_SIZE_PROPERTY}. Only queries of
+ * {@link JdbcAdapter} (or {@link AutoAdapter}) adapters are cached, and those
+ * can opt out via {@link JdbcAdapter#supportsSelectTranslationCache()}.
  * 
  * @since 4.0
  */
 public class DefaultSelectTranslatorFactory implements SelectTranslatorFactory {
 
+	public static final int TRANSLATION_CACHE_SIZE_DEFAULT = 500;
+
+	private ConcurrentMap<SelectQueryShape.Key, CachedSelectTranslation> translationCache;
+	private final AtomicLong cacheHits;
+	private final AtomicLong cacheMisses;
+
+	public DefaultSelectTranslatorFactory() {
+		this(TRANSLATION_CACHE_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Creates a factory with the translation cache size taken from
+	 * {@link Constants#SELECT_TRANSLATION_CACHE_SIZE_PROPERTY}.
+	 */
+	public DefaultSelectTranslatorFactory(@Inject RuntimeProperties properties) {
+		this(properties.getInt(Constants.SELECT_TRANSLATION_CACHE_SIZE_PROPERTY, TRANSLATION_CACHE_SIZE_DEFAULT));
+	}
+
+	/**
+	 * Creates a factory that caches up to "cacheSize" translations. Zero size
+	 * disables the cache.
+	 */
+	public DefaultSelectTranslatorFactory(int cacheSize) {
+		this.cacheHits = new AtomicLong();
+		this.cacheMisses = new AtomicLong();
+		this.translationCache = cacheSize > 0 ? new ConcurrentLinkedHashMap.Builder<SelectQueryShape.Key, CachedSelectTranslation>()
+				.maximumWeightedCapacity(cacheSize).build() : null;
+	}
+
 	@Override
 	public SelectTranslator translator(SelectQuery<?> query, DbAdapter adapter, EntityResolver entityResolver) {
-		return adapter.getSelectTranslator(query, entityResolver);
+
+		if (translationCache == null || !supportsTranslationCache(adapter)) {
+			return adapter.getSelectTranslator(query, entityResolver);
+		}
+
+		SelectQueryShape shape = SelectQueryShape.forQuery(query, adapter, entityResolver);
+		if (shape == null) {
+			return adapter.getSelectTranslator(query, entityResolver);
+		}
+
+		CachedSelectTranslation cached = translationCache.get(shape.getKey());
+		if (cached != null) {
+			SelectTranslator translator = cached.translator(shape.getQualifierNodes());
+			if (translator != null) {
+				cacheHits.incrementAndGet();
+				return translator;
+			}
+		}
+
+		cacheMisses.incrementAndGet();
+
+		SelectTranslator translator = adapter.getSelectTranslator(query, entityResolver);
+		if (translator instanceof DefaultSelectTranslator) {
+			CachedSelectTranslation translation = ((DefaultSelectTranslator) translator)
+					.translateForCache(shape.getQualifierNodes());
+			if (translation != null) {
+				translationCache.put(shape.getKey(), translation);
+			}
+		}
+
+		return translator;
+	}
+
+	/**
+	 * Returns true if SQL produced by the adapter can be cached. Adapters
+	 * other than {@link JdbcAdapter} may rewrite queries in ways the cache
+	 * can't account for, so they are never cached.
+	 */
+	private static boolean supportsTranslationCache(DbAdapter adapter) {
+		if (adapter instanceof JdbcAdapter) {
+			return ((JdbcAdapter) adapter).supportsSelectTranslationCache();
+		}
+
+		if (adapter instanceof AutoAdapter) {
+			return ((AutoAdapter) adapter).supportsSelectTranslationCache();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of queries that reused a cached translation.
+	 */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * Returns the number of cacheable queries that had to be translated.
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/**
+	 * Returns the number of translations currently cached.
+	 */
+	public int getCacheSize() {
+		return translationCache != null ? translationCache.size() : 0;
+	}
+
+	/**
+	 * Removes all cached translations.
+	 */
+	public void clearCache() {
+		if (translationCache != null) {
+			translationCache.clear();
+		}
 	}
 }
@@ -140,6 +140,7 @@ public class JoinStack {
 		Expression dbQualifier = targetEntity.getQualifier();
 		if (dbQualifier != null) {
 			dbQualifier = dbQualifier.transform(new JoinedDbEntityQualifierTransformer(node));
+			qualifierTranslator.mappingQualifier(dbQualifier);
 
 			if (len > 0) {
 				out.append(" AND ");
@@ -99,6 +99,7 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 			ClassDescriptor descriptor = queryAssembler.getEntityResolver().getClassDescriptor(entity.getName());
 			Expression entityQualifier = descriptor.getEntityInheritanceTree().qualifierForEntityAndSubclasses();
 			if (entityQualifier != null) {
+				mappingQualifier(entityQualifier);
 				qualifier = (qualifier != null) ? qualifier.andExp(entityQualifier) : entityQualifier;
 			}
 		}
@@ -110,6 +111,7 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 			Expression dbQualifier = getDbEntity().getQualifier();
 			if (dbQualifier != null) {
 				dbQualifier = dbQualifier.transform(new DbEntityQualifierTransformer());
+				mappingQualifier(dbQualifier);
 
 				qualifier = qualifier == null ? dbQualifier : qualifier.andExp(dbQualifier);
 			}
@@ -118,6 +120,16 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 		return qualifier;
 	}
 
+	/**
+	 * Marks expression nodes coming from the mapping while building a binding
+	 * plan for the translation cache.
+	 */
+	void mappingQualifier(Expression qualifier) {
+		if (queryAssembler.bindingPlanBuilder != null) {
+			queryAssembler.bindingPlanBuilder.mappingQualifier(qualifier);
+		}
+	}
+
 	/**
 	 * Called before processing an expression to initialize
 	 * objectMatchTranslator if needed.
@@ -183,7 +195,17 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 
 			processColumn(attr);
 			out.append(objectMatchTranslator.getOperation());
+
+			BindingPlanBuilder plan = queryAssembler.bindingPlanBuilder;
+			if (plan != null) {
+				plan.startIdSource(objectMatchTranslator.getExpression(), key);
+			}
+
 			appendLiteral(val, attr, objectMatchTranslator.getExpression());
+
+			if (plan != null) {
+				plan.endSource();
+			}
 		}
 
 		objectMatchTranslator.reset();
@@ -433,10 +455,21 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 				appendObjPath(parentNode);
 			} else if (parentNode.getType() == Expression.DB_PATH) {
 				appendDbPath(parentNode);
-			} else if (parentNode.getType() == Expression.LIST) {
-				appendList(parentNode, paramsDbType(parentNode));
 			} else {
-				appendLiteral(leaf, paramsDbType(parentNode), parentNode);
+				BindingPlanBuilder plan = queryAssembler.bindingPlanBuilder;
+				if (plan != null) {
+					plan.startSource(parentNode, leaf);
+				}
+
+				if (parentNode.getType() == Expression.LIST) {
+					appendList(parentNode, paramsDbType(parentNode));
+				} else {
+					appendLiteral(leaf, paramsDbType(parentNode), parentNode);
+				}
+
+				if (plan != null) {
+					plan.endSource();
+				}
 			}
 		} catch (IOException ioex) {
 			throw new CayenneRuntimeException("Error appending content", ioex);
@@ -472,15 +505,25 @@ public class QualifierTranslator extends QueryAssemblerHelper implements Travers
 			throw new IllegalArgumentException("Unsupported type for the list expressions: " + className);
 		}
 
+		BindingPlanBuilder plan = queryAssembler.bindingPlanBuilder;
+		int element = 0;
+
 		// process first element outside the loop
 		// (unroll loop to avoid condition checking
-		if (it.hasNext())
+		if (it.hasNext()) {
+			if (plan != null) {
+				plan.sourceElement(element++);
+			}
 			appendLiteral(it.next(), paramDesc, listExpr);
-		else
+		} else {
 			return;
+		}
 
 		while (it.hasNext()) {
 			out.append(", ");
+			if (plan != null) {
+				plan.sourceElement(element++);
+			}
 			appendLiteral(it.next(), paramDesc, listExpr);
 		}
 	}
@@ -45,6 +45,11 @@ public abstract class QueryAssembler {
 	protected EntityResolver entityResolver;
 	protected List<ParameterBinding> bindings;
 
+	/**
+	 * Tracks parameter origins when the translation is going to be cached.
+	 */
+	BindingPlanBuilder bindingPlanBuilder;
+
 	/**
 	 * @since 4.0
 	 */
@@ -152,6 +157,10 @@ public abstract class QueryAssembler {
 		binding.setValue(anObject);
 		binding.setStatementPosition(bindings.size() + 1);
 		bindings.add(binding);
+
+		if (bindingPlanBuilder != null) {
+			bindingPlanBuilder.bindingAdded();
+		}
 	}
 
 	/**
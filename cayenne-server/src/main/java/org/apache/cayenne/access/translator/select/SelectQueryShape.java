@@ -0,0 +1,254 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.Property;
+import org.apache.cayenne.exp.parser.ASTPath;
+import org.apache.cayenne.exp.parser.PatternMatchNode;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.SelectQuery;
+
+/**
+ * A structural fingerprint of a SelectQuery used as a key of the translation
+ * cache. Two queries with the same shape produce the same SQL and differ only
+ * in the values bound to the statement parameters. Besides the key, the shape
+ * holds qualifier nodes of the query in traversal order, that are used to
+ * extract parameter values for a cached translation.
+ * 
+ * @since 4.0
+ */
+final class SelectQueryShape {
+
+	private Key key;
+	private List<Expression> qualifierNodes;
+
+	/**
+	 * Returns a shape of the query or null if the query can not be translated
+	 * via the cache.
+	 */
+	static SelectQueryShape forQuery(SelectQuery<?> query, DbAdapter adapter, EntityResolver resolver) {
+
+		// subclasses, such as prefetch queries, carry extra state affecting
+		// translation and their qualifiers rarely repeat
+		if (query.getClass() != SelectQuery.class) {
+			return null;
+		}
+
+		QueryMetadata md = query.getMetaData(resolver);
+		DbEntity dbEntity = md.getDbEntity();
+		if (dbEntity == null) {
+			return null;
+		}
+
+		SelectQueryShape shape = new SelectQueryShape();
+		shape.qualifierNodes = new ArrayList<Expression>();
+
+		StringBuilder out = new StringBuilder(128);
+
+		ObjEntity objEntity = md.getObjEntity();
+		out.append(query.getRoot() instanceof DbEntity ? "db:" : "obj:");
+		out.append(objEntity != null ? objEntity.getName() : null).append(':').append(dbEntity.getName());
+
+		out.append(" distinct:").append(query.isDistinct());
+		out.append(" limit:").append(md.getFetchLimit());
+		out.append(" offset:").append(md.getFetchOffset());
+		out.append(" paged:").append(md.getPageSize() > 0);
+
+		Map<String, String> aliases = md.getPathSplitAliases();
+		if (aliases != null && !aliases.isEmpty()) {
+			out.append(" aliases:").append(aliases);
+		}
+
+		if (query.getColumns() != null && !query.getColumns().isEmpty()) {
+			out.append(" columns:");
+			for (Property<?> column : query.getColumns()) {
+				if (column.getAggregate() != null) {
+					out.append(column.getAggregate()).append(':');
+
+					// the same aggregate may be read as different types
+					if (column.getAggregateType() != null) {
+						out.append(column.getAggregateType().getName()).append(':');
+					}
+				}
+				out.append(column.getName()).append(',');
+			}
+		}
+
+		out.append(" where:");
+		if (query.getQualifier() != null) {
+			appendExpression(out, query.getQualifier(), shape.qualifierNodes);
+		}
+
+		out.append(" order:");
+		for (Ordering ordering : query.getOrderings()) {
+			out.append(ordering.getSortSpecString()).append(' ').append(ordering.getSortOrder()).append(',');
+		}
+
+		if (query.getPrefetchTree() != null) {
+			out.append(" prefetch:");
+			appendPrefetch(out, query.getPrefetchTree());
+		}
+
+		shape.key = new Key(adapter, resolver, out.toString());
+		return shape;
+	}
+
+	private static void appendExpression(StringBuilder out, Expression node, List<Expression> nodes) {
+		nodes.add(node);
+
+		int type = node.getType();
+		out.append('(').append(type);
+
+		if (node instanceof PatternMatchNode) {
+			out.append(" esc:").append(((PatternMatchNode) node).getEscapeChar());
+		} else if (node instanceof ASTPath) {
+			Map<String, String> aliases = ((ASTPath) node).getPathAliases();
+			if (aliases != null && !aliases.isEmpty()) {
+				out.append(" aliases:").append(aliases);
+			}
+		}
+
+		int len = node.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			Object operand = node.getOperand(i);
+			out.append(' ');
+
+			if (operand instanceof Expression) {
+				appendExpression(out, (Expression) operand, nodes);
+			} else if (type == Expression.OBJ_PATH || type == Expression.DB_PATH) {
+				out.append(operand);
+			} else if (type == Expression.LIST && operand instanceof Object[]) {
+				out.append('[');
+				for (Object value : (Object[]) operand) {
+					appendValue(out, value);
+					out.append(',');
+				}
+				out.append(']');
+			} else {
+				appendValue(out, operand);
+			}
+		}
+
+		out.append(')');
+	}
+
+	private static void appendValue(StringBuilder out, Object value) {
+
+		// values are represented by their types, except for nulls that are
+		// inlined in SQL and ids, whose entity determines the columns matched
+		if (value == null) {
+			out.append("null");
+		} else if (value instanceof Persistent) {
+			ObjectId id = ((Persistent) value).getObjectId();
+			out.append("persistent:").append(id != null ? id.getEntityName() : null);
+		} else if (value instanceof ObjectId) {
+			out.append("id:").append(((ObjectId) value).getEntityName());
+		} else if (value instanceof Collection) {
+			out.append(value.getClass().getName()).append(':').append(((Collection<?>) value).size());
+		} else {
+			out.append(value.getClass().getName());
+		}
+	}
+
+	private static void appendPrefetch(StringBuilder out, PrefetchTreeNode node) {
+		out.append('(').append(node.getName()).append(' ').append(node.getSemantics());
+		if (node.isPhantom()) {
+			out.append(" phantom");
+		}
+
+		for (PrefetchTreeNode child : node.getChildren()) {
+			out.append(' ');
+			appendPrefetch(out, child);
+		}
+
+		out.append(')');
+	}
+
+	private SelectQueryShape() {
+	}
+
+	Key getKey() {
+		return key;
+	}
+
+	List<Expression> getQualifierNodes() {
+		return qualifierNodes;
+	}
+
+	/**
+	 * A cache key matching queries of the same shape translated with the same
+	 * adapter and mapping.
+	 */
+	static final class Key {
+
+		private final DbAdapter adapter;
+		private final EntityResolver resolver;
+		private final int mappingVersion;
+		private final String shape;
+		private final int hashCode;
+
+		Key(DbAdapter adapter, EntityResolver resolver, String shape) {
+			this.adapter = adapter;
+			this.resolver = resolver;
+			this.mappingVersion = resolver.getMappingVersion();
+			this.shape = shape;
+			this.hashCode = 31 * (31 * System.identityHashCode(adapter) + System.identityHashCode(resolver))
+					+ shape.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (object == this) {
+				return true;
+			}
+
+			if (!(object instanceof Key)) {
+				return false;
+			}
+
+			Key key = (Key) object;
+			return adapter == key.adapter && resolver == key.resolver && mappingVersion == key.mappingVersion
+					&& shape.equals(key.shape);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return shape;
+		}
+	}
+}
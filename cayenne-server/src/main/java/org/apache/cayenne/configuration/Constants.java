@@ -112,6 +112,96 @@ public interface Constants {
 	 */
 	public static final String JDBC_VALIDATION_QUERY_PROPERTY = "cayenne.jdbc.validation_query";
 
+	/**
+	 * A boolean property that defines whether the connection pool should be
+	 * built as {@link org.apache.cayenne.datasource.ConcurrentPoolingDataSource}
+	 * that avoids locking on connection checkout. Possible values are "true"
+	 * or "false". Defaults to "false".
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_CONCURRENT_POOL_PROPERTY = "cayenne.jdbc.concurrent_pool";
+
+	/**
+	 * Defines a maximum time in milliseconds that a pooled connection can stay
+	 * open before it is closed and replaced. Defaults to zero, meaning no
+	 * limit.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_MAX_LIFETIME_PROPERTY = "cayenne.jdbc.max_lifetime";
+
+	/**
+	 * Defines a maximum time in milliseconds that a pooled connection can stay
+	 * idle before it is closed, as long as the pool is bigger than its minimum
+	 * size. Defaults to zero, meaning no limit.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_MAX_IDLE_TIME_PROPERTY = "cayenne.jdbc.max_idle_time";
+
+	/**
+	 * A boolean property that defines whether pooled connections should be
+	 * validated in the background while idle instead of on checkout. Possible
+	 * values are "true" or "false". Defaults to "false".
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_BACKGROUND_VALIDATION_PROPERTY = "cayenne.jdbc.background_validation";
+
+	/**
+	 * Defines an interval in milliseconds between connection pool maintenance
+	 * runs. Defaults to 2 minutes.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_MANAGER_WAKE_TIME_PROPERTY = "cayenne.jdbc.manager_wake_time";
+
+	/**
+	 * Defines the maximum number of prepared statements cached by each pooled
+	 * connection. Defaults to zero, meaning that statements are not cached.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_STATEMENT_CACHE_SIZE_PROPERTY = "cayenne.jdbc.statement_cache_size";
+
+	/**
+	 * A boolean property that defines whether connection pool metrics of
+	 * each DataNode should be registered as a JMX MBean. Possible values are
+	 * "true" or "false". Defaults to "true".
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_POOL_JMX_PROPERTY = "cayenne.jdbc.pool_jmx";
+
+	/**
+	 * A comma-separated list of JDBC URLs of read replicas of a DataNode
+	 * database. Non-transactional selects are sent to the replicas, while
+	 * writes always go to the primary DataSource. Replicas reuse the driver,
+	 * credentials and pool settings of the primary. Can be specified per node
+	 * by adding ".domain_name.node_name" suffix.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_REPLICA_URLS_PROPERTY = "cayenne.jdbc.replica_urls";
+
+	/**
+	 * Defines how reads are balanced between read replicas. Possible values
+	 * are "round_robin" and "least_busy". Defaults to "round_robin".
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_REPLICA_ROUTING_PROPERTY = "cayenne.jdbc.replica_routing";
+
+	/**
+	 * Defines time in milliseconds after a write to a DataNode during which
+	 * reads are sent to the primary DataSource instead of read replicas, as
+	 * replicas may not yet have the changes. Defaults to zero.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String JDBC_MAX_REPLICA_LAG_PROPERTY = "cayenne.jdbc.max_replica_lag";
+
 	/**
 	 * An integer property defining the maximum number of entries in the query
 	 * cache. Note that not all QueryCache providers may respect this property.
@@ -204,4 +294,91 @@ public interface Constants {
 	 * */
 	public final static String QUERY_EXECUTION_TIME_LOGGING_THRESHOLD_PROPERTY = "cayenne.server.query_execution_time_logging_threshold";
 
+	/**
+	 * A DI key of the ExecutorService used to run queries asynchronously.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SERVER_ASYNC_EXECUTOR = "cayenne.server.async_executor";
+
+	/**
+	 * Defines the maximum number of threads running asynchronous queries.
+	 * Each running query holds a DataNode connection, so this number should
+	 * not exceed the connection pool size. Defaults to the max connections of
+	 * the largest DataNode connection pool, or to 4 if DataNodes don't use
+	 * Cayenne connection pools.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SERVER_ASYNC_THREADS_PROPERTY = "cayenne.server.async_threads";
+
+	/**
+	 * Defines the maximum number of asynchronous queries waiting for a free
+	 * thread. Queries submitted when the queue is full are rejected. Defaults
+	 * to 1000.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SERVER_ASYNC_QUEUE_SIZE_PROPERTY = "cayenne.server.async_queue_size";
+
+	/**
+	 * Defines the maximum number of parsed SQLTemplate templates cached by
+	 * the template processor. Zero disables the cache. Defaults to 500.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SQL_TEMPLATE_CACHE_SIZE_PROPERTY = "cayenne.server.sql_template_cache_size";
+
+	/**
+	 * Defines the maximum number of compiled EJBQL expressions cached by the
+	 * EntityResolver. Zero disables the cache. Defaults to 1000.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String EJBQL_CACHE_SIZE_PROPERTY = "cayenne.server.ejbql_cache_size";
+
+	/**
+	 * Defines the maximum number of SelectQuery translations cached by the
+	 * select translator factory. Zero disables the cache. Defaults to 500.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SELECT_TRANSLATION_CACHE_SIZE_PROPERTY = "cayenne.server.select_translation_cache_size";
+
+	/**
+	 * Defines the maximum number of parsed expression strings cached by
+	 * {@link org.apache.cayenne.exp.ExpressionFactory#exp(String, Object...)}.
+	 * The cache is shared by the whole JVM, so this is read as a system
+	 * property when the expression factory is loaded. Zero disables the
+	 * cache. Defaults to 1000.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String EXPRESSION_CACHE_SIZE_PROPERTY = "cayenne.expression_cache_size";
+
+	/**
+	 * A boolean property that defines whether adapters that support it should
+	 * stream the results of iterated queries from the database, instead of
+	 * letting the JDBC driver read the entire result in memory. Possible
+	 * values are "true" or "false". Currently affects PostgreSQL and MySQL
+	 * adapters. Defaults to "true" for PostgreSQL and to "false" for MySQL, as
+	 * MySQL does not allow any other statements on the connection while a
+	 * streamed result is open, so e.g. faulting a relationship while iterating
+	 * would fail.
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SERVER_STREAMING_ITERATED_QUERIES_PROPERTY = "cayenne.server.streaming_iterated_queries";
+
+	/**
+	 * An integer property that defines the minimal number of rows inserted
+	 * into a single table on commit that makes adapters that support it load
+	 * the rows with a database-specific bulk loading mechanism instead of
+	 * INSERT statements. Zero (the default) disables bulk loading on commit.
+	 * Currently affects PostgreSQL adapter, which uses "COPY ... FROM STDIN".
+	 * 
+	 * @since 4.0
+	 */
+	public static final String SERVER_COPY_INSERT_THRESHOLD_PROPERTY = "cayenne.server.copy_insert_threshold";
+
 }
@@ -18,8 +18,12 @@
  ****************************************************************/
 package org.apache.cayenne.configuration.server;
 
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import javax.sql.DataSource;
 
 import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.DataChannel;
@@ -34,10 +38,14 @@ import org.apache.cayenne.configuration.DataChannelDescriptor;
 import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
 import org.apache.cayenne.configuration.DataChannelDescriptorMerger;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.datasource.PoolingDataSource;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Provider;
+import org.apache.cayenne.ejbql.EJBQLCompiledExpressionCache;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntitySorter;
@@ -122,6 +130,9 @@ public class DataDomainProvider implements Provider<DataDomain> {
 		dataDomain.setQueryCache(new NestedQueryCache(queryCache));
 		dataDomain.setEntitySorter(injector.getInstance(EntitySorter.class));
 		dataDomain.setEventManager(injector.getInstance(EventManager.class));
+		dataDomain.setAsyncExecutor(injector.getInstance(Key.get(ExecutorService.class,
+				Constants.SERVER_ASYNC_EXECUTOR)));
+		dataDomain.setAsyncContextFactory(injector.getProvider(ObjectContextFactory.class));
 
 		dataDomain.initWithProperties(descriptor.getProperties());
 
@@ -131,11 +142,20 @@ public class DataDomainProvider implements Provider<DataDomain> {
 
 		dataDomain.getEntityResolver().applyDBLayerDefaults();
 		dataDomain.getEntityResolver().applyObjectLayerDefaults();
+		dataDomain.getEntityResolver().getEjbqlCache().setCapacity(runtimeProperties.getInt(
+				Constants.EJBQL_CACHE_SIZE_PROPERTY, EJBQLCompiledExpressionCache.DEFAULT_CAPACITY));
 
 		for (DataNodeDescriptor nodeDescriptor : descriptor.getNodeDescriptors()) {
 			addDataNode(dataDomain, nodeDescriptor);
 		}
 
+		// async queries each hold a connection, so size their threads to the
+		// pool, unless the executor is customized
+		ExecutorService asyncExecutor = dataDomain.getAsyncExecutor();
+		if (asyncExecutor instanceof DefaultAsyncExecutor) {
+			((DefaultAsyncExecutor) asyncExecutor).setConnectionLimit(maxPoolConnections(dataDomain));
+		}
+
 		// init default node
 		DataNode defaultNode = null;
 
@@ -178,6 +198,23 @@ public class DataDomainProvider implements Provider<DataDomain> {
 		return dataNode;
 	}
 
+	/**
+	 * Returns the max connections of the largest DataNode connection pool, or
+	 * zero if no DataNode uses a {@link PoolingDataSource}.
+	 */
+	private int maxPoolConnections(DataDomain dataDomain) throws SQLException {
+		int max = 0;
+
+		for (DataNode node : dataDomain.getDataNodes()) {
+			DataSource dataSource = node.getDataSource();
+			if (dataSource != null && dataSource.isWrapperFor(PoolingDataSource.class)) {
+				max = Math.max(max, dataSource.unwrap(PoolingDataSource.class).getMaxConnections());
+			}
+		}
+
+		return max;
+	}
+
 	private DataChannelDescriptor descriptorFromConfigs() {
 
 		long t0 = System.currentTimeMillis();
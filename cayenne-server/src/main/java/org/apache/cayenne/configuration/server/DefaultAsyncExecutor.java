@@ -0,0 +1,118 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.server;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
+
+/**
+ * A bounded thread pool used to run queries asynchronously. The number of
+ * threads and the size of the task queue are configured via
+ * {@link Constants#SERVER_ASYNC_THREADS_PROPERTY} and
+ * {@link Constants#SERVER_ASYNC_QUEUE_SIZE_PROPERTY}. Unless the number of
+ * threads is set explicitly, it is matched to the connection pool size once
+ * the DataNodes are created. Idle threads are stopped, so an unused executor
+ * doesn't hold any threads.
+ * 
+ * @since 4.0
+ */
+public class DefaultAsyncExecutor extends ThreadPoolExecutor {
+
+	/**
+	 * The number of threads used when it is neither set explicitly nor can be
+	 * derived from the connection pool size.
+	 */
+	public static final int THREADS_DEFAULT = 4;
+	public static final int QUEUE_SIZE_DEFAULT = 1000;
+
+	private boolean fixedSize;
+
+	public DefaultAsyncExecutor(@Inject RuntimeProperties properties) {
+		this(properties.getInt(Constants.SERVER_ASYNC_THREADS_PROPERTY, 0), properties.getInt(
+				Constants.SERVER_ASYNC_QUEUE_SIZE_PROPERTY, QUEUE_SIZE_DEFAULT));
+	}
+
+	/**
+	 * Creates an executor with the specified number of threads. If "threads"
+	 * is zero or less, the executor starts with {@link #THREADS_DEFAULT}
+	 * threads and can be resized by {@link #setConnectionLimit(int)}.
+	 */
+	public DefaultAsyncExecutor(int threads, int queueSize) {
+		super(threads > 0 ? threads : THREADS_DEFAULT, threads > 0 ? threads : THREADS_DEFAULT, 60,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(queueSize), new AsyncThreadFactory());
+		this.fixedSize = threads > 0;
+		allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Matches the number of threads to the maximum number of connections a
+	 * query can get from a DataNode pool, so that queries running at once
+	 * don't wait for connections. Does nothing if the number of threads was
+	 * set explicitly, or if the limit is unknown (zero or less).
+	 */
+	public void setConnectionLimit(int maxConnections) {
+
+		if (fixedSize || maxConnections <= 0) {
+			return;
+		}
+
+		// core size can't exceed max size, so the order of calls depends on
+		// whether the pool grows or shrinks
+		if (maxConnections > getMaximumPoolSize()) {
+			setMaximumPoolSize(maxConnections);
+			setCorePoolSize(maxConnections);
+		} else {
+			setCorePoolSize(maxConnections);
+			setMaximumPoolSize(maxConnections);
+		}
+	}
+
+	@BeforeScopeEnd
+	public void shutdownOnScopeEnd() {
+		shutdownNow();
+	}
+
+	static class AsyncThreadFactory implements ThreadFactory {
+
+		private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+		private final String prefix;
+		private final AtomicInteger threadCounter;
+
+		AsyncThreadFactory() {
+			this.prefix = "cayenne-async-" + POOL_COUNTER.incrementAndGet() + "-";
+			this.threadCounter = new AtomicInteger();
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
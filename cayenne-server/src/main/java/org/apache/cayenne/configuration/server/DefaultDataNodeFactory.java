@@ -18,24 +18,46 @@
  ****************************************************************/
 package org.apache.cayenne.configuration.server;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.Driver;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
+import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.ReplicaRoutingStrategy;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategy;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
 import org.apache.cayenne.access.translator.select.SelectTranslatorFactory;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.conn.DataSourceInfo;
+import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.ManagedPoolingDataSource;
+import org.apache.cayenne.datasource.PoolingDataSource;
+import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 /**
  * @since 4.0
  */
 public class DefaultDataNodeFactory implements DataNodeFactory {
 
+    private static final Log LOGGER = LogFactory.getLog(DefaultDataNodeFactory.class);
+
     @Inject
     protected JdbcEventLogger jdbcEventLogger;
 
@@ -63,6 +85,15 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
     @Inject
     protected SQLTemplateProcessor sqlTemplateProcessor;
 
+    @Inject
+    protected RuntimeProperties runtimeProperties;
+
+    protected List<PoolingDataSource> replicaDataSources;
+
+    public DefaultDataNodeFactory() {
+        this.replicaDataSources = new CopyOnWriteArrayList<PoolingDataSource>();
+    }
+
     @Override
     public DataNode createDataNode(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -81,6 +112,12 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         dataNode.setDataSourceFactory(nodeDescriptor.getDataSourceFactoryType());
         dataNode.setDataSource(dataSource);
 
+        if (runtimeProperties.getBoolean(Constants.JDBC_POOL_JMX_PROPERTY, true)) {
+            registerPoolMBean(nodeDescriptor, dataSource);
+        }
+
+        configureReadReplicas(dataNode, nodeDescriptor);
+
         // schema update strategy
         String schemaUpdateStrategyType = nodeDescriptor.getSchemaUpdateStrategyType();
 
@@ -100,4 +137,144 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         return dataNode;
     }
 
+    /**
+     * Closes connection pools of read replicas created by this factory.
+     */
+    @BeforeScopeEnd
+    public void shutdown() {
+        for (PoolingDataSource dataSource : replicaDataSources) {
+            try {
+                dataSource.close();
+            } catch (IOException e) {
+                LOGGER.info("Error closing read replica DataSource, ignoring", e);
+            }
+        }
+
+        replicaDataSources.clear();
+    }
+
+    /**
+     * Creates read replica DataSources for the node if
+     * {@link Constants#JDBC_REPLICA_URLS_PROPERTY} is set for it. Replicas use
+     * the same driver, credentials and pool settings as the primary
+     * DataSource.
+     */
+    protected void configureReadReplicas(DataNode dataNode, DataNodeDescriptor nodeDescriptor) throws Exception {
+
+        String suffix = nodeDescriptor.getDataChannelDescriptor() != null ? "."
+                + nodeDescriptor.getDataChannelDescriptor().getName() + "." + nodeDescriptor.getName() : "";
+
+        String urls = getProperty(Constants.JDBC_REPLICA_URLS_PROPERTY, suffix);
+        if (urls == null || urls.trim().length() == 0) {
+            return;
+        }
+
+        String routing = getProperty(Constants.JDBC_REPLICA_ROUTING_PROPERTY, suffix);
+        if (routing != null) {
+            try {
+                dataNode.setReplicaRoutingStrategy(ReplicaRoutingStrategy.valueOf(routing.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationException("Invalid replica routing strategy: '%s'", routing);
+            }
+        }
+
+        String maxLag = getProperty(Constants.JDBC_MAX_REPLICA_LAG_PROPERTY, suffix);
+        if (maxLag != null) {
+            try {
+                dataNode.setMaxReplicaLag(Long.parseLong(maxLag.trim()));
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException("Invalid replica lag: '%s'", maxLag);
+            }
+        }
+
+        DataSourceInfo primary = nodeDescriptor.getDataSourceDescriptor();
+
+        String driverClass = getProperty(Constants.JDBC_DRIVER_PROPERTY, suffix);
+        String username = getProperty(Constants.JDBC_USERNAME_PROPERTY, suffix);
+        String password = getProperty(Constants.JDBC_PASSWORD_PROPERTY, suffix);
+        int minConnections = runtimeProperties.getInt(Constants.JDBC_MIN_CONNECTIONS_PROPERTY + suffix,
+                runtimeProperties.getInt(Constants.JDBC_MIN_CONNECTIONS_PROPERTY, 1));
+        int maxConnections = runtimeProperties.getInt(Constants.JDBC_MAX_CONNECTIONS_PROPERTY + suffix,
+                runtimeProperties.getInt(Constants.JDBC_MAX_CONNECTIONS_PROPERTY, 1));
+
+        if (driverClass == null && primary != null) {
+            driverClass = primary.getJdbcDriver();
+            username = primary.getUserName();
+            password = primary.getPassword();
+            minConnections = primary.getMinConnections();
+            maxConnections = primary.getMaxConnections();
+        }
+
+        if (driverClass == null) {
+            throw new ConfigurationException("No JDBC driver is configured for read replicas of DataNode '%s'",
+                    nodeDescriptor.getName());
+        }
+
+        Driver driver = objectFactory.newInstance(Driver.class, driverClass);
+
+        for (String url : urls.split(",")) {
+            url = url.trim();
+            if (url.length() == 0) {
+                continue;
+            }
+
+            PoolingDataSource replica = DataSourceBuilder
+                    .url(url)
+                    .driver(driver)
+                    .userName(username)
+                    .password(password)
+                    .pool(minConnections, maxConnections)
+                    .maxQueueWaitTime(
+                            runtimeProperties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
+                                    UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT))
+                    .validationQuery(runtimeProperties.get(Constants.JDBC_VALIDATION_QUERY_PROPERTY))
+                    .concurrentPool(runtimeProperties.getBoolean(Constants.JDBC_CONCURRENT_POOL_PROPERTY, false))
+                    .maxConnectionLifetime(runtimeProperties.getLong(Constants.JDBC_MAX_LIFETIME_PROPERTY, 0))
+                    .maxIdleTime(runtimeProperties.getLong(Constants.JDBC_MAX_IDLE_TIME_PROPERTY, 0))
+                    .backgroundValidation(
+                            runtimeProperties.getBoolean(Constants.JDBC_BACKGROUND_VALIDATION_PROPERTY, false))
+                    .managerWakeTime(
+                            runtimeProperties.getLong(Constants.JDBC_MANAGER_WAKE_TIME_PROPERTY,
+                                    ManagedPoolingDataSource.MANAGER_WAKE_TIME_DEFAULT))
+                    .statementCacheSize(runtimeProperties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0))
+                    .build();
+
+            replicaDataSources.add(replica);
+            dataNode.addReadReplica(replica);
+        }
+    }
+
+    private String getProperty(String propertyName, String suffix) {
+        String value = runtimeProperties.get(propertyName + suffix);
+        return value != null ? value : runtimeProperties.get(propertyName);
+    }
+
+    /**
+     * Registers connection pool metrics of the node DataSource as a JMX MBean
+     * named "org.apache.cayenne:type=ConnectionPool,domain=...,node=...". Does
+     * nothing if the DataSource is not a Cayenne connection pool.
+     */
+    protected void registerPoolMBean(DataNodeDescriptor nodeDescriptor, DataSource dataSource) {
+
+        if (!(dataSource instanceof ManagedPoolingDataSource)) {
+            return;
+        }
+
+        String domainName = nodeDescriptor.getDataChannelDescriptor() != null ? nodeDescriptor
+                .getDataChannelDescriptor().getName() : null;
+
+        ObjectName name;
+        try {
+            name = new ObjectName("org.apache.cayenne:type=ConnectionPool,domain="
+                    + ObjectName.quote(String.valueOf(domainName)) + ",node="
+                    + ObjectName.quote(String.valueOf(nodeDescriptor.getName())));
+            ((ManagedPoolingDataSource) dataSource).registerMBean(ManagementFactory.getPlatformMBeanServer(), name);
+        } catch (JMException e) {
+            // e.g. another runtime with the same node names is running in the
+            // same JVM
+            LOGGER.info("Failed to register connection pool MBean for DataNode '" + nodeDescriptor.getName()
+                    + "', ignoring", e);
+        }
+    }
+
 }
@@ -27,6 +27,7 @@ import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.ManagedPoolingDataSource;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
@@ -70,11 +71,21 @@ public class PropertyDataSourceFactory implements DataSourceFactory {
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
 		String validationQuery = properties.get(Constants.JDBC_VALIDATION_QUERY_PROPERTY);
+		boolean concurrentPool = properties.getBoolean(Constants.JDBC_CONCURRENT_POOL_PROPERTY, false);
+		long maxLifetime = properties.getLong(Constants.JDBC_MAX_LIFETIME_PROPERTY, 0);
+		long maxIdleTime = properties.getLong(Constants.JDBC_MAX_IDLE_TIME_PROPERTY, 0);
+		boolean backgroundValidation = properties.getBoolean(Constants.JDBC_BACKGROUND_VALIDATION_PROPERTY, false);
+		long managerWakeTime = properties.getLong(Constants.JDBC_MANAGER_WAKE_TIME_PROPERTY,
+				ManagedPoolingDataSource.MANAGER_WAKE_TIME_DEFAULT);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
 
 		Driver driver = objectFactory.newInstance(Driver.class, driverClass);
 		return DataSourceBuilder.url(url).driver(driver).userName(username).password(password)
 				.pool(minConnections, maxConnections).maxQueueWaitTime(maxQueueWaitTime)
-				.validationQuery(validationQuery).build();
+				.validationQuery(validationQuery).concurrentPool(concurrentPool)
+				.maxConnectionLifetime(maxLifetime).maxIdleTime(maxIdleTime)
+				.backgroundValidation(backgroundValidation).managerWakeTime(managerWakeTime)
+				.statementCacheSize(statementCacheSize).build();
 	}
 
 	protected int getIntProperty(String propertyName, String suffix, int defaultValue) {
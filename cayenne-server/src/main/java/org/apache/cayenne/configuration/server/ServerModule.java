@@ -103,6 +103,7 @@ import org.apache.cayenne.velocity.VelocitySQLTemplateProcessor;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A DI module containing all Cayenne server runtime configuration.
@@ -252,5 +253,8 @@ public class ServerModule implements Module {
 		binder.bind(RowReaderFactory.class).to(DefaultRowReaderFactory.class);
 
 		binder.bind(SQLTemplateProcessor.class).to(VelocitySQLTemplateProcessor.class);
+
+		// a bounded executor for asynchronous queries
+		binder.bind(Key.get(ExecutorService.class, Constants.SERVER_ASYNC_EXECUTOR)).to(DefaultAsyncExecutor.class);
 	}
 }
@@ -28,6 +28,7 @@ import org.apache.cayenne.configuration.DataNodeDescriptor;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.conn.DataSourceInfo;
 import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.ManagedPoolingDataSource;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
@@ -67,12 +68,23 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
 
+		boolean concurrentPool = properties.getBoolean(Constants.JDBC_CONCURRENT_POOL_PROPERTY, false);
+		long maxLifetime = properties.getLong(Constants.JDBC_MAX_LIFETIME_PROPERTY, 0);
+		long maxIdleTime = properties.getLong(Constants.JDBC_MAX_IDLE_TIME_PROPERTY, 0);
+		boolean backgroundValidation = properties.getBoolean(Constants.JDBC_BACKGROUND_VALIDATION_PROPERTY, false);
+		long managerWakeTime = properties.getLong(Constants.JDBC_MANAGER_WAKE_TIME_PROPERTY,
+				ManagedPoolingDataSource.MANAGER_WAKE_TIME_DEFAULT);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
+
 		Driver driver = objectFactory.newInstance(Driver.class, descriptor.getJdbcDriver());
 
 		return DataSourceBuilder.url(descriptor.getDataSourceUrl()).driver(driver).userName(descriptor.getUserName())
 				.password(descriptor.getPassword())
 				.pool(descriptor.getMinConnections(), descriptor.getMaxConnections())
-				.maxQueueWaitTime(maxQueueWaitTime).build();
+				.maxQueueWaitTime(maxQueueWaitTime).concurrentPool(concurrentPool)
+				.maxConnectionLifetime(maxLifetime).maxIdleTime(maxIdleTime)
+				.backgroundValidation(backgroundValidation).managerWakeTime(managerWakeTime)
+				.statementCacheSize(statementCacheSize).build();
 	}
 
 }
@@ -0,0 +1,451 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A superclass of {@link DataSource} implementations with a pool of
+ * connections. Contains pool configuration and the logic shared by the pool
+ * implementations, leaving pool storage and connection checkout algorithms to
+ * subclasses.
+ * 
+ * @since 4.0
+ */
+public abstract class AbstractPoolingDataSource implements PoolingDataSource {
+
+	private static Log LOGGER = LogFactory.getLog(AbstractPoolingDataSource.class);
+
+	// An old hack that fixes Sybase problems with autocommit. Used idea from
+	// Jonas org.objectweb.jonas.jdbc_xa.ConnectionImpl
+	// (http://www.objectweb.org/jonas/).
+	//
+	// If problem is not the one that can be fixed by this patch, original
+	// exception is rethrown. If exception occurs when fixing the problem, new
+	// exception is thrown.
+	//
+	static void sybaseAutoCommitPatch(Connection c, SQLException e, boolean autoCommit) throws SQLException {
+
+		String s = e.getMessage().toLowerCase();
+		if (s.contains("set chained command not allowed")) {
+
+			// ending the transaction with 'commit' is what JDBC requires from
+			// a 'setAutoCommit' call made in the middle of a transaction. When
+			// a connection is checked out of the pool, there is nothing to
+			// commit, as transactions left open by the previous user are
+			// rolled back on checkin
+
+			c.commit();
+			c.setAutoCommit(autoCommit); // Shouldn't fail now.
+		} else {
+			throw e;
+		}
+	}
+
+	/**
+	 * Defines a maximum time in milliseconds that a connection request could
+	 * wait in the connection queue. After this period expires, an exception
+	 * will be thrown in the calling method.
+	 */
+	public static final int MAX_QUEUE_WAIT_DEFAULT = 20000;
+
+	/**
+	 * A timeout in seconds passed to {@link Connection#isValid(int)} when
+	 * validating idle connections.
+	 */
+	static final int IDLE_VALIDATION_TIMEOUT = 5;
+
+	static int maxIdleConnections(int min, int max) {
+		return min == max ? min : min + (int) Math.ceil((max - min) / 2d);
+	}
+
+	private DataSource nonPoolingDataSource;
+	private long maxQueueWaitTime;
+
+	private int maxIdleConnections;
+	private int minConnections;
+	private int maxConnections;
+	private String validationQuery;
+	private long maxConnectionLifetime;
+	private long maxIdleTime;
+	private boolean backgroundValidation;
+	private int statementCacheSize;
+	private PoolingDataSourceMetrics metrics;
+
+	protected AbstractPoolingDataSource(DataSource nonPoolingDataSource, PoolingDataSourceParameters parameters) {
+
+		int minConnections = parameters.getMinConnections();
+		int maxConnections = parameters.getMaxConnections();
+
+		// sanity check
+		if (minConnections < 0) {
+			throw new IllegalArgumentException("Negative min connections: " + minConnections);
+		}
+
+		if (maxConnections < 0) {
+			throw new IllegalArgumentException("Negative max connections: " + maxConnections);
+		}
+
+		if (minConnections > maxConnections) {
+			throw new IllegalArgumentException("Min connections (" + minConnections
+					+ ") is greater than max connections (" + maxConnections + ")");
+		}
+
+		this.nonPoolingDataSource = nonPoolingDataSource;
+		this.maxQueueWaitTime = parameters.getMaxQueueWaitTime();
+		this.validationQuery = parameters.getValidationQuery();
+		this.minConnections = minConnections;
+		this.maxConnections = maxConnections;
+		this.maxIdleConnections = maxIdleConnections(minConnections, maxConnections);
+		this.maxConnectionLifetime = parameters.getMaxConnectionLifetime();
+		this.maxIdleTime = parameters.getMaxIdleTime();
+		this.backgroundValidation = parameters.isBackgroundValidation();
+		this.statementCacheSize = parameters.getStatementCacheSize();
+		this.metrics = new PoolingDataSourceMetrics(this);
+	}
+
+	/**
+	 * Returns the total number of pooled connections, both checked out and
+	 * idle.
+	 */
+	abstract int poolSize();
+
+	/**
+	 * Returns the number of idle connections in the pool.
+	 */
+	abstract int availableSize();
+
+	/**
+	 * Opens or closes a connection to move the pool size towards its optimal
+	 * state. Called periodically by {@link PoolingDataSourceManager}.
+	 */
+	abstract void managePool();
+
+	/**
+	 * Opens connections until the pool reaches its minimum size. Called once
+	 * by {@link PoolingDataSourceManager} when it starts, so that connections
+	 * that could not be opened when the pool was created are opened in the
+	 * background instead of on the first requests.
+	 */
+	void warmUp() {
+		try {
+			while (poolSize() < minConnections) {
+				PoolAwareConnection c = createUnchecked();
+				if (c == null) {
+					break;
+				}
+
+				reclaim(c);
+			}
+		} catch (SQLException e) {
+			LOGGER.info("Error creating new connection when warming up connection pool, ignoring", e);
+		}
+	}
+
+	/**
+	 * Creates a new checked out connection, returning null if the pool has
+	 * reached its maximum size.
+	 */
+	abstract PoolAwareConnection createUnchecked() throws SQLException;
+
+	/**
+	 * Takes a connection from the pool, opening a new one or waiting for
+	 * another caller to return a connection if needed.
+	 * 
+	 * @throws UnmanagedPoolingDataSource.ConnectionUnavailableException
+	 *             if the connection could not be obtained within the max queue
+	 *             wait time.
+	 */
+	abstract PoolAwareConnection checkout() throws SQLException;
+
+	/**
+	 * Closes all pooled connections.
+	 */
+	@Override
+	public abstract void close();
+
+	/**
+	 * Closes the connection and removes it from the pool.
+	 */
+	abstract void retire(PoolAwareConnection connection);
+
+	/**
+	 * Returns connection back to the pool if possible.
+	 */
+	abstract void reclaim(PoolAwareConnection connection);
+
+	/**
+	 * Returns true if the connection was open longer than the max connection
+	 * lifetime and should not be used anymore.
+	 */
+	boolean isExpired(PoolAwareConnection c) {
+		return maxConnectionLifetime > 0 && System.currentTimeMillis() - c.getCreatedAt() >= maxConnectionLifetime;
+	}
+
+	/**
+	 * Checks whether a connection taken from the pool can be given to the
+	 * caller. Connections are validated on checkout, unless they are
+	 * validated in the background.
+	 */
+	boolean isCheckoutValid(PoolAwareConnection c) {
+
+		if (isExpired(c)) {
+			return false;
+		}
+
+		if (!backgroundValidation && !c.validate()) {
+			metrics.validationFailed();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks an idle connection taken out of the pool by the maintenance
+	 * thread, returning false if the connection must be closed. Idle
+	 * connections are closed when expired, when idle for too long (only if
+	 * "canShrink" is true) or when failing validation in the background
+	 * validation mode.
+	 */
+	boolean keepIdle(PoolAwareConnection c, boolean canShrink) {
+
+		if (isExpired(c)) {
+			return false;
+		}
+
+		if (canShrink && maxIdleTime > 0 && System.currentTimeMillis() - c.getLastReturnedAt() >= maxIdleTime) {
+			return false;
+		}
+
+		if (backgroundValidation && !c.validateIdle(IDLE_VALIDATION_TIMEOUT)) {
+			metrics.validationFailed();
+			return false;
+		}
+
+		return true;
+	}
+
+	PoolAwareConnection createWrapped() throws SQLException {
+		StatementCache statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize,
+				metrics.statementCacheHits, metrics.statementCacheMisses) : null;
+		PoolAwareConnection c = new PoolAwareConnection(this, createUnwrapped(), validationQuery, statementCache);
+		metrics.connectionCreated();
+		return c;
+	}
+
+	/**
+	 * Creates a new connection.
+	 */
+	Connection createUnwrapped() throws SQLException {
+		return nonPoolingDataSource.getConnection();
+	}
+
+	/**
+	 * Updates connection state to a default state.
+	 */
+	Connection resetState(Connection c) throws SQLException {
+
+		// transaction isolation level is restored on checkin, if changed
+
+		if (!c.getAutoCommit()) {
+
+			try {
+				c.setAutoCommit(true);
+			} catch (SQLException e) {
+				sybaseAutoCommitPatch(c, e, true);
+			}
+		}
+
+		c.clearWarnings();
+		return c;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+
+		long start = System.nanoTime();
+
+		PoolAwareConnection c;
+		try {
+			c = checkout();
+		} catch (UnmanagedPoolingDataSource.ConnectionUnavailableException e) {
+			metrics.checkoutTimedOut();
+			throw e;
+		}
+
+		long checkedOutAt = System.nanoTime();
+		metrics.checkedOut(checkedOutAt - start);
+		c.setCheckedOutAt(checkedOutAt);
+
+		return resetState(c);
+	}
+
+	/**
+	 * Returns a connection checked out via {@link #getConnection()} back to
+	 * the pool.
+	 */
+	void checkin(PoolAwareConnection c) {
+
+		long checkedOutAt = c.getCheckedOutAt();
+		if (checkedOutAt != 0) {
+			c.setCheckedOutAt(0);
+			metrics.checkedIn(System.nanoTime() - checkedOutAt);
+		}
+
+		if (resetReturned(c)) {
+			reclaim(c);
+		} else {
+			retire(c);
+		}
+	}
+
+	/**
+	 * Prepares a connection returned by the caller for reuse. A transaction
+	 * left open by the caller is rolled back, as switching the connection to
+	 * autocommit mode on the next checkout would otherwise commit it. The
+	 * transaction isolation level is restored if the caller changed it.
+	 * Returns false if the connection can't be reused and must be retired.
+	 */
+	boolean resetReturned(PoolAwareConnection c) {
+		try {
+			Connection connection = c.getConnection();
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+			}
+
+			c.resetTransactionIsolation();
+			return true;
+		} catch (SQLException e) {
+			LOGGER.info("Error resetting connection returned to the pool, closing it", e);
+			return false;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String userName, String password) throws SQLException {
+		throw new UnsupportedOperationException(
+				"Connections for a specific user are not supported by the pooled DataSource");
+	}
+
+	@Override
+	public int getLoginTimeout() throws java.sql.SQLException {
+		return nonPoolingDataSource.getLoginTimeout();
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) throws java.sql.SQLException {
+		nonPoolingDataSource.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public PrintWriter getLogWriter() throws java.sql.SQLException {
+		return nonPoolingDataSource.getLogWriter();
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) throws java.sql.SQLException {
+		nonPoolingDataSource.setLogWriter(out);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (getClass().equals(iface)) ? true : nonPoolingDataSource.isWrapperFor(iface);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return getClass().equals(iface) ? (T) this : nonPoolingDataSource.unwrap(iface);
+	}
+
+	// JDBC 4.1 compatibility under Java pre 1.7
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	String getValidationQuery() {
+		return validationQuery;
+	}
+
+	long getMaxQueueWaitTime() {
+		return maxQueueWaitTime;
+	}
+
+	int getMaxIdleConnections() {
+		return maxIdleConnections;
+	}
+
+	int getMinConnections() {
+		return minConnections;
+	}
+
+	@Override
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	long getMaxConnectionLifetime() {
+		return maxConnectionLifetime;
+	}
+
+	long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	boolean isBackgroundValidation() {
+		return backgroundValidation;
+	}
+
+	int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Returns how many times a prepared statement was taken from the
+	 * statement cache of one of the pooled connections.
+	 */
+	public long getStatementCacheHits() {
+		return metrics.getStatementCacheHits();
+	}
+
+	/**
+	 * Returns how many times a prepared statement was not found in the
+	 * statement cache and had to be prepared by the driver.
+	 */
+	public long getStatementCacheMisses() {
+		return metrics.getStatementCacheMisses();
+	}
+
+	/**
+	 * Returns usage statistics of this pool.
+	 */
+	public PoolingDataSourceMetrics getMetrics() {
+		return metrics;
+	}
+}
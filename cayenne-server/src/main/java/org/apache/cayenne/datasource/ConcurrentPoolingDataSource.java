@@ -0,0 +1,310 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link DataSource} with a pool of connections that avoids locking on
+ * connection checkout and return. Unlike {@link UnmanagedPoolingDataSource}
+ * that keeps idle connections in a shared queue, this pool stores them in a
+ * {@link ConnectionBag}, tracking checkout status via atomic state of each
+ * {@link PoolAwareConnection}, and preferring connections recently used by the
+ * calling thread. This reduces contention when the pool is accessed by a
+ * large number of threads.
+ * 
+ * @since 4.0
+ */
+public class ConcurrentPoolingDataSource extends AbstractPoolingDataSource {
+
+	private static Log LOGGER = LogFactory.getLog(ConcurrentPoolingDataSource.class);
+
+	private ConnectionBag bag;
+
+	// the number of connections in the pool, including the ones being opened
+	// at the moment
+	private AtomicInteger size;
+	private volatile boolean closed;
+
+	public ConcurrentPoolingDataSource(DataSource nonPoolingDataSource, PoolingDataSourceParameters parameters) {
+
+		super(nonPoolingDataSource, parameters);
+
+		this.bag = new ConnectionBag();
+		this.size = new AtomicInteger();
+
+		// grow pool to min connections
+		try {
+			for (int i = 0; i < getMinConnections(); i++) {
+				PoolAwareConnection c = createUnchecked();
+				reclaim(c);
+			}
+		} catch (BadValidationQueryException e) {
+			throw new CayenneRuntimeException("Bad validation query: " + getValidationQuery(), e);
+		} catch (SQLException e) {
+			LOGGER.info("Error creating new connection when starting connection pool, ignoring", e);
+		}
+	}
+
+	@Override
+	int poolSize() {
+		return bag.size();
+	}
+
+	@Override
+	int availableSize() {
+		return bag.idleSize();
+	}
+
+	@Override
+	public void close() {
+
+		// expecting surrounding environment to block new requests for
+		// connections before calling this method. Connections checked out
+		// before that will be retired when returned to the pool
+		closed = true;
+
+		for (PoolAwareConnection c : bag.values()) {
+			retire(c);
+		}
+	}
+
+	@Override
+	void managePool() {
+
+		if (closed) {
+			return;
+		}
+
+		checkIdle();
+
+		// do not grow or shrink abruptly ... open or close 1 connection on
+		// each call
+
+		int idle = bag.idleSize();
+		if (idle < getMinConnections()) {
+
+			try {
+				PoolAwareConnection c = createUnchecked();
+				if (c != null) {
+					reclaim(c);
+				}
+			} catch (SQLException e) {
+				LOGGER.info("Error creating new connection when managing connection pool, ignoring", e);
+			}
+
+		} else if (idle > getMaxIdleConnections()) {
+
+			PoolAwareConnection c = bag.reserveIdle();
+			if (c != null) {
+				retire(c);
+			}
+		}
+	}
+
+	/**
+	 * Reserves each idle connection in turn, closing the ones that are
+	 * expired, idle for too long or invalid, and releasing the rest.
+	 */
+	void checkIdle() {
+
+		for (PoolAwareConnection c : bag.values()) {
+			if (!bag.reserve(c)) {
+				continue;
+			}
+
+			if (keepIdle(c, size.get() > getMinConnections())) {
+				bag.unreserve(c);
+			} else {
+				retire(c);
+			}
+		}
+	}
+
+	/**
+	 * Closes the connection and removes it from the pool. Does nothing if the
+	 * connection was already retired.
+	 */
+	@Override
+	void retire(PoolAwareConnection connection) {
+
+		while (true) {
+			int state = connection.getState();
+			if (state == PoolAwareConnection.STATE_REMOVED) {
+				return;
+			}
+
+			if (connection.compareAndSetState(state, PoolAwareConnection.STATE_REMOVED)) {
+				break;
+			}
+		}
+
+		bag.remove(connection);
+		size.decrementAndGet();
+		getMetrics().connectionDestroyed();
+
+		try {
+			connection.getConnection().close();
+		} catch (SQLException e) {
+			LOGGER.info("Error closing connection removed from the pool, ignoring", e);
+		}
+	}
+
+	/**
+	 * Returns a checked out connection back to the pool.
+	 */
+	@Override
+	void reclaim(PoolAwareConnection connection) {
+
+		connection.setLastReturnedAt(System.currentTimeMillis());
+
+		if (closed || isExpired(connection)) {
+			retire(connection);
+		} else {
+			bag.requite(connection);
+		}
+	}
+
+	PoolAwareConnection uncheckNonBlocking() {
+
+		PoolAwareConnection c;
+
+		// this will validate all idle connections in the pool until a valid
+		// one is found or the pool is exhausted
+		while ((c = bag.borrow()) != null) {
+			if (isCheckoutValid(c)) {
+				return c;
+			}
+
+			retire(c);
+		}
+
+		return null;
+	}
+
+	PoolAwareConnection uncheckBlocking() throws SQLException {
+
+		long timeout = getMaxQueueWaitTime();
+		long deadline = System.currentTimeMillis() + timeout;
+
+		try {
+			while (timeout > 0) {
+
+				PoolAwareConnection c = bag.borrow(timeout);
+				if (c == null) {
+					return null;
+				}
+
+				if (isCheckoutValid(c)) {
+					return c;
+				}
+
+				// retiring an invalid connection frees a slot for a new one
+				retire(c);
+				c = createUnchecked();
+				if (c != null) {
+					return c;
+				}
+
+				timeout = deadline - System.currentTimeMillis();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return null;
+	}
+
+	@Override
+	PoolAwareConnection createUnchecked() throws SQLException {
+
+		// reserve a slot in the pool
+		while (true) {
+			int current = size.get();
+			if (current >= getMaxConnections()) {
+				return null;
+			}
+
+			if (size.compareAndSet(current, current + 1)) {
+				break;
+			}
+		}
+
+		PoolAwareConnection c;
+		boolean created = false;
+		try {
+			c = createWrapped();
+			created = true;
+		} finally {
+			if (!created) {
+				size.decrementAndGet();
+			}
+		}
+
+		bag.add(c);
+
+		// even though we got a fresh connection, let's still validate it...
+		// This will provide consistent behavior between cached and uncached
+		// connections in respect to invalid validation queries
+		if (!c.validate()) {
+			getMetrics().validationFailed();
+			retire(c);
+			throw new BadValidationQueryException(
+					"Can't validate a fresh connection. Likely validation query is wrong: " + getValidationQuery());
+		}
+
+		return c;
+	}
+
+	@Override
+	PoolAwareConnection checkout() throws SQLException {
+
+		// strategy for getting a connection -
+		// 1. quick peek for available connections
+		// 2. create new one
+		// 3. wait for a user to return connection
+
+		PoolAwareConnection c;
+
+		c = uncheckNonBlocking();
+		if (c != null) {
+			return c;
+		}
+
+		c = createUnchecked();
+		if (c != null) {
+			return c;
+		}
+
+		c = uncheckBlocking();
+		if (c != null) {
+			return c;
+		}
+
+		throw new UnmanagedPoolingDataSource.ConnectionUnavailableException(
+				"Can't obtain connection. Request to pool timed out. Total pool size: " + bag.size());
+	}
+}
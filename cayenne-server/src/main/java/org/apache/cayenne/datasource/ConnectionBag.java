@@ -0,0 +1,258 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A concurrent collection of pooled connections used by
+ * {@link ConcurrentPoolingDataSource}. Connections are never moved between
+ * internal collections on checkout and return. Instead each
+ * {@link PoolAwareConnection} carries its own state that is changed with
+ * compare-and-set operations, so that connection checkout doesn't require
+ * locking. The bag remembers connections recently returned by each thread and
+ * checks those first, as the same thread is likely to take a connection again
+ * soon. Threads that are waiting for a connection receive returned connections
+ * via a direct handoff.
+ * 
+ * @since 4.0
+ */
+class ConnectionBag {
+
+	// limits the number of recently returned connections remembered per thread
+	static final int THREAD_LIST_MAX_SIZE = 16;
+
+	private CopyOnWriteArrayList<PoolAwareConnection> shared;
+	private ThreadLocal<List<WeakReference<PoolAwareConnection>>> threadLists;
+	private AtomicInteger waiters;
+	private SynchronousQueue<PoolAwareConnection> handoffQueue;
+
+	ConnectionBag() {
+		this.shared = new CopyOnWriteArrayList<PoolAwareConnection>();
+		this.threadLists = new ThreadLocal<List<WeakReference<PoolAwareConnection>>>() {
+			@Override
+			protected List<WeakReference<PoolAwareConnection>> initialValue() {
+				return new ArrayList<WeakReference<PoolAwareConnection>>(THREAD_LIST_MAX_SIZE);
+			}
+		};
+		this.waiters = new AtomicInteger();
+		this.handoffQueue = new SynchronousQueue<PoolAwareConnection>(true);
+	}
+
+	/**
+	 * Adds a new connection to the bag. The connection keeps its current state,
+	 * so normally it is added "in use" and is later returned to the bag via
+	 * {@link #requite(PoolAwareConnection)}.
+	 */
+	void add(PoolAwareConnection connection) {
+		shared.add(connection);
+	}
+
+	/**
+	 * Removes a connection from the bag. The caller must have moved the
+	 * connection to the "removed" state before calling this method.
+	 */
+	boolean remove(PoolAwareConnection connection) {
+		return shared.remove(connection);
+	}
+
+	/**
+	 * Checks out an idle connection without waiting, returning null if none is
+	 * available.
+	 */
+	PoolAwareConnection borrow() {
+
+		// 1. connections recently returned by the current thread
+		List<WeakReference<PoolAwareConnection>> threadList = threadLists.get();
+		for (int i = threadList.size() - 1; i >= 0; i--) {
+			PoolAwareConnection c = threadList.remove(i).get();
+			if (c != null && c.compareAndSetState(PoolAwareConnection.STATE_IDLE, PoolAwareConnection.STATE_IN_USE)) {
+				return c;
+			}
+		}
+
+		// 2. all other connections
+		return borrowShared();
+	}
+
+	/**
+	 * Checks out an idle connection, waiting up to a specified number of
+	 * milliseconds for another thread to return a connection to the bag.
+	 * Returns null if timeout expired without obtaining a connection.
+	 */
+	PoolAwareConnection borrow(long timeout) throws InterruptedException {
+
+		waiters.incrementAndGet();
+		try {
+
+			// a connection may have been returned before this thread
+			// registered as a waiter, so have one more look at the bag
+			PoolAwareConnection c = borrowShared();
+			if (c != null) {
+				return c;
+			}
+
+			long nanosLeft = TimeUnit.MILLISECONDS.toNanos(timeout);
+			long deadline = System.nanoTime() + nanosLeft;
+
+			while (nanosLeft > 0) {
+				c = handoffQueue.poll(nanosLeft, TimeUnit.NANOSECONDS);
+				if (c == null) {
+					return null;
+				}
+
+				// another thread may have grabbed the connection between the
+				// handoff and this point
+				if (c.compareAndSetState(PoolAwareConnection.STATE_IDLE, PoolAwareConnection.STATE_IN_USE)) {
+					return c;
+				}
+
+				nanosLeft = deadline - System.nanoTime();
+			}
+
+			return null;
+		} finally {
+			waiters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns a checked out connection back to the bag, handing it off to a
+	 * waiting thread if there is one. Does nothing if the connection is not in
+	 * use (e.g. it was closed twice or already removed from the bag).
+	 */
+	void requite(PoolAwareConnection connection) {
+
+		if (!connection.compareAndSetState(PoolAwareConnection.STATE_IN_USE, PoolAwareConnection.STATE_IDLE)) {
+			return;
+		}
+
+		if (handOff(connection)) {
+			return;
+		}
+
+		List<WeakReference<PoolAwareConnection>> threadList = threadLists.get();
+		if (threadList.size() < THREAD_LIST_MAX_SIZE) {
+			threadList.add(new WeakReference<PoolAwareConnection>(connection));
+		}
+	}
+
+	/**
+	 * Makes a connection previously reserved via {@link #reserveIdle()}
+	 * available for checkout again, handing it off to a waiting thread if
+	 * there is one. Does nothing if the connection is not reserved.
+	 */
+	void unreserve(PoolAwareConnection connection) {
+		if (connection.compareAndSetState(PoolAwareConnection.STATE_RESERVED, PoolAwareConnection.STATE_IDLE)) {
+			handOff(connection);
+		}
+	}
+
+	/**
+	 * Moves one of the idle connections to the "reserved" state, so that it
+	 * can not be checked out, and returns it. Returns null if there are no
+	 * idle connections.
+	 */
+	PoolAwareConnection reserveIdle() {
+		for (PoolAwareConnection c : shared) {
+			if (reserve(c)) {
+				return c;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Moves an idle connection to the "reserved" state, returning false if
+	 * the connection is not idle.
+	 */
+	boolean reserve(PoolAwareConnection connection) {
+		return connection.compareAndSetState(PoolAwareConnection.STATE_IDLE, PoolAwareConnection.STATE_RESERVED);
+	}
+
+	/**
+	 * Returns a snapshot of all connections in the bag regardless of their
+	 * state.
+	 */
+	List<PoolAwareConnection> values() {
+		return new ArrayList<PoolAwareConnection>(shared);
+	}
+
+	int size() {
+		return shared.size();
+	}
+
+	int idleSize() {
+		int idle = 0;
+		for (PoolAwareConnection c : shared) {
+			if (c.getState() == PoolAwareConnection.STATE_IDLE) {
+				idle++;
+			}
+		}
+
+		return idle;
+	}
+
+	int getWaiters() {
+		return waiters.get();
+	}
+
+	/**
+	 * Passes an idle connection to one of the waiting threads if there are
+	 * any. Returns true if the connection was taken by another thread.
+	 */
+	private boolean handOff(PoolAwareConnection connection) {
+
+		for (int i = 0; waiters.get() > 0; i++) {
+
+			// either taken by another thread or handed off to a waiting thread
+			if (connection.getState() != PoolAwareConnection.STATE_IDLE || handoffQueue.offer(connection)) {
+				return true;
+			}
+
+			// the waiters may be scanning the bag instead of polling the
+			// handoff queue, so spin for a little bit
+			if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			} else {
+				Thread.yield();
+			}
+		}
+
+		return false;
+	}
+
+	private PoolAwareConnection borrowShared() {
+		for (PoolAwareConnection c : shared) {
+			if (c.compareAndSetState(PoolAwareConnection.STATE_IDLE, PoolAwareConnection.STATE_IN_USE)) {
+				return c;
+			}
+		}
+
+		return null;
+	}
+}
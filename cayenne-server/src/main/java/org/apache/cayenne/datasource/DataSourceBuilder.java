@@ -73,7 +73,7 @@ public class DataSourceBuilder {
 	 * Turns produced DataSource into a pooled DataSource.
 	 */
 	public PoolingDataSourceBuilder pool(int minConnection, int maxConnections) {
-		return new PoolingDataSourceBuilder(this);
+		return new PoolingDataSourceBuilder(this).minConnections(minConnection).maxConnections(maxConnections);
 	}
 
 	/**
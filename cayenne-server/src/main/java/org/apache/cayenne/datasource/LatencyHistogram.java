@@ -0,0 +1,148 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of time intervals with exponentially growing buckets.
+ * Bucket "i" counts intervals from 2<sup>i-1</sup> (inclusive) to
+ * 2<sup>i</sup> (exclusive) microseconds, so percentiles are reported with
+ * the precision of a power of two, which is sufficient for monitoring
+ * purposes.
+ * 
+ * @since 4.0
+ */
+public class LatencyHistogram {
+
+	// 2^40 microseconds is about 12 days
+	static final int BUCKETS = 41;
+
+	private AtomicLongArray buckets;
+	private AtomicLong count;
+	private AtomicLong totalMicros;
+	private AtomicLong maxMicros;
+
+	public LatencyHistogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new AtomicLong();
+		this.totalMicros = new AtomicLong();
+		this.maxMicros = new AtomicLong();
+	}
+
+	static int bucket(long micros) {
+		if (micros <= 0) {
+			return 0;
+		}
+
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return bucket < BUCKETS ? bucket : BUCKETS - 1;
+	}
+
+	/**
+	 * Records a time interval specified in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+
+		buckets.incrementAndGet(bucket(micros));
+		count.incrementAndGet();
+		totalMicros.addAndGet(micros);
+
+		long max;
+		while (micros > (max = maxMicros.get())) {
+			if (maxMicros.compareAndSet(max, micros)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of recorded intervals.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the average interval in milliseconds.
+	 */
+	public double getMean() {
+		long count = this.count.get();
+		return count > 0 ? totalMicros.get() / 1000d / count : 0;
+	}
+
+	/**
+	 * Returns the longest recorded interval in milliseconds.
+	 */
+	public double getMax() {
+		return maxMicros.get() / 1000d;
+	}
+
+	/**
+	 * Returns an approximate value in milliseconds below which the specified
+	 * fraction of intervals falls. E.g. passing 0.99 returns the 99th
+	 * percentile. The value is the upper bound of the matching histogram
+	 * bucket, capped by the longest recorded interval.
+	 */
+	public double getPercentile(double fraction) {
+
+		if (fraction < 0 || fraction > 1) {
+			throw new IllegalArgumentException("Percentile fraction must be between 0 and 1: " + fraction);
+		}
+
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		long threshold = (long) Math.ceil(total * fraction);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= threshold && seen > 0) {
+				long upperBoundMicros = i == 0 ? 0 : 1L << i;
+				return Math.min(upperBoundMicros, maxMicros.get()) / 1000d;
+			}
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * Clears all recorded data.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+
+		count.set(0);
+		totalMicros.set(0);
+		maxMicros.set(0);
+	}
+}
@@ -24,28 +24,45 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import org.apache.cayenne.di.ScopeEventListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 /**
- * A wrapper for {@link UnmanagedPoolingDataSource} that automatically manages the underlying
+ * A wrapper for {@link AbstractPoolingDataSource} that automatically manages the underlying
  * connection pool size.
  * 
  * @since 4.0
  */
 public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventListener {
 
+	private static Log LOGGER = LogFactory.getLog(ManagedPoolingDataSource.class);
+
 	private PoolingDataSourceManager dataSourceManager;
 	private DataSource dataSource;
+	private AbstractPoolingDataSource poolingDataSource;
+
+	private MBeanServer mBeanServer;
+	private ObjectName mBeanName;
+
+	/**
+	 * Default interval in milliseconds between pool maintenance runs.
+	 */
+	public static final long MANAGER_WAKE_TIME_DEFAULT = 120000;
 
-	public ManagedPoolingDataSource(UnmanagedPoolingDataSource dataSource) {
+	public ManagedPoolingDataSource(AbstractPoolingDataSource dataSource) {
 		// wake every 2 minutes...
-		this(dataSource, 120000);
+		this(dataSource, MANAGER_WAKE_TIME_DEFAULT);
 	}
 
-	public ManagedPoolingDataSource(UnmanagedPoolingDataSource dataSource, long managerWakeTime) {
+	public ManagedPoolingDataSource(AbstractPoolingDataSource dataSource, long managerWakeTime) {
 		this.dataSource = dataSource;
+		this.poolingDataSource = dataSource;
 		this.dataSourceManager = new PoolingDataSourceManager(dataSource, managerWakeTime);
 
 		dataSourceManager.start();
@@ -55,6 +72,43 @@ public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventLi
 		return dataSourceManager;
 	}
 
+	@Override
+	public int getMaxConnections() {
+		return poolingDataSource.getMaxConnections();
+	}
+
+	/**
+	 * Returns usage statistics of the underlying connection pool.
+	 */
+	public PoolingDataSourceMetrics getMetrics() {
+		return poolingDataSource.getMetrics();
+	}
+
+	/**
+	 * Registers pool metrics as a JMX MBean with the specified name. The MBean
+	 * is unregistered when this DataSource is closed.
+	 */
+	public synchronized void registerMBean(MBeanServer server, ObjectName name) throws JMException {
+		unregisterMBean();
+
+		server.registerMBean(getMetrics(), name);
+		this.mBeanServer = server;
+		this.mBeanName = name;
+	}
+
+	synchronized void unregisterMBean() {
+		if (mBeanName != null) {
+			try {
+				mBeanServer.unregisterMBean(mBeanName);
+			} catch (JMException e) {
+				LOGGER.info("Error unregistering connection pool MBean " + mBeanName + ", ignoring", e);
+			}
+
+			mBeanServer = null;
+			mBeanName = null;
+		}
+	}
+
 	/**
 	 * Calls {@link #shutdown()} to drain the underlying pool, close open
 	 * connections and block the DataSource from creating any new connections.
@@ -73,6 +127,8 @@ public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventLi
 
 		// shut down the thread..
 		this.dataSourceManager.shutdown();
+
+		unregisterMBean();
 	}
 
 	@Override
@@ -29,6 +29,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLWarning;
 import java.sql.SQLXML;
 import java.sql.Savepoint;
@@ -37,30 +38,132 @@ import java.sql.Struct;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A {@link Connection} wrapper that interacts with the
- * {@link UnmanagedPoolingDataSource}, allowing to recycle connections and track
+ * {@link AbstractPoolingDataSource}, allowing to recycle connections and track
  * failures.
  * 
  * @since 4.0
  */
 public class PoolAwareConnection implements Connection {
 
-	private UnmanagedPoolingDataSource parent;
+	// connection states used by the pools that track checkout status per
+	// connection instead of per-pool collections
+	static final int STATE_IDLE = 0;
+	static final int STATE_IN_USE = 1;
+	static final int STATE_RESERVED = 2;
+	static final int STATE_REMOVED = -1;
+
+	private static final AtomicIntegerFieldUpdater<PoolAwareConnection> STATE_UPDATER = AtomicIntegerFieldUpdater
+			.newUpdater(PoolAwareConnection.class, "state");
+
+	private AbstractPoolingDataSource parent;
 	private Connection connection;
 	private String validationQuery;
-
-	public PoolAwareConnection(UnmanagedPoolingDataSource parent, Connection connection, String validationQuery) {
+	private StatementCache statementCache;
+	private volatile int state;
+	private volatile long createdAt;
+	private volatile long lastReturnedAt;
+	private long checkedOutAt;
+	private int initialTransactionIsolation;
+	private boolean transactionIsolationChanged;
+
+	public PoolAwareConnection(AbstractPoolingDataSource parent, Connection connection, String validationQuery) {
+		this(parent, connection, validationQuery, null);
+	}
+
+	/**
+	 * Creates a connection wrapper with an optional prepared statement cache.
+	 * If the cache is null, prepared statements are not cached.
+	 */
+	PoolAwareConnection(AbstractPoolingDataSource parent, Connection connection, String validationQuery,
+			StatementCache statementCache) {
 		this.parent = parent;
 		this.connection = connection;
 		this.validationQuery = validationQuery;
+		this.statementCache = statementCache;
+		this.state = STATE_IN_USE;
+		this.createdAt = System.currentTimeMillis();
+		this.lastReturnedAt = createdAt;
 	}
 
 	Connection getConnection() {
 		return connection;
 	}
 
+	int getState() {
+		return state;
+	}
+
+	void setState(int state) {
+		this.state = state;
+	}
+
+	/**
+	 * Atomically changes connection state from the expected state to the new
+	 * state, returning false if the current state is different from the
+	 * expected one.
+	 */
+	boolean compareAndSetState(int expectedState, int newState) {
+		return STATE_UPDATER.compareAndSet(this, expectedState, newState);
+	}
+
+	/**
+	 * Returns the time when the underlying connection was opened.
+	 */
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * Returns the time when the connection was last returned to the pool.
+	 */
+	long getLastReturnedAt() {
+		return lastReturnedAt;
+	}
+
+	void setLastReturnedAt(long lastReturnedAt) {
+		this.lastReturnedAt = lastReturnedAt;
+	}
+
+	/**
+	 * Returns the value of {@link System#nanoTime()} when the connection was
+	 * checked out, or zero if the connection is not checked out.
+	 */
+	long getCheckedOutAt() {
+		return checkedOutAt;
+	}
+
+	void setCheckedOutAt(long checkedOutAt) {
+		this.checkedOutAt = checkedOutAt;
+	}
+
+	/**
+	 * Validates an idle connection outside of the checkout path. Runs the
+	 * validation query if one is configured, otherwise calls
+	 * {@link Connection#isValid(int)}. Connections of the drivers that do not
+	 * support the latter are considered valid.
+	 */
+	boolean validateIdle(int timeout) {
+
+		if (validationQuery != null) {
+			return validate();
+		}
+
+		try {
+			return connection.isValid(timeout);
+		} catch (SQLFeatureNotSupportedException e) {
+			return true;
+		} catch (SQLException e) {
+			return false;
+		} catch (AbstractMethodError e) {
+			// a pre-JDBC4 driver
+			return true;
+		}
+	}
+
 	boolean validate() {
 
 		if (validationQuery == null) {
@@ -90,8 +193,29 @@ public class PoolAwareConnection implements Connection {
 		return true;
 	}
 
+	StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Restores the transaction isolation level the connection had before the
+	 * first {@link #setTransactionIsolation(int)} call. Does nothing if the
+	 * level was never changed, so that no extra database calls are made.
+	 */
+	void resetTransactionIsolation() throws SQLException {
+		if (transactionIsolationChanged) {
+			connection.setTransactionIsolation(initialTransactionIsolation);
+			transactionIsolationChanged = false;
+		}
+	}
+
 	void recover(SQLException reconnectCause) throws SQLException {
 
+		// cached statements belong to the old connection
+		if (statementCache != null) {
+			statementCache.clear();
+		}
+
 		try {
 			connection.close();
 		} catch (SQLException e) {
@@ -103,6 +227,8 @@ public class PoolAwareConnection implements Connection {
 		// change when resetting connection and need to be restored...
 		try {
 			connection = parent.createUnwrapped();
+			createdAt = System.currentTimeMillis();
+			transactionIsolationChanged = false;
 		} catch (SQLException e) {
 			parent.retire(this);
 			throw reconnectCause;
@@ -121,7 +247,7 @@ public class PoolAwareConnection implements Connection {
 
 	@Override
 	public void close() throws SQLException {
-		parent.reclaim(this);
+		parent.checkin(this);
 	}
 
 	@Override
@@ -256,8 +382,33 @@ public class PoolAwareConnection implements Connection {
 		}
 	}
 
+	/**
+	 * Returns a statement from the statement cache, preparing a new one if
+	 * there's no cached statement for the key.
+	 */
+	PreparedStatement prepareCached(StatementCache.Key key) throws SQLException {
+
+		PreparedStatement statement = statementCache.checkout(key);
+
+		if (statement == null) {
+			try {
+				statement = key.prepare(connection);
+			} catch (SQLException sqlEx) {
+				recover(sqlEx);
+				statement = key.prepare(connection);
+			}
+		}
+
+		return new CachedPreparedStatement(this, statementCache, key, statement);
+	}
+
 	@Override
 	public PreparedStatement prepareStatement(String sql) throws SQLException {
+
+		if (statementCache != null) {
+			return prepareCached(new StatementCache.Key(sql));
+		}
+
 		try {
 			return connection.prepareStatement(sql);
 		} catch (SQLException sqlEx) {
@@ -269,6 +420,12 @@ public class PoolAwareConnection implements Connection {
 	@Override
 	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
 			throws SQLException {
+
+		if (statementCache != null) {
+			return prepareCached(new StatementCache.Key(sql, resultSetType, resultSetConcurrency,
+					Statement.NO_GENERATED_KEYS));
+		}
+
 		try {
 			return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
 		} catch (SQLException sqlEx) {
@@ -295,7 +452,7 @@ public class PoolAwareConnection implements Connection {
 		} catch (SQLException sqlEx) {
 
 			try {
-				UnmanagedPoolingDataSource.sybaseAutoCommitPatch(connection, sqlEx, autoCommit);
+				AbstractPoolingDataSource.sybaseAutoCommitPatch(connection, sqlEx, autoCommit);
 			} catch (SQLException patchEx) {
 				parent.retire(this);
 				throw sqlEx;
@@ -326,6 +483,11 @@ public class PoolAwareConnection implements Connection {
 	@Override
 	public void setTransactionIsolation(int level) throws SQLException {
 		try {
+			if (!transactionIsolationChanged) {
+				initialTransactionIsolation = connection.getTransactionIsolation();
+				transactionIsolationChanged = true;
+			}
+
 			connection.setTransactionIsolation(level);
 		} catch (SQLException sqlEx) {
 			parent.retire(this);
@@ -410,6 +572,11 @@ public class PoolAwareConnection implements Connection {
 	@Override
 	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
 
+		if (statementCache != null) {
+			return prepareCached(new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+					autoGeneratedKeys));
+		}
+
 		try {
 			return connection.prepareStatement(sql, autoGeneratedKeys);
 		} catch (SQLException e) {
@@ -30,4 +30,8 @@ import javax.sql.DataSource;
  */
 public interface PoolingDataSource extends DataSource, Closeable {
 
+	/**
+	 * Returns the maximum number of connections the pool can open.
+	 */
+	int getMaxConnections();
 }
@@ -33,6 +33,8 @@ public class PoolingDataSourceBuilder {
 
 	private DataSourceBuilder nonPoolingBuilder;
 	private PoolingDataSourceParameters poolParameters;
+	private boolean concurrentPool;
+	private long managerWakeTime;
 
 	public PoolingDataSourceBuilder(DataSourceBuilder nonPoolingBuilder) {
 		this.nonPoolingBuilder = nonPoolingBuilder;
@@ -41,6 +43,7 @@ public class PoolingDataSourceBuilder {
 		poolParameters.setMinConnections(1);
 		poolParameters.setMaxConnections(1);
 		poolParameters.setMaxQueueWaitTime(UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
+		this.managerWakeTime = ManagedPoolingDataSource.MANAGER_WAKE_TIME_DEFAULT;
 	}
 
 	public PoolingDataSourceBuilder minConnections(int minConnections) {
@@ -63,6 +66,69 @@ public class PoolingDataSourceBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets a maximum time in milliseconds that a connection can stay open
+	 * before it is closed and replaced with a new one. Zero (the default)
+	 * means no limit.
+	 */
+	public PoolingDataSourceBuilder maxConnectionLifetime(long maxConnectionLifetime) {
+		poolParameters.setMaxConnectionLifetime(maxConnectionLifetime);
+		return this;
+	}
+
+	/**
+	 * Sets a maximum time in milliseconds that a connection can stay idle
+	 * before it is closed, as long as the pool is bigger than its minimum
+	 * size. Zero (the default) means no limit.
+	 */
+	public PoolingDataSourceBuilder maxIdleTime(long maxIdleTime) {
+		poolParameters.setMaxIdleTime(maxIdleTime);
+		return this;
+	}
+
+	/**
+	 * If set to true, pooled connections are validated in the background
+	 * while idle instead of on every checkout, removing a validation
+	 * round-trip from the request path. Background validation uses the
+	 * validation query if one is set, or {@link java.sql.Connection#isValid(int)}
+	 * otherwise.
+	 */
+	public PoolingDataSourceBuilder backgroundValidation(boolean backgroundValidation) {
+		poolParameters.setBackgroundValidation(backgroundValidation);
+		return this;
+	}
+
+	/**
+	 * Enables caching of prepared statements in each pooled connection,
+	 * limiting the number of statements cached per connection. This helps
+	 * with the drivers that do not cache statements on their own. Zero (the
+	 * default) disables the cache.
+	 */
+	public PoolingDataSourceBuilder statementCacheSize(int statementCacheSize) {
+		poolParameters.setStatementCacheSize(statementCacheSize);
+		return this;
+	}
+
+	/**
+	 * Sets an interval in milliseconds between pool maintenance runs, which
+	 * resize the pool and check idle connections. The default is 2 minutes.
+	 */
+	public PoolingDataSourceBuilder managerWakeTime(long managerWakeTime) {
+		this.managerWakeTime = managerWakeTime;
+		return this;
+	}
+
+	/**
+	 * Configures the builder to create {@link ConcurrentPoolingDataSource}
+	 * instead of the default {@link UnmanagedPoolingDataSource}. The
+	 * concurrent pool avoids locking on connection checkout and scales better
+	 * with a large number of threads.
+	 */
+	public PoolingDataSourceBuilder concurrentPool(boolean concurrentPool) {
+		this.concurrentPool = concurrentPool;
+		return this;
+	}
+
 	/**
 	 * Builds a pooling DataSource that needs to be explicitly closed by the
 	 * caller when no longer in use.
@@ -84,16 +150,26 @@ public class PoolingDataSourceBuilder {
 			throw new CayenneRuntimeException("Minimum number of connections can not be bigger then maximum.");
 		}
 
+		if (poolParameters.getStatementCacheSize() < 0) {
+			throw new CayenneRuntimeException("Statement cache size can not be negative ("
+					+ poolParameters.getStatementCacheSize() + ").");
+		}
+
+		if (managerWakeTime <= 0) {
+			throw new CayenneRuntimeException("Pool manager wake time must be positive (" + managerWakeTime + ").");
+		}
+
 		DataSource nonPooling = nonPoolingBuilder.build();
 		return buildManaged(buildPooling(nonPooling));
 	}
 
-	private UnmanagedPoolingDataSource buildPooling(DataSource nonPoolingDataSource) {
-		return new UnmanagedPoolingDataSource(nonPoolingDataSource, poolParameters);
+	private AbstractPoolingDataSource buildPooling(DataSource nonPoolingDataSource) {
+		return concurrentPool ? new ConcurrentPoolingDataSource(nonPoolingDataSource, poolParameters)
+				: new UnmanagedPoolingDataSource(nonPoolingDataSource, poolParameters);
 	}
 
-	private PoolingDataSource buildManaged(UnmanagedPoolingDataSource dataSource) {
-		return new ManagedPoolingDataSource(dataSource);
+	private PoolingDataSource buildManaged(AbstractPoolingDataSource dataSource) {
+		return new ManagedPoolingDataSource(dataSource, managerWakeTime);
 	}
 
 }
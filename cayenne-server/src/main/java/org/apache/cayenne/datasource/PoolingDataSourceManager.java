@@ -19,19 +19,20 @@
 package org.apache.cayenne.datasource;
 
 /**
- * A thread that manages the state of a {@link UnmanagedPoolingDataSource} instance,
- * performing periodic expansion/contraction of pooled connections, and
- * orchestrating shutdown.
+ * A thread that manages the state of a {@link AbstractPoolingDataSource} instance,
+ * warming up the pool on start, performing periodic expansion/contraction of
+ * pooled connections and checking idle connections, and orchestrating
+ * shutdown.
  * 
  * @since 4.0
  */
 class PoolingDataSourceManager extends Thread {
 
 	private volatile boolean shouldStop;
-	private UnmanagedPoolingDataSource dataSource;
+	private AbstractPoolingDataSource dataSource;
 	private long managerWakeTime;
 
-	PoolingDataSourceManager(UnmanagedPoolingDataSource dataSource, long managerWakeTime) {
+	PoolingDataSourceManager(AbstractPoolingDataSource dataSource, long managerWakeTime) {
 		setName("PoolingDataSourceManager-" + dataSource.hashCode());
 		setDaemon(true);
 
@@ -46,7 +47,7 @@ class PoolingDataSourceManager extends Thread {
 		interrupt();
 	}
 
-	UnmanagedPoolingDataSource getDataSource() {
+	AbstractPoolingDataSource getDataSource() {
 		return dataSource;
 	}
 
@@ -56,6 +57,11 @@ class PoolingDataSourceManager extends Thread {
 
 	@Override
 	public void run() {
+
+		if (!shouldStop) {
+			dataSource.warmUp();
+		}
+
 		while (true) {
 
 			try {
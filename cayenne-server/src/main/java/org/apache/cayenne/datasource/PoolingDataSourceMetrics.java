@@ -0,0 +1,213 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usage statistics of a connection pool, such as checkout wait and connection
+ * hold time distributions, and the number of checkout timeouts and failed
+ * validations. Can be read programmatically or via JMX (see
+ * {@link ManagedPoolingDataSource#registerMBean(javax.management.MBeanServer, javax.management.ObjectName)})
+ * to size the pool and its queue wait time.
+ * 
+ * @since 4.0
+ */
+public class PoolingDataSourceMetrics implements PoolingDataSourceMetricsMBean {
+
+	private AbstractPoolingDataSource dataSource;
+
+	private AtomicLong connectionsCreated;
+	private AtomicLong connectionsDestroyed;
+	private AtomicLong checkoutTimeouts;
+	private AtomicLong validationFailures;
+	private LatencyHistogram checkoutWait;
+	private LatencyHistogram holdTime;
+
+	// shared by the statement caches of pooled connections
+	AtomicLong statementCacheHits;
+	AtomicLong statementCacheMisses;
+
+	PoolingDataSourceMetrics(AbstractPoolingDataSource dataSource) {
+		this.dataSource = dataSource;
+		this.connectionsCreated = new AtomicLong();
+		this.connectionsDestroyed = new AtomicLong();
+		this.checkoutTimeouts = new AtomicLong();
+		this.validationFailures = new AtomicLong();
+		this.checkoutWait = new LatencyHistogram();
+		this.holdTime = new LatencyHistogram();
+		this.statementCacheHits = new AtomicLong();
+		this.statementCacheMisses = new AtomicLong();
+	}
+
+	void connectionCreated() {
+		connectionsCreated.incrementAndGet();
+	}
+
+	void connectionDestroyed() {
+		connectionsDestroyed.incrementAndGet();
+	}
+
+	void checkedOut(long waitNanos) {
+		checkoutWait.record(waitNanos);
+	}
+
+	void checkoutTimedOut() {
+		checkoutTimeouts.incrementAndGet();
+	}
+
+	void checkedIn(long holdNanos) {
+		holdTime.record(holdNanos);
+	}
+
+	void validationFailed() {
+		validationFailures.incrementAndGet();
+	}
+
+	/**
+	 * Returns a histogram of time spent by the callers waiting for a
+	 * connection.
+	 */
+	public LatencyHistogram getCheckoutWait() {
+		return checkoutWait;
+	}
+
+	/**
+	 * Returns a histogram of time between connection checkout and return to
+	 * the pool.
+	 */
+	public LatencyHistogram getHoldTime() {
+		return holdTime;
+	}
+
+	@Override
+	public int getPoolSize() {
+		return dataSource.poolSize();
+	}
+
+	@Override
+	public int getAvailableSize() {
+		return dataSource.availableSize();
+	}
+
+	@Override
+	public int getMinConnections() {
+		return dataSource.getMinConnections();
+	}
+
+	@Override
+	public int getMaxConnections() {
+		return dataSource.getMaxConnections();
+	}
+
+	@Override
+	public long getMaxQueueWaitTime() {
+		return dataSource.getMaxQueueWaitTime();
+	}
+
+	@Override
+	public long getConnectionsCreated() {
+		return connectionsCreated.get();
+	}
+
+	@Override
+	public long getConnectionsDestroyed() {
+		return connectionsDestroyed.get();
+	}
+
+	@Override
+	public long getCheckouts() {
+		return checkoutWait.getCount();
+	}
+
+	@Override
+	public long getCheckoutTimeouts() {
+		return checkoutTimeouts.get();
+	}
+
+	@Override
+	public long getValidationFailures() {
+		return validationFailures.get();
+	}
+
+	@Override
+	public long getStatementCacheHits() {
+		return statementCacheHits.get();
+	}
+
+	@Override
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.get();
+	}
+
+	@Override
+	public double getCheckoutWaitMean() {
+		return checkoutWait.getMean();
+	}
+
+	@Override
+	public double getCheckoutWaitMax() {
+		return checkoutWait.getMax();
+	}
+
+	@Override
+	public double getCheckoutWait95thPercentile() {
+		return checkoutWait.getPercentile(0.95);
+	}
+
+	@Override
+	public double getCheckoutWait99thPercentile() {
+		return checkoutWait.getPercentile(0.99);
+	}
+
+	@Override
+	public double getHoldTimeMean() {
+		return holdTime.getMean();
+	}
+
+	@Override
+	public double getHoldTimeMax() {
+		return holdTime.getMax();
+	}
+
+	@Override
+	public double getHoldTime95thPercentile() {
+		return holdTime.getPercentile(0.95);
+	}
+
+	@Override
+	public double getHoldTime99thPercentile() {
+		return holdTime.getPercentile(0.99);
+	}
+
+	/**
+	 * Clears all counters and histograms. Current pool size is not affected.
+	 */
+	@Override
+	public void reset() {
+		connectionsCreated.set(0);
+		connectionsDestroyed.set(0);
+		checkoutTimeouts.set(0);
+		validationFailures.set(0);
+		statementCacheHits.set(0);
+		statementCacheMisses.set(0);
+		checkoutWait.reset();
+		holdTime.reset();
+	}
+}
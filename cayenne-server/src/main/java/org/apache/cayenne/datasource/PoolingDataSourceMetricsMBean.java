@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * JMX management interface of {@link PoolingDataSourceMetrics}. Times are
+ * reported in milliseconds.
+ * 
+ * @since 4.0
+ */
+public interface PoolingDataSourceMetricsMBean {
+
+	int getPoolSize();
+
+	int getAvailableSize();
+
+	int getMinConnections();
+
+	int getMaxConnections();
+
+	long getMaxQueueWaitTime();
+
+	long getConnectionsCreated();
+
+	long getConnectionsDestroyed();
+
+	long getCheckouts();
+
+	long getCheckoutTimeouts();
+
+	long getValidationFailures();
+
+	long getStatementCacheHits();
+
+	long getStatementCacheMisses();
+
+	double getCheckoutWaitMean();
+
+	double getCheckoutWaitMax();
+
+	double getCheckoutWait95thPercentile();
+
+	double getCheckoutWait99thPercentile();
+
+	double getHoldTimeMean();
+
+	double getHoldTimeMax();
+
+	double getHoldTime95thPercentile();
+
+	double getHoldTime99thPercentile();
+
+	void reset();
+}
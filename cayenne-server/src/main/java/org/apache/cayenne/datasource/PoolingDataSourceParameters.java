@@ -19,7 +19,7 @@
 package org.apache.cayenne.datasource;
 
 /**
- * A collection of pooling parameters used by {@link UnmanagedPoolingDataSource}.
+ * A collection of pooling parameters used by {@link AbstractPoolingDataSource}.
  * 
  * @since 4.0
  */
@@ -29,6 +29,10 @@ public class PoolingDataSourceParameters {
 	private int minConnections;
 	private int maxConnections;
 	private long maxQueueWaitTime;
+	private long maxConnectionLifetime;
+	private long maxIdleTime;
+	private boolean backgroundValidation;
+	private int statementCacheSize;
 
 	public int getMinConnections() {
 		return minConnections;
@@ -61,4 +65,55 @@ public class PoolingDataSourceParameters {
 	public void setValidationQuery(String validationQuery) {
 		this.validationQuery = validationQuery;
 	}
+
+	/**
+	 * Returns a maximum time in milliseconds that a connection can stay open.
+	 * Older connections are closed when returned to the pool or found idle by
+	 * the pool maintenance thread. Zero means no limit.
+	 */
+	public long getMaxConnectionLifetime() {
+		return maxConnectionLifetime;
+	}
+
+	public void setMaxConnectionLifetime(long maxConnectionLifetime) {
+		this.maxConnectionLifetime = maxConnectionLifetime;
+	}
+
+	/**
+	 * Returns a maximum time in milliseconds that a connection can stay idle
+	 * in the pool before the pool maintenance thread closes it. Connections
+	 * are only closed this way while the pool is bigger than its minimum
+	 * size. Zero means no limit.
+	 */
+	public long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	public void setMaxIdleTime(long maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Returns whether connections should be validated by the pool
+	 * maintenance thread while idle instead of on every checkout.
+	 */
+	public boolean isBackgroundValidation() {
+		return backgroundValidation;
+	}
+
+	public void setBackgroundValidation(boolean backgroundValidation) {
+		this.backgroundValidation = backgroundValidation;
+	}
+
+	/**
+	 * Returns the maximum number of prepared statements cached per pooled
+	 * connection. Zero means statement caching is disabled.
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
 }
@@ -0,0 +1,195 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded LRU cache of prepared statements of a single pooled
+ * connection. A statement is removed from the cache while in use, and is put
+ * back when the caller closes it, so that the same statement is never handed
+ * to two callers at once.
+ * 
+ * @since 4.0
+ */
+class StatementCache {
+
+	private int maxSize;
+	private Map<Key, PreparedStatement> statements;
+	private AtomicLong hits;
+	private AtomicLong misses;
+
+	StatementCache(int maxSize, AtomicLong hits, AtomicLong misses) {
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+
+		// access order map to evict least recently used statements
+		this.statements = new LinkedHashMap<Key, PreparedStatement>(16, 0.75f, true);
+	}
+
+	/**
+	 * Removes a cached statement matching the key from the cache, returning
+	 * null if there is no such statement.
+	 */
+	synchronized PreparedStatement checkout(Key key) {
+		PreparedStatement statement = statements.remove(key);
+
+		if (statement != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+
+		return statement;
+	}
+
+	/**
+	 * Puts a statement that is no longer in use back to the cache, closing
+	 * the least recently used statement if the cache is full. If the cache
+	 * already has a statement for the key, the statement is closed instead.
+	 */
+	void checkin(Key key, PreparedStatement statement) {
+
+		PreparedStatement evicted = null;
+
+		synchronized (this) {
+			if (statements.containsKey(key)) {
+				evicted = statement;
+			} else {
+				statements.put(key, statement);
+
+				if (statements.size() > maxSize) {
+					Iterator<PreparedStatement> it = statements.values().iterator();
+					evicted = it.next();
+					it.remove();
+				}
+			}
+		}
+
+		if (evicted != null) {
+			closeQuietly(evicted);
+		}
+	}
+
+	/**
+	 * Closes and removes all cached statements.
+	 */
+	void clear() {
+
+		List<PreparedStatement> toClose;
+		synchronized (this) {
+			toClose = new ArrayList<PreparedStatement>(statements.values());
+			statements.clear();
+		}
+
+		for (PreparedStatement statement : toClose) {
+			closeQuietly(statement);
+		}
+	}
+
+	synchronized int size() {
+		return statements.size();
+	}
+
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// ignore, the statement is discarded anyways
+		}
+	}
+
+	/**
+	 * A cache key made of SQL and the statement options passed to
+	 * {@link Connection} when preparing the statement.
+	 */
+	static class Key {
+
+		private String sql;
+		private int resultSetType;
+		private int resultSetConcurrency;
+		private int autoGeneratedKeys;
+		private int hashCode;
+
+		Key(String sql) {
+			this(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS);
+		}
+
+		Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.resultSetType = resultSetType;
+			this.resultSetConcurrency = resultSetConcurrency;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+
+			int hash = sql.hashCode();
+			hash = 31 * hash + resultSetType;
+			hash = 31 * hash + resultSetConcurrency;
+			hash = 31 * hash + autoGeneratedKeys;
+			this.hashCode = hash;
+		}
+
+		/**
+		 * Prepares a new statement matching this key.
+		 */
+		PreparedStatement prepare(Connection connection) throws SQLException {
+
+			if (autoGeneratedKeys != Statement.NO_GENERATED_KEYS) {
+				return connection.prepareStatement(sql, autoGeneratedKeys);
+			}
+
+			if (resultSetType != ResultSet.TYPE_FORWARD_ONLY || resultSetConcurrency != ResultSet.CONCUR_READ_ONLY) {
+				return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			}
+
+			return connection.prepareStatement(sql);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+
+			if (!(object instanceof Key)) {
+				return false;
+			}
+
+			Key key = (Key) object;
+			return hashCode == key.hashCode && resultSetType == key.resultSetType
+					&& resultSetConcurrency == key.resultSetConcurrency && autoGeneratedKeys == key.autoGeneratedKeys
+					&& sql.equals(key.sql);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
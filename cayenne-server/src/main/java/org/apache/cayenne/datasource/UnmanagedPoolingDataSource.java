@@ -18,10 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
-import java.io.PrintWriter;
-import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -29,7 +26,6 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
 
 import javax.sql.DataSource;
 
@@ -42,99 +38,36 @@ import org.apache.commons.logging.LogFactory;
  * 
  * @since 4.0
  */
-public class UnmanagedPoolingDataSource implements PoolingDataSource {
-
-	// An old hack that fixes Sybase problems with autocommit. Used idea from
-	// Jonas org.objectweb.jonas.jdbc_xa.ConnectionImpl
-	// (http://www.objectweb.org/jonas/).
-	//
-	// If problem is not the one that can be fixed by this patch, original
-	// exception is rethrown. If exception occurs when fixing the problem, new
-	// exception is thrown.
-	//
-	static void sybaseAutoCommitPatch(Connection c, SQLException e, boolean autoCommit) throws SQLException {
-
-		String s = e.getMessage().toLowerCase();
-		if (s.contains("set chained command not allowed")) {
-
-			// TODO: doing 'commit' here is extremely dangerous... we need to
-			// get a hold of Sybase instance and verify whether this issue is
-			// still there, and fix it differently (and perhaps generically) by
-			// calling 'rollback' on connections (can we do it when getting
-			// connection from the pool? returning it to the pool?)
-
-			c.commit();
-			c.setAutoCommit(autoCommit); // Shouldn't fail now.
-		} else {
-			throw e;
-		}
-	}
+public class UnmanagedPoolingDataSource extends AbstractPoolingDataSource {
 
-    /**
-     * An exception indicating that a connection request waiting in the queue
-     * timed out and was unable to obtain a connection.
-     */
-    public static class ConnectionUnavailableException extends SQLException {
-        private static final long serialVersionUID = 1063973806941023165L;
-
-        public ConnectionUnavailableException(String message) {
-    		super(message);
-    	}
-    }
-    
 	/**
-	 * Defines a maximum time in milliseconds that a connection request could
-	 * wait in the connection queue. After this period expires, an exception
-	 * will be thrown in the calling method.
+	 * An exception indicating that a connection request waiting in the queue
+	 * timed out and was unable to obtain a connection.
 	 */
-	public static final int MAX_QUEUE_WAIT_DEFAULT = 20000;
+	public static class ConnectionUnavailableException extends SQLException {
+		private static final long serialVersionUID = 1063973806941023165L;
 
-	private static Log LOGGER = LogFactory.getLog(UnmanagedPoolingDataSource.class);
+		public ConnectionUnavailableException(String message) {
+			super(message);
+		}
+	}
 
-	private DataSource nonPoolingDataSource;
-	private long maxQueueWaitTime;
+	private static Log LOGGER = LogFactory.getLog(UnmanagedPoolingDataSource.class);
 
 	private Map<PoolAwareConnection, Object> pool;
 	private Semaphore poolCap;
 	private BlockingQueue<PoolAwareConnection> available;
 
-	private int maxIdleConnections;
-	private int minConnections;
-	private int maxConnections;
-	private String validationQuery;
-
-	static int maxIdleConnections(int min, int max) {
-		return min == max ? min : min + (int) Math.ceil((max - min) / 2d);
-	}
-
 	public UnmanagedPoolingDataSource(DataSource nonPoolingDataSource, PoolingDataSourceParameters parameters) {
 
-		int minConnections = parameters.getMinConnections();
-		int maxConnections = parameters.getMaxConnections();
-
-		// sanity check
-		if (minConnections < 0) {
-			throw new IllegalArgumentException("Negative min connections: " + minConnections);
-		}
-
-		if (maxConnections < 0) {
-			throw new IllegalArgumentException("Negative max connections: " + maxConnections);
-		}
+		super(nonPoolingDataSource, parameters);
 
-		if (minConnections > maxConnections) {
-			throw new IllegalArgumentException("Min connections (" + minConnections
-					+ ") is greater than max connections (" + maxConnections + ")");
-		}
+		int maxConnections = getMaxConnections();
+		int minConnections = getMinConnections();
 
-		this.nonPoolingDataSource = nonPoolingDataSource;
-		this.maxQueueWaitTime = parameters.getMaxQueueWaitTime();
-		this.validationQuery = parameters.getValidationQuery();
-		this.minConnections = minConnections;
-		this.maxConnections = maxConnections;
 		this.pool = new ConcurrentHashMap<PoolAwareConnection, Object>((int) (maxConnections / 0.75));
 		this.available = new ArrayBlockingQueue<PoolAwareConnection>(maxConnections);
 		this.poolCap = new Semaphore(maxConnections);
-		this.maxIdleConnections = maxIdleConnections(minConnections, maxConnections);
 
 		// grow pull to min connections
 		try {
@@ -143,16 +76,18 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 				reclaim(c);
 			}
 		} catch (BadValidationQueryException e) {
-			throw new CayenneRuntimeException("Bad validation query: " + validationQuery, e);
+			throw new CayenneRuntimeException("Bad validation query: " + getValidationQuery(), e);
 		} catch (SQLException e) {
 			LOGGER.info("Error creating new connection when starting connection pool, ignoring", e);
 		}
 	}
 
+	@Override
 	int poolSize() {
 		return pool.size();
 	}
 
+	@Override
 	int availableSize() {
 		return available.size();
 	}
@@ -173,12 +108,15 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		pool = Collections.emptyMap();
 	}
 
+	@Override
 	void managePool() {
 
+		checkIdle();
+
 		// do not grow or shrink abruptly ... open or close 1 connection on
 		// each call
 
-		if (available.size() < minConnections) {
+		if (available.size() < getMinConnections()) {
 
 			try {
 				PoolAwareConnection c = createUnchecked();
@@ -189,7 +127,7 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 				LOGGER.info("Error creating new connection when managing connection pool, ignoring", e);
 			}
 
-		} else if (available.size() > maxIdleConnections) {
+		} else if (available.size() > getMaxIdleConnections()) {
 
 			PoolAwareConnection c = uncheckNonBlocking(false);
 			if (c != null) {
@@ -199,19 +137,40 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	}
 
+	/**
+	 * Takes each idle connection out of the queue once, closing the ones that
+	 * are expired, idle for too long or invalid, and putting the rest back.
+	 */
+	void checkIdle() {
+
+		for (int i = available.size(); i > 0; i--) {
+
+			PoolAwareConnection c = available.poll();
+			if (c == null) {
+				break;
+			}
+
+			if (!keepIdle(c, pool.size() > getMinConnections()) || !available.offer(c)) {
+				retire(c);
+			}
+		}
+	}
+
 	/**
 	 * Closes the connection and removes it from the pool. The connection must
 	 * be an unchecked connection.
 	 */
+	@Override
 	void retire(PoolAwareConnection connection) {
 		pool.remove(connection);
 
 		poolCap.release();
+		getMetrics().connectionDestroyed();
 
 		try {
 			connection.getConnection().close();
 		} catch (SQLException e) {
-			// ignore?
+			LOGGER.info("Error closing connection removed from the pool, ignoring", e);
 		}
 	}
 
@@ -219,13 +178,14 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	 * Returns connection back to the pool if possible. The connection must be
 	 * an unchecked connection.
 	 */
+	@Override
 	void reclaim(PoolAwareConnection connection) {
 
-		// TODO: rollback any in-process tx?
+		connection.setLastReturnedAt(System.currentTimeMillis());
 
 		// the queue may overflow potentially and we won't be able to add the
 		// object
-		if (!available.offer(connection)) {
+		if (isExpired(connection) || !available.offer(connection)) {
 			retire(connection);
 		}
 	}
@@ -238,7 +198,7 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	PoolAwareConnection uncheckBlocking(boolean validate) {
 		PoolAwareConnection c;
 		try {
-			c = available.poll(maxQueueWaitTime, TimeUnit.MILLISECONDS);
+			c = available.poll(getMaxQueueWaitTime(), TimeUnit.MILLISECONDS);
 		} catch (InterruptedException e) {
 			return null;
 		}
@@ -248,7 +208,7 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	PoolAwareConnection validateUnchecked(PoolAwareConnection c) {
 
-		if (c == null || c.validate()) {
+		if (c == null || isCheckoutValid(c)) {
 			return c;
 		}
 
@@ -258,6 +218,7 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return validateUnchecked(available.poll());
 	}
 
+	@Override
 	PoolAwareConnection createUnchecked() throws SQLException {
 
 		if (!poolCap.tryAcquire()) {
@@ -272,46 +233,16 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		// This will provide consistent behavior between cached and uncached
 		// connections in respect to invalid validation queries
 		if (!c.validate()) {
+			getMetrics().validationFailed();
 			throw new BadValidationQueryException(
-					"Can't validate a fresh connection. Likely validation query is wrong: " + validationQuery);
+					"Can't validate a fresh connection. Likely validation query is wrong: " + getValidationQuery());
 		}
 
 		return c;
 	}
 
-	PoolAwareConnection createWrapped() throws SQLException {
-		return new PoolAwareConnection(this, createUnwrapped(), validationQuery);
-	}
-
-	/**
-	 * Creates a new connection.
-	 */
-	Connection createUnwrapped() throws SQLException {
-		return nonPoolingDataSource.getConnection();
-	}
-
-	/**
-	 * Updates connection state to a default state.
-	 */
-	Connection resetState(Connection c) throws SQLException {
-
-		// TODO: tx isolation level?
-
-		if (!c.getAutoCommit()) {
-
-			try {
-				c.setAutoCommit(true);
-			} catch (SQLException e) {
-				UnmanagedPoolingDataSource.sybaseAutoCommitPatch(c, e, true);
-			}
-		}
-
-		c.clearWarnings();
-		return c;
-	}
-
 	@Override
-	public Connection getConnection() throws SQLException {
+	PoolAwareConnection checkout() throws SQLException {
 
 		// strategy for getting a connection -
 		// 1. quick peek for available connections
@@ -322,81 +253,19 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		c = uncheckNonBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			return c;
 		}
 
 		c = createUnchecked();
 		if (c != null) {
-			return resetState(c);
+			return c;
 		}
 
 		c = uncheckBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			return c;
 		}
 
 		throw new ConnectionUnavailableException("Can't obtain connection. Request to pool timed out. Total pool size: " + pool.size());
 	}
-
-	@Override
-	public Connection getConnection(String userName, String password) throws SQLException {
-		throw new UnsupportedOperationException(
-				"Connections for a specific user are not supported by the pooled DataSource");
-	}
-
-	@Override
-	public int getLoginTimeout() throws java.sql.SQLException {
-		return nonPoolingDataSource.getLoginTimeout();
-	}
-
-	@Override
-	public void setLoginTimeout(int seconds) throws java.sql.SQLException {
-		nonPoolingDataSource.setLoginTimeout(seconds);
-	}
-
-	@Override
-	public PrintWriter getLogWriter() throws java.sql.SQLException {
-		return nonPoolingDataSource.getLogWriter();
-	}
-
-	@Override
-	public void setLogWriter(PrintWriter out) throws java.sql.SQLException {
-		nonPoolingDataSource.setLogWriter(out);
-	}
-
-	@Override
-	public boolean isWrapperFor(Class<?> iface) throws SQLException {
-		return (UnmanagedPoolingDataSource.class.equals(iface)) ? true : nonPoolingDataSource.isWrapperFor(iface);
-	}
-
-	@SuppressWarnings("unchecked")
-	@Override
-	public <T> T unwrap(Class<T> iface) throws SQLException {
-		return UnmanagedPoolingDataSource.class.equals(iface) ? (T) this : nonPoolingDataSource.unwrap(iface);
-	}
-
-	// JDBC 4.1 compatibility under Java pre 1.7
-	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
-		throw new SQLFeatureNotSupportedException();
-	}
-
-	String getValidationQuery() {
-		return validationQuery;
-	}
-
-	long getMaxQueueWaitTime() {
-		return maxQueueWaitTime;
-	}
-
-	int getMaxIdleConnections() {
-		return maxIdleConnections;
-	}
-
-	int getMinConnections() {
-		return minConnections;
-	}
-
-	int getMaxConnections() {
-		return maxConnections;
-	}
 }
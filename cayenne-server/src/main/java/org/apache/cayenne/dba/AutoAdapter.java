@@ -135,11 +135,44 @@ public class AutoAdapter implements DbAdapter {
 		return getAdapter().supportsGeneratedKeys();
 	}
 
+	/**
+	 * Returns true if the detected adapter is a {@link JdbcAdapter} that
+	 * supports generated keys for batch inserts.
+	 * 
+	 * @since 4.0
+	 */
+	public boolean supportsGeneratedKeysForBatchInserts() {
+		DbAdapter adapter = getAdapter();
+		return adapter instanceof JdbcAdapter && ((JdbcAdapter) adapter).supportsGeneratedKeysForBatchInserts();
+	}
+
 	@Override
 	public boolean supportsBatchUpdates() {
 		return getAdapter().supportsBatchUpdates();
 	}
 
+	/**
+	 * Returns true if the detected adapter is a {@link JdbcAdapter} that
+	 * supports select translation cache.
+	 * 
+	 * @since 4.0
+	 */
+	public boolean supportsSelectTranslationCache() {
+		DbAdapter adapter = getAdapter();
+		return adapter instanceof JdbcAdapter && ((JdbcAdapter) adapter).supportsSelectTranslationCache();
+	}
+
+	/**
+	 * Returns the multi-row INSERT parameter limit of the detected adapter if
+	 * it is a {@link JdbcAdapter}, or zero otherwise.
+	 * 
+	 * @since 4.0
+	 */
+	public int getMultiRowInsertParameterLimit() {
+		DbAdapter adapter = getAdapter();
+		return adapter instanceof JdbcAdapter ? ((JdbcAdapter) adapter).getMultiRowInsertParameterLimit() : 0;
+	}
+
 	@Override
 	public boolean typeSupportsLength(int type) {
 		return getAdapter().typeSupportsLength(type);
@@ -71,11 +71,19 @@ public class JdbcAdapter implements DbAdapter {
 	protected boolean supportsBatchUpdates;
 	protected boolean supportsUniqueConstraints;
 	protected boolean supportsGeneratedKeys;
+	protected boolean supportsGeneratedKeysForBatchInserts;
+	protected boolean supportsSelectTranslationCache;
+	protected int multiRowInsertParameterLimit;
 	protected EJBQLTranslatorFactory ejbqlTranslatorFactory;
 
 	protected ResourceLocator resourceLocator;
 	protected boolean caseInsensitiveCollations;
 
+	/**
+	 * @since 4.0
+	 */
+	protected boolean streamingIteratedQueries;
+
 	/**
 	 * @since 3.1
 	 * @deprecated since 4.0 BatchQueryBuilderfactory is attached to the
@@ -99,7 +107,10 @@ public class JdbcAdapter implements DbAdapter {
 		// init defaults
 		this.setSupportsBatchUpdates(false);
 		this.setSupportsUniqueConstraints(true);
+		this.setSupportsSelectTranslationCache(true);
 		this.caseInsensitiveCollations = runtimeProperties.getBoolean(Constants.CI_PROPERTY, false);
+		this.streamingIteratedQueries = runtimeProperties.getBoolean(
+				Constants.SERVER_STREAMING_ITERATED_QUERIES_PROPERTY, true);
 		this.resourceLocator = resourceLocator;
 
 		this.pkGenerator = createPkGenerator();
@@ -574,6 +585,84 @@ public class JdbcAdapter implements DbAdapter {
 		this.supportsGeneratedKeys = flag;
 	}
 
+	/**
+	 * Returns true if the driver returns generated keys for every row inserted
+	 * by a JDBC batch or a multi-row INSERT, in the order of the inserted
+	 * rows. If false, inserts that generate keys are executed one row at a
+	 * time.
+	 * 
+	 * @since 4.0
+	 */
+	public boolean supportsGeneratedKeysForBatchInserts() {
+		return supportsGeneratedKeysForBatchInserts;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public void setSupportsGeneratedKeysForBatchInserts(boolean flag) {
+		this.supportsGeneratedKeysForBatchInserts = flag;
+	}
+
+	/**
+	 * Returns true if SQL produced by this adapter for a SelectQuery can be
+	 * cached and reused for other queries of the same structure, only
+	 * rebinding parameter values. Adapters whose dialects inline literals or
+	 * rewrite qualifiers based on parameter values should return false.
+	 * 
+	 * @since 4.0
+	 */
+	public boolean supportsSelectTranslationCache() {
+		return supportsSelectTranslationCache;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public void setSupportsSelectTranslationCache(boolean flag) {
+		this.supportsSelectTranslationCache = flag;
+	}
+
+	/**
+	 * Returns the maximum number of parameters that can be bound to a single
+	 * multi-row "INSERT ... VALUES (...), (...)" statement, or zero if the
+	 * target database does not support such statements. If the limit is
+	 * positive, batches of inserted rows are sent as multi-row INSERTs, each
+	 * one having as many rows as the limit allows.
+	 * 
+	 * @since 4.0
+	 */
+	public int getMultiRowInsertParameterLimit() {
+		return multiRowInsertParameterLimit;
+	}
+
+	/**
+	 * Sets the maximum number of parameters of a multi-row INSERT statement.
+	 * Zero (the default) disables multi-row inserts.
+	 * 
+	 * @since 4.0
+	 */
+	public void setMultiRowInsertParameterLimit(int multiRowInsertParameterLimit) {
+		this.multiRowInsertParameterLimit = multiRowInsertParameterLimit;
+	}
+
+	/**
+	 * Returns true if iterated queries should stream their results from the
+	 * database, provided the adapter knows how to set up its driver for that.
+	 * 
+	 * @since 4.0
+	 */
+	public boolean isStreamingIteratedQueries() {
+		return streamingIteratedQueries;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public void setStreamingIteratedQueries(boolean flag) {
+		this.streamingIteratedQueries = flag;
+	}
+
 	/**
 	 * Returns a translator factory for EJBQL to SQL translation. The factory is
 	 * normally initialized in constructor by calling
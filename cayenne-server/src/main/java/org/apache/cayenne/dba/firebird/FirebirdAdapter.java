@@ -65,6 +65,9 @@ public class FirebirdAdapter extends JdbcAdapter {
                 extendedTypeFactories,
                 resourceLocator);
 	    setSupportsBatchUpdates(true);
+
+	    // qualifier translator rewrites long IN lists based on their size
+	    setSupportsSelectTranslationCache(false);
     }
     
     protected void configureExtendedTypes(ExtendedTypeMap map) {
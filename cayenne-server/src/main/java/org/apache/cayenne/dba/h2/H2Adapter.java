@@ -54,6 +54,7 @@ public class H2Adapter extends JdbcAdapter {
             @Inject(Constants.SERVER_RESOURCE_LOCATOR) ResourceLocator resourceLocator) {
         super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator);
         setSupportsGeneratedKeys(true);
+        setMultiRowInsertParameterLimit(32767);
     }
 
     @Override
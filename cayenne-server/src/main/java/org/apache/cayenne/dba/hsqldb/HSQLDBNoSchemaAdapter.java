@@ -44,6 +44,10 @@ public class HSQLDBNoSchemaAdapter extends HSQLDBAdapter {
             @Inject(Constants.SERVER_TYPE_FACTORIES_LIST) List<ExtendedTypeFactory> extendedTypeFactories,
             @Inject(Constants.SERVER_RESOURCE_LOCATOR) ResourceLocator resourceLocator) {
         super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator);
+
+        // multi-row VALUES are supported since HSQLDB 2.0, which this adapter
+        // is used for
+        setMultiRowInsertParameterLimit(32767);
     }
 
     /**
@@ -30,13 +30,16 @@ import org.apache.cayenne.query.SelectQuery;
  */
 class MySQLActionBuilder extends JdbcActionBuilder {
 
-    MySQLActionBuilder(DataNode dataNode) {
+    private boolean streamingIteratedQueries;
+
+    MySQLActionBuilder(DataNode dataNode, boolean streamingIteratedQueries) {
         super(dataNode);
+        this.streamingIteratedQueries = streamingIteratedQueries;
     }
 
     @Override
     public <T> SQLAction objectSelectAction(SelectQuery<T> query) {
-        return new MySQLSelectAction(query, dataNode);
+        return new MySQLSelectAction(query, dataNode, streamingIteratedQueries);
     }
 
     @Override
@@ -103,6 +103,14 @@ public class MySQLAdapter extends JdbcAdapter {
 		setSupportsFkConstraints(true);
 		setSupportsUniqueConstraints(true);
 		setSupportsGeneratedKeys(true);
+		setSupportsGeneratedKeysForBatchInserts(true);
+		setMultiRowInsertParameterLimit(65535);
+
+		// a streamed result blocks all other statements on the connection
+		// (e.g. relationship faulting while iterating), so unlike other
+		// adapters MySQL only streams if explicitly configured to
+		setStreamingIteratedQueries(runtimeProperties.getBoolean(
+				Constants.SERVER_STREAMING_ITERATED_QUERIES_PROPERTY, false));
 	}
 
 	void setSupportsFkConstraints(boolean flag) {
@@ -133,7 +141,7 @@ public class MySQLAdapter extends JdbcAdapter {
 	 */
 	@Override
 	public SQLAction getAction(Query query, DataNode node) {
-		return query.createSQLAction(new MySQLActionBuilder(node));
+		return query.createSQLAction(new MySQLActionBuilder(node, isStreamingIteratedQueries()));
 	}
 
 	/**
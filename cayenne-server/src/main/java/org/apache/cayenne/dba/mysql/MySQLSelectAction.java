@@ -18,6 +18,10 @@
  ****************************************************************/
 package org.apache.cayenne.dba.mysql;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.jdbc.SelectAction;
 import org.apache.cayenne.query.SelectQuery;
@@ -27,12 +31,33 @@ import org.apache.cayenne.query.SelectQuery;
  */
 class MySQLSelectAction extends SelectAction {
 
-	<T> MySQLSelectAction(SelectQuery<T> query, DataNode dataNode) {
+	private boolean streamingIteratedQueries;
+
+	<T> MySQLSelectAction(SelectQuery<T> query, DataNode dataNode, boolean streamingIteratedQueries) {
 		super(query, dataNode);
+		this.streamingIteratedQueries = streamingIteratedQueries;
 	}
 
 	@Override
 	protected int getInMemoryOffset(int queryOffset) {
 		return 0;
 	}
+
+	/**
+	 * MySQL driver reads the entire result in memory, unless a statement fetch
+	 * size is Integer.MIN_VALUE, in which case the result is streamed row by
+	 * row. Note that no other statements can be executed over the same
+	 * connection until a streamed result is closed, which is why streaming is
+	 * off by default for MySQL. An explicit fetch size set
+	 * on the query takes precedence, so that "useCursorFetch" driver mode
+	 * could be used instead.
+	 * 
+	 * @since 4.0
+	 */
+	@Override
+	protected void startStreaming(Connection connection, PreparedStatement statement) throws SQLException {
+		if (streamingIteratedQueries && queryMetadata.getStatementFetchSize() == 0) {
+			statement.setFetchSize(Integer.MIN_VALUE);
+		}
+	}
 }
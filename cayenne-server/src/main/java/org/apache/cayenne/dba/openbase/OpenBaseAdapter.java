@@ -74,6 +74,9 @@ public class OpenBaseAdapter extends JdbcAdapter {
 
 		// init defaults
 		this.setSupportsUniqueConstraints(false);
+
+		// case-sensitive LIKE patterns are rewritten during translation
+		this.setSupportsSelectTranslationCache(false);
 	}
 
 	/**
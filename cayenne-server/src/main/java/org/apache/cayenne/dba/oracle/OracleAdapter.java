@@ -166,6 +166,9 @@ public class OracleAdapter extends JdbcAdapter {
 
 		// enable batch updates by default
 		setSupportsBatchUpdates(true);
+
+		// qualifier translator rewrites long IN lists based on their size
+		setSupportsSelectTranslationCache(false);
 	}
 
 	/**
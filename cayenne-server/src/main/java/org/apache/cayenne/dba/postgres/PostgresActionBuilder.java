@@ -21,6 +21,7 @@ package org.apache.cayenne.dba.postgres;
 
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.dba.JdbcActionBuilder;
+import org.apache.cayenne.query.BatchQuery;
 import org.apache.cayenne.query.ProcedureQuery;
 import org.apache.cayenne.query.SQLAction;
 import org.apache.cayenne.query.SelectQuery;
@@ -30,8 +31,26 @@ import org.apache.cayenne.query.SelectQuery;
  */
 class PostgresActionBuilder extends JdbcActionBuilder {
 
-    public PostgresActionBuilder(DataNode dataNode) {
+    private boolean streamingIteratedQueries;
+    private int copyInsertThreshold;
+
+    public PostgresActionBuilder(DataNode dataNode, boolean streamingIteratedQueries, int copyInsertThreshold) {
         super(dataNode);
+        this.streamingIteratedQueries = streamingIteratedQueries;
+        this.copyInsertThreshold = copyInsertThreshold;
+    }
+
+    /**
+     * @since 4.0
+     */
+    @Override
+    public SQLAction batchAction(BatchQuery query) {
+
+        // optimistic locking is not supported in batches due to JDBC driver limitations
+        boolean useOptimisticLock = query.isUsingOptimisticLocking();
+
+        boolean runningAsBatch = !useOptimisticLock && dataNode.getAdapter().supportsBatchUpdates();
+        return new PostgresBatchAction(query, dataNode, runningAsBatch, copyInsertThreshold);
     }
 
     @Override
@@ -41,6 +60,6 @@ class PostgresActionBuilder extends JdbcActionBuilder {
 
     @Override
     public <T> SQLAction objectSelectAction(SelectQuery<T> query) {
-        return new PostgresSelectAction(query, dataNode);
+        return new PostgresSelectAction(query, dataNode, streamingIteratedQueries);
     }
 }
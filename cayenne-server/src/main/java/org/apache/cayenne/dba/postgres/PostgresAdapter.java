@@ -68,6 +68,11 @@ public class PostgresAdapter extends JdbcAdapter {
 
 	public static final String BYTEA = "bytea";
 
+	/**
+	 * @since 4.0
+	 */
+	protected int copyInsertThreshold;
+
 	public PostgresAdapter(@Inject RuntimeProperties runtimeProperties,
 			@Inject(Constants.SERVER_DEFAULT_TYPES_LIST) List<ExtendedType> defaultExtendedTypes,
 			@Inject(Constants.SERVER_USER_TYPES_LIST) List<ExtendedType> userExtendedTypes,
@@ -75,6 +80,30 @@ public class PostgresAdapter extends JdbcAdapter {
 			@Inject(Constants.SERVER_RESOURCE_LOCATOR) ResourceLocator resourceLocator) {
 		super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator);
 		setSupportsBatchUpdates(true);
+
+		// the protocol limits the number of parameters to a 16-bit value
+		setMultiRowInsertParameterLimit(32767);
+
+		this.copyInsertThreshold = runtimeProperties.getInt(Constants.SERVER_COPY_INSERT_THRESHOLD_PROPERTY, 0);
+	}
+
+	/**
+	 * Returns the minimal number of rows in an insert batch that makes the
+	 * adapter load the batch with "COPY ... FROM STDIN" instead of INSERT
+	 * statements. Zero means that COPY is only used for batches explicitly
+	 * marked as bulk loads.
+	 * 
+	 * @since 4.0
+	 */
+	public int getCopyInsertThreshold() {
+		return copyInsertThreshold;
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	public void setCopyInsertThreshold(int copyInsertThreshold) {
+		this.copyInsertThreshold = copyInsertThreshold;
 	}
 
 	/**
@@ -92,7 +121,8 @@ public class PostgresAdapter extends JdbcAdapter {
 	 */
 	@Override
 	public SQLAction getAction(Query query, DataNode node) {
-		return query.createSQLAction(new PostgresActionBuilder(node));
+		return query.createSQLAction(new PostgresActionBuilder(node, isStreamingIteratedQueries(),
+				getCopyInsertThreshold()));
 	}
 
 	/**
@@ -0,0 +1,131 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.postgres;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.jdbc.BatchAction;
+import org.apache.cayenne.access.translator.batch.BatchTranslator;
+import org.apache.cayenne.access.translator.batch.InsertBatchTranslator;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.query.BatchQuery;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.InsertBatchQuery;
+
+/**
+ * A batch action that reads generated keys with "INSERT ... RETURNING"
+ * statements, inserting multiple rows per statement where possible. Unlike
+ * {@link java.sql.Statement#RETURN_GENERATED_KEYS} that makes the driver
+ * return all table columns, RETURNING only returns the generated PK. Large
+ * inserts and bulk loads that don't generate keys are sent with "COPY ... FROM
+ * STDIN".
+ * 
+ * @since 4.0
+ */
+class PostgresBatchAction extends BatchAction {
+
+	private int copyInsertThreshold;
+
+	PostgresBatchAction(BatchQuery query, DataNode dataNode, boolean runningAsBatch, int copyInsertThreshold) {
+		super(query, dataNode, runningAsBatch);
+		this.copyInsertThreshold = copyInsertThreshold;
+	}
+
+	@Override
+	public void performAction(Connection connection, OperationObserver observer) throws Exception {
+
+		if (query instanceof InsertBatchQuery) {
+			BatchTranslator translator = createTranslator();
+			if (translator instanceof InsertBatchTranslator) {
+
+				if (hasGeneratedKeys()) {
+					runAsMultiRowInserts(connection, (InsertBatchTranslator) translator, observer, true);
+					return;
+				}
+
+				if (isCopying()) {
+					PostgresCopyAction copy = new PostgresCopyAction((InsertBatchQuery) query, dataNode,
+							(InsertBatchTranslator) translator);
+
+					// fall back to INSERTs if COPY can't be used
+					if (copy.isSupported(connection)) {
+						copy.performAction(connection, observer);
+						return;
+					}
+				}
+			}
+		}
+
+		super.performAction(connection, observer);
+	}
+
+	/**
+	 * Returns true if the insert batch should be loaded with COPY.
+	 */
+	boolean isCopying() {
+		return ((InsertBatchQuery) query).isBulkLoading()
+				|| (copyInsertThreshold > 0 && query.getRows().size() >= copyInsertThreshold);
+	}
+
+	@Override
+	protected String createMultiRowInsertSql(InsertBatchTranslator translator, int rowCount, boolean generatesKeys) {
+		String sql = super.createMultiRowInsertSql(translator, rowCount, generatesKeys);
+		if (!generatesKeys) {
+			return sql;
+		}
+
+		DbAttribute pk = getGeneratedPk();
+		return sql + " RETURNING " + dataNode.getAdapter().getQuotingStrategy().quotedName(pk);
+	}
+
+	@Override
+	protected PreparedStatement prepareStatement(Connection connection, String sql, boolean generatesKeys)
+			throws SQLException {
+		// keys are returned by RETURNING clause as a regular ResultSet
+		return connection.prepareStatement(sql);
+	}
+
+	@Override
+	protected int executeMultiRowInsert(PreparedStatement statement, OperationObserver delegate,
+			List<BatchQueryRow> rows, boolean generatesKeys) throws Exception {
+
+		if (!generatesKeys) {
+			return super.executeMultiRowInsert(statement, delegate, rows, generatesKeys);
+		}
+
+		// RETURNING produces one key row per inserted row
+		processGeneratedKeys(statement.executeQuery(), delegate, rows);
+		return rows.size();
+	}
+
+	private DbAttribute getGeneratedPk() {
+		for (DbAttribute attribute : query.getDbEntity().getGeneratedAttributes()) {
+			if (attribute.isPrimaryKey()) {
+				return attribute;
+			}
+		}
+
+		throw new IllegalStateException("No generated PK in " + query.getDbEntity().getName());
+	}
+}
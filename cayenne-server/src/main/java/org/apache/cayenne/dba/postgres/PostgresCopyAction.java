@@ -0,0 +1,395 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.postgres;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.jdbc.BaseSQLAction;
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.access.translator.batch.InsertBatchTranslator;
+import org.apache.cayenne.access.types.BigDecimalType;
+import org.apache.cayenne.access.types.BigIntegerType;
+import org.apache.cayenne.access.types.BooleanType;
+import org.apache.cayenne.access.types.ByteArrayType;
+import org.apache.cayenne.access.types.ByteType;
+import org.apache.cayenne.access.types.CharType;
+import org.apache.cayenne.access.types.DateType;
+import org.apache.cayenne.access.types.DoubleType;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.access.types.FloatType;
+import org.apache.cayenne.access.types.IntegerType;
+import org.apache.cayenne.access.types.LongType;
+import org.apache.cayenne.access.types.ShortType;
+import org.apache.cayenne.access.types.TimeType;
+import org.apache.cayenne.access.types.TimestampType;
+import org.apache.cayenne.access.types.UtilDateType;
+import org.apache.cayenne.dba.QuotingStrategy;
+import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.InsertBatchQuery;
+
+/**
+ * Loads an insert batch with "COPY ... FROM STDIN", streaming the rows in COPY
+ * text format through PostgreSQL driver CopyManager. The driver API is
+ * accessed via reflection, so that the driver is not required at compile time.
+ * 
+ * @since 4.0
+ */
+class PostgresCopyAction extends BaseSQLAction {
+
+	static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+	private static final Set<Class<?>> STOCK_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+			BigDecimalType.class, BigIntegerType.class, BooleanType.class, ByteArrayType.class,
+			PostgresByteArrayType.class, ByteType.class, CharType.class, DateType.class, DoubleType.class,
+			FloatType.class, IntegerType.class, LongType.class, ShortType.class, TimeType.class,
+			TimestampType.class, UtilDateType.class));
+
+	private InsertBatchQuery query;
+	private InsertBatchTranslator translator;
+
+	PostgresCopyAction(InsertBatchQuery query, DataNode dataNode, InsertBatchTranslator translator) {
+		super(dataNode);
+		this.query = query;
+		this.translator = translator;
+	}
+
+	/**
+	 * Returns true if the batch can be loaded with COPY over the specified
+	 * connection. This requires PostgreSQL driver CopyManager and the values of
+	 * all rows being bound by the stock ExtendedTypes, whose text
+	 * representation is known.
+	 */
+	boolean isSupported(Connection connection) {
+		return isSupportedBatch() && isSupportedDriver(connection);
+	}
+
+	boolean isSupportedBatch() {
+
+		if (query.getRows().isEmpty() || translator.getRowParameterCount() == 0) {
+			return false;
+		}
+
+		ExtendedTypeMap types = dataNode.getAdapter().getExtendedTypes();
+		for (BatchQueryRow row : query.getRows()) {
+			for (ParameterBinding b : translator.updateBindings(row)) {
+				if (!b.isExcluded() && !isSupportedValue(types, b.getValue(), b.getAttribute().getType())) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isSupportedDriver(Connection connection) {
+		try {
+			return connection.isWrapperFor(pgConnectionClass(connection));
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Loads PostgreSQL connection interface with the class loader of the
+	 * driver connection, as the driver may not be visible to Cayenne class
+	 * loader.
+	 */
+	private static Class<?> pgConnectionClass(Connection connection) throws ClassNotFoundException {
+		return Class.forName(PG_CONNECTION_CLASS, false, connection.getClass().getClassLoader());
+	}
+
+	@Override
+	public void performAction(Connection connection, OperationObserver observer) throws Exception {
+
+		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
+
+		String sql = createSql();
+		logger.logQuery(sql, Collections.EMPTY_LIST);
+
+		long count;
+		try {
+			count = copyIn(connection, sql, new RowReader());
+		} catch (SQLException e) {
+			logger.logQueryError(sql, new ParameterBinding[0], e);
+			throw e;
+		}
+
+		int size = query.getRows().size();
+		int[] results = new int[size];
+		Arrays.fill(results, count == size ? 1 : Statement.SUCCESS_NO_INFO);
+		observer.nextBatchCount(query, results);
+
+		logger.logUpdateCount((int) count);
+	}
+
+	String createSql() {
+		QuotingStrategy strategy = dataNode.getAdapter().getQuotingStrategy();
+
+		StringBuilder buffer = new StringBuilder("COPY ");
+		buffer.append(strategy.quotedFullyQualifiedName(query.getDbEntity()));
+		buffer.append(" (");
+
+		int columnCount = 0;
+		for (DbAttribute attribute : copiedAttributes()) {
+			if (columnCount++ > 0) {
+				buffer.append(", ");
+			}
+
+			buffer.append(strategy.quotedName(attribute));
+		}
+
+		return buffer.append(") FROM STDIN").toString();
+	}
+
+	/**
+	 * Appends a row in COPY text format, including the trailing newline.
+	 */
+	void appendRow(StringBuilder buffer, BatchQueryRow row) {
+
+		int columnCount = 0;
+		for (ParameterBinding b : translator.updateBindings(row)) {
+			if (b.isExcluded()) {
+				continue;
+			}
+
+			if (columnCount++ > 0) {
+				buffer.append('\t');
+			}
+
+			appendValue(buffer, b.getValue(), b.getAttribute().getType());
+		}
+
+		buffer.append('\n');
+	}
+
+	private List<DbAttribute> copiedAttributes() {
+
+		// use the same columns as the INSERT would
+		List<DbAttribute> attributes = new ArrayList<DbAttribute>();
+		for (ParameterBinding b : translator.updateBindings(query.getRows().get(0))) {
+			if (!b.isExcluded()) {
+				attributes.add(b.getAttribute());
+			}
+		}
+
+		return attributes;
+	}
+
+	private long copyIn(Connection connection, String sql, Reader reader) throws Exception {
+
+		Class<?> pgConnectionType = pgConnectionClass(connection);
+		Object pgConnection = connection.unwrap(pgConnectionType);
+
+		try {
+			Object copyManager = pgConnectionType.getMethod("getCopyAPI").invoke(pgConnection);
+			Method copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+			return ((Number) copyIn.invoke(copyManager, sql, reader)).longValue();
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns true if the value would be bound by one of the stock
+	 * ExtendedTypes, which send it as is, so that its COPY text matches what
+	 * an INSERT would store. Values handled by custom types are never copied.
+	 */
+	static boolean isSupportedValue(ExtendedTypeMap types, Object value, int type) {
+
+		if (value == null) {
+			return true;
+		}
+
+		if (!STOCK_TYPES.contains(types.getRegisteredType(value.getClass()).getClass())) {
+			return false;
+		}
+
+		// byte arrays are written as large objects to BLOB columns
+		if (value instanceof byte[]) {
+			return type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY;
+		}
+
+		// the driver binds times with a zone offset that depends on the date,
+		// so a "timetz" column may get a value that COPY text can't reproduce
+		if (value instanceof Time || (value instanceof Date && type == Types.TIME)) {
+			return false;
+		}
+
+		return true;
+	}
+
+	static void appendValue(StringBuilder buffer, Object value, int type) {
+
+		if (value == null) {
+			buffer.append("\\N");
+		} else if (value instanceof byte[]) {
+
+			// bytea hex format, with the backslash escaped for COPY
+			buffer.append("\\\\x");
+			for (byte b : (byte[]) value) {
+				buffer.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+		} else if (value instanceof BigDecimal) {
+			buffer.append(((BigDecimal) value).toPlainString());
+		} else if (value instanceof Date) {
+			buffer.append(dateToString((Date) value, type));
+		} else {
+			appendEscaped(buffer, value.toString());
+		}
+	}
+
+	private static String dateToString(Date date, int type) {
+
+		if (date instanceof java.sql.Date) {
+			return date.toString();
+		}
+
+		if (!(date instanceof Timestamp) && type == Types.DATE) {
+			return new java.sql.Date(date.getTime()).toString();
+		}
+
+		Timestamp timestamp = date instanceof Timestamp ? (Timestamp) date : new Timestamp(date.getTime());
+		return timestampToString(timestamp);
+	}
+
+	/**
+	 * Renders a timestamp in the JVM default time zone, followed by the zone
+	 * offset, same as the driver does when binding a Timestamp. This way a
+	 * "timestamptz" column stores the same instant as with an INSERT, while a
+	 * "timestamp" column ignores the offset.
+	 */
+	private static String timestampToString(Timestamp timestamp) {
+		StringBuilder buffer = new StringBuilder(timestamp.toString());
+
+		int offset = TimeZone.getDefault().getOffset(timestamp.getTime()) / 1000;
+		buffer.append(offset < 0 ? '-' : '+');
+		offset = Math.abs(offset);
+
+		appendTwoDigits(buffer, offset / 3600);
+		buffer.append(':');
+		appendTwoDigits(buffer, (offset / 60) % 60);
+
+		if (offset % 60 != 0) {
+			buffer.append(':');
+			appendTwoDigits(buffer, offset % 60);
+		}
+
+		return buffer.toString();
+	}
+
+	private static void appendTwoDigits(StringBuilder buffer, int value) {
+		if (value < 10) {
+			buffer.append('0');
+		}
+		buffer.append(value);
+	}
+
+	private static void appendEscaped(StringBuilder buffer, String string) {
+		int len = string.length();
+		for (int i = 0; i < len; i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '\\':
+				buffer.append("\\\\");
+				break;
+			case '\t':
+				buffer.append("\\t");
+				break;
+			case '\n':
+				buffer.append("\\n");
+				break;
+			case '\r':
+				buffer.append("\\r");
+				break;
+			default:
+				buffer.append(c);
+			}
+		}
+	}
+
+	/**
+	 * Produces COPY data lazily, one row at a time, so that the whole batch is
+	 * never converted to text at once.
+	 */
+	class RowReader extends Reader {
+
+		private int rowIndex;
+		private StringBuilder buffer = new StringBuilder();
+		private int position;
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+
+			if (len == 0) {
+				return 0;
+			}
+
+			while (position == buffer.length()) {
+
+				List<BatchQueryRow> rows = query.getRows();
+				if (rowIndex == rows.size()) {
+					return -1;
+				}
+
+				buffer.setLength(0);
+				position = 0;
+				appendRow(buffer, rows.get(rowIndex++));
+			}
+
+			int count = Math.min(len, buffer.length() - position);
+			buffer.getChars(position, position + count, cbuf, off);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+	}
+}
@@ -18,6 +18,10 @@
  ****************************************************************/
 package org.apache.cayenne.dba.postgres;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.jdbc.SelectAction;
 import org.apache.cayenne.query.SelectQuery;
@@ -27,12 +31,59 @@ import org.apache.cayenne.query.SelectQuery;
  */
 class PostgresSelectAction extends SelectAction {
 
-	<T> PostgresSelectAction(SelectQuery<T> query, DataNode dataNode) {
+	/**
+	 * A fetch size used for streaming if the query doesn't define its own.
+	 * 
+	 * @since 4.0
+	 */
+	static final int STREAMING_FETCH_SIZE = 1000;
+
+	private boolean streamingIteratedQueries;
+	private boolean restoreAutoCommit;
+
+	<T> PostgresSelectAction(SelectQuery<T> query, DataNode dataNode, boolean streamingIteratedQueries) {
 		super(query, dataNode);
+		this.streamingIteratedQueries = streamingIteratedQueries;
 	}
 
 	@Override
 	protected int getInMemoryOffset(int queryOffset) {
 		return 0;
 	}
+
+	/**
+	 * PostgreSQL driver reads the entire result in memory, unless a statement
+	 * has a positive fetch size and is executed with autocommit off, in which
+	 * case it reads the result via a cursor, "fetch size" rows at a time.
+	 * 
+	 * @since 4.0
+	 */
+	@Override
+	protected void startStreaming(Connection connection, PreparedStatement statement) throws SQLException {
+		if (!streamingIteratedQueries) {
+			return;
+		}
+
+		if (queryMetadata.getStatementFetchSize() == 0) {
+			statement.setFetchSize(STREAMING_FETCH_SIZE);
+		}
+
+		// Cayenne transactions already run with autocommit off, so this is
+		// only needed for external transactions
+		if (connection.getAutoCommit()) {
+			connection.setAutoCommit(false);
+			restoreAutoCommit = true;
+		}
+	}
+
+	/**
+	 * @since 4.0
+	 */
+	@Override
+	protected void endStreaming(Connection connection) throws SQLException {
+		if (restoreAutoCommit) {
+			restoreAutoCommit = false;
+			connection.setAutoCommit(true);
+		}
+	}
 }
@@ -70,6 +70,9 @@ public class SQLiteAdapter extends JdbcAdapter {
                 resourceLocator);
         this.setSupportsUniqueConstraints(false);
         this.setSupportsGeneratedKeys(true);
+
+        // the default SQLITE_MAX_VARIABLE_NUMBER of older SQLite versions
+        this.setMultiRowInsertParameterLimit(999);
     }
 
     @Override
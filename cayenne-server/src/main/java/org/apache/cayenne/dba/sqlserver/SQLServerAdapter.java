@@ -91,6 +91,9 @@ public class SQLServerAdapter extends SybaseAdapter {
 		// in this case we need to move this to the super.
 		this.setSupportsGeneratedKeys(true);
 		this.setSupportsBatchUpdates(true);
+
+		// the server limit is 2100 parameters per request
+		this.setMultiRowInsertParameterLimit(2000);
 	}
 
 	/**
@@ -0,0 +1,134 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.ejbql;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * A bounded thread-safe cache of {@link EJBQLCompiledExpression} objects keyed
+ * by EJBQL statement. Each {@link EntityResolver} owns a single instance of the
+ * cache and clears it whenever its mapping changes, so that the compiled
+ * expressions can be shared between multiple executions of the same EJBQL
+ * string.
+ * 
+ * @since 4.0
+ */
+public class EJBQLCompiledExpressionCache {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    protected volatile int capacity;
+    protected ConcurrentLinkedHashMap<String, EJBQLCompiledExpression> cache;
+    protected AtomicLong hits;
+    protected AtomicLong misses;
+
+    public EJBQLCompiledExpressionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache holding up to "capacity" compiled expressions. Zero
+     * capacity disables caching.
+     */
+    public EJBQLCompiledExpressionCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative cache capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.cache = new ConcurrentLinkedHashMap.Builder<String, EJBQLCompiledExpression>()
+                .maximumWeightedCapacity(capacity).build();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns a cached compiled expression for the EJBQL statement, compiling
+     * and caching it on a cache miss.
+     */
+    public EJBQLCompiledExpression compile(String ejbql, EntityResolver resolver) throws EJBQLException {
+
+        if (capacity == 0) {
+            misses.incrementAndGet();
+            return EJBQLParserFactory.getParser().compile(ejbql, resolver);
+        }
+
+        EJBQLCompiledExpression expression = cache.get(ejbql);
+        if (expression != null) {
+            hits.incrementAndGet();
+            return expression;
+        }
+
+        misses.incrementAndGet();
+
+        // compile outside of any lock; if two threads race on the same
+        // statement, both results are equivalent and the first one wins
+        expression = EJBQLParserFactory.getParser().compile(ejbql, resolver);
+        EJBQLCompiledExpression existing = cache.putIfAbsent(ejbql, expression);
+        return existing != null ? existing : expression;
+    }
+
+    /**
+     * Changes the maximum number of cached expressions, evicting the least
+     * recently used entries if needed.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative cache capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+        cache.setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Removes all cached expressions. Hit and miss counters are preserved.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of currently cached expressions.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that required EJBQL compilation.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
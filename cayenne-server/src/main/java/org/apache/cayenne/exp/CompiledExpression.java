@@ -0,0 +1,112 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cayenne.util.ConversionUtil;
+
+/**
+ * A reusable in-memory evaluator of an {@link Expression}, created via
+ * {@link Expression#compile()}. Evaluation results are the same as those of
+ * the source expression, but the work that does not depend on the evaluated
+ * object (e.g. property path resolution, picking comparison strategy for
+ * constant operands) is done once during compilation. A compiled expression
+ * is immutable and can be shared between threads. It does not reflect the
+ * changes made to the source expression after compilation.
+ * 
+ * @since 4.0
+ */
+public abstract class CompiledExpression {
+
+	protected Expression expression;
+
+	protected CompiledExpression(Expression expression) {
+		this.expression = expression;
+	}
+
+	/**
+	 * Returns the expression this evaluator was compiled from.
+	 */
+	public Expression getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Calculates expression value with object as a context for path
+	 * expressions.
+	 */
+	public abstract Object evaluate(Object o);
+
+	/**
+	 * Calculates expression boolean value with object as a context for path
+	 * expressions.
+	 */
+	public boolean match(Object o) {
+		return ConversionUtil.toBoolean(evaluate(o));
+	}
+
+	/**
+	 * Returns the first object in the list that matches the expression.
+	 */
+	public <T> T first(List<T> objects) {
+		for (T o : objects) {
+			if (match(o)) {
+				return o;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a list of objects that match the expression.
+	 */
+	public <T> List<T> filterObjects(Collection<T> objects) {
+		if (objects == null || objects.size() == 0) {
+			return Collections.emptyList();
+		}
+
+		List<T> filtered = new ArrayList<T>();
+		filter(objects, filtered);
+		return filtered;
+	}
+
+	/**
+	 * Adds objects matching this expression from the source collection to the
+	 * target collection.
+	 */
+	public <T> Collection<T> filter(Collection<T> source, Collection<T> target) {
+		for (T o : source) {
+			if (match(o)) {
+				target.add(o);
+			}
+		}
+
+		return target;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(expression);
+	}
+}
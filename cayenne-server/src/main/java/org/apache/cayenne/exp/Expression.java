@@ -507,6 +507,25 @@ public abstract class Expression implements Serializable, XMLSerializable {
 		return target;
 	}
 
+	/**
+	 * Creates a reusable in-memory evaluator of this expression. Compiled
+	 * expression should be preferred over {@link #match(Object)} and
+	 * {@link #filterObjects(Collection)} when the same expression is applied
+	 * to many objects. This implementation simply delegates to
+	 * {@link #evaluate(Object)}. Subclasses may provide optimized evaluators.
+	 *
+	 * @since 4.0
+	 */
+	public CompiledExpression compile() {
+		return new CompiledExpression(this) {
+
+			@Override
+			public Object evaluate(Object o) {
+				return expression.evaluate(o);
+			}
+		};
+	}
+
 	/**
 	 * Clones this expression.
 	 * 
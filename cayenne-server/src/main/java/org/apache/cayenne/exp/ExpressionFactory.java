@@ -26,8 +26,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.exp.parser.ASTAdd;
 import org.apache.cayenne.exp.parser.ASTAnd;
 import org.apache.cayenne.exp.parser.ASTBetween;
@@ -65,9 +67,11 @@ import org.apache.cayenne.exp.parser.ASTTrue;
 import org.apache.cayenne.exp.parser.ExpressionParser;
 import org.apache.cayenne.exp.parser.ExpressionParserTokenManager;
 import org.apache.cayenne.exp.parser.JavaCharStream;
+import org.apache.cayenne.exp.parser.Node;
 import org.apache.cayenne.exp.parser.ParseException;
 import org.apache.cayenne.exp.parser.SimpleNode;
 import org.apache.cayenne.map.Entity;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 
 /**
  * Helper class to build expressions. Alternatively expressions can be built
@@ -89,6 +93,19 @@ public class ExpressionFactory {
 
 	private static final int PARSE_BUFFER_MAX_SIZE = 4096;
 
+	/**
+	 * Default number of parsed expressions kept in the parse cache.
+	 * 
+	 * @since 4.0
+	 */
+	public static final int PARSE_CACHE_SIZE_DEFAULT = 1000;
+
+	// parsed expressions are never exposed to the callers, each call gets a
+	// copy that can be safely modified
+	private static volatile ConcurrentLinkedHashMap<String, Expression> parseCache;
+	private static final AtomicLong parseCacheHits = new AtomicLong();
+	private static final AtomicLong parseCacheMisses = new AtomicLong();
+
 	static {
 
 		// make sure all types are small integers, then we can use
@@ -124,6 +141,8 @@ public class ExpressionFactory {
 
 		typeLookup = new Class[max + 1];
 
+		setParseCacheSize(Integer.getInteger(Constants.EXPRESSION_CACHE_SIZE_PROPERTY, PARSE_CACHE_SIZE_DEFAULT));
+
 		typeLookup[Expression.AND] = ASTAnd.class;
 		typeLookup[Expression.OR] = ASTOr.class;
 		typeLookup[Expression.BETWEEN] = ASTBetween.class;
@@ -993,7 +1012,7 @@ public class ExpressionFactory {
 	 * @since 4.0
 	 */
 	public static Expression exp(String expressionString, Object... parameters) {
-		Expression e = fromString(expressionString);
+		Expression e = parse(expressionString);
 
 		if (parameters != null && parameters.length > 0) {
 			// apply parameters in-place... it is wasteful to clone the
@@ -1004,6 +1023,115 @@ public class ExpressionFactory {
 		return e;
 	}
 
+	/**
+	 * Returns a parsed expression for the string, reusing a cached parse result
+	 * if available. The returned expression is always a private copy.
+	 */
+	private static Expression parse(String expressionString) {
+
+		ConcurrentLinkedHashMap<String, Expression> cache = parseCache;
+		if (cache == null) {
+			return fromString(expressionString);
+		}
+
+		if (expressionString == null) {
+			throw new NullPointerException("Null expression string.");
+		}
+
+		Expression prototype = cache.get(expressionString);
+		if (prototype != null) {
+			parseCacheHits.incrementAndGet();
+		} else {
+			parseCacheMisses.incrementAndGet();
+			prototype = fromString(expressionString);
+			cache.put(expressionString, prototype);
+		}
+
+		return copyTree(prototype);
+	}
+
+	/**
+	 * Makes an exact structural copy of a parsed expression. Unlike
+	 * {@link Expression#deepCopy()}, this preserves parameter nodes and does
+	 * not apply any transformations to the tree.
+	 */
+	private static Expression copyTree(Expression exp) {
+		Expression copy = exp.shallowCopy();
+
+		if (exp instanceof ASTList) {
+			// list values are stored outside of the children array
+			copy.setOperand(0, exp.getOperand(0));
+		} else if (exp instanceof SimpleNode) {
+			SimpleNode node = (SimpleNode) exp;
+			SimpleNode nodeCopy = (SimpleNode) copy;
+
+			int len = node.jjtGetNumChildren();
+			for (int i = 0; i < len; i++) {
+				Node child = node.jjtGetChild(i);
+				Node childCopy = child instanceof Expression ? (Node) copyTree((Expression) child) : child;
+				nodeCopy.jjtAddChild(childCopy, i);
+				if (childCopy != null) {
+					childCopy.jjtSetParent(nodeCopy);
+				}
+			}
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Sets the maximum number of parsed expressions kept in a JVM-wide cache
+	 * used by {@link #exp(String, Object...)}. Zero size disables the cache.
+	 * Initial size is taken from the
+	 * {@link Constants#EXPRESSION_CACHE_SIZE_PROPERTY} system property.
+	 * 
+	 * @since 4.0
+	 */
+	public static synchronized void setParseCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Negative cache size: " + size);
+		}
+
+		if (size == 0) {
+			parseCache = null;
+		} else if (parseCache != null) {
+			parseCache.setCapacity(size);
+		} else {
+			parseCache = new ConcurrentLinkedHashMap.Builder<String, Expression>().maximumWeightedCapacity(size)
+					.build();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of cached parsed expressions. Zero means
+	 * that the cache is disabled.
+	 * 
+	 * @since 4.0
+	 */
+	public static int getParseCacheSize() {
+		ConcurrentLinkedHashMap<String, Expression> cache = parseCache;
+		return cache != null ? cache.capacity() : 0;
+	}
+
+	/**
+	 * Returns the number of expression strings that were served from the
+	 * parse cache.
+	 * 
+	 * @since 4.0
+	 */
+	public static long getParseCacheHits() {
+		return parseCacheHits.get();
+	}
+
+	/**
+	 * Returns the number of expression strings that had to be parsed.
+	 * 
+	 * @since 4.0
+	 */
+	public static long getParseCacheMisses() {
+		return parseCacheMisses.get();
+	}
+
 	/**
 	 * Parses string, converting it to Expression. If string does not represent
 	 * a semantically correct expression, an ExpressionException is thrown.
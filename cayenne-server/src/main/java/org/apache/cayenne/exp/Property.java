@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.exp;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -46,18 +47,58 @@ import org.apache.cayenne.reflect.PropertyUtils;
  *            The type this property returns.
  * @since 4.0
  */
-public class Property<E> {
+public class Property<E> implements Serializable {
+
+	private static final long serialVersionUID = -2466185612925034489L;
+
+	/**
+	 * Aggregate functions that can be applied to a property used as a column
+	 * of an {@link org.apache.cayenne.query.ObjectSelect}.
+	 */
+	public enum Aggregate {
+		COUNT, SUM, MIN, MAX, AVG
+	}
+
+	/**
+	 * A property representing the number of the root objects matched by a
+	 * query. Can only be used as a query column.
+	 */
+	public static final Property<Long> COUNT = new Property<Long>(null, Aggregate.COUNT, Long.class);
 
 	/**
 	 * Name of the property in the object
 	 */
 	private final String name;
 
+	private final Aggregate aggregate;
+
+	private final Class<?> aggregateType;
+
 	/**
 	 * Constructs a new property with the given name.
 	 */
 	public Property(String name) {
+		this(name, null);
+	}
+
+	/**
+	 * Constructs a new property with the given name, whose value is
+	 * calculated by applying an aggregate function to the values of the named
+	 * property.
+	 */
+	protected Property(String name, Aggregate aggregate) {
+		this(name, aggregate, null);
+	}
+
+	/**
+	 * Constructs a new property with the given name, whose value is
+	 * calculated by applying an aggregate function to the values of the named
+	 * property and read as the given Java type.
+	 */
+	protected Property(String name, Aggregate aggregate, Class<?> aggregateType) {
 		this.name = name;
+		this.aggregate = aggregate;
+		this.aggregateType = aggregateType;
 	}
 
 	/**
@@ -67,14 +108,87 @@ public class Property<E> {
 		return name;
 	}
 
+	/**
+	 * @return An aggregate function applied to the property or null if this
+	 *         is a plain property.
+	 */
+	public Aggregate getAggregate() {
+		return aggregate;
+	}
+
+	/**
+	 * @return Java type of the aggregate function result, or null if it is
+	 *         the same as the type of the aggregated property, or if this is a
+	 *         plain property.
+	 */
+	public Class<?> getAggregateType() {
+		return aggregateType;
+	}
+
 	@Override
 	public int hashCode() {
-		return getName().hashCode();
+		int hashCode = name != null ? name.hashCode() : 0;
+		hashCode = aggregate != null ? 31 * hashCode + aggregate.ordinal() + 1 : hashCode;
+		return aggregateType != null ? 31 * hashCode + aggregateType.hashCode() : hashCode;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof Property && ((Property<?>) obj).getName().equals(getName());
+		if (!(obj instanceof Property)) {
+			return false;
+		}
+
+		Property<?> property = (Property<?>) obj;
+		return (name != null ? name.equals(property.name) : property.name == null)
+				&& aggregate == property.aggregate && aggregateType == property.aggregateType;
+	}
+
+	/**
+	 * @return A property representing the number of non-null values of this
+	 *         property.
+	 */
+	public Property<Long> count() {
+		return new Property<Long>(name, Aggregate.COUNT, Long.class);
+	}
+
+	/**
+	 * @return A property representing the sum of the values of this property,
+	 *         read as the type of this property. Use {@link #sumAsLong()} to
+	 *         sum integral properties without overflowing their type.
+	 */
+	public Property<E> sum() {
+		return new Property<E>(name, Aggregate.SUM);
+	}
+
+	/**
+	 * @return A property representing the sum of the values of an integral
+	 *         property, read as Long.
+	 */
+	public Property<Long> sumAsLong() {
+		return new Property<Long>(name, Aggregate.SUM, Long.class);
+	}
+
+	/**
+	 * @return A property representing the smallest value of this property.
+	 */
+	public Property<E> min() {
+		return new Property<E>(name, Aggregate.MIN);
+	}
+
+	/**
+	 * @return A property representing the largest value of this property.
+	 */
+	public Property<E> max() {
+		return new Property<E>(name, Aggregate.MAX);
+	}
+
+	/**
+	 * @return A property representing the average value of this property,
+	 *         read as Double regardless of the property type, so that the
+	 *         average of an integral property is not truncated.
+	 */
+	public Property<Double> avg() {
+		return new Property<Double>(name, Aggregate.AVG, Double.class);
 	}
 
 	/**
@@ -0,0 +1,857 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.CayenneDataObject;
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.exp.CompiledExpression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.map.Entity;
+import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.reflect.PropertyUtils;
+import org.apache.cayenne.util.ConversionUtil;
+import org.apache.cayenne.util.Util;
+
+/**
+ * Compiles a tree of AST nodes into a tree of evaluators that produce the same
+ * results as {@link SimpleNode#evaluate(Object)}, but do the object-independent
+ * work upfront. Object paths are split and resolved once, comparisons with
+ * constant operands pick a type-specific strategy, and IN lists of strings or
+ * whole numbers are turned into lookup structures. Node types that have no
+ * compiled counterpart are evaluated by delegating to the original node.
+ * 
+ * @since 4.0
+ */
+final class ExpressionCompiler {
+
+	static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+	static final int GREATER = 0;
+	static final int GREATER_OR_EQUAL = 1;
+	static final int LESS = 2;
+	static final int LESS_OR_EQUAL = 3;
+
+	static CompiledExpression compile(SimpleNode expression) {
+		return new CompiledTree(expression, compileNode(expression));
+	}
+
+	static CompiledNode compileNode(Node node) {
+
+		if (node == null) {
+			return new Constant(null);
+		}
+
+		// match exact classes, as subclasses may redefine evaluation
+		Class<?> type = node.getClass();
+
+		if (type == ASTScalar.class) {
+			return new Constant(((ASTScalar) node).getValue());
+		} else if (type == ASTList.class) {
+			return new Constant(((ASTList) node).getOperand(0));
+		} else if (type == ASTObjPath.class) {
+			return compilePath((ASTObjPath) node);
+		} else if (type == ASTTrue.class) {
+			return Constant.TRUE;
+		} else if (type == ASTFalse.class) {
+			return Constant.FALSE;
+		} else if (type == ASTAnd.class) {
+			return node.jjtGetNumChildren() > 0 ? new And(compileChildren(node)) : Constant.FALSE;
+		} else if (type == ASTOr.class) {
+			return node.jjtGetNumChildren() > 0 ? new Or(compileChildren(node)) : Constant.FALSE;
+		} else if (type == ASTNot.class) {
+			return node.jjtGetNumChildren() > 0 ? new Not(compileNode(node.jjtGetChild(0))) : Constant.FALSE;
+		} else if (type == ASTEqual.class) {
+			return compileEqual(node, false);
+		} else if (type == ASTNotEqual.class) {
+			return compileEqual(node, true);
+		} else if (type == ASTGreater.class) {
+			return compileComparison(node, GREATER);
+		} else if (type == ASTGreaterOrEqual.class) {
+			return compileComparison(node, GREATER_OR_EQUAL);
+		} else if (type == ASTLess.class) {
+			return compileComparison(node, LESS);
+		} else if (type == ASTLessOrEqual.class) {
+			return compileComparison(node, LESS_OR_EQUAL);
+		} else if (type == ASTBetween.class) {
+			return compileBetween(node, false);
+		} else if (type == ASTNotBetween.class) {
+			return compileBetween(node, true);
+		} else if (type == ASTIn.class) {
+			return compileIn((SimpleNode) node, false);
+		} else if (type == ASTNotIn.class) {
+			return compileIn((SimpleNode) node, true);
+		} else if (type == ASTLike.class || type == ASTLikeIgnoreCase.class) {
+			return compileLike((PatternMatchNode) node, false);
+		} else if (type == ASTNotLike.class || type == ASTNotLikeIgnoreCase.class) {
+			return compileLike((PatternMatchNode) node, true);
+		}
+
+		return new Interpreted((SimpleNode) node);
+	}
+
+	private static CompiledNode[] compileChildren(Node node) {
+		int len = node.jjtGetNumChildren();
+		CompiledNode[] children = new CompiledNode[len];
+		for (int i = 0; i < len; i++) {
+			children[i] = compileNode(node.jjtGetChild(i));
+		}
+		return children;
+	}
+
+	private static CompiledNode compilePath(ASTObjPath node) {
+
+		Accessor accessor;
+		try {
+			accessor = PropertyUtils.accessor(node.getPath());
+		} catch (IllegalArgumentException e) {
+			// let the node report an invalid path during evaluation
+			return new Interpreted(node);
+		}
+
+		return new ObjPath(node, accessor);
+	}
+
+	private static CompiledNode compileEqual(Node node, boolean negate) {
+		if (node.jjtGetNumChildren() != 2) {
+			return Constant.FALSE;
+		}
+
+		CompiledNode left = compileNode(node.jjtGetChild(0));
+		CompiledNode right = compileNode(node.jjtGetChild(1));
+
+		return right instanceof Constant ? new EqualToConstant(left, Comparand.forValue(((Constant) right).value),
+				negate) : new Equal(left, right, negate);
+	}
+
+	private static CompiledNode compileComparison(Node node, int operator) {
+		if (node.jjtGetNumChildren() != 2) {
+			return Constant.FALSE;
+		}
+
+		CompiledNode left = compileNode(node.jjtGetChild(0));
+		CompiledNode right = compileNode(node.jjtGetChild(1));
+
+		return right instanceof Constant ? new CompareToConstant(left, Comparand.forValue(((Constant) right).value),
+				operator) : new Compare(left, right, operator);
+	}
+
+	private static CompiledNode compileBetween(Node node, boolean negate) {
+		if (node.jjtGetNumChildren() != 3) {
+			return Constant.FALSE;
+		}
+
+		CompiledNode value = compileNode(node.jjtGetChild(0));
+		CompiledNode lower = compileNode(node.jjtGetChild(1));
+		CompiledNode upper = compileNode(node.jjtGetChild(2));
+
+		if (lower instanceof Constant && upper instanceof Constant) {
+			return new BetweenConstants(value, Comparand.forValue(((Constant) lower).value),
+					Comparand.forValue(((Constant) upper).value), negate);
+		}
+
+		return new Between(value, lower, upper, negate);
+	}
+
+	private static CompiledNode compileIn(SimpleNode node, boolean negate) {
+		if (node.jjtGetNumChildren() != 2) {
+			return Constant.FALSE;
+		}
+
+		CompiledNode list = compileNode(node.jjtGetChild(1));
+		if (!(list instanceof Constant)) {
+			// parameters or other non-constant lists are rare, no point in
+			// optimizing them
+			return new Interpreted(node);
+		}
+
+		Object values = ((Constant) list).value;
+		if (values != null && !(values instanceof Object[])) {
+			return new Interpreted(node);
+		}
+
+		return new In(compileNode(node.jjtGetChild(0)), values != null ? new ValueSet((Object[]) values) : null,
+				negate);
+	}
+
+	private static CompiledNode compileLike(PatternMatchNode node, boolean negate) {
+		if (node.jjtGetNumChildren() != 2) {
+			return Constant.FALSE;
+		}
+
+		Pattern pattern;
+		try {
+			pattern = node.getPattern();
+		} catch (RuntimeException e) {
+			pattern = null;
+		}
+
+		// invalid patterns are reported by the node during evaluation
+		if (pattern == null) {
+			return new Interpreted(node);
+		}
+
+		return new Like(compileNode(node.jjtGetChild(0)), pattern, negate);
+	}
+
+	static boolean isWholeNumber(Object value) {
+		Class<?> type = value.getClass();
+		return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class;
+	}
+
+	static boolean compareResult(int operator, int c) {
+		if (c == INCOMPARABLE) {
+			return false;
+		}
+
+		switch (operator) {
+		case GREATER:
+			return c > 0;
+		case GREATER_OR_EQUAL:
+			return c >= 0;
+		case LESS:
+			return c < 0;
+		case LESS_OR_EQUAL:
+			return c <= 0;
+		default:
+			throw new IllegalArgumentException("Invalid operator: " + operator);
+		}
+	}
+
+	static int compare(Object lhs, Object rhs) {
+		Integer c = Evaluator.evaluator(lhs).compare(lhs, rhs);
+		return c != null ? Integer.signum(c) : INCOMPARABLE;
+	}
+
+	static final class CompiledTree extends CompiledExpression {
+
+		private final CompiledNode root;
+
+		CompiledTree(SimpleNode expression, CompiledNode root) {
+			super(expression);
+			this.root = root;
+		}
+
+		@Override
+		public Object evaluate(Object o) {
+			try {
+				return root.evaluate(o);
+			} catch (Throwable th) {
+				throw evaluationException(th);
+			}
+		}
+
+		@Override
+		public boolean match(Object o) {
+			try {
+				return root.match(o);
+			} catch (Throwable th) {
+				throw evaluationException(th);
+			}
+		}
+
+		// same exception as the one thrown by SimpleNode.evaluate
+		private ExpressionException evaluationException(Throwable th) {
+			String string = expression.toString();
+			return new ExpressionException("Error evaluating expression '" + string + "'", string,
+					Util.unwindException(th));
+		}
+	}
+
+	/**
+	 * A compiled expression node.
+	 */
+	static abstract class CompiledNode {
+
+		abstract Object evaluate(Object o) throws Exception;
+
+		boolean match(Object o) throws Exception {
+			return ConversionUtil.toBoolean(evaluate(o));
+		}
+	}
+
+	/**
+	 * A compiled node that produces a boolean value.
+	 */
+	static abstract class Condition extends CompiledNode {
+
+		@Override
+		Object evaluate(Object o) throws Exception {
+			return match(o) ? Boolean.TRUE : Boolean.FALSE;
+		}
+
+		@Override
+		abstract boolean match(Object o) throws Exception;
+	}
+
+	static final class Interpreted extends CompiledNode {
+
+		private final SimpleNode node;
+
+		Interpreted(SimpleNode node) {
+			this.node = node;
+		}
+
+		@Override
+		Object evaluate(Object o) {
+			return node.evaluate(o);
+		}
+	}
+
+	static final class Constant extends CompiledNode {
+
+		static final Constant TRUE = new Constant(Boolean.TRUE);
+		static final Constant FALSE = new Constant(Boolean.FALSE);
+
+		final Object value;
+
+		Constant(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		Object evaluate(Object o) {
+			return value;
+		}
+	}
+
+	static final class ObjPath extends CompiledNode {
+
+		private final ASTObjPath node;
+		private final String path;
+		private final Accessor accessor;
+
+		// path segments with the "outer join" marks stripped, and the
+		// unprocessed path remainders starting at each segment; segments are
+		// null if the path can not be split safely
+		private final String[] segments;
+		private final String[] remainders;
+
+		ObjPath(ASTObjPath node, Accessor accessor) {
+			this.node = node;
+			this.path = node.getPath();
+			this.accessor = accessor;
+
+			String[] segments = path.split("\\.", -1);
+			String[] remainders = new String[segments.length];
+
+			int offset = 0;
+			for (int i = 0; i < segments.length; i++) {
+				remainders[i] = path.substring(offset);
+				offset += segments[i].length() + 1;
+
+				if (i < segments.length - 1 && segments[i].endsWith("+")) {
+					segments[i] = segments[i].substring(0, segments[i].length() - 1);
+				}
+
+				if (segments[i].length() == 0) {
+					segments = null;
+					break;
+				}
+			}
+
+			this.segments = segments;
+			this.remainders = remainders;
+		}
+
+		@Override
+		Object evaluate(Object o) {
+			if (o instanceof DataObject) {
+				return readDataObjectPath((DataObject) o);
+			} else if (o instanceof Entity) {
+				return node.evaluateEntityNode((Entity) o);
+			} else {
+				return accessor.getValue(o);
+			}
+		}
+
+		// follows the logic of CayenneDataObject.readNestedProperty without
+		// re-parsing the path at every step
+		private Object readDataObjectPath(DataObject object) {
+
+			if (segments == null) {
+				return object.readNestedProperty(path);
+			}
+
+			Object value = object;
+			int last = segments.length - 1;
+			for (int i = 0;; i++) {
+				if (value instanceof CayenneDataObject) {
+					value = ((DataObject) value).readNestedProperty(segments[i]);
+					if (i == last || value == null) {
+						return value;
+					}
+				} else if (value instanceof DataObject) {
+					return ((DataObject) value).readNestedProperty(remainders[i]);
+				} else {
+					return Cayenne.readNestedProperty(value, remainders[i]);
+				}
+			}
+		}
+	}
+
+	static final class And extends Condition {
+
+		private final CompiledNode[] children;
+
+		And(CompiledNode[] children) {
+			this.children = children;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			for (CompiledNode child : children) {
+				if (!child.match(o)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	static final class Or extends Condition {
+
+		private final CompiledNode[] children;
+
+		Or(CompiledNode[] children) {
+			this.children = children;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			for (CompiledNode child : children) {
+				if (child.match(o)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	static final class Not extends Condition {
+
+		private final CompiledNode child;
+
+		Not(CompiledNode child) {
+			this.child = child;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			return !child.match(o);
+		}
+	}
+
+	static final class Equal extends Condition {
+
+		private final CompiledNode left;
+		private final CompiledNode right;
+		private final boolean negate;
+
+		Equal(CompiledNode left, CompiledNode right, boolean negate) {
+			this.left = left;
+			this.right = right;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			return ASTEqual.evaluateImpl(left.evaluate(o), right.evaluate(o)) != negate;
+		}
+	}
+
+	static final class EqualToConstant extends Condition {
+
+		private final CompiledNode left;
+		private final Comparand right;
+		private final boolean negate;
+
+		EqualToConstant(CompiledNode left, Comparand right, boolean negate) {
+			this.left = left;
+			this.right = right;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			return right.equalTo(left.evaluate(o)) != negate;
+		}
+	}
+
+	static final class Compare extends Condition {
+
+		private final CompiledNode left;
+		private final CompiledNode right;
+		private final int operator;
+
+		Compare(CompiledNode left, CompiledNode right, int operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			return compareResult(operator, compare(left.evaluate(o), right.evaluate(o)));
+		}
+	}
+
+	static final class CompareToConstant extends Condition {
+
+		private final CompiledNode left;
+		private final Comparand right;
+		private final int operator;
+
+		CompareToConstant(CompiledNode left, Comparand right, int operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			return compareResult(operator, right.compareFrom(left.evaluate(o)));
+		}
+	}
+
+	static final class Between extends Condition {
+
+		private final CompiledNode value;
+		private final CompiledNode lower;
+		private final CompiledNode upper;
+		private final boolean negate;
+
+		Between(CompiledNode value, CompiledNode lower, CompiledNode upper, boolean negate) {
+			this.value = value;
+			this.lower = lower;
+			this.upper = upper;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			Object v = value.evaluate(o);
+			Object l = lower.evaluate(o);
+			Object u = upper.evaluate(o);
+
+			int c1 = compare(v, l);
+			if (c1 == INCOMPARABLE) {
+				return false;
+			}
+
+			int c2 = compare(v, u);
+			if (c2 == INCOMPARABLE) {
+				return false;
+			}
+
+			return (c1 >= 0 && c2 <= 0) != negate;
+		}
+	}
+
+	static final class BetweenConstants extends Condition {
+
+		private final CompiledNode value;
+		private final Comparand lower;
+		private final Comparand upper;
+		private final boolean negate;
+
+		BetweenConstants(CompiledNode value, Comparand lower, Comparand upper, boolean negate) {
+			this.value = value;
+			this.lower = lower;
+			this.upper = upper;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			Object v = value.evaluate(o);
+
+			int c1 = lower.compareFrom(v);
+			if (c1 == INCOMPARABLE) {
+				return false;
+			}
+
+			int c2 = upper.compareFrom(v);
+			if (c2 == INCOMPARABLE) {
+				return false;
+			}
+
+			return (c1 >= 0 && c2 <= 0) != negate;
+		}
+	}
+
+	static final class In extends Condition {
+
+		private final CompiledNode value;
+		private final ValueSet values;
+		private final boolean negate;
+
+		In(CompiledNode value, ValueSet values, boolean negate) {
+			this.value = value;
+			this.values = values;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			Object v = value.evaluate(o);
+			if (v == null || values == null) {
+				return false;
+			}
+
+			// unlike IN, NOT IN does not look inside collections
+			if (negate) {
+				return !values.contains(v);
+			}
+
+			if (v instanceof Collection) {
+				for (Object element : (Collection<?>) v) {
+					if (values.contains(element)) {
+						return true;
+					}
+				}
+
+				return false;
+			}
+
+			return values.contains(v);
+		}
+	}
+
+	static final class Like extends Condition {
+
+		private final CompiledNode value;
+		private final Pattern pattern;
+		private final boolean negate;
+
+		Like(CompiledNode value, Pattern pattern, boolean negate) {
+			this.value = value;
+			this.pattern = pattern;
+			this.negate = negate;
+		}
+
+		@Override
+		boolean match(Object o) throws Exception {
+			String string = ConversionUtil.toString(value.evaluate(o));
+			if (string == null) {
+				return false;
+			}
+
+			return pattern.matcher(string).find() != negate;
+		}
+	}
+
+	/**
+	 * A constant right-hand side operand of a binary comparison. Subclasses
+	 * handle the most common left-hand side types directly and fall back to
+	 * {@link Evaluator} for anything else.
+	 */
+	static class Comparand {
+
+		final Object value;
+
+		static Comparand forValue(Object value) {
+			if (value == null) {
+				return new Comparand(null);
+			} else if (value.getClass() == String.class) {
+				return new StringComparand((String) value);
+			} else if (isWholeNumber(value)) {
+				return new WholeNumberComparand((Number) value);
+			} else if (value.getClass() == BigDecimal.class) {
+				return new BigDecimalComparand((BigDecimal) value);
+			}
+
+			return new Comparand(value);
+		}
+
+		Comparand(Object value) {
+			this.value = value;
+		}
+
+		/**
+		 * Returns the same result as "lhs = value" expression.
+		 */
+		boolean equalTo(Object lhs) {
+			return ASTEqual.evaluateImpl(lhs, value);
+		}
+
+		/**
+		 * Returns the sign of "lhs" compared to the value or
+		 * {@link ExpressionCompiler#INCOMPARABLE}.
+		 */
+		int compareFrom(Object lhs) {
+			return compare(lhs, value);
+		}
+	}
+
+	static final class StringComparand extends Comparand {
+
+		StringComparand(String value) {
+			super(value);
+		}
+
+		@Override
+		boolean equalTo(Object lhs) {
+			return lhs != null && lhs.getClass() == String.class ? lhs.equals(value) : super.equalTo(lhs);
+		}
+
+		@Override
+		int compareFrom(Object lhs) {
+			return lhs != null && lhs.getClass() == String.class ? Integer.signum(((String) lhs)
+					.compareTo((String) value)) : super.compareFrom(lhs);
+		}
+	}
+
+	// byte, short, int and long values are compared by Evaluator using the
+	// widest of the two types, which is the same as comparing them as longs
+	static final class WholeNumberComparand extends Comparand {
+
+		private final long longValue;
+
+		WholeNumberComparand(Number value) {
+			super(value);
+			this.longValue = value.longValue();
+		}
+
+		@Override
+		boolean equalTo(Object lhs) {
+			return lhs != null && isWholeNumber(lhs) ? ((Number) lhs).longValue() == longValue : super.equalTo(lhs);
+		}
+
+		@Override
+		int compareFrom(Object lhs) {
+			if (lhs != null && isWholeNumber(lhs)) {
+				long l = ((Number) lhs).longValue();
+				return l < longValue ? -1 : (l == longValue ? 0 : 1);
+			}
+
+			return super.compareFrom(lhs);
+		}
+	}
+
+	static final class BigDecimalComparand extends Comparand {
+
+		BigDecimalComparand(BigDecimal value) {
+			super(value);
+		}
+
+		@Override
+		boolean equalTo(Object lhs) {
+			return lhs != null && lhs.getClass() == BigDecimal.class ? ((BigDecimal) lhs)
+					.compareTo((BigDecimal) value) == 0 : super.equalTo(lhs);
+		}
+
+		@Override
+		int compareFrom(Object lhs) {
+			return lhs != null && lhs.getClass() == BigDecimal.class ? Integer.signum(((BigDecimal) lhs)
+					.compareTo((BigDecimal) value)) : super.compareFrom(lhs);
+		}
+	}
+
+	/**
+	 * A constant list of IN operands. Lists made entirely of strings or of
+	 * whole numbers are checked with a hash or binary search lookup.
+	 */
+	static final class ValueSet {
+
+		private final Object[] values;
+		private final Set<String> strings;
+		private final long[] longs;
+
+		ValueSet(Object[] allValues) {
+
+			// null values never match
+			List<Object> values = new ArrayList<Object>(allValues.length);
+			boolean allStrings = true;
+			boolean allWholeNumbers = true;
+
+			for (Object value : allValues) {
+				if (value != null) {
+					values.add(value);
+					allStrings &= value.getClass() == String.class;
+					allWholeNumbers &= isWholeNumber(value);
+				}
+			}
+
+			this.values = values.toArray();
+
+			if (allStrings) {
+				Set<String> strings = new HashSet<String>();
+				for (Object value : values) {
+					strings.add((String) value);
+				}
+				this.strings = strings;
+			} else {
+				this.strings = null;
+			}
+
+			if (allWholeNumbers) {
+				long[] longs = new long[values.size()];
+				for (int i = 0; i < longs.length; i++) {
+					longs[i] = ((Number) values.get(i)).longValue();
+				}
+				Arrays.sort(longs);
+				this.longs = longs;
+			} else {
+				this.longs = null;
+			}
+		}
+
+		/**
+		 * Returns true if any of the values is equal to the argument per
+		 * {@link Evaluator#eq(Object, Object)}.
+		 */
+		boolean contains(Object v) {
+			if (v == null) {
+				return false;
+			}
+
+			if (strings != null && v.getClass() == String.class) {
+				return strings.contains(v);
+			}
+
+			if (longs != null && isWholeNumber(v)) {
+				return Arrays.binarySearch(longs, ((Number) v).longValue()) >= 0;
+			}
+
+			Evaluator evaluator = Evaluator.evaluator(v);
+			for (Object value : values) {
+				if (evaluator.eq(v, value)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	private ExpressionCompiler() {
+	}
+}
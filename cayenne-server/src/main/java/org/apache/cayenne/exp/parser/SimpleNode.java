@@ -30,6 +30,7 @@ import java.util.Map;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.exp.CompiledExpression;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionException;
 import org.apache.cayenne.util.Util;
@@ -433,6 +434,17 @@ public abstract class SimpleNode extends Expression implements Node {
 		}
 	}
 
+	/**
+	 * Compiles this expression tree into an evaluator with pre-resolved
+	 * property paths and comparison strategies.
+	 *
+	 * @since 4.0
+	 */
+	@Override
+	public CompiledExpression compile() {
+		return ExpressionCompiler.compile(this);
+	}
+
 	/**
 	 * @since 3.0
 	 * @deprecated since 4.0 use {@link #appendAsEJBQL(Appendable, String)}.
@@ -29,6 +29,7 @@ import java.util.Collections;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.ejbql.EJBQLCompiledExpressionCache;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.apache.cayenne.reflect.ClassDescriptorMap;
@@ -68,6 +69,12 @@ public class EntityResolver implements MappingNamespace, Serializable {
     // callbacks are not serializable
     protected transient LifecycleCallbackRegistry callbackRegistry;
 
+    // compiled expressions reference mapping objects, so the cache is rebuilt
+    // together with the mapping cache
+    protected transient EJBQLCompiledExpressionCache ejbqlCache;
+
+    protected transient volatile int mappingVersion;
+
     /**
      * Creates new empty EntityResolver.
      */
@@ -394,6 +401,35 @@ public class EntityResolver implements MappingNamespace, Serializable {
         };
 
         clientEntityResolver = null;
+        mappingVersion++;
+
+        if (ejbqlCache == null) {
+            ejbqlCache = new EJBQLCompiledExpressionCache();
+        } else {
+            ejbqlCache.clear();
+        }
+    }
+
+    /**
+     * Returns a cache of compiled EJBQL expressions shared by all queries
+     * executed against this resolver. The cache is cleared every time the
+     * mapping is refreshed.
+     * 
+     * @since 4.0
+     */
+    public EJBQLCompiledExpressionCache getEjbqlCache() {
+        return ejbqlCache;
+    }
+
+    /**
+     * Returns a counter that is incremented every time the mapping cache is
+     * refreshed. Caches of data derived from the mapping that are not owned
+     * by the resolver can use it to detect stale entries.
+     * 
+     * @since 4.0
+     */
+    public int getMappingVersion() {
+        return mappingVersion;
     }
 
     /**
@@ -26,7 +26,6 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.configuration.ConfigurationNodeVisitor;
 import org.apache.cayenne.ejbql.EJBQLCompiledExpression;
 import org.apache.cayenne.ejbql.EJBQLException;
-import org.apache.cayenne.ejbql.EJBQLParserFactory;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.util.XMLEncoder;
@@ -169,13 +168,13 @@ public class EJBQLQuery implements Query, XMLSerializable {
 
     /**
      * Returns lazily initialized EJBQLCompiledExpression for this query EJBQL.
+     * Compiled expressions are shared between queries with the same EJBQL
+     * via the resolver {@link EntityResolver#getEjbqlCache() cache}.
      */
     public EJBQLCompiledExpression getExpression(EntityResolver resolver)
             throws EJBQLException {
         if (expression == null) {
-            this.expression = EJBQLParserFactory.getParser().compile(
-                    ejbqlStatement, 
-                    resolver);
+            this.expression = resolver.getEjbqlCache().compile(ejbqlStatement, resolver);
         }
 
         return expression;
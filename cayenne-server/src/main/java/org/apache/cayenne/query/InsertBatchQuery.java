@@ -34,6 +34,8 @@ import org.apache.cayenne.map.DbEntity;
  */
 public class InsertBatchQuery extends BatchQuery {
 
+    protected boolean bulkLoading;
+
     /**
      * Creates new InsertBatchQuery for a given DbEntity and estimated capacity.
      */
@@ -66,4 +68,24 @@ public class InsertBatchQuery extends BatchQuery {
         });
     }
 
+    /**
+     * Returns true if this batch is a part of a bulk data load.
+     * 
+     * @since 4.0
+     */
+    public boolean isBulkLoading() {
+        return bulkLoading;
+    }
+
+    /**
+     * Sets a hint that this batch is a part of a bulk data load, so the
+     * adapters that support it may use a faster database-specific loading
+     * mechanism instead of INSERT statements. E.g. PostgreSQL adapter would use
+     * "COPY ... FROM STDIN". The hint is ignored by other adapters.
+     * 
+     * @since 4.0
+     */
+    public void setBulkLoading(boolean bulkLoading) {
+        this.bulkLoading = bulkLoading;
+    }
 }
@@ -0,0 +1,178 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.parser.ASTPath;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * A superclass of the queries that update or delete all objects of an entity
+ * matching a qualifier with a single SQL statement, without fetching the
+ * objects. The query is translated to an {@link EJBQLQuery}, and its qualifier
+ * can only use the properties of the root entity and compare to-one
+ * relationships with objects, as no joins are possible. After it is run,
+ * cached snapshots of the entity objects are invalidated, as well as the query
+ * cache groups set via {@link #getCacheGroups()}.
+ * 
+ * @since 4.0
+ */
+public abstract class ObjectBulkQuery<T> extends IndirectQuery {
+
+	private static final long serialVersionUID = 3829573281416187340L;
+
+	static final String ROOT_ID = "e";
+
+	protected Class<T> entityType;
+	protected Expression where;
+	protected String[] cacheGroups;
+
+	protected ObjectBulkQuery(Class<T> entityType) {
+		this.entityType = entityType;
+	}
+
+	public Class<T> getEntityType() {
+		return entityType;
+	}
+
+	public Expression getWhere() {
+		return where;
+	}
+
+	/**
+	 * Returns the query cache groups that are invalidated after the query is
+	 * run.
+	 */
+	public String[] getCacheGroups() {
+		return cacheGroups;
+	}
+
+	/**
+	 * Returns the root entity of the objects modified by the query.
+	 */
+	public ObjEntity getObjEntity(EntityResolver resolver) {
+		if (entityType == null) {
+			throw new CayenneRuntimeException("Undefined root entity of the query");
+		}
+
+		ObjEntity entity = resolver.getObjEntity(entityType);
+		if (entity == null) {
+			throw new CayenneRuntimeException("Unmapped entity type: " + entityType.getName());
+		}
+
+		return entity;
+	}
+
+	void andQualifier(Collection<Expression> expressions) {
+		if (expressions == null || expressions.isEmpty()) {
+			return;
+		}
+
+		where = ExpressionFactory.and(withQualifier(expressions));
+		replacementQuery = null;
+	}
+
+	void orQualifier(Collection<Expression> expressions) {
+		if (expressions == null || expressions.isEmpty()) {
+			return;
+		}
+
+		where = ExpressionFactory.or(withQualifier(expressions));
+		replacementQuery = null;
+	}
+
+	private Collection<Expression> withQualifier(Collection<Expression> expressions) {
+		if (where == null) {
+			return expressions;
+		}
+
+		Collection<Expression> all = new ArrayList<Expression>(expressions.size() + 1);
+		all.add(where);
+		all.addAll(expressions);
+		return all;
+	}
+
+	void setCacheGroups(String... cacheGroups) {
+		this.cacheGroups = cacheGroups != null && cacheGroups.length > 0 ? cacheGroups : null;
+	}
+
+	/**
+	 * Appends the WHERE clause of the query to the EJBQL buffer, collecting
+	 * qualifier values as positional parameters.
+	 */
+	void appendWhere(StringBuilder ejbql, List<Object> parameters) {
+		if (where != null) {
+			checkPaths(where);
+			ejbql.append(" WHERE ").append(where.toEJBQL(parameters, ROOT_ID));
+		}
+	}
+
+	/**
+	 * Ensures that the qualifier only refers to the columns of the modified
+	 * table, as UPDATE and DELETE statements can't join other tables.
+	 */
+	private void checkPaths(Expression expression) {
+		if (expression instanceof ASTPath) {
+			String path = ((ASTPath) expression).getPath();
+			if (path.indexOf('.') >= 0) {
+				throw new CayenneRuntimeException("Bulk queries can't use relationship paths in the qualifier: "
+						+ path);
+			}
+
+			return;
+		}
+
+		int len = expression.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			Object operand = expression.getOperand(i);
+			if (operand instanceof Expression) {
+				checkPaths((Expression) operand);
+			}
+		}
+	}
+
+	EJBQLQuery createEJBQLQuery(StringBuilder ejbql, List<Object> parameters) {
+		EJBQLQuery query = new EJBQLQuery(ejbql.toString());
+
+		int size = parameters.size();
+		for (int i = 0; i < size; i++) {
+			query.setParameter(i + 1, parameters.get(i));
+		}
+
+		return query;
+	}
+
+	/**
+	 * Runs the query, returning the number of modified rows.
+	 */
+	int execute(ObjectContext context) {
+		QueryResponse response = context.performGenericQuery(this);
+		int[] counts = response.firstUpdateCount();
+		return counts != null && counts.length > 0 ? counts[0] : 0;
+	}
+}
@@ -0,0 +1,149 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.EntityResolver;
+
+/**
+ * A query that deletes all objects of an entity matching a qualifier with a
+ * single "DELETE ... WHERE" statement, without fetching them. Delete rules and
+ * callbacks are not applied to the deleted objects. E.g.:
+ * 
+ * <pre>
+ * int deleted = ObjectDelete.query(Painting.class).where(Painting.ESTIMATED_PRICE.lt(price)).delete(context);
+ * </pre>
+ * 
+ * @since 4.0
+ */
+public class ObjectDelete<T> extends ObjectBulkQuery<T> {
+
+	private static final long serialVersionUID = -7203862384627381744L;
+
+	/**
+	 * Creates an ObjectDelete that deletes objects of a given entity type.
+	 */
+	public static <T> ObjectDelete<T> query(Class<T> entityType) {
+		return new ObjectDelete<T>(entityType);
+	}
+
+	/**
+	 * Creates an ObjectDelete that deletes objects of a given entity type
+	 * matching a qualifier.
+	 */
+	public static <T> ObjectDelete<T> query(Class<T> entityType, Expression expression) {
+		return new ObjectDelete<T>(entityType).where(expression);
+	}
+
+	protected ObjectDelete(Class<T> entityType) {
+		super(entityType);
+	}
+
+	@Override
+	protected Query createReplacementQuery(EntityResolver resolver) {
+
+		StringBuilder ejbql = new StringBuilder("DELETE FROM ");
+		ejbql.append(getObjEntity(resolver).getName()).append(' ').append(ROOT_ID);
+
+		List<Object> parameters = new ArrayList<Object>();
+		appendWhere(ejbql, parameters);
+
+		return createEJBQLQuery(ejbql, parameters);
+	}
+
+	/**
+	 * Appends a qualifier expression of this query. An equivalent to
+	 * {@link #and(Expression...)} that can be used a syntactic sugar.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> where(Expression expression) {
+		return and(expression);
+	}
+
+	/**
+	 * AND's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> and(Expression... expressions) {
+		if (expressions != null) {
+			andQualifier(Arrays.asList(expressions));
+		}
+
+		return this;
+	}
+
+	/**
+	 * AND's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> and(Collection<Expression> expressions) {
+		andQualifier(expressions);
+		return this;
+	}
+
+	/**
+	 * OR's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> or(Expression... expressions) {
+		if (expressions != null) {
+			orQualifier(Arrays.asList(expressions));
+		}
+
+		return this;
+	}
+
+	/**
+	 * OR's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> or(Collection<Expression> expressions) {
+		orQualifier(expressions);
+		return this;
+	}
+
+	/**
+	 * Sets the query cache groups to invalidate after the objects are
+	 * deleted.
+	 * 
+	 * @return this object
+	 */
+	public ObjectDelete<T> cacheGroups(String... cacheGroups) {
+		setCacheGroups(cacheGroups);
+		return this;
+	}
+
+	/**
+	 * Deletes matching objects, returning the number of deleted rows.
+	 */
+	public int delete(ObjectContext context) {
+		return execute(context);
+	}
+}
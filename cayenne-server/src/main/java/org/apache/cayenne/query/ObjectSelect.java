@@ -27,11 +27,16 @@ import java.util.List;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.Property;
+import org.apache.cayenne.exp.parser.ASTDbPath;
+import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjEntity;
@@ -60,6 +65,11 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 	private int statementFetchSize;
 	private QueryCacheStrategy cacheStrategy;
 	private String[] cacheGroups;
+	private Persistent keysetObject;
+	private Object[] keysetValues;
+	private boolean keyset;
+	private Collection<Property<?>> columns;
+	private boolean distinct;
 
 	/**
 	 * Creates a ObjectSelect that selects objects of a given persistent class.
@@ -166,6 +176,8 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		}
 
 		replacement.setFetchingDataRows(fetchingDataRows);
+		replacement.setColumns(columns);
+		replacement.setDistinct(distinct);
 		replacement.setQualifier(where);
 		replacement.addOrderings(orderings);
 		replacement.setPrefetchTree(prefetches);
@@ -176,9 +188,122 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		replacement.setPageSize(pageSize);
 		replacement.setStatementFetchSize(statementFetchSize);
 
+		if (keyset || keysetObject != null || keysetValues != null) {
+			appendKeysetQualifier(replacement, resolver);
+		}
+
 		return replacement;
 	}
 
+	/**
+	 * Appends a qualifier matching the rows that follow the keyset position in
+	 * the query ordering, adding PK orderings as a tie-breaker if needed. E.g.
+	 * for orderings "a ASC, b DESC" and values (1, 2) the qualifier is
+	 * "a >= 1 AND (a > 1 OR (a = 1 AND b < 2))". In {@link #keyset()} mode PK
+	 * orderings are added even if there's no keyset position, so that the
+	 * first page is sorted the same way as the following ones.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void appendKeysetQualifier(SelectQuery replacement, EntityResolver resolver) {
+
+		List<Ordering> keyOrderings = orderings != null ? new ArrayList<Ordering>(orderings)
+				: new ArrayList<Ordering>();
+		List<Object> keyValues = new ArrayList<Object>();
+
+		DbEntity dbEntity = replacement.getMetaData(resolver).getDbEntity();
+		Collection<DbAttribute> pks = dbEntity.getPrimaryKeys();
+
+		boolean tieBreaker = keyset;
+		if (keysetObject != null) {
+			tieBreaker = true;
+			for (Ordering ordering : keyOrderings) {
+				keyValues.add(ordering.getSortSpec().evaluate(keysetObject));
+			}
+
+			ObjectId id = keysetObject.getObjectId();
+			if (id == null || id.isTemporary()) {
+				throw new CayenneRuntimeException("Can't page after an object that is not committed: " + keysetObject);
+			}
+
+			for (DbAttribute pk : pks) {
+				keyValues.add(id.getIdSnapshot().get(pk.getName()));
+			}
+		} else if (keysetValues == null) {
+			// first page in keyset mode, only orderings are needed
+		} else if (keysetValues.length == keyOrderings.size()) {
+			keyValues.addAll(Arrays.asList(keysetValues));
+		} else if (keysetValues.length == keyOrderings.size() + pks.size()) {
+			tieBreaker = true;
+			keyValues.addAll(Arrays.asList(keysetValues));
+		} else {
+			throw new CayenneRuntimeException("Expected " + keyOrderings.size() + " or "
+					+ (keyOrderings.size() + pks.size()) + " keyset values, got " + keysetValues.length);
+		}
+
+		if (tieBreaker) {
+			for (DbAttribute pk : pks) {
+				Ordering pkOrdering = new Ordering(ASTDbPath.DB_PREFIX + pk.getName(), SortOrder.ASCENDING);
+				keyOrderings.add(pkOrdering);
+				replacement.addOrdering(pkOrdering);
+			}
+		}
+
+		if (keyOrderings.isEmpty()) {
+			throw new CayenneRuntimeException("Keyset pagination requires query orderings");
+		}
+
+		for (Ordering ordering : keyOrderings) {
+			if (ordering.isCaseInsensitive()) {
+				throw new CayenneRuntimeException("Case-insensitive ordering is not supported by keyset pagination: "
+						+ ordering.getSortSpecString());
+			}
+		}
+
+		// with no PK values given, the seek only uses the query orderings
+		int len = keyValues.size();
+		if (len == 0) {
+			return;
+		}
+
+		for (int i = 0; i < len; i++) {
+			if (keyValues.get(i) == null) {
+				throw new CayenneRuntimeException("Null keyset value for ordering: "
+						+ keyOrderings.get(i).getSortSpecString());
+			}
+		}
+
+		List<Expression> terms = new ArrayList<Expression>(len);
+		for (int i = 0; i < len; i++) {
+			List<Expression> term = new ArrayList<Expression>(i + 1);
+			for (int j = 0; j < i; j++) {
+				term.add(keysetComparison(keyOrderings.get(j), Expression.EQUAL_TO, keyValues.get(j)));
+			}
+
+			int type = keyOrderings.get(i).isAscending() ? Expression.GREATER_THAN : Expression.LESS_THAN;
+			term.add(keysetComparison(keyOrderings.get(i), type, keyValues.get(i)));
+			terms.add(ExpressionFactory.and(term));
+		}
+
+		Expression seek = ExpressionFactory.or(terms);
+
+		// a redundant bound on the leading ordering lets the database do an
+		// index range scan instead of evaluating the OR for every row
+		if (len > 1) {
+			int type = keyOrderings.get(0).isAscending() ? Expression.GREATER_THAN_EQUAL_TO
+					: Expression.LESS_THAN_EQUAL_TO;
+			seek = keysetComparison(keyOrderings.get(0), type, keyValues.get(0)).andExp(seek);
+		}
+
+		replacement.andQualifier(seek);
+	}
+
+	private static Expression keysetComparison(Ordering ordering, int type, Object value) {
+		Expression exp = ExpressionFactory.expressionOfType(type);
+		exp.setOperand(0, ordering.getSortSpec().deepCopy());
+		exp.setOperand(1, value);
+		return exp;
+	}
+
 	/**
 	 * Sets the type of the entity to fetch without changing the return type of
 	 * the query.
@@ -230,6 +355,60 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		return (ObjectSelect<DataRow>) this;
 	}
 
+	/**
+	 * Configures the query to fetch the values of the specified properties
+	 * instead of the root objects. Only the columns of the properties (and
+	 * the joins needed to reach them) are selected, and each result row is an
+	 * Object[] with the property values in the order of the arguments. This
+	 * automatically changes whatever result type was set previously to
+	 * "Object[]".
+	 * <p>
+	 * Properties may be aggregates, such as {@link Property#COUNT} or
+	 * {@link Property#max()}. If aggregates are mixed with plain properties,
+	 * the results are grouped by the plain properties.
+	 * 
+	 * @return this object
+	 */
+	@SuppressWarnings("unchecked")
+	public ObjectSelect<Object[]> columns(Property<?>... properties) {
+		if (properties == null || properties.length == 0) {
+			throw new IllegalArgumentException("No properties specified");
+		}
+
+		this.columns = new ArrayList<Property<?>>(Arrays.asList(properties));
+		return (ObjectSelect<Object[]>) this;
+	}
+
+	/**
+	 * Configures the query to fetch the values of a single property instead
+	 * of the root objects. The query returns a list of the property values.
+	 * This automatically changes whatever result type was set previously to
+	 * the type of the property.
+	 * 
+	 * @return this object
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> ObjectSelect<E> column(Property<E> property) {
+		if (property == null) {
+			throw new NullPointerException("Null property");
+		}
+
+		this.columns = new ArrayList<Property<?>>(1);
+		columns.add(property);
+		return (ObjectSelect<E>) this;
+	}
+
+	/**
+	 * Makes the query return distinct rows. Mostly useful for column queries,
+	 * as object queries already return each object only once.
+	 * 
+	 * @return this object
+	 */
+	public ObjectSelect<T> distinct() {
+		this.distinct = true;
+		return this;
+	}
+
 	/**
 	 * Appends a qualifier expression of this query. An equivalent to
 	 * {@link #and(Expression...)} that can be used a syntactic sugar.
@@ -469,6 +648,61 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		return this;
 	}
 
+	/**
+	 * Turns on "keyset" pagination mode, appending primary key orderings to
+	 * the query orderings as a tie-breaker for non-unique orderings. It should
+	 * be used for the first page of a result that is then walked with
+	 * {@link #after(Persistent)} or {@link #pageAfter(Object...)}, so that all
+	 * pages are sorted the same way.
+	 * 
+	 * @return this object
+	 * @since 4.0
+	 */
+	public ObjectSelect<T> keyset() {
+		this.keyset = true;
+		this.replacementQuery = null;
+		return this;
+	}
+
+	/**
+	 * Configures the query to fetch the objects that follow a given object in
+	 * the query ordering. This is a "keyset" (or "seek") alternative to
+	 * {@link #offset(int)} that doesn't require the database to skip the
+	 * preceding rows, so fetching a page deep into the result is as fast as
+	 * fetching the first one. Ordering values are read from the object, and
+	 * its primary key is used as a tie-breaker for non-unique orderings, same
+	 * as in {@link #keyset()} mode, which the first page should use. Ordering
+	 * values of the object must not be null, and case-insensitive orderings
+	 * are not supported. Passing null resets keyset position.
+	 * 
+	 * @return this object
+	 */
+	public ObjectSelect<T> after(Persistent lastObject) {
+		this.keysetObject = lastObject;
+		this.keysetValues = null;
+		this.replacementQuery = null;
+		return this;
+	}
+
+	/**
+	 * Configures the query to fetch the objects that follow a given position
+	 * in the query ordering. This is a "keyset" (or "seek") alternative to
+	 * {@link #offset(int)}, same as {@link #after(Persistent)}, only the
+	 * position is specified explicitly. There must be one value per query
+	 * ordering, optionally followed by the primary key values of the last
+	 * object to use them as a tie-breaker (in which case the first page should
+	 * be fetched in {@link #keyset()} mode). Values must not be null. Passing
+	 * null resets keyset position.
+	 * 
+	 * @return this object
+	 */
+	public ObjectSelect<T> pageAfter(Object... orderingValues) {
+		this.keysetObject = null;
+		this.keysetValues = orderingValues;
+		this.replacementQuery = null;
+		return this;
+	}
+
 	/**
 	 * Sets fetch size of the PreparedStatement generated for this query. Only
 	 * non-negative values would change the default size.
@@ -573,6 +807,21 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		return dbEntityName;
 	}
 
+	/**
+	 * Returns the properties fetched by a column query, or null if the query
+	 * fetches objects or DataRows.
+	 */
+	public Collection<Property<?>> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns true if the query fetches only distinct rows.
+	 */
+	public boolean isDistinct() {
+		return distinct;
+	}
+
 	/**
 	 * Returns a WHERE clause Expression of this query.
 	 */
@@ -603,6 +852,27 @@ public class ObjectSelect<T> extends IndirectQuery implements Select<T> {
 		return context.selectFirst(limit(1));
 	}
 
+	/**
+	 * Returns the number of the root objects matching the query qualifier.
+	 * The count is calculated by the database, without fetching any objects.
+	 * Orderings, limits, pagination and keyset positions of this query are
+	 * ignored, while its cache settings are honored.
+	 * 
+	 * @since 4.0
+	 */
+	public long selectCount(ObjectContext context) {
+		ObjectSelect<Long> count = new ObjectSelect<Long>();
+		count.entityType = entityType;
+		count.entityName = entityName;
+		count.dbEntityName = dbEntityName;
+		count.where = where;
+		count.cacheStrategy = cacheStrategy;
+		count.cacheGroups = cacheGroups;
+		count.column(Property.COUNT);
+
+		return count.selectOne(context);
+	}
+
 	@Override
 	public void iterate(ObjectContext context, ResultIteratorCallback<T> callback) {
 		context.iterate((Select<T>) this, callback);
@@ -0,0 +1,210 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.Property;
+import org.apache.cayenne.map.EntityResolver;
+
+/**
+ * A query that sets properties of all objects of an entity matching a
+ * qualifier with a single "UPDATE ... WHERE" statement, without fetching
+ * them. Optimistic locking and callbacks are not applied to the updated
+ * objects. E.g.:
+ * 
+ * <pre>
+ * int updated = ObjectUpdate.query(Painting.class).where(Painting.TO_ARTIST.eq(artist))
+ * 		.set(Painting.ESTIMATED_PRICE, price).update(context);
+ * </pre>
+ * 
+ * @since 4.0
+ */
+public class ObjectUpdate<T> extends ObjectBulkQuery<T> {
+
+	private static final long serialVersionUID = 5916279874398263412L;
+
+	protected Map<String, Object> values;
+
+	/**
+	 * Creates an ObjectUpdate that updates objects of a given entity type.
+	 */
+	public static <T> ObjectUpdate<T> query(Class<T> entityType) {
+		return new ObjectUpdate<T>(entityType);
+	}
+
+	/**
+	 * Creates an ObjectUpdate that updates objects of a given entity type
+	 * matching a qualifier.
+	 */
+	public static <T> ObjectUpdate<T> query(Class<T> entityType, Expression expression) {
+		return new ObjectUpdate<T>(entityType).where(expression);
+	}
+
+	protected ObjectUpdate(Class<T> entityType) {
+		super(entityType);
+		this.values = new LinkedHashMap<String, Object>();
+	}
+
+	@Override
+	protected Query createReplacementQuery(EntityResolver resolver) {
+
+		if (values.isEmpty()) {
+			throw new CayenneRuntimeException("No properties to update");
+		}
+
+		StringBuilder ejbql = new StringBuilder("UPDATE ");
+		ejbql.append(getObjEntity(resolver).getName()).append(' ').append(ROOT_ID).append(" SET ");
+
+		List<Object> parameters = new ArrayList<Object>();
+
+		Iterator<Map.Entry<String, Object>> it = values.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Object> entry = it.next();
+			ejbql.append(ROOT_ID).append('.').append(entry.getKey()).append(" = ");
+
+			if (entry.getValue() == null) {
+				ejbql.append("NULL");
+			} else {
+				parameters.add(entry.getValue());
+				ejbql.append('?').append(parameters.size());
+			}
+
+			if (it.hasNext()) {
+				ejbql.append(", ");
+			}
+		}
+
+		appendWhere(ejbql, parameters);
+
+		return createEJBQLQuery(ejbql, parameters);
+	}
+
+	/**
+	 * Sets a new value of a property of the updated objects. The property can
+	 * be an attribute or a to-one relationship.
+	 * 
+	 * @return this object
+	 */
+	public <E> ObjectUpdate<T> set(Property<E> property, E value) {
+		if (property == null) {
+			throw new NullPointerException("Null property");
+		}
+
+		if (property.getAggregate() != null) {
+			throw new IllegalArgumentException("Can't update an aggregate property");
+		}
+
+		values.put(property.getName(), value);
+		replacementQuery = null;
+		return this;
+	}
+
+	/**
+	 * Returns the new values of the updated properties keyed by property
+	 * name.
+	 */
+	public Map<String, Object> getValues() {
+		return Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Appends a qualifier expression of this query. An equivalent to
+	 * {@link #and(Expression...)} that can be used a syntactic sugar.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> where(Expression expression) {
+		return and(expression);
+	}
+
+	/**
+	 * AND's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> and(Expression... expressions) {
+		if (expressions != null) {
+			andQualifier(Arrays.asList(expressions));
+		}
+
+		return this;
+	}
+
+	/**
+	 * AND's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> and(Collection<Expression> expressions) {
+		andQualifier(expressions);
+		return this;
+	}
+
+	/**
+	 * OR's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> or(Expression... expressions) {
+		if (expressions != null) {
+			orQualifier(Arrays.asList(expressions));
+		}
+
+		return this;
+	}
+
+	/**
+	 * OR's provided expressions to the existing WHERE clause expression.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> or(Collection<Expression> expressions) {
+		orQualifier(expressions);
+		return this;
+	}
+
+	/**
+	 * Sets the query cache groups to invalidate after the objects are
+	 * updated.
+	 * 
+	 * @return this object
+	 */
+	public ObjectUpdate<T> cacheGroups(String... cacheGroups) {
+		setCacheGroups(cacheGroups);
+		return this;
+	}
+
+	/**
+	 * Updates matching objects, returning the number of updated rows.
+	 */
+	public int update(ObjectContext context) {
+		return execute(context);
+	}
+}
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.apache.cayenne.exp.CompiledExpression;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionException;
 import org.apache.cayenne.exp.parser.ASTDbPath;
@@ -48,6 +49,7 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 
 	protected String sortSpecString;
 	protected transient Expression sortSpec;
+	protected transient CompiledExpression compiledSortSpec;
 	protected SortOrder sortOrder;
 	protected boolean pathExceptionSuppressed = false;
 	protected boolean nullSortedFirst = true;
@@ -123,6 +125,7 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 		if (!Util.nullSafeEquals(this.sortSpecString, sortSpecString)) {
 			this.sortSpecString = sortSpecString;
 			this.sortSpec = null;
+			this.compiledSortSpec = null;
 		}
 	}
 
@@ -298,6 +301,7 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 	 */
 	public void setSortSpec(Expression sortSpec) {
 		this.sortSpec = sortSpec;
+		this.compiledSortSpec = null;
 		this.sortSpecString = (sortSpec != null) ? sortSpec.toString() : null;
 	}
 
@@ -317,7 +321,7 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 	 * the stored expression.
 	 */
 	public int compare(Object o1, Object o2) {
-		Expression exp = getSortSpec();
+		CompiledExpression exp = getCompiledSortSpec();
 		Object value1 = null;
 		Object value2 = null;
 		try {
@@ -362,6 +366,16 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 		return (isAscending()) ? compareResult : -compareResult;
 	}
 
+	// sort spec compiled for fast repeated evaluation during in-memory
+	// sorting
+	private CompiledExpression getCompiledSortSpec() {
+		if (compiledSortSpec == null) {
+			compiledSortSpec = getSortSpec().compile();
+		}
+
+		return compiledSortSpec;
+	}
+
 	/**
 	 * Encodes itself as a query ordering.
 	 * 
@@ -32,6 +32,7 @@ import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.MapLoader;
@@ -57,6 +58,11 @@ public class SelectQuery<T> extends AbstractQuery implements ParameterizedQuery,
 	protected List<Ordering> orderings;
 	protected boolean distinct;
 
+	/**
+	 * @since 4.0
+	 */
+	protected Collection<Property<?>> columns;
+
 	SelectQueryMetadata metaData = new SelectQueryMetadata();
 
 	/**
@@ -369,7 +375,8 @@ public class SelectQuery<T> extends AbstractQuery implements ParameterizedQuery,
 		// suppress prefetches for paginated queries.. instead prefetches will
 		// be resolved
 		// per row...
-		if (metaData.getPageSize() <= 0) {
+		// column queries do not fetch objects, so prefetches are irrelevant
+		if (metaData.getPageSize() <= 0 && !metaData.isFetchingColumns()) {
 			routePrefetches(router, resolver);
 		}
 	}
@@ -499,6 +506,7 @@ public class SelectQuery<T> extends AbstractQuery implements ParameterizedQuery,
 		// create a query replica
 		SelectQuery<T> query = new SelectQuery<T>();
 		query.setDistinct(distinct);
+		query.setColumns(columns);
 
 		query.metaData.copyFromInfo(this.metaData);
 		query.setRoot(root);
@@ -593,6 +601,31 @@ public class SelectQuery<T> extends AbstractQuery implements ParameterizedQuery,
 		this.distinct = distinct;
 	}
 
+	/**
+	 * Returns properties fetched by this query instead of the root objects, or
+	 * null if the query fetches objects or DataRows.
+	 * 
+	 * @since 4.0
+	 */
+	public Collection<Property<?>> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Sets the properties to fetch instead of the root objects. Only the
+	 * columns of these properties are selected, and the query returns a scalar
+	 * value per row if there is a single property, or an Object[] per row if
+	 * there are more. The properties must be paths to attributes of the root
+	 * entity or the related entities. Null or an empty collection restores
+	 * fetching of the root objects. Column queries can't be paginated and
+	 * ignore prefetches.
+	 * 
+	 * @since 4.0
+	 */
+	public void setColumns(Collection<Property<?>> columns) {
+		this.columns = columns;
+	}
+
 	/**
 	 * Adds one or more aliases for the qualifier expression path. Aliases serve
 	 * to instruct Cayenne to generate separate sets of joins for overlapping
@@ -19,12 +19,16 @@
 package org.apache.cayenne.query;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjEntity;
 
@@ -47,6 +51,8 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 
 		if (super.resolve(root, resolver, null)) {
 
+			resolveColumns(query);
+
 			// generate unique cache key, but only if we are caching..
 
 			if (cacheStrategy != null && cacheStrategy != QueryCacheStrategy.NO_CACHE) {
@@ -75,6 +81,25 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 			key.append("db:").append(dbEntity.getName());
 		}
 
+		if (query.getColumns() != null && !query.getColumns().isEmpty()) {
+			key.append("/c:");
+			for (Property<?> column : query.getColumns()) {
+				if (column.getAggregate() != null) {
+					key.append(column.getAggregate()).append(':');
+
+					// the same aggregate may be read as different types
+					if (column.getAggregateType() != null) {
+						key.append(column.getAggregateType().getName()).append(':');
+					}
+				}
+				key.append(column.getName()).append(',');
+			}
+
+			if (query.isDistinct()) {
+				key.append("d");
+			}
+		}
+
 		if (query.getQualifier() != null) {
 			key.append('/');
 			try {
@@ -111,6 +136,53 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 
 	}
 
+	/**
+	 * Builds a result set mapping of scalar segments for a column query.
+	 */
+	private void resolveColumns(SelectQuery<?> query) {
+		Collection<Property<?>> columns = query.getColumns();
+		if (columns == null || columns.isEmpty()) {
+			this.resultSetMapping = null;
+			return;
+		}
+
+		if (getObjEntity() == null) {
+			throw new CayenneRuntimeException("Column queries require an ObjEntity root");
+		}
+
+		if (getPageSize() > 0) {
+			throw new CayenneRuntimeException("Column queries can't be paginated");
+		}
+
+		List<Object> mapping = new ArrayList<Object>(columns.size());
+		int offset = 0;
+		for (Property<?> column : columns) {
+			mapping.add(new ColumnResultSegment(column.getName(), offset++));
+		}
+
+		this.resultSetMapping = mapping;
+	}
+
+	/**
+	 * Returns true if the query fetches columns of the properties set via
+	 * {@link SelectQuery#setColumns(Collection)} instead of objects or
+	 * DataRows.
+	 * 
+	 * @since 4.0
+	 */
+	boolean isFetchingColumns() {
+		return resultSetMapping != null;
+	}
+
+	/**
+	 * Returns true for column queries as well as for DataRow queries, as the
+	 * results of both are not converted to objects.
+	 */
+	@Override
+	public boolean isFetchingDataRows() {
+		return super.isFetchingDataRows() || isFetchingColumns();
+	}
+
 	private <T> void resolveAutoAliases(SelectQuery<T> query) {
 		Expression qualifier = query.getQualifier();
 		if (qualifier != null) {
@@ -167,4 +239,23 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 			pathSplitAliases.put(alias, path);
 		}
 	}
+
+	static class ColumnResultSegment implements ScalarResultSegment {
+
+		private String column;
+		private int offset;
+
+		ColumnResultSegment(String column, int offset) {
+			this.column = column;
+			this.offset = offset;
+		}
+
+		public String getColumn() {
+			return column;
+		}
+
+		public int getColumnOffset() {
+			return offset;
+		}
+	}
 }
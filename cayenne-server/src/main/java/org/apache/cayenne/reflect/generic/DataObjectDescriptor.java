@@ -18,7 +18,9 @@
  ****************************************************************/
 package org.apache.cayenne.reflect.generic;
 
+import org.apache.cayenne.CayenneDataObject;
 import org.apache.cayenne.DataObject;
+import org.apache.cayenne.PropertySlots;
 import org.apache.cayenne.reflect.PersistentDescriptor;
 import org.apache.cayenne.reflect.PropertyException;
 
@@ -33,6 +35,39 @@ import org.apache.cayenne.reflect.PropertyException;
 // for other object types.
 class DataObjectDescriptor extends PersistentDescriptor {
 
+    protected PropertySlots propertySlots;
+
+    /**
+     * @since 4.0
+     */
+    PropertySlots getPropertySlots() {
+        return propertySlots;
+    }
+
+    /**
+     * @since 4.0
+     */
+    void setPropertySlots(PropertySlots propertySlots) {
+        this.propertySlots = propertySlots;
+    }
+
+    /**
+     * Creates a new object, switching {@link CayenneDataObject} instances to
+     * the array-based property storage if the slot table is set.
+     * 
+     * @since 4.0
+     */
+    @Override
+    public Object createObject() {
+        Object object = super.createObject();
+
+        if (propertySlots != null && object instanceof CayenneDataObject) {
+            ((CayenneDataObject) object).setPropertySlots(propertySlots);
+        }
+
+        return object;
+    }
+
     @Override
     public void shallowMerge(Object from, Object to) throws PropertyException {
         
@@ -18,11 +18,17 @@
  ****************************************************************/
 package org.apache.cayenne.reflect.generic;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.CayenneDataObject;
 import org.apache.cayenne.DataObject;
+import org.apache.cayenne.PropertySlots;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.reflect.AttributeProperty;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.apache.cayenne.reflect.ClassDescriptorFactory;
 import org.apache.cayenne.reflect.ClassDescriptorMap;
@@ -30,6 +36,9 @@ import org.apache.cayenne.reflect.FaultFactory;
 import org.apache.cayenne.reflect.PersistentDescriptor;
 import org.apache.cayenne.reflect.PersistentDescriptorFactory;
 import org.apache.cayenne.reflect.PropertyException;
+import org.apache.cayenne.reflect.PropertyVisitor;
+import org.apache.cayenne.reflect.ToManyProperty;
+import org.apache.cayenne.reflect.ToOneProperty;
 
 /**
  * A {@link ClassDescriptorFactory} that creates descriptors for classes implementing
@@ -53,7 +62,43 @@ public class DataObjectDescriptorFactory extends PersistentDescriptorFactory {
             return null;
         }
 
-        return super.getDescriptor(entity, entityClass);
+        ClassDescriptor descriptor = super.getDescriptor(entity, entityClass);
+
+        if (descriptor instanceof DataObjectDescriptor && CayenneDataObject.class.isAssignableFrom(entityClass)) {
+            ((DataObjectDescriptor) descriptor).setPropertySlots(createPropertySlots(descriptor));
+        }
+
+        return descriptor;
+    }
+
+    /**
+     * Creates a slot table for all properties of the descriptor, including the
+     * inherited ones, that is shared by all objects created by the descriptor.
+     * 
+     * @since 4.0
+     */
+    protected PropertySlots createPropertySlots(ClassDescriptor descriptor) {
+        final List<String> names = new ArrayList<String>();
+
+        descriptor.visitProperties(new PropertyVisitor() {
+
+            public boolean visitAttribute(AttributeProperty property) {
+                names.add(property.getName());
+                return true;
+            }
+
+            public boolean visitToOne(ToOneProperty property) {
+                names.add(property.getName());
+                return true;
+            }
+
+            public boolean visitToMany(ToManyProperty property) {
+                names.add(property.getName());
+                return true;
+            }
+        });
+
+        return new PropertySlots(names);
     }
 
     @Override
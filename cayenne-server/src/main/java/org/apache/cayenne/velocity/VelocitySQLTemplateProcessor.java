@@ -25,13 +25,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.access.jdbc.SQLParameterBinding;
 import org.apache.cayenne.access.jdbc.SQLStatement;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.context.InternalContextAdapterImpl;
 import org.apache.velocity.runtime.RuntimeConstants;
@@ -43,7 +49,10 @@ import org.apache.velocity.runtime.parser.node.SimpleNode;
 import org.apache.velocity.runtime.visitor.BaseVisitor;
 
 /**
- * Processor for SQL velocity templates.
+ * Processor for SQL velocity templates. Parsed templates are kept in a bounded
+ * cache keyed by template text, so that repeated executions of the same
+ * template only pay for rendering. Cache size is configured via
+ * {@link Constants#SQL_TEMPLATE_CACHE_SIZE_PROPERTY}.
  * 
  * @see org.apache.cayenne.query.SQLTemplate
  * @since 4.0
@@ -93,10 +102,37 @@ public class VelocitySQLTemplateProcessor implements SQLTemplateProcessor {
 	static final String RESULT_COLUMNS_LIST_KEY = "resultColumns";
 	static final String HELPER_KEY = "helper";
 
+	public static final int TEMPLATE_CACHE_SIZE_DEFAULT = 500;
+
 	protected RuntimeInstance velocityRuntime;
 	protected SQLTemplateRenderingUtils renderingUtils;
 
+	private ConcurrentMap<String, SimpleNode> templateCache;
+	private final AtomicLong cacheHits;
+	private final AtomicLong cacheMisses;
+
 	public VelocitySQLTemplateProcessor() {
+		this(TEMPLATE_CACHE_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Creates a processor with the template cache size taken from
+	 * {@link Constants#SQL_TEMPLATE_CACHE_SIZE_PROPERTY}.
+	 */
+	public VelocitySQLTemplateProcessor(@Inject RuntimeProperties properties) {
+		this(properties.getInt(Constants.SQL_TEMPLATE_CACHE_SIZE_PROPERTY, TEMPLATE_CACHE_SIZE_DEFAULT));
+	}
+
+	/**
+	 * Creates a processor that caches up to "cacheSize" parsed templates. Zero
+	 * size disables the cache.
+	 */
+	public VelocitySQLTemplateProcessor(int cacheSize) {
+		this.cacheHits = new AtomicLong();
+		this.cacheMisses = new AtomicLong();
+		this.templateCache = cacheSize > 0 ? new ConcurrentLinkedHashMap.Builder<String, SimpleNode>()
+				.maximumWeightedCapacity(cacheSize).build() : null;
+
 		this.renderingUtils = new SQLTemplateRenderingUtils();
 		this.velocityRuntime = new RuntimeInstance();
 
@@ -133,14 +169,14 @@ public class VelocitySQLTemplateProcessor implements SQLTemplateProcessor {
 		Map<String, Object> internalParameters = (parameters != null && !parameters.isEmpty()) ? new HashMap<String, Object>(
 				parameters) : new HashMap<String, Object>(5);
 
-		SimpleNode parsedTemplate = parse(template);
+		SimpleNode parsedTemplate = parsedTemplate(template);
 		return processTemplate(template, parsedTemplate, internalParameters);
 	}
 
 	@Override
 	public SQLStatement processTemplate(String template, List<Object> positionalParameters) {
 
-		SimpleNode parsedTemplate = parse(template);
+		SimpleNode parsedTemplate = parsedTemplate(template);
 
 		Map<String, Object> internalParameters = new HashMap<String, Object>();
 
@@ -182,7 +218,6 @@ public class VelocitySQLTemplateProcessor implements SQLTemplateProcessor {
 
 		StringWriter out = new StringWriter(template.length());
 		try {
-			parsedTemplate.init(ica, velocityRuntime);
 			parsedTemplate.render(ica, out);
 			return out.toString();
 		} finally {
@@ -190,6 +225,60 @@ public class VelocitySQLTemplateProcessor implements SQLTemplateProcessor {
 		}
 	}
 
+	/**
+	 * Returns the number of template lookups that found a parsed template in
+	 * the cache.
+	 */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * Returns the number of template lookups that had to parse the template.
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/**
+	 * Returns the number of parsed templates currently in the cache.
+	 */
+	public int getCacheSize() {
+		return templateCache != null ? templateCache.size() : 0;
+	}
+
+	/**
+	 * Removes all parsed templates from the cache.
+	 */
+	public void clearCache() {
+		if (templateCache != null) {
+			templateCache.clear();
+		}
+	}
+
+	// returns a parsed and initialized template, that can be rendered
+	// concurrently by multiple threads
+	SimpleNode parsedTemplate(String template) {
+
+		if (templateCache == null) {
+			cacheMisses.incrementAndGet();
+			return parse(template);
+		}
+
+		SimpleNode node = templateCache.get(template);
+		if (node != null) {
+			cacheHits.incrementAndGet();
+			return node;
+		}
+
+		cacheMisses.incrementAndGet();
+		node = parse(template);
+
+		// if another thread parsed the same template, use its copy
+		SimpleNode existing = templateCache.putIfAbsent(template, node);
+		return existing != null ? existing : node;
+	}
+
 	private SimpleNode parse(String template) {
 
 		SimpleNode nodeTree = null;
@@ -204,6 +293,18 @@ public class VelocitySQLTemplateProcessor implements SQLTemplateProcessor {
 			throw new CayenneRuntimeException("Error parsing template " + template);
 		}
 
+		// init the tree once, like Velocity Template does, so that rendering
+		// doesn't modify it and the tree can be reused
+		InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+		ica.pushCurrentTemplateName(template);
+		try {
+			nodeTree.init(ica, velocityRuntime);
+		} catch (Exception e) {
+			throw new CayenneRuntimeException("Error initializing template '" + template + "'", e);
+		} finally {
+			ica.popCurrentTemplateName();
+		}
+
 		return nodeTree;
 	}
 }
@@ -22,8 +22,10 @@ package org.apache.cayenne;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.cayenne.di.Inject;
@@ -64,6 +66,30 @@ public class CayenneDataObjectIT extends ServerCase {
 		assertEquals(PersistenceState.COMMITTED, obj.getPersistenceState());
 	}
 
+	@Test
+	public void testPropertySlots() throws Exception {
+		Artist a = context.newObject(Artist.class);
+		assertTrue(a.values instanceof PropertySlotMap);
+
+		a.setArtistName("aaa");
+		assertEquals("aaa", a.readPropertyDirectly("artistName"));
+
+		// not a mapped property
+		a.writePropertyDirectly("xyz", 5);
+		assertEquals(5, a.readPropertyDirectly("xyz"));
+		assertEquals("aaa", a.readPropertyDirectly("artistName"));
+	}
+
+	@Test
+	public void testSetPropertySlots() throws Exception {
+		CayenneDataObject object = new CayenneDataObject();
+		object.writePropertyDirectly("a", 1);
+		object.setPropertySlots(new PropertySlots(Arrays.asList("a", "b")));
+
+		assertTrue(object.values instanceof PropertySlotMap);
+		assertEquals(1, object.readPropertyDirectly("a"));
+	}
+
 	@Test
 	public void testReadNestedProperty1() throws Exception {
 		Artist a = new Artist();
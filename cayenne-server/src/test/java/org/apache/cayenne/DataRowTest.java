@@ -19,9 +19,18 @@
 
 package org.apache.cayenne;
 
+import org.apache.cayenne.util.Util;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class DataRowTest {
 
@@ -35,4 +44,130 @@ public class DataRowTest {
         assertFalse(s3.getVersion() == s1.getVersion());
     }
 
+
+    @Test
+    public void testCompact() throws Exception {
+        DataRowLayout layout = new DataRowLayout("A", "B", "C");
+        DataRow row = new DataRow(layout, new Object[] { 1, null, "x" });
+
+        assertTrue(row.isCompact());
+        assertEquals(3, row.size());
+        assertEquals(1, row.get("A"));
+        assertNull(row.get("B"));
+        assertTrue(row.containsKey("B"));
+        assertFalse(row.containsKey("D"));
+        assertNull(row.get("D"));
+
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("A", 1);
+        map.put("B", null);
+        map.put("C", "x");
+        assertEquals(map, row);
+        assertEquals(row, map);
+        assertEquals(map.hashCode(), row.hashCode());
+    }
+
+    @Test
+    public void testCompact_PutRemove() throws Exception {
+        DataRow row = new DataRow(new DataRowLayout("A", "B"));
+        assertTrue(row.isEmpty());
+
+        assertNull(row.put("A", 1));
+        assertEquals(1, row.put("A", 2));
+        assertEquals(1, row.size());
+        assertFalse(row.containsKey("B"));
+
+        assertEquals(2, row.remove("A"));
+        assertNull(row.remove("A"));
+        assertTrue(row.isEmpty());
+        assertTrue(row.isCompact());
+    }
+
+    @Test
+    public void testCompact_Inflate() throws Exception {
+        DataRow row = new DataRow(new DataRowLayout("A", "B"), new Object[] { 1, 2 });
+
+        row.put("C", 3);
+        assertFalse(row.isCompact());
+        assertEquals(3, row.size());
+        assertEquals(1, row.get("A"));
+        assertEquals(3, row.get("C"));
+    }
+
+    @Test
+    public void testCompact_EntrySet() throws Exception {
+        DataRow row = new DataRow(new DataRowLayout("A", "B", "C"), new Object[] { 1, 2, 3 });
+
+        Iterator<Map.Entry<String, Object>> it = row.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> e = it.next();
+            if ("B".equals(e.getKey())) {
+                it.remove();
+            } else {
+                e.setValue("_" + e.getValue());
+            }
+        }
+
+        assertEquals(2, row.size());
+        assertEquals("_1", row.get("A"));
+        assertFalse(row.containsKey("B"));
+        assertEquals("_3", row.get("C"));
+        assertEquals(2, row.keySet().size());
+    }
+
+    @Test
+    public void testCompactExistingRow() throws Exception {
+        DataRow row = new DataRow(10);
+        row.put("A", 1);
+        row.put("B", 2);
+        long version = row.getVersion();
+
+        assertFalse(row.compact(new DataRowLayout("A")));
+        assertFalse(row.isCompact());
+
+        assertTrue(row.compact(new DataRowLayout("A", "B", "C")));
+        assertTrue(row.isCompact());
+        assertEquals(2, row.size());
+        assertEquals(2, row.get("B"));
+        assertFalse(row.containsKey("C"));
+        assertEquals(version, row.getVersion());
+    }
+
+    @Test
+    public void testApplyDiff_Compact() throws Exception {
+        DataRowLayout layout = new DataRowLayout("A", "B");
+        DataRow row = new DataRow(layout, new Object[] { 1, 2 });
+
+        DataRow diff = new DataRow(2);
+        diff.put("B", 3);
+
+        DataRow merged = row.applyDiff(diff);
+        assertTrue(merged.isCompact());
+        assertEquals(1, merged.get("A"));
+        assertEquals(3, merged.get("B"));
+        assertEquals(2, row.get("B"));
+    }
+
+    @Test
+    public void testSerialization_Compact() throws Exception {
+        DataRow row = new DataRow(new DataRowLayout("A", "B", "C"));
+        row.put("A", 1);
+        row.put("C", null);
+
+        DataRow clone = Util.cloneViaSerialization(row);
+        assertTrue(clone.isCompact());
+        assertEquals(row, clone);
+        assertFalse(clone.containsKey("B"));
+        assertEquals(row.getVersion(), clone.getVersion());
+    }
+
+    @Test
+    public void testLayout() throws Exception {
+        DataRowLayout layout = new DataRowLayout("A", "B", "A");
+        assertEquals(2, layout.size());
+        assertEquals(0, layout.getSlot("A"));
+        assertEquals(1, layout.getSlot("B"));
+        assertEquals(-1, layout.getSlot("C"));
+        assertSame("B", layout.getKey(1));
+    }
 }
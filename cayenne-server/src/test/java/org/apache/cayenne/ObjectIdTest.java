@@ -268,6 +268,36 @@ public class ObjectIdTest {
         assertEquals(ref.hashCode(), oid.hashCode());
     }
 
+    @Test
+    public void testEqualsNumericTypes() {
+        ObjectId i = new ObjectId("e", "a", 5);
+        ObjectId l = new ObjectId("e", "a", 5l);
+        ObjectId d = new ObjectId("e", "a", new BigDecimal(5));
+
+        assertEquals(i, l);
+        assertEquals(l, i);
+        assertEquals(i, d);
+        assertEquals(i.hashCode(), l.hashCode());
+        assertEquals(i.hashCode(), d.hashCode());
+
+        assertFalse(i.equals(new ObjectId("e", "a", 6l)));
+        assertFalse(i.equals(new ObjectId("e1", "a", 5)));
+        assertFalse(i.equals(new ObjectId("e", "b", 5)));
+        assertFalse(i.equals(new ObjectId("e", "a", "5")));
+        assertFalse(new ObjectId("e", "a", "5").equals(i));
+    }
+
+    @Test
+    public void testCreateReplacementId() {
+        ObjectId temp = new ObjectId("e");
+        temp.getReplacementIdMap().put("a", 7);
+
+        ObjectId perm = temp.createReplacementId();
+        assertFalse(perm.isTemporary());
+        assertEquals(new ObjectId("e", "a", 7l), perm);
+        assertEquals(7, perm.getIdSnapshot().get("a"));
+    }
+
     @Test
     public void testToString() {
         Map m1 = new HashMap();
@@ -0,0 +1,124 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import org.apache.cayenne.util.Util;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PropertySlotMapTest {
+
+    @Test
+    public void testSlots() throws Exception {
+        PropertySlots slots = new PropertySlots(Arrays.asList("a", "b", "a"));
+        assertEquals(2, slots.size());
+        assertEquals(0, slots.getSlot("a"));
+        assertEquals(1, slots.getSlot("b"));
+        assertEquals(-1, slots.getSlot("c"));
+        assertEquals("b", slots.getName(1));
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        PropertySlotMap map = new PropertySlotMap(new PropertySlots(Arrays.asList("a", "b")));
+        assertTrue(map.isEmpty());
+
+        assertNull(map.put("a", 1));
+        assertNull(map.put("b", null));
+        assertEquals(1, map.put("a", 2));
+        assertEquals(2, map.size());
+        assertTrue(map.containsKey("b"));
+        assertFalse(map.containsKey("c"));
+        assertEquals(2, map.get("a"));
+        assertNull(map.get("c"));
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("a", 2);
+        expected.put("b", null);
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        assertEquals(2, map.remove("a"));
+        assertNull(map.remove("a"));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey("b"));
+    }
+
+    @Test
+    public void testPutUnknownKey() throws Exception {
+        PropertySlotMap map = new PropertySlotMap(new PropertySlots(Arrays.asList("a", "b")));
+        map.put("a", 1);
+        map.put("c", 3);
+
+        assertEquals(2, map.size());
+        assertEquals(1, map.get("a"));
+        assertEquals(3, map.get("c"));
+
+        map.put("b", 2);
+        assertEquals(3, map.size());
+        assertEquals(2, map.get("b"));
+    }
+
+    @Test
+    public void testEntrySetIterator() throws Exception {
+        PropertySlotMap map = new PropertySlotMap(new PropertySlots(Arrays.asList("a", "b", "c")));
+        map.put("a", 1);
+        map.put("c", 3);
+
+        Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        Map.Entry<String, Object> e1 = it.next();
+        assertEquals("a", e1.getKey());
+        e1.setValue(10);
+        it.remove();
+
+        Map.Entry<String, Object> e2 = it.next();
+        assertEquals("c", e2.getKey());
+        assertEquals(3, e2.getValue());
+        assertFalse(it.hasNext());
+
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey("a"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        PropertySlotMap map = new PropertySlotMap(new PropertySlots(Arrays.asList("a", "b")));
+        map.put("a", "x");
+
+        PropertySlotMap clone = Util.cloneViaSerialization(map);
+        assertEquals(map, clone);
+        assertFalse(clone.containsKey("b"));
+
+        clone.put("b", "y");
+        assertEquals("y", clone.get("b"));
+    }
+}
@@ -0,0 +1,93 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.util.Util;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompactIdListTest {
+
+    @Test
+    public void testIntIds() {
+        CompactIdList list = new CompactIdList();
+        for (int i = 0; i < 100; i++) {
+            list.add(i * 1000);
+        }
+
+        assertEquals(100, list.size());
+        assertEquals(Integer.valueOf(5000), list.get(5));
+        assertTrue(list.get(99) instanceof Integer);
+        assertEquals(7, list.indexOf(7000));
+    }
+
+    @Test
+    public void testLongIds() {
+        CompactIdList list = new CompactIdList();
+        list.add(Long.MAX_VALUE);
+        list.add(1L);
+
+        assertEquals(Long.valueOf(Long.MAX_VALUE), list.get(0));
+        assertEquals(Long.valueOf(1L), list.get(1));
+    }
+
+    @Test
+    public void testMixedElements() {
+        CompactIdList list = new CompactIdList();
+        list.addAll(Arrays.<Object> asList(1L, 2, "x", null, 3L));
+
+        assertEquals(Arrays.<Object> asList(1L, 2, "x", null, 3L), list);
+
+        Object resolved = new Object();
+        assertEquals(Long.valueOf(1L), list.set(0, resolved));
+        assertEquals(resolved, list.get(0));
+        assertNull(list.get(3));
+    }
+
+    @Test
+    public void testAddRemove() {
+        CompactIdList list = new CompactIdList();
+        list.addAll(Arrays.<Object> asList(1L, 2L, 3L));
+
+        list.add(1, "x");
+        assertEquals(Arrays.<Object> asList(1L, "x", 2L, 3L), list);
+
+        assertEquals("x", list.remove(1));
+        assertEquals(Long.valueOf(3L), list.remove(2));
+        assertEquals(Arrays.<Object> asList(1L, 2L), list);
+
+        list.clear();
+        assertEquals(Collections.emptyList(), list);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CompactIdList list = new CompactIdList();
+        list.addAll(Arrays.<Object> asList(1L, null, "x"));
+
+        Object clone = Util.cloneViaSerialization(list);
+        assertEquals(list, clone);
+    }
+}
@@ -0,0 +1,200 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.configuration.server.ServerRuntimeBuilder;
+import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SQLSelect;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.tx.TransactionalOperation;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs against two in-memory HSQLDB databases, one playing the primary and
+ * another - the read replica of a DataNode.
+ */
+public class DataNodeReadReplicaIT {
+
+	private static final String DRIVER = "org.hsqldb.jdbcDriver";
+	private static final String PRIMARY_URL = "jdbc:hsqldb:mem:replica_it_primary";
+	private static final String REPLICA_URL = "jdbc:hsqldb:mem:replica_it_replica";
+
+	private ServerRuntime runtime;
+	private DataNode node;
+
+	@Before
+	public void before() throws Exception {
+		runtime = new ServerRuntimeBuilder().addConfig(CayenneProjects.TESTMAP_PROJECT).jdbcDriver(DRIVER)
+				.url(PRIMARY_URL).user("sa").password("").minConnections(1).maxConnections(2)
+				.addModule(new Module() {
+					@Override
+					public void configure(Binder binder) {
+						binder.bindMap(Constants.PROPERTIES_MAP).put(Constants.JDBC_REPLICA_URLS_PROPERTY,
+								REPLICA_URL);
+					}
+				}).build();
+
+		node = runtime.getDataDomain().getDefaultNode();
+
+		DbEntity artist = runtime.getDataDomain().getEntityResolver().getDbEntity("ARTIST");
+		String ddl = node.getAdapter().createTable(artist);
+		execute(PRIMARY_URL, ddl);
+		execute(REPLICA_URL, ddl);
+		node.getAdapter().getPkGenerator().createAutoPk(node, Collections.singletonList(artist));
+
+		execute(PRIMARY_URL, "INSERT INTO ARTIST (ARTIST_ID, ARTIST_NAME) VALUES (1, 'P1')");
+		execute(REPLICA_URL, "INSERT INTO ARTIST (ARTIST_ID, ARTIST_NAME) VALUES (1, 'R1')");
+		execute(REPLICA_URL, "INSERT INTO ARTIST (ARTIST_ID, ARTIST_NAME) VALUES (2, 'R2')");
+	}
+
+	@After
+	public void after() throws Exception {
+		runtime.shutdown();
+		execute(PRIMARY_URL, "SHUTDOWN");
+		execute(REPLICA_URL, "SHUTDOWN");
+	}
+
+	@Test
+	public void testReplicasConfigured() {
+		assertEquals(1, node.getReadReplicas().size());
+	}
+
+	@Test
+	public void testSelect_Replica() {
+		ObjectContext context = runtime.newContext();
+
+		List<Artist> artists = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+		assertEquals(2, artists.size());
+		assertEquals("R1", artists.get(0).getArtistName());
+
+		List<DataRow> rows = SQLSelect.dataRowQuery("SELECT * FROM ARTIST").select(context);
+		assertEquals(2, rows.size());
+	}
+
+	@Test
+	public void testCommit_Primary() throws Exception {
+		ObjectContext context = runtime.newContext();
+
+		Artist artist = context.newObject(Artist.class);
+		artist.setArtistName("P2");
+		context.commitChanges();
+
+		assertEquals(2, count(PRIMARY_URL));
+		assertEquals(2, count(REPLICA_URL));
+	}
+
+	@Test
+	public void testSelectInTransaction_Primary() {
+		final ObjectContext context = runtime.newContext();
+
+		List<Artist> artists = runtime.performInTransaction(new TransactionalOperation<List<Artist>>() {
+			@Override
+			public List<Artist> perform() {
+				return ObjectSelect.query(Artist.class).select(context);
+			}
+		});
+
+		assertEquals(1, artists.size());
+		assertEquals("P1", artists.get(0).getArtistName());
+	}
+
+	@Test
+	public void testSelect_MaxReplicaLag() {
+		node.setMaxReplicaLag(60000);
+
+		ObjectContext context = runtime.newContext();
+		assertEquals(2, ObjectSelect.query(Artist.class).select(context).size());
+
+		Artist artist = context.newObject(Artist.class);
+		artist.setArtistName("P2");
+		context.commitChanges();
+
+		// right after the write reads should go to the primary
+		assertEquals(2, ObjectSelect.query(Artist.class).select(runtime.newContext()).size());
+		assertEquals("P1", ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc())
+				.selectFirst(runtime.newContext()).getArtistName());
+
+		node.setMaxReplicaLag(0);
+		assertEquals("R1", ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc())
+				.selectFirst(runtime.newContext()).getArtistName());
+	}
+
+	@Test
+	public void testSelect_FallbackToPrimary() {
+
+		// nothing is listening on this port
+		node.setReadReplicas(Collections.singletonList(DataSourceBuilder.url("jdbc:hsqldb:hsql://127.0.0.1:1/none")
+				.driver(DRIVER).userName("sa").password("").build()));
+
+		ObjectContext context = runtime.newContext();
+		List<Artist> artists = ObjectSelect.query(Artist.class).select(context);
+		assertEquals(1, artists.size());
+		assertEquals("P1", artists.get(0).getArtistName());
+	}
+
+	private void execute(String url, String sql) throws Exception {
+		Connection c = DriverManager.getConnection(url, "sa", "");
+		try {
+			Statement st = c.createStatement();
+			try {
+				st.execute(sql);
+			} finally {
+				st.close();
+			}
+		} finally {
+			c.close();
+		}
+	}
+
+	private int count(String url) throws Exception {
+		Connection c = DriverManager.getConnection(url, "sa", "");
+		try {
+			Statement st = c.createStatement();
+			try {
+				ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM ARTIST");
+				rs.next();
+				return rs.getInt(1);
+			} finally {
+				st.close();
+			}
+		} finally {
+			c.close();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataNodeReplicaTest {
+
+	private DataNode node;
+	private DataSource r1;
+	private DataSource r2;
+
+	@Before
+	public void before() {
+		node = new DataNode("n1");
+		r1 = mock(DataSource.class);
+		r2 = mock(DataSource.class);
+	}
+
+	@Test
+	public void testGetReadEngine() {
+		assertSame(node, node.getReadEngine());
+
+		node.addReadReplica(r1);
+		assertEquals(Arrays.asList(r1), node.getReadReplicas());
+		assertNotSame(node, node.getReadEngine());
+		assertSame(node.getEntityResolver(), node.getReadEngine().getEntityResolver());
+	}
+
+	@Test
+	public void testSelectReplica_RoundRobin() {
+		node.setReadReplicas(Arrays.asList(r1, r2));
+
+		DataSource first = node.selectReplica().dataSource;
+		DataSource second = node.selectReplica().dataSource;
+		DataSource third = node.selectReplica().dataSource;
+
+		assertEquals(first == r1 ? r2 : r1, second);
+		assertSame(first, third);
+	}
+
+	@Test
+	public void testSelectReplica_SkipFailed() {
+		node.setReadReplicas(Arrays.asList(r1, r2));
+
+		DataNode.ReadReplica failed = node.selectReplica();
+		failed.failedUntil = System.currentTimeMillis() + 10000;
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(failed.dataSource == r1 ? r2 : r1, node.selectReplica().dataSource);
+		}
+
+		node.selectReplica().failedUntil = System.currentTimeMillis() + 10000;
+		assertNull(node.selectReplica());
+	}
+
+	@Test
+	public void testSelectReplica_LeastBusy() {
+		node.setReadReplicas(Arrays.asList(r1, r2));
+		node.setReplicaRoutingStrategy(ReplicaRoutingStrategy.LEAST_BUSY);
+
+		DataNode.ReadReplica busy = node.selectReplica();
+		busy.busy.incrementAndGet();
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(busy.dataSource == r1 ? r2 : r1, node.selectReplica().dataSource);
+		}
+	}
+}
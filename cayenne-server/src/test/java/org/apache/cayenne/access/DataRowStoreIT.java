@@ -139,4 +139,42 @@ public class DataRowStoreIT extends ServerCase {
         assertNotNull(cache.getCachedSnapshot(key3));
         assertNull(cache.getCachedSnapshot(key1));
     }
+
+    @Test
+    public void testCompactSnapshots() throws Exception {
+        DataRowStore cache = new DataRowStore(
+                "cacheXYZ",
+                Collections.EMPTY_MAP,
+                new DefaultEventManager());
+
+        ObjectId key1 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 1);
+        DataRow row1 = new DataRow(2);
+        row1.put("ARTIST_NAME", "a1");
+        row1.put("DATE_OF_BIRTH", null);
+
+        ObjectId key2 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 2);
+        DataRow row2 = new DataRow(2);
+        row2.put("ARTIST_NAME", "a2");
+
+        Map<Object, Object> diff = new HashMap<Object, Object>();
+        diff.put(key1, row1);
+        diff.put(key2, row2);
+
+        cache.processSnapshotChanges(
+                this,
+                diff,
+                Collections.EMPTY_LIST,
+                Collections.EMPTY_LIST,
+                Collections.EMPTY_LIST);
+
+        DataRow cached1 = cache.getCachedSnapshot(key1);
+        assertTrue(cached1.isCompact());
+        assertEquals("a1", cached1.get("ARTIST_NAME"));
+        assertTrue(cached1.containsKey("DATE_OF_BIRTH"));
+
+        DataRow cached2 = cache.getCachedSnapshot(key2);
+        assertTrue(cached2.isCompact());
+        assertEquals(1, cached2.size());
+        assertEquals("a2", cached2.get("ARTIST_NAME"));
+    }
 }
@@ -223,6 +223,62 @@ public class IdentityColumnsIT extends ServerCase {
         }
     }
 
+    /**
+     * Commits a batch large enough to be sent as a single multi-row or JDBC
+     * batch on adapters that can return generated keys for batches, and checks
+     * that each key ended up on its own object and was propagated to its
+     * dependent.
+     */
+    @Test
+    public void testMultipleNewObjectsBatchedKeys() throws Exception {
+
+        int size = 25;
+        GeneratedColumnTestEntity[] idObjects = new GeneratedColumnTestEntity[size];
+        GeneratedColumnDep[] dependents = new GeneratedColumnDep[size];
+
+        for (int i = 0; i < size; i++) {
+            idObjects[i] = context.newObject(GeneratedColumnTestEntity.class);
+            idObjects[i].setName("m" + i);
+
+            dependents[i] = context.newObject(GeneratedColumnDep.class);
+            dependents[i].setName("d" + i);
+            dependents[i].setToMaster(idObjects[i]);
+        }
+
+        context.commitChanges();
+
+        TableHelper masterTable = new TableHelper(dbHelper, "GENERATED_COLUMN_TEST").setColumns(
+                "GENERATED_COLUMN", "NAME");
+        List<Object[]> rows = masterTable.selectAll();
+        assertEquals(size, rows.size());
+
+        for (int i = 0; i < size; i++) {
+            int id = Cayenne.intPKForObject(idObjects[i]);
+            assertEquals(id, Cayenne.intPKForObject(dependents[i]));
+            assertEquals("m" + i, rows.get(indexOf(rows, id))[1]);
+        }
+
+        context.invalidateObjects((Object[]) idObjects);
+        context.invalidateObjects((Object[]) dependents);
+
+        for (int i = 0; i < size; i++) {
+            GeneratedColumnDep dependent = Cayenne.objectForPK(context, GeneratedColumnDep.class,
+                    Cayenne.intPKForObject(idObjects[i]));
+            assertEquals("d" + i, dependent.getName());
+            assertEquals("m" + i, dependent.getToMaster().getName());
+        }
+    }
+
+    private static int indexOf(List<Object[]> rows, int id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (((Number) rows.get(i)[0]).intValue() == id) {
+                return i;
+            }
+        }
+
+        throw new AssertionError("No row for id " + id);
+    }
+
     @Test
     public void testCompoundPKWithGeneratedColumn() throws Exception {
         if (adapter.supportsGeneratedKeys()) {
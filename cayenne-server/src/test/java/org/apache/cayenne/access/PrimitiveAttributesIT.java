@@ -19,12 +19,16 @@
 package org.apache.cayenne.access;
 
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
 import org.apache.cayenne.testdo.primitive.PrimitivesTestEntity;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 @UseServerRuntime(CayenneProjects.PRIMITIVE_PROJECT)
 public class PrimitiveAttributesIT extends ServerCase {
 
@@ -38,4 +42,45 @@ public class PrimitiveAttributesIT extends ServerCase {
         e.setIntColumn(88);
         context.commitChanges();
     }
+
+    @Test
+    public void testSelectAggregates() {
+        for (int i : new int[] { 1, 2, Integer.MAX_VALUE }) {
+            PrimitivesTestEntity e = context.newObject(PrimitivesTestEntity.class);
+            e.setIntColumn(i);
+        }
+        context.commitChanges();
+
+        Object[] result = ObjectSelect.query(PrimitivesTestEntity.class)
+                .columns(PrimitivesTestEntity.INT_COLUMN.sumAsLong(), PrimitivesTestEntity.INT_COLUMN.avg())
+                .where(PrimitivesTestEntity.INT_COLUMN.lt(3)).selectOne(context);
+
+        assertEquals(3L, result[0]);
+        assertEquals(1.5, (Double) result[1], 0.00001);
+
+        Long sum = ObjectSelect.query(PrimitivesTestEntity.class).column(PrimitivesTestEntity.INT_COLUMN.sumAsLong())
+                .selectOne(context);
+        assertEquals(Long.valueOf(3L + Integer.MAX_VALUE), sum);
+    }
+
+    @Test
+    public void testSelectSumThenSumAsLong() {
+        for (int i : new int[] { 1, 2 }) {
+            PrimitivesTestEntity e = context.newObject(PrimitivesTestEntity.class);
+            e.setIntColumn(i);
+        }
+        context.commitChanges();
+
+        // same SQL, but different result types, must not share translation
+        // or cache entries
+        Object sum = ObjectSelect.query(PrimitivesTestEntity.class).column(PrimitivesTestEntity.INT_COLUMN.sum())
+                .localCache().selectOne(context);
+        assertTrue(sum instanceof Integer);
+        assertEquals(3, sum);
+
+        Object sumAsLong = ObjectSelect.query(PrimitivesTestEntity.class)
+                .column(PrimitivesTestEntity.INT_COLUMN.sumAsLong()).localCache().selectOne(context);
+        assertTrue(sumAsLong instanceof Long);
+        assertEquals(3L, sumAsLong);
+    }
 }
@@ -35,6 +35,7 @@ import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -306,4 +307,31 @@ public class SimpleIdIncrementalFaultListIT extends ServerCase {
         assertEquals(19, list.lastIndexOf(row));
         assertEquals(-1, list.lastIndexOf(list.dataContext.newObject("Artist")));
     }
+
+    @Test
+    public void testResolveInChunks() throws Exception {
+        createArtistsDataSet();
+
+        SelectQuery query = new SelectQuery(Artist.class);
+        query.setPageSize(6);
+        query.addOrdering("db:ARTIST_ID", SortOrder.ASCENDING);
+        SimpleIdIncrementalFaultList<?> list = new SimpleIdIncrementalFaultList<Object>(context, query, 4);
+
+        list.resolveAll();
+        assertEquals(0, list.getUnfetchedObjects());
+
+        for (int i = 0; i < list.size(); i++) {
+            Artist a = (Artist) list.get(i);
+            assertEquals("artist" + (i + 1), a.getArtistName());
+        }
+    }
+
+    @Test
+    public void testBuildIdsQualifier() throws Exception {
+        SimpleIdIncrementalFaultList<?> list = prepareList(6);
+
+        Expression qualifier = list.buildIdsQualifier(Arrays.<Object> asList(33001L, 33002L));
+        assertEquals(Expression.IN, qualifier.getType());
+        assertEquals(ExpressionFactory.inDbExp("ARTIST_ID", 33001L, 33002L), qualifier);
+    }
 }
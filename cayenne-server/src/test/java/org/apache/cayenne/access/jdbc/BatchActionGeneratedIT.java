@@ -19,23 +19,53 @@
 
 package org.apache.cayenne.access.jdbc;
 
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.translator.batch.DefaultBatchTranslatorFactory;
 import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.log.NoopJdbcEventLogger;
 import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.BatchQueryRow;
 import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.testdo.generated.GeneratedColumnTestEntity;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @UseServerRuntime(CayenneProjects.GENERATED_PROJECT)
 public class BatchActionGeneratedIT extends ServerCase {
@@ -82,6 +112,147 @@ public class BatchActionGeneratedIT extends ServerCase {
         assertFalse(new BatchAction(batch1, node, false).hasGeneratedKeys());
     }
 
+    @Test
+    public void testRunAsBatch_GeneratedKeys() throws Exception {
+        JdbcAdapter adapter = buildAdapter(true);
+        adapter.setSupportsGeneratedKeysForBatchInserts(true);
+
+        InsertBatchQuery batch = createBatch();
+        Connection connection = mockConnection();
+        OperationObserver observer = mock(OperationObserver.class);
+
+        new BatchAction(batch, createNode(adapter), true).performAction(connection, observer);
+
+        verify(connection).prepareStatement("INSERT INTO GENERATED_COLUMN_TEST (NAME) VALUES (?)",
+                Statement.RETURN_GENERATED_KEYS);
+        for (BatchQueryRow row : batch.getRows()) {
+            verify(observer).nextGeneratedRows(eq(batch), any(ResultIterator.class), eq(row.getObjectId()));
+        }
+    }
+
+    @Test
+    public void testRunAsMultiRowInserts_GeneratedKeys() throws Exception {
+        JdbcAdapter adapter = buildAdapter(true);
+        adapter.setSupportsGeneratedKeysForBatchInserts(true);
+        adapter.setMultiRowInsertParameterLimit(1000);
+
+        InsertBatchQuery batch = createBatch();
+        Connection connection = mockConnection();
+        OperationObserver observer = mock(OperationObserver.class);
+
+        new BatchAction(batch, createNode(adapter), false).performAction(connection, observer);
+
+        verify(connection).prepareStatement("INSERT INTO GENERATED_COLUMN_TEST (NAME) VALUES (?), (?), (?)",
+                Statement.RETURN_GENERATED_KEYS);
+        for (BatchQueryRow row : batch.getRows()) {
+            verify(observer).nextGeneratedRows(eq(batch), any(ResultIterator.class), eq(row.getObjectId()));
+        }
+    }
+
+    @Test
+    public void testRunAsIndividualQueries_GeneratedKeys() throws Exception {
+
+        // driver can't return keys for batches, so each row is inserted separately
+        JdbcAdapter adapter = buildAdapter(true);
+        adapter.setMultiRowInsertParameterLimit(1000);
+
+        InsertBatchQuery batch = createBatch();
+        Connection connection = mockConnection();
+        OperationObserver observer = mock(OperationObserver.class);
+
+        new BatchAction(batch, createNode(adapter), true).performAction(connection, observer);
+
+        verify(connection).prepareStatement("INSERT INTO GENERATED_COLUMN_TEST (NAME) VALUES (?)",
+                Statement.RETURN_GENERATED_KEYS);
+        for (BatchQueryRow row : batch.getRows()) {
+            verify(observer).nextGeneratedRows(eq(batch), any(ResultIterator.class), eq(row.getObjectId()));
+        }
+    }
+
+    @Test
+    public void testRunAsBatch_GeneratedKeysCountMismatch() throws Exception {
+        JdbcAdapter adapter = buildAdapter(true);
+        adapter.setSupportsGeneratedKeysForBatchInserts(true);
+
+        InsertBatchQuery batch = createBatch();
+
+        // driver returned fewer keys than there were rows in the batch
+        Connection connection = mockConnection(2);
+        OperationObserver observer = mock(OperationObserver.class);
+
+        try {
+            new BatchAction(batch, createNode(adapter), true).performAction(connection, observer);
+            fail("Mismatched key count must cause an exception");
+        } catch (CayenneRuntimeException e) {
+            // expected
+        }
+
+        verify(observer, never()).nextGeneratedRows(any(Query.class), any(ResultIterator.class),
+                any(ObjectId.class));
+    }
+
+    private InsertBatchQuery createBatch() {
+        EntityResolver resolver = runtime.getChannel().getEntityResolver();
+        InsertBatchQuery batch = new InsertBatchQuery(resolver.getObjEntity(GeneratedColumnTestEntity.class)
+                .getDbEntity(), 3);
+
+        for (int i = 1; i <= 3; i++) {
+            Map<String, Object> snapshot = new HashMap<String, Object>();
+            snapshot.put("NAME", "n" + i);
+            batch.add(snapshot, new ObjectId("GeneratedColumnTestEntity"));
+        }
+
+        return batch;
+    }
+
+    private DataNode createNode(JdbcAdapter adapter) {
+        DataNode node = new DataNode();
+        node.setAdapter(adapter);
+        node.setEntityResolver(runtime.getChannel().getEntityResolver());
+        node.setRowReaderFactory(rowReaderFactory());
+        node.setJdbcEventLogger(NoopJdbcEventLogger.getInstance());
+        node.setBatchTranslatorFactory(new DefaultBatchTranslatorFactory());
+        return node;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private RowReaderFactory rowReaderFactory() {
+        DataRow key = new DataRow(1);
+        key.put("ID", 1);
+
+        RowReader rowReader = mock(RowReader.class);
+        when(rowReader.readRow(any(ResultSet.class))).thenReturn(key);
+
+        RowReaderFactory factory = mock(RowReaderFactory.class);
+        when(factory.rowReader(any(RowDescriptor.class), any(QueryMetadata.class), any(DbAdapter.class), anyMap()))
+                .thenReturn(rowReader);
+        return factory;
+    }
+
+    private Connection mockConnection() throws Exception {
+        return mockConnection(3);
+    }
+
+    private Connection mockConnection(int keyCount) throws Exception {
+        ResultSetMetaData keysMetaData = mock(ResultSetMetaData.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.getMetaData()).thenReturn(keysMetaData);
+
+        Boolean[] hasNext = new Boolean[keyCount];
+        Arrays.fill(hasNext, Boolean.TRUE);
+        hasNext[keyCount - 1] = Boolean.FALSE;
+        when(keys.next()).thenReturn(Boolean.TRUE, hasNext);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeUpdate()).thenReturn(1);
+        when(statement.executeBatch()).thenReturn(new int[] { 1, 1, 1 });
+        when(statement.getGeneratedKeys()).thenReturn(keys);
+
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(statement);
+        return connection;
+    }
+
     JdbcAdapter buildAdapter(boolean supportGeneratedKeys) {
         JdbcAdapter adapter = objectFactory.newInstance(JdbcAdapter.class, JdbcAdapter.class.getName());
         adapter.setSupportsGeneratedKeys(supportGeneratedKeys);
@@ -20,11 +20,14 @@
 package org.apache.cayenne.access.jdbc;
 
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.translator.batch.DefaultBatchTranslatorFactory;
 import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.log.NoopJdbcEventLogger;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.query.InsertBatchQuery;
 import org.apache.cayenne.testdo.testmap.Artist;
@@ -33,8 +36,19 @@ import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
 public class BatchActionIT extends ServerCase {
@@ -77,6 +91,71 @@ public class BatchActionIT extends ServerCase {
         assertFalse(new BatchAction(batch2, node, false).hasGeneratedKeys());
     }
 
+    @Test
+    public void testRunAsMultiRowInserts() throws Exception {
+        EntityResolver resolver = runtime.getChannel().getEntityResolver();
+
+        // 3 columns per row, so up to 2 rows per statement
+        JdbcAdapter adapter = buildAdapter(false);
+        adapter.setMultiRowInsertParameterLimit(7);
+
+        DataNode node = new DataNode();
+        node.setAdapter(adapter);
+        node.setEntityResolver(resolver);
+        node.setRowReaderFactory(mock(RowReaderFactory.class));
+        node.setJdbcEventLogger(NoopJdbcEventLogger.getInstance());
+        node.setBatchTranslatorFactory(new DefaultBatchTranslatorFactory());
+
+        InsertBatchQuery batch = new InsertBatchQuery(resolver.getObjEntity(Artist.class).getDbEntity(), 5);
+        for (int i = 1; i <= 5; i++) {
+            Map<String, Object> snapshot = new HashMap<String, Object>();
+            snapshot.put("ARTIST_ID", i);
+            snapshot.put("ARTIST_NAME", "a" + i);
+            batch.add(snapshot);
+        }
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeUpdate()).thenReturn(2, 2, 1);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        OperationObserver observer = mock(OperationObserver.class);
+
+        BatchAction action = new BatchAction(batch, node, false);
+        assertEquals(2, action.multiRowInsertSize(action.createTranslator()));
+        action.performAction(connection, observer);
+
+        verify(connection).prepareStatement(
+                "INSERT INTO ARTIST (ARTIST_ID, ARTIST_NAME, DATE_OF_BIRTH) VALUES (?, ?, ?), (?, ?, ?)");
+        verify(connection).prepareStatement("INSERT INTO ARTIST (ARTIST_ID, ARTIST_NAME, DATE_OF_BIRTH) VALUES (?, ?, ?)");
+        verify(statement, times(3)).executeUpdate();
+        verify(statement, times(2)).setNull(6, Types.DATE);
+        verify(observer, times(2)).nextBatchCount(batch, new int[] { 1, 1 });
+        verify(observer).nextBatchCount(batch, new int[] { 1 });
+    }
+
+    @Test
+    public void testMultiRowInsertSize() throws Exception {
+        EntityResolver resolver = runtime.getChannel().getEntityResolver();
+
+        JdbcAdapter adapter = buildAdapter(false);
+
+        DataNode node = new DataNode();
+        node.setAdapter(adapter);
+        node.setEntityResolver(resolver);
+        node.setRowReaderFactory(mock(RowReaderFactory.class));
+
+        InsertBatchQuery batch = new InsertBatchQuery(resolver.getObjEntity(Artist.class).getDbEntity(), 5);
+        batch.add(new HashMap<String, Object>());
+        batch.add(new HashMap<String, Object>());
+        node.setBatchTranslatorFactory(new DefaultBatchTranslatorFactory());
+
+        BatchAction action = new BatchAction(batch, node, true);
+        assertEquals(0, action.multiRowInsertSize(action.createTranslator()));
+
+        adapter.setMultiRowInsertParameterLimit(32767);
+        assertEquals(1000, action.multiRowInsertSize(action.createTranslator()));
+    }
+
     JdbcAdapter buildAdapter(boolean supportGeneratedKeys) {
         JdbcAdapter adapter = objectFactory.newInstance(JdbcAdapter.class, JdbcAdapter.class.getName());
         adapter.setSupportsGeneratedKeys(supportGeneratedKeys);
@@ -0,0 +1,53 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.jdbc;
+
+import org.apache.cayenne.ResultIterator;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+public class ConnectionAwareResultIteratorTest {
+
+    @Test
+    public void testClose_RestoresConnectionBeforeRelease() throws Exception {
+        ResultIterator<?> delegate = mock(ResultIterator.class);
+        final Connection connection = mock(Connection.class);
+
+        ResultIterator<?> iterator = new ConnectionAwareResultIterator<Object>((ResultIterator) delegate,
+                connection) {
+            @Override
+            protected void beforeConnectionClose(Connection c) throws SQLException {
+                c.setAutoCommit(true);
+            }
+        };
+
+        iterator.close();
+
+        InOrder order = inOrder(delegate, connection);
+        order.verify(delegate).close();
+        order.verify(connection).setAutoCommit(true);
+        order.verify(connection).close();
+    }
+}
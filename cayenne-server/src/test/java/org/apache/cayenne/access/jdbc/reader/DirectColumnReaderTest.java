@@ -0,0 +1,79 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.jdbc.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import org.apache.cayenne.access.types.CharType;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.access.types.IntegerType;
+import org.apache.cayenne.access.types.LongType;
+import org.junit.Test;
+
+public class DirectColumnReaderTest {
+
+    @Test
+    public void testKinds() {
+        ExtendedType[] converters = new ExtendedType[] { new IntegerType(), new LongType(), new CharType(true, false),
+                new CharType(true, false), new IntegerType() {
+                } };
+        int[] types = new int[] { Types.INTEGER, Types.BIGINT, Types.VARCHAR, Types.CHAR, Types.INTEGER };
+
+        assertArrayEquals(new int[] { DirectColumnReader.INTEGER, DirectColumnReader.LONG, DirectColumnReader.STRING,
+                DirectColumnReader.GENERIC, DirectColumnReader.GENERIC }, DirectColumnReader.kinds(converters, types));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(5);
+        when(rs.getString(2)).thenReturn("abc");
+
+        assertEquals(5, DirectColumnReader.read(DirectColumnReader.INTEGER, new IntegerType(), rs, 1, Types.INTEGER));
+        assertEquals("abc",
+                DirectColumnReader.read(DirectColumnReader.STRING, new CharType(true, false), rs, 2, Types.VARCHAR));
+    }
+
+    @Test
+    public void testRead_Null() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(0l);
+        when(rs.wasNull()).thenReturn(true);
+
+        assertNull(DirectColumnReader.read(DirectColumnReader.LONG, new LongType(), rs, 1, Types.BIGINT));
+    }
+
+    @Test
+    public void testRead_Generic() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ExtendedType converter = mock(ExtendedType.class);
+        when(converter.materializeObject(rs, 3, Types.CHAR)).thenReturn("x");
+
+        assertEquals("x", DirectColumnReader.read(DirectColumnReader.GENERIC, converter, rs, 3, Types.CHAR));
+        verify(converter).materializeObject(rs, 3, Types.CHAR);
+    }
+}
@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.access.translator.batch;
 
+import org.apache.cayenne.access.translator.ParameterBinding;
 import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.JdbcAdapter;
@@ -32,6 +33,9 @@ import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
@@ -98,4 +102,46 @@ public class InsertBatchTranslatorIT extends ServerCase {
             entity.getDataMap().setQuotingSQLIdentifiers(false);
         }
     }
+
+    @Test
+    public void testCreateMultiRowSqlString() throws Exception {
+        DbEntity entity = runtime.getDataDomain().getEntityResolver().getObjEntity(SimpleLockingTestEntity.class)
+                .getDbEntity();
+
+        DbAdapter adapter = objectFactory.newInstance(DbAdapter.class, JdbcAdapter.class.getName());
+        InsertBatchQuery insertQuery = new InsertBatchQuery(entity, 1);
+        InsertBatchTranslator builder = new InsertBatchTranslator(insertQuery, adapter);
+
+        assertEquals(3, builder.getRowParameterCount());
+        assertEquals(builder.getSql(), builder.getMultiRowSql(1));
+        assertEquals("INSERT INTO " + entity.getName()
+                + " (DESCRIPTION, LOCKING_TEST_ID, NAME) VALUES (?, ?, ?), (?, ?, ?), (?, ?, ?)",
+                builder.getMultiRowSql(3));
+    }
+
+    @Test
+    public void testUpdateMultiRowBindings() throws Exception {
+        DbEntity entity = runtime.getDataDomain().getEntityResolver().getObjEntity(SimpleLockingTestEntity.class)
+                .getDbEntity();
+
+        Map<String, Object> snapshot = new HashMap<String, Object>();
+        snapshot.put("DESCRIPTION", "d");
+        snapshot.put("LOCKING_TEST_ID", 5);
+        snapshot.put("NAME", "n");
+
+        DbAdapter adapter = objectFactory.newInstance(DbAdapter.class, JdbcAdapter.class.getName());
+        InsertBatchQuery insertQuery = new InsertBatchQuery(entity, 1);
+        insertQuery.add(snapshot);
+        InsertBatchTranslator builder = new InsertBatchTranslator(insertQuery, adapter);
+
+        ParameterBinding[] bindings = builder.updateBindings(insertQuery.getRows().get(0), 2);
+        assertEquals(3, bindings.length);
+        assertEquals(7, bindings[0].getStatementPosition());
+        assertEquals("d", bindings[0].getValue());
+        assertEquals(8, bindings[1].getStatementPosition());
+        assertEquals(9, bindings[2].getStatementPosition());
+
+        bindings = builder.updateBindings(insertQuery.getRows().get(0));
+        assertEquals(1, bindings[0].getStatementPosition());
+    }
 }
@@ -0,0 +1,299 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.JdbcAdapter;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DefaultSelectTranslatorFactoryIT extends ServerCase {
+
+	@Inject
+	private DataContext context;
+
+	@Inject
+	private DBHelper dbHelper;
+
+	@Inject
+	private DataNode dataNode;
+
+	private SelectTranslator translator(DefaultSelectTranslatorFactory factory, SelectQuery<?> query)
+			throws Exception {
+		SelectTranslator translator = factory.translator(query, dataNode.getAdapter(), dataNode.getEntityResolver());
+
+		// make sure uncached translators are initialized too
+		translator.getSql();
+		return translator;
+	}
+
+	private String sql(SelectQuery<?> query) throws Exception {
+		return new DefaultSelectTranslatorFactory(0).translator(query, dataNode.getAdapter(),
+				dataNode.getEntityResolver()).getSql();
+	}
+
+	@Test
+	public void testTranslator_Hit() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		SelectQuery<Artist> q1 = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1"));
+		SelectTranslator t1 = translator(factory, q1);
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(1, factory.getCacheMisses());
+		assertEquals(1, factory.getCacheSize());
+
+		SelectQuery<Artist> q2 = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2"));
+		SelectTranslator t2 = translator(factory, q2);
+		assertEquals(1, factory.getCacheHits());
+		assertEquals(1, factory.getCacheMisses());
+
+		assertEquals(t1.getSql(), t2.getSql());
+		assertEquals(sql(q2), t2.getSql());
+		assertEquals(t1.getResultColumns().length, t2.getResultColumns().length);
+
+		ParameterBinding[] bindings = t2.getBindings();
+		assertEquals(1, bindings.length);
+		assertEquals("a2", bindings[0].getValue());
+		assertEquals(1, bindings[0].getStatementPosition());
+		assertEquals(t1.getBindings()[0].getAttribute(), bindings[0].getAttribute());
+	}
+
+	@Test
+	public void testTranslator_DifferentShape() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")));
+
+		SelectQuery<Artist> nullQuery = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.isNull());
+		SelectTranslator nullTranslator = translator(factory, nullQuery);
+		assertEquals(0, nullTranslator.getBindings().length);
+		assertEquals(sql(nullQuery), nullTranslator.getSql());
+
+		SelectQuery<Artist> ordered = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1"));
+		ordered.addOrdering(Artist.ARTIST_NAME.desc());
+		translator(factory, ordered);
+
+		SelectQuery<Artist> limited = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1"));
+		limited.setFetchLimit(5);
+		translator(factory, limited);
+
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(4, factory.getCacheMisses());
+		assertEquals(4, factory.getCacheSize());
+	}
+
+	@Test
+	public void testTranslator_InList() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.in("a1", "a2")));
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.in("a1", "a2", "a3")));
+		assertEquals(0, factory.getCacheHits());
+
+		SelectQuery<Artist> query = new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.in("b1", "b2"));
+		SelectTranslator translator = translator(factory, query);
+		assertEquals(1, factory.getCacheHits());
+		assertEquals(sql(query), translator.getSql());
+
+		ParameterBinding[] bindings = translator.getBindings();
+		assertEquals(2, bindings.length);
+		assertEquals("b1", bindings[0].getValue());
+		assertEquals("b2", bindings[1].getValue());
+	}
+
+	@Test
+	public void testTranslator_ObjectMatch() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		ObjectId id1 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 1L);
+		translator(factory, new SelectQuery<Painting>(Painting.class, ExpressionFactory.matchExp(
+				Painting.TO_ARTIST.getName(), id1)));
+
+		ObjectId id2 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 2L);
+		SelectQuery<Painting> query = new SelectQuery<Painting>(Painting.class, ExpressionFactory.matchExp(
+				Painting.TO_ARTIST.getName(), id2));
+		SelectTranslator translator = translator(factory, query);
+		assertEquals(1, factory.getCacheHits());
+		assertEquals(sql(query), translator.getSql());
+
+		ParameterBinding[] bindings = translator.getBindings();
+		assertEquals(1, bindings.length);
+		assertEquals(2L, bindings[0].getValue());
+	}
+
+	@Test
+	public void testTranslator_Disabled() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory(0);
+
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")));
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2")));
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(0, factory.getCacheMisses());
+		assertEquals(0, factory.getCacheSize());
+	}
+
+	@Test
+	public void testTranslator_AdapterOptOut() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		JdbcAdapter adapter = spy((JdbcAdapter) dataNode.getAdapter());
+		when(adapter.supportsSelectTranslationCache()).thenReturn(false);
+
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(0, factory.getCacheSize());
+	}
+
+	@Test
+	public void testTranslator_NonJdbcAdapter() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		// an adapter that is not a JdbcAdapter, delegating to the real one
+		final DbAdapter delegate = dataNode.getAdapter();
+		DbAdapter adapter = (DbAdapter) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { DbAdapter.class }, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						return method.invoke(delegate, args);
+					}
+				});
+
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(0, factory.getCacheSize());
+	}
+
+	@Test
+	public void testTranslator_UnknownBindingSource() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		// a dialect translator binding a parameter of its own
+		final JdbcAdapter adapter = spy((JdbcAdapter) dataNode.getAdapter());
+		doAnswer(new Answer<SelectTranslator>() {
+
+			@Override
+			public SelectTranslator answer(InvocationOnMock invocation) throws Throwable {
+				return new DefaultSelectTranslator((Query) invocation.getArguments()[0], adapter,
+						(EntityResolver) invocation.getArguments()[1]) {
+
+					@Override
+					protected void appendLimitAndOffsetClauses(StringBuilder buffer) {
+						buffer.append(" LIMIT ?");
+						addToParamList(null, 10);
+					}
+				};
+			}
+		}).when(adapter).getSelectTranslator(any(SelectQuery.class), any(EntityResolver.class));
+
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		factory.translator(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2")), adapter,
+				dataNode.getEntityResolver()).getSql();
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(2, factory.getCacheMisses());
+		assertEquals(0, factory.getCacheSize());
+	}
+
+	@Test
+	public void testTranslator_MappingChange() throws Exception {
+		DefaultSelectTranslatorFactory factory = new DefaultSelectTranslatorFactory();
+
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a1")));
+		dataNode.getEntityResolver().refreshMappingCache();
+		translator(factory, new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq("a2")));
+
+		assertEquals(0, factory.getCacheHits());
+		assertEquals(2, factory.getCacheMisses());
+	}
+
+	@Test
+	public void testSelect_RebindsParameters() throws Exception {
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+		tArtist.insert(1, "a1");
+		tArtist.insert(2, "a2");
+		tArtist.insert(3, "a3");
+
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE").setColumnTypes(Types.INTEGER,
+				Types.BIGINT, Types.VARCHAR);
+		tPainting.insert(1, 1, "p1");
+		tPainting.insert(2, 2, "p2");
+
+		for (String name : Arrays.asList("a1", "a2", "a3")) {
+			List<Artist> artists = context.select(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.eq(name)));
+			assertEquals(1, artists.size());
+			assertEquals(name, artists.get(0).getArtistName());
+		}
+
+		List<Artist> in = context.select(new SelectQuery<Artist>(Artist.class, Artist.ARTIST_NAME.in("a2", "a3")));
+		assertEquals(2, in.size());
+
+		for (Artist artist : context.select(new SelectQuery<Artist>(Artist.class))) {
+			List<Painting> paintings = context.select(new SelectQuery<Painting>(Painting.class, ExpressionFactory
+					.matchExp(Painting.TO_ARTIST.getName(), artist)));
+
+			if ("a3".equals(artist.getArtistName())) {
+				assertTrue(paintings.isEmpty());
+			} else {
+				assertEquals(1, paintings.size());
+				assertEquals(artist, paintings.get(0).getToArtist());
+			}
+		}
+	}
+}
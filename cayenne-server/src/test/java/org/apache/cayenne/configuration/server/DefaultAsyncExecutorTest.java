@@ -0,0 +1,101 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.junit.Test;
+
+public class DefaultAsyncExecutorTest {
+
+	@Test
+	public void testProperties() {
+		RuntimeProperties properties = mock(RuntimeProperties.class);
+		when(properties.getInt(Constants.SERVER_ASYNC_THREADS_PROPERTY, 0)).thenReturn(3);
+		when(properties.getInt(Constants.SERVER_ASYNC_QUEUE_SIZE_PROPERTY, DefaultAsyncExecutor.QUEUE_SIZE_DEFAULT))
+				.thenReturn(10);
+
+		DefaultAsyncExecutor executor = new DefaultAsyncExecutor(properties);
+		try {
+			assertEquals(3, executor.getCorePoolSize());
+			assertEquals(3, executor.getMaximumPoolSize());
+			assertEquals(10, executor.getQueue().remainingCapacity());
+		} finally {
+			executor.shutdownOnScopeEnd();
+		}
+	}
+
+	@Test
+	public void testSetConnectionLimit() {
+		DefaultAsyncExecutor executor = new DefaultAsyncExecutor(0, 10);
+		try {
+			assertEquals(DefaultAsyncExecutor.THREADS_DEFAULT, executor.getMaximumPoolSize());
+
+			executor.setConnectionLimit(10);
+			assertEquals(10, executor.getCorePoolSize());
+			assertEquals(10, executor.getMaximumPoolSize());
+
+			executor.setConnectionLimit(2);
+			assertEquals(2, executor.getCorePoolSize());
+			assertEquals(2, executor.getMaximumPoolSize());
+
+			// unknown limit
+			executor.setConnectionLimit(0);
+			assertEquals(2, executor.getMaximumPoolSize());
+		} finally {
+			executor.shutdownOnScopeEnd();
+		}
+	}
+
+	@Test
+	public void testSetConnectionLimit_ExplicitThreads() {
+		DefaultAsyncExecutor executor = new DefaultAsyncExecutor(3, 10);
+		try {
+			executor.setConnectionLimit(10);
+			assertEquals(3, executor.getCorePoolSize());
+			assertEquals(3, executor.getMaximumPoolSize());
+		} finally {
+			executor.shutdownOnScopeEnd();
+		}
+	}
+
+	@Test
+	public void testExecute() throws Exception {
+		DefaultAsyncExecutor executor = new DefaultAsyncExecutor(2, 10);
+
+		String name = executor.submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return Thread.currentThread().getName();
+			}
+		}).get(10, TimeUnit.SECONDS);
+		assertTrue(name, name.startsWith("cayenne-async-"));
+
+		executor.shutdownOnScopeEnd();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+}
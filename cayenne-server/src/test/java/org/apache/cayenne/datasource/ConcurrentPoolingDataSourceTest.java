@@ -0,0 +1,329 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ConcurrentPoolingDataSourceTest {
+
+	private DataSource nonPooling;
+	private PoolingDataSourceParameters params;
+
+	@Before
+	public void before() throws SQLException {
+		nonPooling = mock(DataSource.class);
+		when(nonPooling.getConnection()).thenAnswer(new Answer<Connection>() {
+			@Override
+			public Connection answer(InvocationOnMock invocation) throws Throwable {
+				return mock(Connection.class);
+			}
+		});
+		params = new PoolingDataSourceParameters();
+	}
+
+	@Test
+	public void testConstructor_MinConnections() {
+		params.setMinConnections(3);
+		params.setMaxConnections(5);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		assertEquals(3, ds.poolSize());
+		assertEquals(3, ds.availableSize());
+	}
+
+	@Test
+	public void testManagePool_High() throws SQLException {
+
+		int max = 5;
+
+		params.setMinConnections(1);
+		params.setMaxConnections(max);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		// opening and closing 'max' connections should fill the pool to the
+		// top...
+		Connection[] open = new Connection[max];
+		for (int i = 0; i < max; i++) {
+			open[i] = ds.getConnection();
+		}
+
+		for (Connection c : open) {
+			c.close();
+		}
+
+		// now we can start calling 'managePool', and it would close connections
+		// one at a time until we reach a threshold on idle
+		assertEquals(max, ds.poolSize());
+		ds.managePool();
+		assertEquals(max - 1, ds.poolSize());
+		ds.managePool();
+		assertEquals(max - 2, ds.poolSize());
+
+		// pool equilibrium was reached. subsequent calls should not open or
+		// close connections
+		ds.managePool();
+		assertEquals(max - 2, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_Low() throws SQLException {
+
+		int min = 2;
+
+		params.setMinConnections(min);
+		params.setMaxConnections(min + 5);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		assertEquals(min, ds.poolSize());
+
+		for (int i = 0; i < min; i++) {
+			ds.retire(ds.uncheckNonBlocking());
+		}
+
+		assertEquals(0, ds.poolSize());
+		ds.managePool();
+		assertEquals(1, ds.poolSize());
+		assertEquals(1, ds.availableSize());
+		ds.managePool();
+		assertEquals(2, ds.poolSize());
+		assertEquals(2, ds.availableSize());
+
+		ds.managePool();
+		assertEquals(2, ds.poolSize());
+	}
+
+	@Test
+	public void testGetConnection_UpperCap() throws SQLException {
+		int max = 5;
+		params.setMaxConnections(max);
+		params.setMaxQueueWaitTime(500);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		Connection[] unchecked = new Connection[max];
+
+		for (int i = 0; i < max; i++) {
+			unchecked[i] = ds.getConnection();
+		}
+
+		try {
+			ds.getConnection();
+			fail("Pool overflow not checked");
+		} catch (SQLException e) {
+			// expected ... all connections are taken
+		}
+
+		// return one connection ... it should become immediately available
+		unchecked[0].close();
+
+		Connection c = ds.getConnection();
+		assertSame(unchecked[0], c);
+	}
+
+	@Test
+	public void testGetConnection_Handoff() throws Exception {
+		params.setMaxConnections(1);
+		params.setMaxQueueWaitTime(5000);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		final Connection c1 = ds.getConnection();
+
+		Thread releaser = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+					c1.close();
+				} catch (Exception e) {
+					// ignore
+				}
+			}
+		};
+		releaser.start();
+
+		// must block until the connection is returned by the other thread
+		Connection c2 = ds.getConnection();
+		assertSame(c1, c2);
+		releaser.join();
+	}
+
+	@Test
+	public void testRetire_CloseAfterRetire() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(2);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		PoolAwareConnection c = (PoolAwareConnection) ds.getConnection();
+		ds.retire(c);
+		assertEquals(0, ds.poolSize());
+
+		// closing a retired connection must not put it back to the pool
+		c.close();
+		assertEquals(0, ds.poolSize());
+		assertEquals(0, ds.availableSize());
+
+		// retiring twice should close the underlying connection only once
+		ds.retire(c);
+		verify(c.getConnection(), times(1)).close();
+	}
+
+	@Test
+	public void testClose() throws SQLException {
+		params.setMinConnections(2);
+		params.setMaxConnections(3);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		Connection c = ds.getConnection();
+		assertNotNull(c);
+
+		ds.close();
+		assertEquals(0, ds.poolSize());
+
+		// connections returned after the pool was closed should be closed
+		c.close();
+		assertEquals(0, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_MaxConnectionLifetime() throws Exception {
+
+		params.setMinConnections(2);
+		params.setMaxConnections(5);
+		params.setMaxConnectionLifetime(100);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		assertEquals(2, ds.poolSize());
+		Thread.sleep(150);
+
+		// expired idle connections are closed, and then the pool starts
+		// growing again one connection at a time
+		ds.managePool();
+		assertEquals(1, ds.poolSize());
+	}
+
+	@Test
+	public void testReclaim_MaxConnectionLifetime() throws Exception {
+
+		params.setMinConnections(0);
+		params.setMaxConnections(5);
+		params.setMaxConnectionLifetime(100);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		Connection c = ds.getConnection();
+		assertEquals(1, ds.poolSize());
+		Thread.sleep(150);
+
+		c.close();
+		assertEquals(0, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_MaxIdleTime() throws Exception {
+
+		params.setMinConnections(1);
+		params.setMaxConnections(5);
+		params.setMaxIdleTime(100);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		Connection[] open = new Connection[3];
+		for (int i = 0; i < open.length; i++) {
+			open[i] = ds.getConnection();
+		}
+
+		for (Connection c : open) {
+			c.close();
+		}
+
+		assertEquals(3, ds.poolSize());
+		Thread.sleep(150);
+
+		// idle connections are closed down to the min pool size
+		ds.managePool();
+		assertEquals(1, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_BackgroundValidation() throws SQLException {
+
+		final Connection invalid = mock(Connection.class);
+		when(invalid.isValid(anyInt())).thenReturn(false);
+		final Connection valid = mock(Connection.class);
+		when(valid.isValid(anyInt())).thenReturn(true);
+		when(nonPooling.getConnection()).thenReturn(invalid, valid);
+
+		params.setMinConnections(2);
+		params.setMaxConnections(5);
+		params.setBackgroundValidation(true);
+		params.setValidationQuery(null);
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		assertEquals(2, ds.poolSize());
+		ds.managePool();
+
+		// one connection failed validation and got replaced
+		verify(invalid).close();
+		assertEquals(2, ds.poolSize());
+	}
+
+	@Test
+	public void testGetConnection_BackgroundValidation() throws SQLException {
+
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+		params.setValidationQuery("SELECT 1");
+		params.setBackgroundValidation(true);
+
+		final Connection connection = mock(Connection.class);
+		Statement statement = mock(Statement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true);
+		when(statement.executeQuery("SELECT 1")).thenReturn(rs);
+		when(connection.createStatement()).thenReturn(statement);
+		when(nonPooling.getConnection()).thenReturn(connection);
+
+		ConcurrentPoolingDataSource ds = new ConcurrentPoolingDataSource(nonPooling, params);
+
+		// fresh connection is validated once
+		verify(statement, times(1)).executeQuery("SELECT 1");
+
+		// ... but not on checkout
+		ds.getConnection().close();
+		ds.getConnection().close();
+		verify(statement, times(1)).executeQuery("SELECT 1");
+	}
+}
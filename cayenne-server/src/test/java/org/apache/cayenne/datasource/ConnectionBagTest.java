@@ -0,0 +1,156 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Connection;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionBagTest {
+
+	private ConnectionBag bag;
+
+	@Before
+	public void before() {
+		this.bag = new ConnectionBag();
+	}
+
+	private PoolAwareConnection addIdle() {
+		PoolAwareConnection c = new PoolAwareConnection(mock(UnmanagedPoolingDataSource.class),
+				mock(Connection.class), null);
+		bag.add(c);
+		bag.requite(c);
+		return c;
+	}
+
+	@Test
+	public void testBorrow() {
+		PoolAwareConnection c1 = addIdle();
+		PoolAwareConnection c2 = addIdle();
+
+		assertEquals(2, bag.size());
+		assertEquals(2, bag.idleSize());
+
+		PoolAwareConnection b1 = bag.borrow();
+		PoolAwareConnection b2 = bag.borrow();
+		assertNull(bag.borrow());
+
+		assertEquals(PoolAwareConnection.STATE_IN_USE, c1.getState());
+		assertEquals(PoolAwareConnection.STATE_IN_USE, c2.getState());
+		assertEquals(2, bag.size());
+		assertEquals(0, bag.idleSize());
+
+		bag.requite(b1);
+		bag.requite(b2);
+		assertEquals(2, bag.idleSize());
+	}
+
+	@Test
+	public void testBorrow_ThreadAffinity() {
+		addIdle();
+		addIdle();
+		addIdle();
+
+		PoolAwareConnection b1 = bag.borrow();
+		PoolAwareConnection b2 = bag.borrow();
+		PoolAwareConnection b3 = bag.borrow();
+
+		bag.requite(b1);
+		bag.requite(b3);
+
+		// the most recently returned connection should be reused first
+		assertSame(b3, bag.borrow());
+
+		bag.requite(b2);
+	}
+
+	@Test
+	public void testRequite_Twice() {
+		PoolAwareConnection c = addIdle();
+
+		assertSame(c, bag.borrow());
+		bag.requite(c);
+		bag.requite(c);
+
+		assertEquals(1, bag.idleSize());
+		assertSame(c, bag.borrow());
+		assertNull(bag.borrow());
+	}
+
+	@Test
+	public void testReserveIdle() {
+		PoolAwareConnection c = addIdle();
+
+		assertSame(c, bag.reserveIdle());
+		assertEquals(PoolAwareConnection.STATE_RESERVED, c.getState());
+		assertNull(bag.borrow());
+		assertNull(bag.reserveIdle());
+	}
+
+	@Test
+	public void testRemove() {
+		PoolAwareConnection c = addIdle();
+
+		c.setState(PoolAwareConnection.STATE_REMOVED);
+		bag.remove(c);
+
+		assertEquals(0, bag.size());
+		assertNull(bag.borrow());
+	}
+
+	@Test
+	public void testBorrow_Timeout() throws InterruptedException {
+		PoolAwareConnection c = addIdle();
+		assertSame(c, bag.borrow());
+
+		long t0 = System.currentTimeMillis();
+		assertNull(bag.borrow(100));
+		assertEquals(0, bag.getWaiters());
+		assertTrue(System.currentTimeMillis() - t0 >= 100);
+	}
+
+	@Test
+	public void testBorrow_Handoff() throws InterruptedException {
+		final PoolAwareConnection c = addIdle();
+		assertSame(c, bag.borrow());
+
+		Thread releaser = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					// ignore
+				}
+				bag.requite(c);
+			}
+		};
+		releaser.start();
+
+		assertSame(c, bag.borrow(5000));
+		releaser.join();
+	}
+}
@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucket() {
+		assertEquals(0, LatencyHistogram.bucket(0));
+		assertEquals(1, LatencyHistogram.bucket(1));
+		assertEquals(2, LatencyHistogram.bucket(2));
+		assertEquals(2, LatencyHistogram.bucket(3));
+		assertEquals(3, LatencyHistogram.bucket(4));
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testRecord() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int i = 0; i < 99; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+		}
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(10d, histogram.getMax(), 0.0001);
+		assertEquals((99 * 100 + 10000) / 1000d / 100, histogram.getMean(), 0.0001);
+
+		// 100 us falls into the [64, 128) bucket
+		assertEquals(0.128, histogram.getPercentile(0.5), 0.0001);
+		assertEquals(0.128, histogram.getPercentile(0.99), 0.0001);
+
+		// the top bucket is capped by the max value
+		assertEquals(10d, histogram.getPercentile(1), 0.0001);
+	}
+
+	@Test
+	public void testReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+		histogram.reset();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0d, histogram.getMax(), 0.0001);
+		assertEquals(0d, histogram.getPercentile(0.99), 0.0001);
+	}
+}
@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
@@ -30,6 +31,10 @@ import static org.mockito.Mockito.when;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -94,4 +99,21 @@ public class ManagedPoolingDataSourceTest {
 		}
 	}
 
+	@Test
+	public void testRegisterMBean() throws Exception {
+
+		PoolingDataSourceMetrics metrics = new PoolingDataSourceMetrics(mockPoolingDataSource);
+		when(mockPoolingDataSource.getMetrics()).thenReturn(metrics);
+		when(mockPoolingDataSource.poolSize()).thenReturn(3);
+
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ObjectName name = new ObjectName("org.apache.cayenne:type=ConnectionPool,node=test");
+
+		dataSource.registerMBean(server, name);
+		assertTrue(server.isRegistered(name));
+		assertEquals(3, server.getAttribute(name, "PoolSize"));
+
+		dataSource.close();
+		assertFalse(server.isRegistered(name));
+	}
 }
@@ -18,9 +18,14 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +33,9 @@ import static org.mockito.Mockito.when;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cayenne.datasource.PoolAwareConnection;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
@@ -96,4 +104,97 @@ public class PoolAwareConnectionTest {
 		}
 
 	}
+
+	@Test
+	public void testValidateIdle() throws SQLException {
+		when(connectionMock.isValid(anyInt())).thenReturn(true, false);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null);
+		assertTrue(paConnection.validateIdle(1));
+		assertFalse(paConnection.validateIdle(1));
+		verify(connectionMock, times(2)).isValid(1);
+	}
+
+	@Test
+	public void testValidateIdle_NotSupported() throws SQLException {
+		when(connectionMock.isValid(anyInt())).thenThrow(new SQLFeatureNotSupportedException());
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null);
+		assertTrue(paConnection.validateIdle(1));
+	}
+
+	@Test
+	public void testPrepareStatement_Cached() throws SQLException {
+		PreparedStatement firstTry = mock(PreparedStatement.class);
+		PreparedStatement secondTry = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(firstTry, secondTry);
+
+		StatementCache cache = new StatementCache(10, new AtomicLong(), new AtomicLong());
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, cache);
+
+		PreparedStatement st1 = paConnection.prepareStatement("SELECT 1");
+		assertSame(firstTry, ((CachedPreparedStatement) st1).getStatement());
+		assertSame(paConnection, st1.getConnection());
+
+		// statement in use can't be shared
+		PreparedStatement st2 = paConnection.prepareStatement("SELECT 1");
+		assertSame(secondTry, ((CachedPreparedStatement) st2).getStatement());
+
+		st1.close();
+		assertTrue(st1.isClosed());
+		verify(firstTry, never()).close();
+		verify(firstTry).clearParameters();
+
+		// already cached statement for the same SQL is closed
+		st2.close();
+		verify(secondTry).close();
+
+		PreparedStatement st3 = paConnection.prepareStatement("SELECT 1");
+		assertSame(firstTry, ((CachedPreparedStatement) st3).getStatement());
+		verify(connectionMock, times(2)).prepareStatement("SELECT 1");
+	}
+
+	@Test
+	public void testPrepareStatement_Cached_Options() throws SQLException {
+		PreparedStatement plain = mock(PreparedStatement.class);
+		PreparedStatement keys = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("INSERT")).thenReturn(plain);
+		when(connectionMock.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS)).thenReturn(keys);
+
+		StatementCache cache = new StatementCache(10, new AtomicLong(), new AtomicLong());
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, cache);
+
+		paConnection.prepareStatement("INSERT").close();
+		PreparedStatement st = paConnection.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS);
+		assertSame(keys, ((CachedPreparedStatement) st).getStatement());
+	}
+
+	@Test
+	public void testPrepareStatement_Cached_ChangedSettings() throws SQLException {
+		PreparedStatement firstTry = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(firstTry);
+
+		StatementCache cache = new StatementCache(10, new AtomicLong(), new AtomicLong());
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, cache);
+
+		PreparedStatement st = paConnection.prepareStatement("SELECT 1");
+		st.setFetchSize(100);
+		st.close();
+
+		verify(firstTry).close();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testRecover_ClearsStatementCache() throws SQLException {
+		PreparedStatement cached = mock(PreparedStatement.class);
+
+		StatementCache cache = new StatementCache(10, new AtomicLong(), new AtomicLong());
+		cache.checkin(new StatementCache.Key("SELECT 1"), cached);
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, cache);
+
+		paConnection.recover(new SQLException("E1"));
+		verify(cached).close();
+		assertEquals(0, cache.size());
+	}
 }
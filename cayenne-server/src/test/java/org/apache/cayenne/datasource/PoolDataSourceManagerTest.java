@@ -22,6 +22,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import java.sql.SQLException;
 
@@ -77,4 +79,10 @@ public class PoolDataSourceManagerTest {
 		int c2 = counter[0];
 		assertTrue(c2 > c1);
 	}
+
+	@Test
+	public void testRun_WarmUp() {
+		dataSourceManager.start();
+		verify(mockPoolingDataSource, timeout(1000)).warmUp();
+	}
 }
@@ -22,11 +22,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import javax.sql.DataSource;
 
@@ -203,6 +210,210 @@ public class PoolingDataSourceTest {
 		assertNotNull(c);
 	}
 
+	@Test
+	public void testManagePool_MaxConnectionLifetime() throws Exception {
+
+		params.setMinConnections(2);
+		params.setMaxConnections(5);
+		params.setMaxConnectionLifetime(100);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		assertEquals(2, ds.poolSize());
+		Thread.sleep(150);
+
+		// expired idle connections are closed, and then the pool starts
+		// growing again one connection at a time
+		ds.managePool();
+		assertEquals(1, ds.poolSize());
+	}
+
+	@Test
+	public void testReclaim_MaxConnectionLifetime() throws Exception {
+
+		params.setMinConnections(0);
+		params.setMaxConnections(5);
+		params.setMaxConnectionLifetime(100);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c = ds.getConnection();
+		assertEquals(1, ds.poolSize());
+		Thread.sleep(150);
+
+		c.close();
+		assertEquals(0, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_MaxIdleTime() throws Exception {
+
+		params.setMinConnections(1);
+		params.setMaxConnections(5);
+		params.setMaxIdleTime(100);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection[] open = new Connection[3];
+		for (int i = 0; i < open.length; i++) {
+			open[i] = ds.getConnection();
+		}
+
+		for (Connection c : open) {
+			c.close();
+		}
+
+		assertEquals(3, ds.poolSize());
+		Thread.sleep(150);
+
+		// idle connections are closed down to the min pool size
+		ds.managePool();
+		assertEquals(1, ds.poolSize());
+	}
+
+	@Test
+	public void testManagePool_BackgroundValidation() throws SQLException {
+
+		final Connection invalid = mock(Connection.class);
+		when(invalid.isValid(anyInt())).thenReturn(false);
+		final Connection valid = mock(Connection.class);
+		when(valid.isValid(anyInt())).thenReturn(true);
+		when(nonPooling.getConnection()).thenReturn(invalid, valid);
+
+		params.setMinConnections(2);
+		params.setMaxConnections(5);
+		params.setBackgroundValidation(true);
+		params.setValidationQuery(null);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		assertEquals(2, ds.poolSize());
+		ds.managePool();
+
+		// one connection failed validation and got replaced
+		verify(invalid).close();
+		assertEquals(2, ds.poolSize());
+	}
+
+	@Test
+	public void testGetConnection_BackgroundValidation() throws SQLException {
+
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+		params.setValidationQuery("SELECT 1");
+		params.setBackgroundValidation(true);
+
+		final Connection connection = mock(Connection.class);
+		Statement statement = mock(Statement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true);
+		when(statement.executeQuery("SELECT 1")).thenReturn(rs);
+		when(connection.createStatement()).thenReturn(statement);
+		when(nonPooling.getConnection()).thenReturn(connection);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		// fresh connection is validated once
+		verify(statement, times(1)).executeQuery("SELECT 1");
+
+		// ... but not on checkout
+		ds.getConnection().close();
+		ds.getConnection().close();
+		verify(statement, times(1)).executeQuery("SELECT 1");
+	}
+
+	@Test
+	public void testCheckin_RollbackOpenTransaction() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+
+		Connection connection = mock(Connection.class);
+		when(nonPooling.getConnection()).thenReturn(connection);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c = ds.getConnection();
+		when(connection.getAutoCommit()).thenReturn(false);
+		c.close();
+
+		verify(connection).rollback();
+		verify(connection, never()).commit();
+		assertEquals(1, ds.getMetrics().getAvailableSize());
+	}
+
+	@Test
+	public void testCheckin_ResetTransactionIsolation() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+
+		Connection connection = mock(Connection.class);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+		when(nonPooling.getConnection()).thenReturn(connection);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c = ds.getConnection();
+		c.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		c.close();
+		verify(connection).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+		// unchanged isolation level is not touched
+		ds.getConnection().close();
+		verify(connection, times(1)).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		verify(connection, never()).rollback();
+	}
+
+	@Test
+	public void testCheckin_ResetFailure() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+
+		Connection connection = mock(Connection.class);
+		doThrow(new SQLException("Test")).when(connection).rollback();
+		when(nonPooling.getConnection()).thenReturn(connection);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		ds.getConnection().close();
+
+		// connection that can't be reset is not returned to the pool
+		verify(connection).close();
+		assertEquals(0, ds.getMetrics().getPoolSize());
+	}
+
+	@Test
+	public void testMetrics() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(2);
+		params.setMaxQueueWaitTime(10);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		PoolingDataSourceMetrics metrics = ds.getMetrics();
+		assertEquals(1, metrics.getConnectionsCreated());
+		assertEquals(0, metrics.getCheckouts());
+
+		Connection c1 = ds.getConnection();
+		Connection c2 = ds.getConnection();
+		assertEquals(2, metrics.getConnectionsCreated());
+		assertEquals(2, metrics.getCheckouts());
+		assertEquals(2, metrics.getPoolSize());
+		assertEquals(0, metrics.getAvailableSize());
+
+		try {
+			ds.getConnection();
+			fail("Pool overflow not checked");
+		} catch (SQLException e) {
+			// expected ... all connections are taken
+		}
+
+		assertEquals(1, metrics.getCheckoutTimeouts());
+		assertEquals(2, metrics.getCheckouts());
+
+		c1.close();
+		c2.close();
+		assertEquals(2, metrics.getHoldTime().getCount());
+
+		ds.retire(ds.uncheckNonBlocking(false));
+		assertEquals(1, metrics.getConnectionsDestroyed());
+	}
+
 	PoolAwareConnection[] validConnections(int size) {
 		PoolAwareConnection[] connections = new PoolAwareConnection[size];
 		for (int i = 0; i < size; i++) {
@@ -0,0 +1,137 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest {
+
+	private AtomicLong hits;
+	private AtomicLong misses;
+
+	@Before
+	public void before() {
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+	@Test
+	public void testCheckout() {
+		StatementCache cache = new StatementCache(2, hits, misses);
+		StatementCache.Key key = new StatementCache.Key("SELECT 1");
+
+		assertNull(cache.checkout(key));
+		assertEquals(0, hits.get());
+		assertEquals(1, misses.get());
+
+		PreparedStatement st = mock(PreparedStatement.class);
+		cache.checkin(key, st);
+		assertEquals(1, cache.size());
+
+		assertSame(st, cache.checkout(new StatementCache.Key("SELECT 1")));
+		assertEquals(1, hits.get());
+		assertEquals(1, misses.get());
+
+		// statement in use is not available to other callers
+		assertEquals(0, cache.size());
+		assertNull(cache.checkout(key));
+	}
+
+	@Test
+	public void testKey() {
+		StatementCache.Key k1 = new StatementCache.Key("SELECT 1");
+		StatementCache.Key k2 = new StatementCache.Key("SELECT 1", ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS);
+		StatementCache.Key k3 = new StatementCache.Key("SELECT 1", ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY, Statement.RETURN_GENERATED_KEYS);
+		StatementCache.Key k4 = new StatementCache.Key("SELECT 2");
+
+		assertEquals(k1, k2);
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertEquals(false, k1.equals(k3));
+		assertEquals(false, k1.equals(k4));
+	}
+
+	@Test
+	public void testCheckin_Evict() throws SQLException {
+		StatementCache cache = new StatementCache(2, hits, misses);
+
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		PreparedStatement st3 = mock(PreparedStatement.class);
+
+		cache.checkin(new StatementCache.Key("SELECT 1"), st1);
+		cache.checkin(new StatementCache.Key("SELECT 2"), st2);
+
+		// touch the first statement, so that the second one is the least
+		// recently used
+		cache.checkin(new StatementCache.Key("SELECT 1"), cache.checkout(new StatementCache.Key("SELECT 1")));
+
+		cache.checkin(new StatementCache.Key("SELECT 3"), st3);
+		assertEquals(2, cache.size());
+		verify(st2).close();
+		verify(st1, never()).close();
+		verify(st3, never()).close();
+	}
+
+	@Test
+	public void testCheckin_Duplicate() throws SQLException {
+		StatementCache cache = new StatementCache(2, hits, misses);
+
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+
+		cache.checkin(new StatementCache.Key("SELECT 1"), st1);
+		cache.checkin(new StatementCache.Key("SELECT 1"), st2);
+
+		assertEquals(1, cache.size());
+		verify(st1, never()).close();
+		verify(st2).close();
+	}
+
+	@Test
+	public void testClear() throws SQLException {
+		StatementCache cache = new StatementCache(2, hits, misses);
+
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+
+		cache.checkin(new StatementCache.Key("SELECT 1"), st1);
+		cache.checkin(new StatementCache.Key("SELECT 2"), st2);
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		verify(st1).close();
+		verify(st2).close();
+	}
+}
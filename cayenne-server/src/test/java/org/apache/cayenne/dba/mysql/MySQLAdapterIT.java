@@ -19,15 +19,23 @@
 
 package org.apache.cayenne.dba.mysql;
 
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.access.types.ExtendedTypeFactory;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.resource.ResourceLocator;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
@@ -36,6 +44,23 @@ public class MySQLAdapterIT extends ServerCase {
     @Inject
     private AdhocObjectFactory objectFactory;
 
+    @Inject(Constants.SERVER_RESOURCE_LOCATOR)
+    private ResourceLocator resourceLocator;
+
+    @Test
+    public void testStreamingIteratedQueries() {
+
+        // streaming blocks other statements on the connection, so it is opt-in
+        MySQLAdapter adapter = objectFactory.newInstance(MySQLAdapter.class, MySQLAdapter.class.getName());
+        assertFalse(adapter.isStreamingIteratedQueries());
+
+        MySQLAdapter streamingAdapter = new MySQLAdapter(new DefaultRuntimeProperties(
+                Collections.singletonMap(Constants.SERVER_STREAMING_ITERATED_QUERIES_PROPERTY, "true")),
+                Collections.<ExtendedType> emptyList(), Collections.<ExtendedType> emptyList(),
+                Collections.<ExtendedTypeFactory> emptyList(), resourceLocator);
+        assertTrue(streamingAdapter.isStreamingIteratedQueries());
+    }
+
     @Test
     public void testCreateTableAppendPKClause() {
         MySQLAdapter adapter = objectFactory.newInstance(
@@ -0,0 +1,86 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.mysql;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MySQLSelectActionTest {
+
+    private DataNode dataNode;
+    private ObjEntity entity;
+
+    @Before
+    public void before() {
+        DataMap map = new DataMap("m");
+        map.addDbEntity(new DbEntity("T"));
+
+        entity = new ObjEntity("E");
+        entity.setDbEntityName("T");
+        map.addObjEntity(entity);
+
+        dataNode = mock(DataNode.class);
+        when(dataNode.getEntityResolver()).thenReturn(new EntityResolver(Collections.singleton(map)));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        MySQLSelectAction action = new MySQLSelectAction(new SelectQuery<Object>(entity), dataNode, true);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        action.startStreaming(mock(Connection.class), statement);
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testStreaming_ExplicitFetchSize() throws Exception {
+        SelectQuery<Object> query = new SelectQuery<Object>(entity);
+        query.setStatementFetchSize(50);
+        MySQLSelectAction action = new MySQLSelectAction(query, dataNode, true);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        action.startStreaming(mock(Connection.class), statement);
+        verify(statement, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testStreaming_Disabled() throws Exception {
+        MySQLSelectAction action = new MySQLSelectAction(new SelectQuery<Object>(entity), dataNode, false);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        action.startStreaming(mock(Connection.class), statement);
+        verify(statement, never()).setFetchSize(anyInt());
+    }
+}
@@ -0,0 +1,180 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.postgres;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.jdbc.RowDescriptor;
+import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.translator.batch.InsertBatchTranslator;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.dba.DefaultQuotingStrategy;
+import org.apache.cayenne.dba.JdbcAdapter;
+import org.apache.cayenne.log.NoopJdbcEventLogger;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.QueryMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostgresBatchActionTest {
+
+    private DataNode dataNode;
+    private DbEntity entity;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Before
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void before() throws Exception {
+        entity = new DbEntity("T");
+
+        DbAttribute id = new DbAttribute("ID", Types.INTEGER, entity);
+        id.setPrimaryKey(true);
+        id.setGenerated(true);
+        entity.addAttribute(id);
+        entity.addAttribute(new DbAttribute("NAME", Types.VARCHAR, entity));
+
+        JdbcAdapter adapter = mock(JdbcAdapter.class);
+        when(adapter.supportsGeneratedKeys()).thenReturn(true);
+        when(adapter.getMultiRowInsertParameterLimit()).thenReturn(32767);
+        when(adapter.getQuotingStrategy()).thenReturn(new DefaultQuotingStrategy("\"", "\""));
+        when(adapter.getExtendedTypes()).thenReturn(new ExtendedTypeMap());
+
+        DataRow key = new DataRow(1);
+        key.put("ID", 1);
+
+        RowReader rowReader = mock(RowReader.class);
+        when(rowReader.readRow(any(ResultSet.class))).thenReturn(key);
+
+        dataNode = mock(DataNode.class);
+        when(dataNode.getAdapter()).thenReturn(adapter);
+        when(dataNode.getJdbcEventLogger()).thenReturn(NoopJdbcEventLogger.getInstance());
+        when(dataNode.rowReader(any(RowDescriptor.class), any(QueryMetadata.class), anyMap())).thenReturn(
+                (RowReader) rowReader);
+
+        ResultSetMetaData keysMetaData = mock(ResultSetMetaData.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.getMetaData()).thenReturn(keysMetaData);
+        when(keys.next()).thenReturn(true, true, true, false);
+
+        statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(keys);
+
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    public void testGeneratedKeys_MultiRow() throws Exception {
+        InsertBatchQuery query = new InsertBatchQuery(entity, 3);
+        ObjectId id1 = new ObjectId("E");
+        ObjectId id2 = new ObjectId("E");
+        ObjectId id3 = new ObjectId("E");
+        query.add(Collections.<String, Object> singletonMap("NAME", "n1"), id1);
+        query.add(Collections.<String, Object> singletonMap("NAME", "n2"), id2);
+        query.add(Collections.<String, Object> singletonMap("NAME", "n3"), id3);
+
+        InsertBatchTranslator translator = new InsertBatchTranslator(query, dataNode.getAdapter());
+        when(dataNode.batchTranslator(query, null)).thenReturn(translator);
+
+        OperationObserver observer = mock(OperationObserver.class);
+        new PostgresBatchAction(query, dataNode, true, 0).performAction(connection, observer);
+
+        verify(connection).prepareStatement("INSERT INTO T (NAME) VALUES (?), (?), (?) RETURNING ID");
+        verify(connection, never()).prepareStatement(anyString(), anyInt());
+        verify(statement, never()).executeUpdate();
+        verify(statement, never()).executeBatch();
+        verify(observer).nextGeneratedRows(eq(query), any(ResultIterator.class), eq(id1));
+        verify(observer).nextGeneratedRows(eq(query), any(ResultIterator.class), eq(id2));
+        verify(observer).nextGeneratedRows(eq(query), any(ResultIterator.class), eq(id3));
+        verify(observer).nextBatchCount(query, new int[] { 1, 1, 1 });
+    }
+
+    @Test
+    public void testGeneratedKeys_SingleRow() throws Exception {
+        InsertBatchQuery query = new InsertBatchQuery(entity, 1);
+        ObjectId id1 = new ObjectId("E");
+        query.add(Collections.<String, Object> singletonMap("NAME", "n1"), id1);
+
+        InsertBatchTranslator translator = new InsertBatchTranslator(query, dataNode.getAdapter());
+        when(dataNode.batchTranslator(query, null)).thenReturn(translator);
+
+        OperationObserver observer = mock(OperationObserver.class);
+        new PostgresBatchAction(query, dataNode, true, 0).performAction(connection, observer);
+
+        verify(connection).prepareStatement("INSERT INTO T (NAME) VALUES (?) RETURNING ID");
+        verify(observer).nextGeneratedRows(eq(query), any(ResultIterator.class), eq(id1));
+    }
+
+    @Test
+    public void testCopy_FallbackToInserts() throws Exception {
+        InsertBatchQuery query = new InsertBatchQuery(entity, 2);
+        query.add(Collections.<String, Object> singletonMap("NAME", "n1"));
+        query.add(Collections.<String, Object> singletonMap("NAME", "n2"));
+        query.setBulkLoading(true);
+
+        // no generated keys, so COPY would be used if the driver supported it
+        when(dataNode.getAdapter().supportsGeneratedKeys()).thenReturn(false);
+        InsertBatchTranslator translator = new InsertBatchTranslator(query, dataNode.getAdapter());
+        when(dataNode.batchTranslator(query, null)).thenReturn(translator);
+
+        PostgresBatchAction action = new PostgresBatchAction(query, dataNode, true, 0);
+        assertTrue(action.isCopying());
+
+        action.performAction(connection, mock(OperationObserver.class));
+
+        verify(connection).prepareStatement("INSERT INTO T (ID, NAME) VALUES (?, ?), (?, ?)");
+        verify(statement).executeUpdate();
+    }
+
+    @Test
+    public void testIsCopying() throws Exception {
+        InsertBatchQuery query = new InsertBatchQuery(entity, 2);
+        query.add(Collections.<String, Object> singletonMap("NAME", "n1"));
+        query.add(Collections.<String, Object> singletonMap("NAME", "n2"));
+
+        assertFalse(new PostgresBatchAction(query, dataNode, true, 0).isCopying());
+        assertFalse(new PostgresBatchAction(query, dataNode, true, 3).isCopying());
+        assertTrue(new PostgresBatchAction(query, dataNode, true, 2).isCopying());
+    }
+}
@@ -0,0 +1,206 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.postgres;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.translator.batch.InsertBatchTranslator;
+import org.apache.cayenne.access.types.CharType;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.access.types.IntegerType;
+import org.apache.cayenne.access.types.LongType;
+import org.apache.cayenne.access.types.TimeType;
+import org.apache.cayenne.access.types.TimestampType;
+import org.apache.cayenne.access.types.UtilDateType;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.DefaultQuotingStrategy;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PostgresCopyActionTest {
+
+    private DataNode dataNode;
+    private DbEntity entity;
+    private ExtendedTypeMap types;
+
+    @Before
+    public void before() {
+        entity = new DbEntity("T");
+
+        DbAttribute id = new DbAttribute("ID", Types.INTEGER, entity);
+        id.setPrimaryKey(true);
+        entity.addAttribute(id);
+        entity.addAttribute(new DbAttribute("NAME", Types.VARCHAR, entity));
+
+        types = new ExtendedTypeMap();
+        types.registerType(new CharType(true, false));
+        types.registerType(new IntegerType());
+        types.registerType(new LongType());
+        types.registerType(new TimestampType());
+        types.registerType(new PostgresByteArrayType(true, true));
+
+        DbAdapter adapter = mock(DbAdapter.class);
+        when(adapter.getQuotingStrategy()).thenReturn(new DefaultQuotingStrategy("\"", "\""));
+        when(adapter.getExtendedTypes()).thenReturn(types);
+
+        dataNode = mock(DataNode.class);
+        when(dataNode.getAdapter()).thenReturn(adapter);
+    }
+
+    @Test
+    public void testCreateSql() {
+        InsertBatchQuery query = createQuery(row(1, "n1"));
+        assertEquals("COPY T (ID, NAME) FROM STDIN", createAction(query).createSql());
+    }
+
+    @Test
+    public void testRowReader() throws Exception {
+        InsertBatchQuery query = createQuery(row(1, "n1"), row(2, null), row(3, "a\tb\\c\nd"));
+        Reader reader = createAction(query).new RowReader();
+
+        StringBuilder data = new StringBuilder();
+        char[] buffer = new char[5];
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) >= 0) {
+            data.append(buffer, 0, read);
+        }
+
+        assertEquals("1\tn1\n2\t\\N\n3\ta\\tb\\\\c\\nd\n", data.toString());
+    }
+
+    @Test
+    public void testAppendValue() {
+        assertEquals("\\N", append(null, Types.VARCHAR));
+        assertEquals("a\\r\\n", append("a\r\n", Types.VARCHAR));
+        assertEquals("1000", append(new BigDecimal("1E+3"), Types.DECIMAL));
+        assertEquals("true", append(Boolean.TRUE, Types.BOOLEAN));
+        assertEquals("\\\\x00ff7f", append(new byte[] { 0, (byte) 0xFF, 0x7F }, Types.VARBINARY));
+
+        Calendar calendar = new GregorianCalendar(2016, Calendar.MARCH, 5, 10, 20, 30);
+        assertEquals("2016-03-05", append(calendar.getTime(), Types.DATE));
+        assertEquals("2016-03-05", append(new java.sql.Date(calendar.getTimeInMillis()), Types.DATE));
+    }
+
+    @Test
+    public void testAppendValue_TimestampOffset() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+
+            Calendar winter = new GregorianCalendar(2016, Calendar.MARCH, 5, 10, 20, 30);
+            assertEquals("2016-03-05 10:20:30.0-05:00", append(winter.getTime(), Types.TIMESTAMP));
+
+            Calendar summer = new GregorianCalendar(2016, Calendar.JULY, 5, 10, 20, 30);
+            Timestamp timestamp = new Timestamp(summer.getTimeInMillis());
+            timestamp.setNanos(123456000);
+            assertEquals("2016-07-05 10:20:30.123456-04:00", append(timestamp, Types.TIMESTAMP));
+
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+
+            Calendar calendar = new GregorianCalendar(2016, Calendar.MARCH, 5, 10, 20, 30);
+            assertEquals("2016-03-05 10:20:30.0+05:30", append(calendar.getTime(), Types.TIMESTAMP));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    public void testIsSupported() throws Exception {
+        Connection connection = mock(Connection.class);
+
+        // no PostgreSQL driver on the classpath
+        assertTrue(createAction(createQuery(row(1, "n1"))).isSupportedBatch());
+        assertFalse(createAction(createQuery(row(1, "n1"))).isSupported(connection));
+        assertFalse(createAction(createQuery()).isSupportedBatch());
+
+        assertTrue(PostgresCopyAction.isSupportedValue(types, null, Types.VARCHAR));
+        assertTrue(PostgresCopyAction.isSupportedValue(types, "a", Types.VARCHAR));
+        assertTrue(PostgresCopyAction.isSupportedValue(types, 5L, Types.BIGINT));
+        assertTrue(PostgresCopyAction.isSupportedValue(types, new java.sql.Timestamp(0), Types.TIMESTAMP));
+        assertTrue(PostgresCopyAction.isSupportedValue(types, new byte[1], Types.VARBINARY));
+        assertFalse(PostgresCopyAction.isSupportedValue(types, new byte[1], Types.BLOB));
+        assertFalse(PostgresCopyAction.isSupportedValue(types, new Object(), Types.OTHER));
+        assertFalse(PostgresCopyAction.isSupportedValue(types, Calendar.getInstance(), Types.TIMESTAMP));
+
+        // times are inserted, as the driver binds them with a date-dependent offset
+        types.registerType(new TimeType());
+        types.registerType(new UtilDateType());
+        assertFalse(PostgresCopyAction.isSupportedValue(types, new Time(0), Types.TIME));
+        assertFalse(PostgresCopyAction.isSupportedValue(types, new java.util.Date(0), Types.TIME));
+        assertTrue(PostgresCopyAction.isSupportedValue(types, new java.util.Date(0), Types.TIMESTAMP));
+    }
+
+    @Test
+    public void testIsSupported_CustomType() throws Exception {
+        ExtendedType customType = mock(ExtendedType.class);
+        when(customType.getClassName()).thenReturn(String.class.getName());
+        types.registerType(customType);
+
+        assertFalse(PostgresCopyAction.isSupportedValue(types, "a", Types.VARCHAR));
+        assertFalse(createAction(createQuery(row(1, "n1"))).isSupportedBatch());
+        assertTrue(createAction(createQuery(row(1, null))).isSupportedBatch());
+    }
+
+    private String append(Object value, int type) {
+        StringBuilder buffer = new StringBuilder();
+        PostgresCopyAction.appendValue(buffer, value, type);
+        return buffer.toString();
+    }
+
+    private PostgresCopyAction createAction(InsertBatchQuery query) {
+        return new PostgresCopyAction(query, dataNode, new InsertBatchTranslator(query, dataNode.getAdapter()));
+    }
+
+    private InsertBatchQuery createQuery(Map<String, Object>... rows) {
+        InsertBatchQuery query = new InsertBatchQuery(entity, rows.length);
+        for (Map<String, Object> row : rows) {
+            query.add(row);
+        }
+        return query;
+    }
+
+    private Map<String, Object> row(int id, String name) {
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("ID", id);
+        row.put("NAME", name);
+        return row;
+    }
+}
@@ -0,0 +1,108 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.ejbql;
+
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class EJBQLCompiledExpressionCacheIT extends ServerCase {
+
+    @Inject
+    protected ServerRuntime runtime;
+
+    @Test
+    public void testCompile() {
+        EntityResolver resolver = runtime.getDataDomain().getEntityResolver();
+        EJBQLCompiledExpressionCache cache = new EJBQLCompiledExpressionCache();
+
+        EJBQLCompiledExpression e1 = cache.compile("select a from Artist a", resolver);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        EJBQLCompiledExpression e2 = cache.compile("select a from Artist a", resolver);
+        assertSame(e1, e2);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        EJBQLCompiledExpression e3 = cache.compile("select p from Painting p", resolver);
+        assertNotSame(e1, e3);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCompile_Disabled() {
+        EntityResolver resolver = runtime.getDataDomain().getEntityResolver();
+        EJBQLCompiledExpressionCache cache = new EJBQLCompiledExpressionCache(0);
+
+        EJBQLCompiledExpression e1 = cache.compile("select a from Artist a", resolver);
+        EJBQLCompiledExpression e2 = cache.compile("select a from Artist a", resolver);
+        assertNotSame(e1, e2);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSetCapacity() {
+        EntityResolver resolver = runtime.getDataDomain().getEntityResolver();
+        EJBQLCompiledExpressionCache cache = new EJBQLCompiledExpressionCache();
+
+        cache.compile("select a from Artist a", resolver);
+        cache.compile("select p from Painting p", resolver);
+        assertEquals(2, cache.size());
+
+        cache.setCapacity(1);
+        assertEquals(1, cache.getCapacity());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testResolverCache_RefreshMappingCache() {
+        EntityResolver resolver = new EntityResolver(runtime.getDataDomain().getDataMaps());
+        EJBQLCompiledExpressionCache cache = resolver.getEjbqlCache();
+
+        EJBQLCompiledExpression e1 = new EJBQLQuery("select a from Artist a").getExpression(resolver);
+        EJBQLCompiledExpression e2 = new EJBQLQuery("select a from Artist a").getExpression(resolver);
+        assertSame(e1, e2);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        resolver.refreshMappingCache();
+        assertSame(cache, resolver.getEjbqlCache());
+        assertEquals(0, cache.size());
+
+        EJBQLCompiledExpression e3 = new EJBQLQuery("select a from Artist a").getExpression(resolver);
+        assertNotSame(e1, e3);
+        assertSame(resolver.getClassDescriptor("Artist"), e3.getRootDescriptor());
+        assertEquals(2, cache.getMisses());
+    }
+}
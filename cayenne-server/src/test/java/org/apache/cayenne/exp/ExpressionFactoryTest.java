@@ -20,6 +20,7 @@
 package org.apache.cayenne.exp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -461,4 +462,53 @@ public class ExpressionFactoryTest {
 		Expression e = ExpressionFactory.exp("k1 in ($ap, $bp)", "a", "b");
 		assertEquals("k1 in (\"a\", \"b\")", e.toString());
 	}
+
+	@Test
+	public void testExp_ParseCache() throws Exception {
+		long hits = ExpressionFactory.getParseCacheHits();
+
+		Expression e1 = ExpressionFactory.exp("k1 = $a and k2 = 'cached'", "x");
+		Expression e2 = ExpressionFactory.exp("k1 = $a and k2 = 'cached'", "y");
+
+		assertNotSame(e1, e2);
+		assertEquals(hits + 1, ExpressionFactory.getParseCacheHits());
+		assertEquals("(k1 = \"x\") and (k2 = \"cached\")", e1.toString());
+		assertEquals("(k1 = \"y\") and (k2 = \"cached\")", e2.toString());
+
+		// binding in place must not leak into the next call
+		Expression e3 = ExpressionFactory.exp("k1 = $a and k2 = 'cached'");
+		assertEquals("(k1 = $a) and (k2 = \"cached\")", e3.toString());
+	}
+
+	@Test
+	public void testExp_ParseCache_InParameter() throws Exception {
+		Expression e1 = ExpressionFactory.exp("k1 in $list", Arrays.asList("a", "b"));
+		Expression e2 = ExpressionFactory.exp("k1 in $list");
+
+		assertEquals("k1 in (\"a\", \"b\")", e1.toString());
+		assertEquals("k1 in $list", e2.toString());
+	}
+
+	@Test
+	public void testExp_ParseCacheDisabled() throws Exception {
+		int size = ExpressionFactory.getParseCacheSize();
+		ExpressionFactory.setParseCacheSize(0);
+		try {
+			assertEquals(0, ExpressionFactory.getParseCacheSize());
+
+			long hits = ExpressionFactory.getParseCacheHits();
+			ExpressionFactory.exp("k1 = 'nocache'");
+			ExpressionFactory.exp("k1 = 'nocache'");
+			assertEquals(hits, ExpressionFactory.getParseCacheHits());
+		} finally {
+			ExpressionFactory.setParseCacheSize(size);
+		}
+
+		assertEquals(size, ExpressionFactory.getParseCacheSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetParseCacheSize_Negative() throws Exception {
+		ExpressionFactory.setParseCacheSize(-1);
+	}
 }
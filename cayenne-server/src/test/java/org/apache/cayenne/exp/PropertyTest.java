@@ -19,6 +19,7 @@
 package org.apache.cayenne.exp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -216,4 +217,32 @@ public class PropertyTest {
 		assertEquals("prop like \"%a#_!bc%\"", e.toString());
 		assertEquals('#', ((PatternMatchNode) e).getEscapeChar());
 	}
+
+	@Test
+	public void testAggregates() {
+		Property<Integer> p = new Property<Integer>("x.y");
+
+		assertNull(p.getAggregate());
+		assertEquals(Property.Aggregate.COUNT, p.count().getAggregate());
+		assertEquals(Property.Aggregate.SUM, p.sum().getAggregate());
+		assertEquals(Property.Aggregate.MIN, p.min().getAggregate());
+		assertEquals(Property.Aggregate.MAX, p.max().getAggregate());
+		assertEquals(Property.Aggregate.AVG, p.avg().getAggregate());
+		assertEquals(Property.Aggregate.SUM, p.sumAsLong().getAggregate());
+		assertNull(p.sum().getAggregateType());
+		assertEquals(Long.class, p.sumAsLong().getAggregateType());
+		assertEquals(Long.class, p.count().getAggregateType());
+		assertEquals(Double.class, p.avg().getAggregateType());
+		assertFalse(p.sum().equals(p.sumAsLong()));
+		assertEquals("x.y", p.max().getName());
+
+		assertEquals(p.max(), p.max());
+		assertEquals(p.max().hashCode(), p.max().hashCode());
+		assertFalse(p.max().equals(p));
+		assertFalse(p.max().equals(p.min()));
+
+		assertNull(Property.COUNT.getName());
+		assertEquals(Property.Aggregate.COUNT, Property.COUNT.getAggregate());
+		assertFalse(Property.COUNT.equals(p.count()));
+	}
 }
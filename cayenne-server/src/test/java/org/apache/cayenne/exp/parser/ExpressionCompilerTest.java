@@ -0,0 +1,209 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cayenne.exp.CompiledExpression;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SortOrder;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.util.TstBean;
+import org.junit.Test;
+
+public class ExpressionCompilerTest {
+
+	private static final String[] PAINTING_EXPRESSIONS = { "estimatedPrice = 10", "estimatedPrice = 10.0",
+			"estimatedPrice != 10", "estimatedPrice > 5", "estimatedPrice >= 10", "estimatedPrice < 10",
+			"estimatedPrice <= 20.5", "estimatedPrice between 5 and 15", "estimatedPrice not between 5 and 15",
+			"estimatedPrice in (10, 20)", "estimatedPrice not in (10, 20)", "estimatedPrice + 1 > 11",
+			"paintingTitle = 'P1'", "paintingTitle != 'P1'", "'P1' = paintingTitle", "paintingTitle > 'P1'",
+			"paintingTitle <= 'P2'", "paintingTitle between 'P1' and 'P2'", "paintingTitle like 'P%'",
+			"paintingTitle likeIgnoreCase 'p%'", "paintingTitle not like 'P%'",
+			"paintingTitle not likeIgnoreCase '%1'", "paintingTitle in ('P1', 'P3')",
+			"paintingTitle not in ('P1', 'P3')", "paintingTitle in ('P1', 10)", "paintingTitle = null",
+			"paintingTitle != null", "paintingTitle = 5", "paintingTitle > 5", "toArtist.artistName = 'A1'",
+			"toArtist+.artistName = 'A1'", "toArtist.artistName like 'A%' and estimatedPrice > 1",
+			"not (paintingTitle = 'P1') or estimatedPrice < 11", "toArtist.paintingArray.paintingTitle = 'P1'",
+			"toArtist = null", "true", "false", "paintingTitle = $x", "estimatedPrice between 5 and $x",
+			"paintingTitle in $x" };
+
+	private static final String[] BEAN_EXPRESSIONS = { "property2 = 1", "property2 = 1.0", "property2 > 1",
+			"property2 >= 1L", "property2 in (1, 2.0)", "integer in (1, 2, 3)", "integer not in (1, 2, 3)",
+			"integer < 3", "integer between 1 and 3", "string = 'a'", "string like 'a%'",
+			"relatedBean.string = 'b'", "relatedBean.integer > 0 or string = 'a'", "collection in (1, 2)",
+			"collection.integer = 2", "noSuchProperty = 1" };
+
+	private static List<Painting> paintings() {
+		Artist a1 = new Artist();
+		a1.setArtistName("A1");
+
+		Artist a2 = new Artist();
+		a2.setArtistName("B2");
+
+		List<Painting> paintings = new ArrayList<Painting>();
+		paintings.add(painting("P1", "10", a1));
+		paintings.add(painting("P2", "20.00", a1));
+		paintings.add(painting("p3", "5.5", a2));
+		paintings.add(painting(null, null, null));
+		paintings.add(painting("P1", "10.0000001", null));
+
+		a1.writePropertyDirectly(Artist.PAINTING_ARRAY.getName(), paintings.subList(0, 2));
+		a2.writePropertyDirectly(Artist.PAINTING_ARRAY.getName(), paintings.subList(2, 3));
+		return paintings;
+	}
+
+	private static Painting painting(String title, String price, Artist artist) {
+		Painting p = new Painting();
+		p.setPaintingTitle(title);
+		p.setEstimatedPrice(price != null ? new BigDecimal(price) : null);
+		p.writePropertyDirectly(Painting.TO_ARTIST.getName(), artist);
+		return p;
+	}
+
+	private static List<TstBean> beans() {
+		TstBean b1 = new TstBean("a", 1);
+		b1.setProperty2(1);
+
+		TstBean b2 = new TstBean("b", 2);
+		b2.setProperty2(2);
+		b2.setRelatedBean(b1);
+
+		TstBean b3 = TstBean.testFixtureWithCollection("a", "c");
+		b3.setRelatedBean(new TstBean());
+
+		return Arrays.asList(b1, b2, b3, new TstBean());
+	}
+
+	@Test
+	public void testEvaluate_DataObjects() {
+		for (String exp : PAINTING_EXPRESSIONS) {
+			for (Painting p : paintings()) {
+				assertSameResult(ExpressionFactory.exp(exp), p);
+			}
+		}
+	}
+
+	@Test
+	public void testEvaluate_JavaBeans() {
+		for (String exp : BEAN_EXPRESSIONS) {
+			for (TstBean b : beans()) {
+				assertSameResult(ExpressionFactory.exp(exp), b);
+			}
+		}
+	}
+
+	@Test
+	public void testEvaluate_ConstructedNodes() {
+		Expression[] expressions = {
+				new ASTEqual(new ASTObjPath(Painting.ESTIMATED_PRICE.getName()), new BigDecimal("10.00")),
+				new ASTIn(new ASTObjPath(Painting.ESTIMATED_PRICE.getName()), new ASTList(new Object[] {
+						new BigDecimal("10"), new BigDecimal("20") })),
+				new ASTNotIn(new ASTObjPath(Painting.ESTIMATED_PRICE.getName()), new ASTList(new Object[] {
+						new BigDecimal("10"), null })), new ASTAnd(), new ASTOr(), new ASTEqual(),
+				new ASTIn(new ASTObjPath(Painting.PAINTING_TITLE.getName()), new ASTList(new Object[0])),
+				new ASTObjPath("toArtist.artistName"), new ASTObjPath("toArtist..artistName") };
+
+		for (Expression exp : expressions) {
+			for (Painting p : paintings()) {
+				assertSameResult(exp, p);
+			}
+		}
+	}
+
+	@Test
+	public void testEvaluate_Null() {
+		assertSameResult(ExpressionFactory.exp("a = null"), null);
+		assertSameResult(ExpressionFactory.exp("a.b in (1, 2)"), null);
+	}
+
+	@Test
+	public void testCompile() {
+		CompiledExpression compiled = ExpressionFactory.exp("paintingTitle like 'P%'").compile();
+		assertTrue(compiled instanceof ExpressionCompiler.CompiledTree);
+
+		List<Painting> paintings = paintings();
+		assertEquals(Arrays.asList(paintings.get(0), paintings.get(1), paintings.get(4)),
+				compiled.filterObjects(paintings));
+		assertSame(paintings.get(0), compiled.first(paintings));
+	}
+
+	@Test
+	public void testOrdering() {
+		List<Painting> paintings = paintings();
+		List<Painting> sorted = new ArrayList<Painting>(paintings);
+
+		// nulls go first regardless of the sort order
+		new Ordering("toArtist.artistName", SortOrder.DESCENDING).orderList(sorted);
+		assertEquals(Arrays.asList(paintings.get(3), paintings.get(4), paintings.get(2), paintings.get(0),
+				paintings.get(1)), sorted);
+	}
+
+	private static void assertSameResult(Expression exp, Object o) {
+		Object expected;
+		try {
+			expected = exp.evaluate(o);
+		} catch (ExpressionException e) {
+			expected = e;
+		}
+
+		Object actual;
+		try {
+			actual = exp.compile().evaluate(o);
+		} catch (ExpressionException e) {
+			actual = e;
+		}
+
+		String message = exp + " on " + o;
+		if (expected instanceof ExpressionException) {
+			assertTrue(message, actual instanceof ExpressionException);
+
+			ExpressionException expectedException = (ExpressionException) expected;
+			ExpressionException actualException = (ExpressionException) actual;
+			assertEquals(message, expectedException.getMessage(), actualException.getMessage());
+			assertNotNull(message, actualException.getCause());
+			assertEquals(message, expectedException.getCause().getClass(), actualException.getCause().getClass());
+		} else {
+			assertFalse(message, actual instanceof ExpressionException);
+			assertEquals(message, expected, actual);
+		}
+
+		boolean expectedMatch;
+		try {
+			expectedMatch = exp.match(o);
+		} catch (ExpressionException e) {
+			return;
+		}
+
+		assertEquals(message, expectedMatch, exp.compile().match(o));
+	}
+}
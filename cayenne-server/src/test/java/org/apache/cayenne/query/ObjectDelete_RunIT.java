@@ -0,0 +1,96 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class ObjectDelete_RunIT extends ServerCase {
+
+	@Inject
+	private DataContext context;
+
+	@Inject
+	private DBHelper dbHelper;
+
+	protected void createPaintingsDataSet() throws Exception {
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+		tArtist.insert(1, "artist1");
+		tArtist.insert(2, "artist2");
+
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE", "ESTIMATED_PRICE");
+		for (int i = 1; i <= 10; i++) {
+			tPainting.insert(i, i % 2 + 1, "p" + i, new BigDecimal(i * 10));
+		}
+	}
+
+	@Test
+	public void test_Delete() throws Exception {
+		createPaintingsDataSet();
+
+		int deleted = ObjectDelete.query(Painting.class).where(Painting.ESTIMATED_PRICE.lt(new BigDecimal(45)))
+				.or(Painting.PAINTING_TITLE.eq("p10")).delete(context);
+		assertEquals(5, deleted);
+		assertEquals(5, ObjectSelect.query(Painting.class).selectCount(context));
+	}
+
+	@Test
+	public void test_Delete_ToOneQualifier() throws Exception {
+		createPaintingsDataSet();
+
+		Artist artist = Cayenne.objectForPK(context, Artist.class, 2);
+		assertEquals(5, ObjectDelete.query(Painting.class, Painting.TO_ARTIST.eq(artist)).delete(context));
+		assertEquals(5, ObjectSelect.query(Painting.class).selectCount(context));
+	}
+
+	@Test
+	public void test_Delete_All() throws Exception {
+		createPaintingsDataSet();
+
+		Painting painting = Cayenne.objectForPK(context, Painting.class, 3);
+		assertEquals(PersistenceState.COMMITTED, painting.getPersistenceState());
+
+		assertEquals(10, ObjectDelete.query(Painting.class).delete(context));
+		assertEquals(0, ObjectSelect.query(Painting.class).selectCount(context));
+		assertEquals(PersistenceState.HOLLOW, painting.getPersistenceState());
+	}
+
+	@Test(expected = CayenneRuntimeException.class)
+	public void test_Delete_RelationshipPath() throws Exception {
+		ObjectDelete.query(Painting.class, Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).eq("artist2")).delete(context);
+	}
+}
@@ -428,4 +428,24 @@ public class ObjectSelectTest {
 		assertSame(QueryCacheStrategy.SHARED_CACHE, q.getCacheStrategy());
 		assertNull(q.getCacheGroups());
 	}
+
+	@Test
+	public void testColumns() {
+		ObjectSelect<Artist> q = ObjectSelect.query(Artist.class);
+		assertNull(q.getColumns());
+		assertFalse(q.isDistinct());
+
+		ObjectSelect<Object[]> q1 = q.columns(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH);
+		assertSame(q, q1);
+		assertEquals(Arrays.asList(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH), q1.getColumns());
+
+		ObjectSelect<String> q2 = q.column(Artist.ARTIST_NAME).distinct();
+		assertEquals(Collections.singletonList(Artist.ARTIST_NAME), q2.getColumns());
+		assertTrue(q2.isDistinct());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testColumns_Empty() {
+		ObjectSelect.query(Artist.class).columns();
+	}
 }
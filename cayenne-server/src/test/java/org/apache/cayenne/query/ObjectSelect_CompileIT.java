@@ -22,6 +22,7 @@ import org.apache.cayenne.CayenneDataObject;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.testdo.testmap.Artist;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
@@ -166,4 +167,50 @@ public class ObjectSelect_CompileIT extends ServerCase {
 		SelectQuery selectQuery2 = (SelectQuery) q.createReplacementQuery(resolver);
 		assertTrue(selectQuery2.isFetchingDataRows());
 	}
+
+	@Test
+	public void testCreateReplacementQuery_PageAfter() {
+		ObjectSelect<Artist> q = ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.like("a%"))
+				.orderBy(Artist.ARTIST_NAME.desc()).pageAfter("a5", 5);
+
+		@SuppressWarnings("rawtypes")
+		SelectQuery selectQuery = (SelectQuery) q.createReplacementQuery(resolver);
+		assertEquals(ExpressionFactory.exp("artistName like 'a%' and artistName <= 'a5' "
+				+ "and (artistName < 'a5' or (artistName = 'a5' and db:ARTIST_ID > 5))"), selectQuery.getQualifier());
+		assertEquals(2, selectQuery.getOrderings().size());
+		assertEquals("db:ARTIST_ID", ((Ordering) selectQuery.getOrderings().get(1)).getSortSpecString());
+	}
+
+	@Test
+	public void testCreateReplacementQuery_PageAfter_NoTieBreaker() {
+		ObjectSelect<Artist> q = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).pageAfter("a5");
+
+		@SuppressWarnings("rawtypes")
+		SelectQuery selectQuery = (SelectQuery) q.createReplacementQuery(resolver);
+		assertEquals(ExpressionFactory.exp("artistName > 'a5'"), selectQuery.getQualifier());
+		assertEquals(1, selectQuery.getOrderings().size());
+	}
+
+	@Test
+	public void testCreateReplacementQuery_Keyset() {
+		ObjectSelect<Artist> q = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.desc()).keyset();
+
+		@SuppressWarnings("rawtypes")
+		SelectQuery selectQuery = (SelectQuery) q.createReplacementQuery(resolver);
+		assertNull(selectQuery.getQualifier());
+		assertEquals(2, selectQuery.getOrderings().size());
+		assertEquals("db:ARTIST_ID", ((Ordering) selectQuery.getOrderings().get(1)).getSortSpecString());
+	}
+
+	@Test(expected = CayenneRuntimeException.class)
+	public void testCreateReplacementQuery_PageAfter_WrongValueCount() {
+		ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).pageAfter("a5", 1, 2)
+				.createReplacementQuery(resolver);
+	}
+
+	@Test(expected = CayenneRuntimeException.class)
+	public void testCreateReplacementQuery_PageAfter_CaseInsensitive() {
+		ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.ascInsensitive()).pageAfter("a5")
+				.createReplacementQuery(resolver);
+	}
 }
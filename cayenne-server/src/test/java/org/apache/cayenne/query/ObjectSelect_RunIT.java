@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.query;
 
+import org.apache.cayenne.Cayenne;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ResultBatchIterator;
@@ -25,14 +26,19 @@ import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.test.jdbc.DBHelper;
 import org.apache.cayenne.test.jdbc.TableHelper;
 import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -40,6 +46,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
 public class ObjectSelect_RunIT extends ServerCase {
@@ -199,4 +206,200 @@ public class ObjectSelect_RunIT extends ServerCase {
 		assertNotNull(a);
 		assertEquals("artist1", a.getArtistName());
 	}
+
+	@Test
+	public void test_After() throws Exception {
+		createArtistsDataSet();
+
+		// duplicate ordering values that span page boundaries
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+		for (int i = 21; i <= 27; i++) {
+			tArtist.insert(i, "artist5");
+		}
+
+		// walk all artists in pages of 3, using the last object of each page
+		// to fetch the next one
+		List<Artist> all = new ArrayList<Artist>();
+		List<Artist> page = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.desc()).keyset().limit(3)
+				.select(context);
+
+		while (!page.isEmpty()) {
+			all.addAll(page);
+			page = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.desc()).limit(3)
+					.after(page.get(page.size() - 1)).select(context);
+		}
+
+		assertEquals(27, all.size());
+		assertEquals(27, new HashSet<Artist>(all).size());
+		for (int i = 1; i < all.size(); i++) {
+			int order = all.get(i - 1).getArtistName().compareTo(all.get(i).getArtistName());
+			assertTrue(order >= 0);
+
+			if (order == 0) {
+				assertTrue(Cayenne.intPKForObject(all.get(i - 1)) < Cayenne.intPKForObject(all.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void test_PageAfter() throws Exception {
+		createArtistsDataSet();
+
+		List<Artist> page = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc())
+				.pageAfter("artist7").select(context);
+
+		assertEquals(2, page.size());
+		assertEquals("artist8", page.get(0).getArtistName());
+		assertEquals("artist9", page.get(1).getArtistName());
+	}
+
+	@Test
+	public void test_SelectColumn() throws Exception {
+		createArtistsDataSet();
+
+		List<String> names = ObjectSelect.query(Artist.class).column(Artist.ARTIST_NAME)
+				.orderBy(Artist.ARTIST_NAME.asc()).select(context);
+
+		assertEquals(20, names.size());
+		assertEquals("artist1", names.get(0));
+		assertEquals("artist10", names.get(1));
+
+		String name = ObjectSelect.query(Artist.class).column(Artist.ARTIST_NAME)
+				.where(Artist.ARTIST_NAME.eq("artist14")).selectOne(context);
+		assertEquals("artist14", name);
+	}
+
+	@Test
+	public void test_SelectColumns() throws Exception {
+		createArtistsDataSet();
+
+		List<Object[]> rows = ObjectSelect.query(Artist.class).columns(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH)
+				.where(Artist.ARTIST_NAME.like("artist1%")).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+
+		assertEquals(11, rows.size());
+		assertEquals(2, rows.get(0).length);
+		assertEquals("artist1", rows.get(0)[0]);
+		assertThat(rows.get(0)[1], instanceOf(java.util.Date.class));
+	}
+
+	@Test
+	public void test_SelectColumn_RelatedPath() throws Exception {
+		createArtistsDataSet();
+
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE");
+		tPainting.insert(1, 2, "p1");
+		tPainting.insert(2, 2, "p2");
+		tPainting.insert(3, 5, "p3");
+
+		List<String> titles = ObjectSelect.query(Artist.class)
+				.column(Artist.PAINTING_ARRAY.dot(Painting.PAINTING_TITLE))
+				.where(Artist.ARTIST_NAME.eq("artist2")).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+		assertEquals(2, titles.size());
+		assertTrue(titles.contains("p1"));
+		assertTrue(titles.contains("p2"));
+
+		List<String> names = ObjectSelect.query(Artist.class).column(Artist.ARTIST_NAME)
+				.where(Artist.PAINTING_ARRAY.dot(Painting.PAINTING_TITLE).isNotNull())
+				.distinct().orderBy(Artist.ARTIST_NAME.asc()).select(context);
+		assertEquals(2, names.size());
+		assertEquals("artist2", names.get(0));
+		assertEquals("artist5", names.get(1));
+	}
+
+	@Test
+	public void test_SelectColumn_Iterator() throws Exception {
+		createArtistsDataSet();
+
+		ResultIterator<String> it = ObjectSelect.query(Artist.class).column(Artist.ARTIST_NAME).iterator(context);
+		try {
+			int count = 0;
+			for (String name : it) {
+				assertTrue(name.startsWith("artist"));
+				count++;
+			}
+			assertEquals(20, count);
+		} finally {
+			it.close();
+		}
+	}
+
+	@Test(expected = CayenneRuntimeException.class)
+	public void test_SelectColumn_NotAnAttribute() throws Exception {
+		ObjectSelect.query(Artist.class).column(Artist.PAINTING_ARRAY).select(context);
+	}
+
+	protected void createPaintingsDataSet() throws Exception {
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE", "ESTIMATED_PRICE");
+		tPainting.insert(1, 2, "p1", new BigDecimal("10.00"));
+		tPainting.insert(2, 2, "p2", new BigDecimal("20.00"));
+		tPainting.insert(3, 5, "p3", new BigDecimal("30.00"));
+	}
+
+	@Test
+	public void test_SelectCount() throws Exception {
+		createArtistsDataSet();
+
+		assertEquals(20, ObjectSelect.query(Artist.class).selectCount(context));
+		assertEquals(11, ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.like("artist1%"))
+				.orderBy(Artist.ARTIST_NAME.asc()).limit(2).selectCount(context));
+	}
+
+	@Test
+	public void test_SelectCount_ToManyQualifier() throws Exception {
+		createArtistsDataSet();
+		createPaintingsDataSet();
+
+		assertEquals(2, ObjectSelect.query(Artist.class)
+				.where(Artist.PAINTING_ARRAY.dot(Painting.PAINTING_TITLE).like("p%")).selectCount(context));
+	}
+
+	@Test
+	public void test_SelectCount_Cached() throws Exception {
+		createArtistsDataSet();
+
+		ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).localCache("artists");
+		assertEquals(20, query.selectCount(context));
+
+		dbHelper.deleteAll("ARTIST");
+		assertEquals(20, query.selectCount(context));
+		assertEquals(0, ObjectSelect.query(Artist.class).selectCount(context));
+	}
+
+	@Test
+	public void test_SelectAggregates() throws Exception {
+		createArtistsDataSet();
+		createPaintingsDataSet();
+
+		Object[] result = ObjectSelect.query(Painting.class)
+				.columns(Property.COUNT, Painting.ESTIMATED_PRICE.min(), Painting.ESTIMATED_PRICE.max(),
+						Painting.ESTIMATED_PRICE.sum(), Painting.PAINTING_TITLE.count())
+				.selectOne(context);
+
+		assertEquals(3L, result[0]);
+		assertEquals(0, new BigDecimal("10").compareTo((BigDecimal) result[1]));
+		assertEquals(0, new BigDecimal("30").compareTo((BigDecimal) result[2]));
+		assertEquals(0, new BigDecimal("60").compareTo((BigDecimal) result[3]));
+		assertEquals(3L, result[4]);
+	}
+
+	@Test
+	public void test_SelectAggregates_GroupBy() throws Exception {
+		createArtistsDataSet();
+		createPaintingsDataSet();
+
+		List<Object[]> rows = ObjectSelect.query(Painting.class)
+				.columns(Painting.TO_ARTIST.dot(Artist.ARTIST_NAME), Property.COUNT, Painting.ESTIMATED_PRICE.sum())
+				.orderBy(Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).asc()).select(context);
+
+		assertEquals(2, rows.size());
+		assertEquals("artist2", rows.get(0)[0]);
+		assertEquals(2L, rows.get(0)[1]);
+		assertEquals(0, new BigDecimal("30").compareTo((BigDecimal) rows.get(0)[2]));
+		assertEquals("artist5", rows.get(1)[0]);
+		assertEquals(1L, rows.get(1)[1]);
+		assertEquals(0, new BigDecimal("30").compareTo((BigDecimal) rows.get(1)[2]));
+	}
 }
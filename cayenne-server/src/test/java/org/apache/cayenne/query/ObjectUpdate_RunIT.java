@@ -0,0 +1,157 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class ObjectUpdate_RunIT extends ServerCase {
+
+	@Inject
+	private DataContext context;
+
+	@Inject
+	private DataContext context2;
+
+	@Inject
+	private DBHelper dbHelper;
+
+	protected void createArtistsDataSet() throws Exception {
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+
+		for (int i = 1; i <= 20; i++) {
+			tArtist.insert(i, "artist" + i);
+		}
+
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE", "ESTIMATED_PRICE");
+		tPainting.insert(1, 2, "p1", new BigDecimal("10.00"));
+		tPainting.insert(2, 2, "p2", new BigDecimal("20.00"));
+		tPainting.insert(3, 5, "p3", new BigDecimal("30.00"));
+	}
+
+	@Test
+	public void test_Update() throws Exception {
+		createArtistsDataSet();
+
+		int updated = ObjectUpdate.query(Artist.class).where(Artist.ARTIST_NAME.like("artist1%"))
+				.set(Artist.ARTIST_NAME, "updated").update(context);
+		assertEquals(11, updated);
+
+		assertEquals(11, ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("updated"))
+				.selectCount(context));
+		assertEquals(9, ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.like("artist%"))
+				.selectCount(context));
+	}
+
+	@Test
+	public void test_Update_NoQualifier() throws Exception {
+		createArtistsDataSet();
+
+		int updated = ObjectUpdate.query(Painting.class).set(Painting.ESTIMATED_PRICE, new BigDecimal("5.00"))
+				.set(Painting.PAINTING_DESCRIPTION, null).update(context);
+		assertEquals(3, updated);
+
+		List<BigDecimal> prices = ObjectSelect.query(Painting.class).column(Painting.ESTIMATED_PRICE)
+				.select(context);
+		assertEquals(3, prices.size());
+		for (BigDecimal price : prices) {
+			assertEquals(0, new BigDecimal("5").compareTo(price));
+		}
+	}
+
+	@Test
+	public void test_Update_ToOne() throws Exception {
+		createArtistsDataSet();
+
+		Artist artist = Cayenne.objectForPK(context, Artist.class, 7);
+		int updated = ObjectUpdate.query(Painting.class, Painting.TO_ARTIST.eq(Cayenne.objectForPK(context,
+				Artist.class, 2))).set(Painting.TO_ARTIST, artist).update(context);
+		assertEquals(2, updated);
+
+		assertEquals(2, ObjectSelect.query(Painting.class).where(Painting.TO_ARTIST.eq(artist)).selectCount(context));
+	}
+
+	@Test
+	public void test_Update_InvalidatesObjects() throws Exception {
+		createArtistsDataSet();
+
+		Artist a1 = Cayenne.objectForPK(context, Artist.class, 3);
+		Artist a2 = Cayenne.objectForPK(context2, Artist.class, 3);
+		assertEquals("artist3", a1.getArtistName());
+		assertEquals("artist3", a2.getArtistName());
+
+		ObjectUpdate.query(Artist.class, Artist.ARTIST_NAME.eq("artist3")).set(Artist.ARTIST_NAME, "X")
+				.update(context);
+
+		// the peer context is notified via a snapshot event, and can't use the
+		// stale snapshot in the meantime
+		assertNull(context.getParentDataDomain().getSharedSnapshotCache().getCachedSnapshot(a2.getObjectId()));
+
+		assertEquals(PersistenceState.HOLLOW, a1.getPersistenceState());
+		assertEquals("X", a1.getArtistName());
+	}
+
+	@Test
+	public void test_Update_CacheGroups() throws Exception {
+		createArtistsDataSet();
+
+		ObjectSelect<String> names = ObjectSelect.query(Artist.class).column(Artist.ARTIST_NAME)
+				.where(Artist.ARTIST_NAME.eq("artist4")).sharedCache("artists");
+		assertEquals(1, names.select(context).size());
+
+		ObjectUpdate.query(Artist.class, Artist.ARTIST_NAME.eq("artist4")).set(Artist.ARTIST_NAME, "Y")
+				.update(context);
+		assertEquals(1, names.select(context).size());
+
+		ObjectUpdate.query(Artist.class, Artist.ARTIST_NAME.eq("artist5")).set(Artist.ARTIST_NAME, "Z")
+				.cacheGroups("artists").update(context);
+		assertEquals(0, names.select(context).size());
+	}
+
+	@Test
+	public void test_Update_Parameters() throws Exception {
+		createArtistsDataSet();
+
+		ObjectUpdate<Artist> query = ObjectUpdate.query(Artist.class, Artist.ARTIST_NAME.in("artist1", "artist2"))
+				.set(Artist.ARTIST_NAME, "A");
+		assertEquals(2, query.update(context));
+		assertSame(query, query.set(Artist.ARTIST_NAME, "B"));
+		assertEquals(0, query.update(context));
+	}
+}
@@ -222,6 +222,65 @@ public class VelocitySQLTemplateProcessorTest {
 		assertBindingValue("c", compiled.getBindings()[2]);
 	}
 
+	@Test
+	public void testTemplateCache() throws Exception {
+		String sqlTemplate = "SELECT * FROM ME WHERE COLUMN1 = #bind($a 'VARCHAR')";
+
+		SQLStatement compiled1 = processor.processTemplate(sqlTemplate,
+				Collections.<String, Object> singletonMap("a", "A1"));
+		assertEquals(0, processor.getCacheHits());
+		assertEquals(1, processor.getCacheMisses());
+		assertEquals(1, processor.getCacheSize());
+
+		SQLStatement compiled2 = processor.processTemplate(sqlTemplate,
+				Collections.<String, Object> singletonMap("a", "A2"));
+		assertEquals(1, processor.getCacheHits());
+		assertEquals(1, processor.getCacheMisses());
+
+		assertEquals("SELECT * FROM ME WHERE COLUMN1 = ?", compiled1.getSql());
+		assertEquals("SELECT * FROM ME WHERE COLUMN1 = ?", compiled2.getSql());
+		assertBindingValue("A1", compiled1.getBindings()[0]);
+		assertBindingValue("A2", compiled2.getBindings()[0]);
+
+		processor.clearCache();
+		assertEquals(0, processor.getCacheSize());
+	}
+
+	@Test
+	public void testTemplateCache_Positional() throws Exception {
+		String sqlTemplate = "SELECT * FROM ME WHERE COLUMN1 = #bind($a) AND COLUMN2 = #bind($b)";
+
+		SQLStatement compiled1 = processor.processTemplate(sqlTemplate, Arrays.<Object> asList("A1", "B1"));
+		SQLStatement compiled2 = processor.processTemplate(sqlTemplate, Arrays.<Object> asList("A2", "B2"));
+		assertEquals(1, processor.getCacheHits());
+
+		assertBindingValue("B1", compiled1.getBindings()[1]);
+		assertBindingValue("B2", compiled2.getBindings()[1]);
+	}
+
+	@Test
+	public void testTemplateCache_Bounded() throws Exception {
+		VelocitySQLTemplateProcessor processor = new VelocitySQLTemplateProcessor(2);
+		Map<String, Object> empty = Collections.<String, Object> emptyMap();
+
+		processor.processTemplate("SELECT 1", empty);
+		processor.processTemplate("SELECT 2", empty);
+		processor.processTemplate("SELECT 3", empty);
+		assertEquals(2, processor.getCacheSize());
+	}
+
+	@Test
+	public void testTemplateCache_Disabled() throws Exception {
+		VelocitySQLTemplateProcessor processor = new VelocitySQLTemplateProcessor(0);
+		Map<String, Object> empty = Collections.<String, Object> emptyMap();
+
+		processor.processTemplate("SELECT 1", empty);
+		assertEquals("SELECT 1", processor.processTemplate("SELECT 1", empty).getSql());
+		assertEquals(0, processor.getCacheSize());
+		assertEquals(0, processor.getCacheHits());
+		assertEquals(2, processor.getCacheMisses());
+	}
+
 	private void assertBindingValue(Object expectedValue, Object binding) {
 		assertTrue("Not a binding!", binding instanceof SQLParameterBinding);
 		assertEquals(expectedValue, ((SQLParameterBinding) binding).getValue());